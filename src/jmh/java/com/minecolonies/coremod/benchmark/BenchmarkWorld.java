@@ -0,0 +1,515 @@
+package com.minecolonies.coremod.benchmark;
+
+import com.minecolonies.coremod.util.BlockPosUtil;
+import com.minecolonies.coremod.util.StructureWrapper;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Bootstrap;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTUtil;
+import net.minecraft.profiler.Profiler;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.DimensionType;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraft.world.chunk.IChunkProvider;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import net.minecraft.world.storage.WorldInfo;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * An in-memory world for the benchmarks, without a server, a save handler or lighting.
+ * <p>
+ * Blocks are written straight into the chunk sections, so generating a terrain costs no block updates.
+ * Terrains, colonies and structures are generated from the seed of the world, so every run sees the same data.
+ */
+public class BenchmarkWorld extends World
+{
+    /**
+     * Height of the ground surface.
+     */
+    public static final int GROUND = 64;
+
+    /**
+     * Height of the wall blocks of a maze.
+     */
+    private static final int MAZE_WALL_HEIGHT = 3;
+
+    /**
+     * Side of a maze cell, including one wall.
+     */
+    private static final int MAZE_CELL = 3;
+
+    /**
+     * Depth of the cave tunnels below the ground.
+     */
+    private static final int CAVE_DEPTH = 12;
+
+    /**
+     * Number of dead end tunnels branching off the cave path.
+     */
+    private static final int CAVE_BRANCHES = 16;
+
+    /**
+     * Chance for an obstacle on a block of open terrain.
+     */
+    private static final double OBSTACLE_CHANCE = 0.05D;
+
+    /**
+     * Chance for a cave tunnel to step towards its end.
+     */
+    private static final double TUNNEL_DIRECTNESS = 0.6D;
+
+    private static final int CHUNK_SHIFT = 4;
+    private static final int CHUNK_MASK  = 15;
+    private static final int MAX_HEIGHT  = 256;
+
+    static
+    {
+        Bootstrap.register();
+    }
+
+    /**
+     * The chunks by chunk coordinates.
+     */
+    @NotNull
+    private final Map<Long, Chunk> chunks = new HashMap<>();
+
+    /**
+     * Seed of the generated data.
+     */
+    private final long seed;
+
+    /**
+     * Where the generated path starts and ends.
+     */
+    private BlockPos start = BlockPos.ORIGIN;
+    private BlockPos end   = BlockPos.ORIGIN;
+
+    /**
+     * Create an empty world.
+     *
+     * @param seed the seed of the generated data.
+     */
+    public BenchmarkWorld(final long seed)
+    {
+        super(null, createWorldInfo(seed), DimensionType.OVERWORLD.createDimension(), new Profiler(), false);
+        this.seed = seed;
+        this.chunkProvider = createChunkProvider();
+    }
+
+    /**
+     * Create the world info of a world.
+     *
+     * @param seed the seed.
+     * @return the world info.
+     */
+    @NotNull
+    private static WorldInfo createWorldInfo(final long seed)
+    {
+        @NotNull final NBTTagCompound compound = new NBTTagCompound();
+        compound.setLong("RandomSeed", seed);
+        compound.setString("LevelName", "benchmark");
+        return new WorldInfo(compound);
+    }
+
+    @NotNull
+    @Override
+    protected IChunkProvider createChunkProvider()
+    {
+        return new IChunkProvider()
+        {
+            @Nullable
+            @Override
+            public Chunk getLoadedChunk(final int x, final int z)
+            {
+                return chunks.get(getChunkKey(x, z));
+            }
+
+            @NotNull
+            @Override
+            public Chunk provideChunk(final int x, final int z)
+            {
+                return chunks.computeIfAbsent(getChunkKey(x, z), key -> new Chunk(BenchmarkWorld.this, x, z));
+            }
+
+            @Override
+            public boolean unloadQueuedChunks()
+            {
+                return false;
+            }
+
+            @NotNull
+            @Override
+            public String makeString()
+            {
+                return "BenchmarkChunkProvider: " + chunks.size();
+            }
+        };
+    }
+
+    @Override
+    protected boolean isChunkLoaded(final int x, final int z, final boolean allowEmpty)
+    {
+        return chunks.containsKey(getChunkKey(x, z));
+    }
+
+    /**
+     * Get the key of a chunk.
+     *
+     * @param x the chunk x.
+     * @param z the chunk z.
+     * @return the key.
+     */
+    private static long getChunkKey(final int x, final int z)
+    {
+        return ((long) x << Integer.SIZE) | (z & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Set a block without updates or lighting.
+     *
+     * @param pos   the position.
+     * @param state the block.
+     */
+    public void setBlock(@NotNull final BlockPos pos, @NotNull final IBlockState state)
+    {
+        if (pos.getY() < 0 || pos.getY() >= MAX_HEIGHT)
+        {
+            return;
+        }
+
+        final Chunk chunk = chunkProvider.provideChunk(pos.getX() >> CHUNK_SHIFT, pos.getZ() >> CHUNK_SHIFT);
+        final ExtendedBlockStorage[] storageArray = chunk.getBlockStorageArray();
+        final int sectionY = pos.getY() >> CHUNK_SHIFT;
+        if (storageArray[sectionY] == null)
+        {
+            storageArray[sectionY] = new ExtendedBlockStorage(sectionY << CHUNK_SHIFT, true);
+        }
+        storageArray[sectionY].set(pos.getX() & CHUNK_MASK, pos.getY() & CHUNK_MASK, pos.getZ() & CHUNK_MASK, state);
+    }
+
+    /**
+     * Fill a box without updates or lighting.
+     *
+     * @param from  a corner of the box.
+     * @param to    the opposite corner of the box.
+     * @param state the block.
+     */
+    public void fill(@NotNull final BlockPos from, @NotNull final BlockPos to, @NotNull final IBlockState state)
+    {
+        for (@NotNull final BlockPos pos : BlockPos.getAllInBoxMutable(from, to))
+        {
+            setBlock(pos, state);
+        }
+    }
+
+    /**
+     * Get the start of the path through the generated terrain.
+     *
+     * @return the position to stand on.
+     */
+    @NotNull
+    public BlockPos getStart()
+    {
+        return start;
+    }
+
+    /**
+     * Get the end of the path through the generated terrain.
+     *
+     * @return the position to stand on.
+     */
+    @NotNull
+    public BlockPos getEnd()
+    {
+        return end;
+    }
+
+    /**
+     * Generate a terrain on the square from the origin to size in x and z.
+     *
+     * @param terrain the kind of terrain.
+     * @param size    the side of the square.
+     */
+    public void generate(@NotNull final Terrain terrain, final int size)
+    {
+        final Random random = new Random(seed);
+        fill(new BlockPos(0, 0, 0), new BlockPos(size - 1, GROUND - 1, size - 1), Blocks.STONE.getDefaultState());
+        fill(new BlockPos(0, GROUND, 0), new BlockPos(size - 1, GROUND, size - 1), Blocks.GRASS.getDefaultState());
+
+        switch (terrain)
+        {
+            case MAZE:
+                generateMaze(random, size);
+                break;
+            case CAVE:
+                generateCave(random, size);
+                break;
+            default:
+                generateOpen(random, size);
+                break;
+        }
+    }
+
+    /**
+     * Scatter single block obstacles over the ground.
+     *
+     * @param random the random of the seed.
+     * @param size   the side of the square.
+     */
+    private void generateOpen(@NotNull final Random random, final int size)
+    {
+        for (int x = 0; x < size; x++)
+        {
+            for (int z = 0; z < size; z++)
+            {
+                if (random.nextDouble() < OBSTACLE_CHANCE)
+                {
+                    setBlock(new BlockPos(x, GROUND + 1, z), Blocks.COBBLESTONE.getDefaultState());
+                }
+            }
+        }
+
+        start = new BlockPos(1, GROUND + 1, 1);
+        end = new BlockPos(size - 2, GROUND + 1, size - 2);
+        setBlock(start, Blocks.AIR.getDefaultState());
+        setBlock(end, Blocks.AIR.getDefaultState());
+    }
+
+    /**
+     * Build a maze of walls with a single path between every two cells, carved by a depth first search.
+     *
+     * @param random the random of the seed.
+     * @param size   the side of the square.
+     */
+    private void generateMaze(@NotNull final Random random, final int size)
+    {
+        final int cells = (size - 1) / MAZE_CELL;
+        final int mazeSize = cells * MAZE_CELL + 1;
+        fill(new BlockPos(0, GROUND + 1, 0), new BlockPos(mazeSize - 1, GROUND + MAZE_WALL_HEIGHT, mazeSize - 1), Blocks.STONEBRICK.getDefaultState());
+
+        final boolean[][] visited = new boolean[cells][cells];
+        @NotNull final Deque<int[]> stack = new ArrayDeque<>();
+        stack.push(new int[] {0, 0});
+        visited[0][0] = true;
+        carveMazeCell(0, 0);
+
+        final int[][] directions = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+        while (!stack.isEmpty())
+        {
+            final int[] cell = stack.peek();
+            @NotNull final List<int[]> neighbours = new ArrayList<>();
+            for (final int[] direction : directions)
+            {
+                final int x = cell[0] + direction[0];
+                final int z = cell[1] + direction[1];
+                if (x >= 0 && z >= 0 && x < cells && z < cells && !visited[x][z])
+                {
+                    neighbours.add(new int[] {x, z});
+                }
+            }
+
+            if (neighbours.isEmpty())
+            {
+                stack.pop();
+                continue;
+            }
+
+            final int[] next = neighbours.get(random.nextInt(neighbours.size()));
+            visited[next[0]][next[1]] = true;
+            carveMazeCell(next[0], next[1]);
+
+            //Remove the wall between both cells
+            final int wallX = Math.max(cell[0], next[0]) * MAZE_CELL - (cell[0] == next[0] ? -1 : 0);
+            final int wallZ = Math.max(cell[1], next[1]) * MAZE_CELL - (cell[1] == next[1] ? -1 : 0);
+            fill(new BlockPos(wallX, GROUND + 1, wallZ),
+              new BlockPos(wallX + (cell[0] == next[0] ? MAZE_CELL - 2 : 0), GROUND + MAZE_WALL_HEIGHT, wallZ + (cell[1] == next[1] ? MAZE_CELL - 2 : 0)),
+              Blocks.AIR.getDefaultState());
+            stack.push(next);
+        }
+
+        start = new BlockPos(1, GROUND + 1, 1);
+        end = new BlockPos((cells - 1) * MAZE_CELL + 1, GROUND + 1, (cells - 1) * MAZE_CELL + 1);
+    }
+
+    /**
+     * Clear the inside of a maze cell.
+     *
+     * @param cellX the cell x.
+     * @param cellZ the cell z.
+     */
+    private void carveMazeCell(final int cellX, final int cellZ)
+    {
+        final int x = cellX * MAZE_CELL + 1;
+        final int z = cellZ * MAZE_CELL + 1;
+        fill(new BlockPos(x, GROUND + 1, z), new BlockPos(x + MAZE_CELL - 2, GROUND + MAZE_WALL_HEIGHT, z + MAZE_CELL - 2), Blocks.AIR.getDefaultState());
+    }
+
+    /**
+     * Dig a winding tunnel from one corner to the other below the ground, with dead end branches.
+     *
+     * @param random the random of the seed.
+     * @param size   the side of the square.
+     */
+    private void generateCave(@NotNull final Random random, final int size)
+    {
+        final int minY = GROUND - CAVE_DEPTH - CAVE_DEPTH / 2;
+        final int maxY = GROUND - CAVE_DEPTH / 2;
+
+        start = new BlockPos(2, GROUND - CAVE_DEPTH, 2);
+        end = digTunnel(random, start, new BlockPos(size - 3, GROUND - CAVE_DEPTH, size - 3), size, minY, maxY);
+
+        for (int i = 0; i < CAVE_BRANCHES; i++)
+        {
+            final BlockPos branchStart = new BlockPos(2 + random.nextInt(size - 4), GROUND - CAVE_DEPTH, 2 + random.nextInt(size - 4));
+            final BlockPos branchEnd = new BlockPos(2 + random.nextInt(size - 4), GROUND - CAVE_DEPTH, 2 + random.nextInt(size - 4));
+            digTunnel(random, branchStart, branchEnd, size, minY, maxY);
+        }
+    }
+
+    /**
+     * Dig a tunnel of three by three blocks by a random walk which tends towards its target.
+     *
+     * @param random the random of the seed.
+     * @param from   where the tunnel starts.
+     * @param to     where the tunnel should end.
+     * @param size   the side of the square.
+     * @param minY   the lowest floor of the tunnel.
+     * @param maxY   the highest floor of the tunnel.
+     * @return the position the tunnel ended at, on its floor.
+     */
+    @NotNull
+    private BlockPos digTunnel(
+                                @NotNull final Random random,
+                                @NotNull final BlockPos from,
+                                @NotNull final BlockPos to,
+                                final int size,
+                                final int minY,
+                                final int maxY)
+    {
+        BlockPos pos = from;
+        final int maxSteps = size * size;
+        for (int step = 0; step < maxSteps && (pos.getX() != to.getX() || pos.getZ() != to.getZ()); step++)
+        {
+            fill(pos.add(-1, 0, -1), pos.add(1, 2, 1), Blocks.AIR.getDefaultState());
+
+            int x = pos.getX();
+            int z = pos.getZ();
+            if (random.nextDouble() < TUNNEL_DIRECTNESS)
+            {
+                x += Integer.signum(to.getX() - x);
+                z += Integer.signum(to.getZ() - z);
+            }
+            else
+            {
+                x += random.nextInt(3) - 1;
+                z += random.nextInt(3) - 1;
+            }
+            final int y = Math.max(minY, Math.min(maxY, pos.getY() + random.nextInt(3) - 1));
+            pos = new BlockPos(Math.max(2, Math.min(size - 3, x)), y, Math.max(2, Math.min(size - 3, z)));
+        }
+        fill(pos.add(-1, 0, -1), pos.add(1, 2, 1), Blocks.AIR.getDefaultState());
+        return pos;
+    }
+
+    /**
+     * Place the blocks of a structure, like a finished building.
+     *
+     * @param structure the structure, already rotated.
+     * @param pos       where the structure is placed.
+     */
+    public void placeStructure(@NotNull final StructureWrapper structure, @NotNull final BlockPos pos)
+    {
+        structure.setPosition(pos);
+        final BlockPos offsetPosition = structure.getOffsetPosition();
+        for (int y = 0; y < structure.getHeight(); y++)
+        {
+            for (int z = 0; z < structure.getLength(); z++)
+            {
+                for (int x = 0; x < structure.getWidth(); x++)
+                {
+                    @NotNull final BlockPos localPos = new BlockPos(x, y, z);
+                    setBlock(offsetPosition.add(localPos), structure.structure().getBlockState(localPos));
+                }
+            }
+        }
+    }
+
+    /**
+     * Create the saved data of a colony with citizens and waypoints, as a colony would write it.
+     *
+     * @param id           the id of the colony.
+     * @param citizenCount the number of citizens.
+     * @return the compound to load the colony from.
+     */
+    @NotNull
+    public NBTTagCompound createColonyCompound(final int id, final int citizenCount)
+    {
+        final Random random = new Random(seed);
+        @NotNull final NBTTagCompound compound = new NBTTagCompound();
+        compound.setInteger("id", id);
+        compound.setInteger("dimension", 0);
+        compound.setString("name", "Benchmark colony " + id);
+        BlockPosUtil.writeToNBT(compound, "center", new BlockPos(0, GROUND + 1, 0));
+        compound.setInteger("maxCitizens", citizenCount);
+
+        @NotNull final NBTTagList citizens = new NBTTagList();
+        for (int i = 1; i <= citizenCount; i++)
+        {
+            @NotNull final NBTTagCompound citizen = new NBTTagCompound();
+            citizen.setInteger("id", i);
+            citizen.setString("name", "Citizen " + i);
+            citizen.setBoolean("female", random.nextBoolean());
+            citizen.setInteger("texture", random.nextInt(3));
+            citizen.setInteger("level", random.nextInt(10));
+            citizen.setInteger("experience", random.nextInt(1000));
+            citizen.setFloat("health", 20F);
+            citizen.setFloat("maxHealth", 20F);
+
+            @NotNull final NBTTagCompound skills = new NBTTagCompound();
+            skills.setInteger("strength", 1 + random.nextInt(5));
+            skills.setInteger("endurance", 1 + random.nextInt(5));
+            skills.setInteger("charisma", 1 + random.nextInt(5));
+            skills.setInteger("intelligence", 1 + random.nextInt(5));
+            skills.setInteger("dexterity", 1 + random.nextInt(5));
+            citizen.setTag("skills", skills);
+            citizens.appendTag(citizen);
+        }
+        compound.setTag("citizens", citizens);
+
+        @NotNull final NBTTagList wayPoints = new NBTTagList();
+        for (int i = 0; i < citizenCount / 10; i++)
+        {
+            @NotNull final NBTTagCompound wayPoint = new NBTTagCompound();
+            BlockPosUtil.writeToNBT(wayPoint, "waypoints", new BlockPos(random.nextInt(256), GROUND + 1, random.nextInt(256)));
+            NBTUtil.writeBlockState(wayPoint, Blocks.GRAVEL.getDefaultState());
+            wayPoints.appendTag(wayPoint);
+        }
+        compound.setTag("waypoints", wayPoints);
+        return compound;
+    }
+
+    /**
+     * The kinds of generated terrain.
+     */
+    public enum Terrain
+    {
+        /**
+         * Flat ground with scattered obstacles.
+         */
+        OPEN,
+        /**
+         * A labyrinth of walls with a single path between two corners.
+         */
+        MAZE,
+        /**
+         * Winding tunnels in solid stone.
+         */
+        CAVE
+    }
+}
@@ -0,0 +1,93 @@
+package com.minecolonies.coremod.benchmark;
+
+import com.minecolonies.coremod.inventory.InventoryCitizen;
+import com.minecolonies.coremod.util.InventoryUtils;
+import net.minecraft.init.Items;
+import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Searching a full citizen inventory, the kind of lookup the AI does every few ticks.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class InventoryBenchmark
+{
+    @Param({"42"})
+    private long seed;
+
+    private InventoryCitizen inventory;
+
+    /**
+     * An item the inventory holds in several slots, and one it doesn't hold.
+     */
+    private Item present;
+    private Item missing;
+
+    @Setup
+    public void setUp()
+    {
+        //The world bootstraps the item registry
+        new BenchmarkWorld(seed);
+
+        final Random random = new Random(seed);
+        final List<Item> items = new ArrayList<>();
+        for (final Item item : Item.REGISTRY)
+        {
+            if (item != Items.DIAMOND)
+            {
+                items.add(item);
+            }
+        }
+
+        inventory = new InventoryCitizen("Benchmark", false);
+        for (int slot = 0; slot < inventory.getSizeInventory(); slot++)
+        {
+            final Item item = items.get(random.nextInt(items.size()));
+            inventory.setInventorySlotContents(slot, new ItemStack(item, 1 + random.nextInt(item.getItemStackLimit())));
+        }
+
+        present = inventory.getStackInSlot(inventory.getSizeInventory() - 1).getItem();
+        missing = Items.DIAMOND;
+    }
+
+    @Benchmark
+    public int findFirstSlotPresent()
+    {
+        return InventoryUtils.findFirstSlotInInventoryWith(inventory, present, -1);
+    }
+
+    @Benchmark
+    public int findFirstSlotMissing()
+    {
+        return InventoryUtils.findFirstSlotInInventoryWith(inventory, missing, -1);
+    }
+
+    @Benchmark
+    public int countPresent()
+    {
+        return InventoryUtils.getItemCountInInventory(inventory, present, -1);
+    }
+
+    @Benchmark
+    public boolean hasMissing()
+    {
+        return InventoryUtils.hasitemInInventory(inventory, missing, -1);
+    }
+
+    @Benchmark
+    public int openSlot()
+    {
+        return InventoryUtils.getOpenSlot(inventory);
+    }
+}
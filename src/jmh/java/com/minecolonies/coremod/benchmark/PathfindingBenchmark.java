@@ -0,0 +1,74 @@
+package com.minecolonies.coremod.benchmark;
+
+import com.minecolonies.coremod.entity.pathfinding.PathJobMoveToLocation;
+import com.minecolonies.coremod.entity.pathfinding.WorldSnapshot;
+import net.minecraft.pathfinding.Path;
+import org.jetbrains.annotations.Nullable;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A* searches from one corner of a generated terrain to the other.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class PathfindingBenchmark
+{
+    @Param({"OPEN", "MAZE", "CAVE"})
+    private BenchmarkWorld.Terrain terrain;
+
+    @Param({"64"})
+    private int size;
+
+    /**
+     * Maximum steps of a path, the maze path takes far more steps than the distance of its ends.
+     */
+    @Param({"512"})
+    private int range;
+
+    @Param({"42"})
+    private long seed;
+
+    private BenchmarkWorld world;
+
+    @Setup
+    public void setUp()
+    {
+        world = new BenchmarkWorld(seed);
+        world.generate(terrain, size);
+    }
+
+    /**
+     * The world time never advances here, so cached sections would never expire and every search after the first
+     * would skip the copy. Drop them, so each search takes its snapshot like the first one in a fresh area.
+     * A search takes milliseconds, so the overhead of a setup per invocation doesn't matter.
+     */
+    @Setup(Level.Invocation)
+    public void clearSnapshots()
+    {
+        WorldSnapshot.onWorldUnload(world);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        WorldSnapshot.onWorldUnload(world);
+    }
+
+    /**
+     * Snapshot the area and search the path, like a citizen walking to its job.
+     *
+     * @return the path.
+     */
+    @Nullable
+    @Benchmark
+    public Path moveToLocation()
+    {
+        return new PathJobMoveToLocation(world, world.getStart(), world.getEnd(), range).call();
+    }
+}
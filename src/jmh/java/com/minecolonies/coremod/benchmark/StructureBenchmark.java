@@ -0,0 +1,131 @@
+package com.minecolonies.coremod.benchmark;
+
+import com.minecolonies.coremod.util.StructureWrapper;
+import com.minecolonies.structures.helpers.StructureCache;
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loading a schematic and walking its blocks the way the builder does.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class StructureBenchmark
+{
+    @Param({"default/TownHall3", "default/Citizen1"})
+    private String name;
+
+    @Param({"0", "1"})
+    private int rotation;
+
+    @Param({"42"})
+    private long seed;
+
+    /**
+     * A world with the structure built, and an empty world.
+     */
+    private BenchmarkWorld builtWorld;
+    private BenchmarkWorld emptyWorld;
+
+    private StructureWrapper built;
+    private StructureWrapper empty;
+
+    @Setup
+    public void setUp()
+    {
+        final BlockPos pos = new BlockPos(0, BenchmarkWorld.GROUND + 1, 0);
+
+        builtWorld = new BenchmarkWorld(seed);
+        built = load(builtWorld);
+        builtWorld.placeStructure(built, pos);
+
+        emptyWorld = new BenchmarkWorld(seed);
+        empty = load(emptyWorld);
+        empty.setPosition(pos);
+    }
+
+    /**
+     * Load the structure in a world and rotate it.
+     *
+     * @param world the world.
+     * @return the structure.
+     */
+    @NotNull
+    private StructureWrapper load(@NotNull final BenchmarkWorld world)
+    {
+        @NotNull final StructureWrapper structure = new StructureWrapper(world, name);
+        structure.rotate(rotation, world, BlockPos.ORIGIN);
+        return structure;
+    }
+
+    /**
+     * Load the structure with its template and grids cached.
+     *
+     * @return the structure.
+     */
+    @NotNull
+    @Benchmark
+    public StructureWrapper loadCached()
+    {
+        return load(emptyWorld);
+    }
+
+    /**
+     * Decode the schematic and sort its blocks again.
+     *
+     * @return the structure.
+     */
+    @NotNull
+    @Benchmark
+    public StructureWrapper loadUncached()
+    {
+        StructureCache.clear();
+        return load(emptyWorld);
+    }
+
+    /**
+     * Compare every block with the world, like the builder checking a finished building.
+     *
+     * @return the number of stops, one per maxBlocksCheckedByBuilder blocks for a finished building.
+     */
+    @Benchmark
+    public int iterateBuilt()
+    {
+        return iterate(built);
+    }
+
+    /**
+     * Find every block to place, like the builder working on an empty site.
+     *
+     * @return the number of blocks to place.
+     */
+    @Benchmark
+    public int iterateEmpty()
+    {
+        return iterate(empty);
+    }
+
+    /**
+     * Walk a structure from the start until all blocks are done.
+     *
+     * @param structure the structure.
+     * @return the number of blocks the walk stopped at.
+     */
+    private static int iterate(@NotNull final StructureWrapper structure)
+    {
+        structure.reset();
+        int count = 0;
+        while (structure.findNextBlock())
+        {
+            count++;
+        }
+        return count;
+    }
+}
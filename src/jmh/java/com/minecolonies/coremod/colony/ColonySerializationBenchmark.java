@@ -0,0 +1,63 @@
+package com.minecolonies.coremod.colony;
+
+import com.minecolonies.coremod.benchmark.BenchmarkWorld;
+import net.minecraft.nbt.NBTTagCompound;
+import org.jetbrains.annotations.NotNull;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saving and loading a colony with many citizens.
+ * In the colony package, to reach the protected {@link Colony#writeToNBT(NBTTagCompound)}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ColonySerializationBenchmark
+{
+    @Param({"1000"})
+    private int citizens;
+
+    @Param({"42"})
+    private long seed;
+
+    private NBTTagCompound compound;
+    private Colony         colony;
+
+    @Setup
+    public void setUp()
+    {
+        compound = new BenchmarkWorld(seed).createColonyCompound(1, citizens);
+        colony = Colony.loadColony(compound);
+    }
+
+    /**
+     * Load the colony from its saved data.
+     *
+     * @return the colony.
+     */
+    @NotNull
+    @Benchmark
+    public Colony load()
+    {
+        return Colony.loadColony(compound);
+    }
+
+    /**
+     * Save the colony.
+     *
+     * @return the saved data.
+     */
+    @NotNull
+    @Benchmark
+    public NBTTagCompound save()
+    {
+        @NotNull final NBTTagCompound saved = new NBTTagCompound();
+        colony.writeToNBT(saved);
+        return saved;
+    }
+}
@@ -163,9 +163,21 @@ public class CitizenData
     public void setCitizenEntity(final EntityCitizen citizen)
     {
         entity = citizen;
+        updateIndex();
         markDirty();
     }
 
+    /**
+     * Update the entry of the citizen in the citizen index of its colony.
+     */
+    private void updateIndex()
+    {
+        if (colony != null)
+        {
+            colony.getCitizenIndex().update(this);
+        }
+    }
+
     /**
      * Marks the instance dirty.
      */
@@ -211,6 +223,7 @@ public class CitizenData
         final Random rand = entity.getRNG();
 
         this.entity = entity;
+        updateIndex();
 
         //Assign the gender before name
         female = rand.nextBoolean();
@@ -413,6 +426,7 @@ public class CitizenData
         else if (homeBuilding != building)
         {
             homeBuilding = building;
+            updateIndex();
             markDirty();
         }
     }
@@ -442,6 +456,7 @@ public class CitizenData
         else if (workBuilding != building)
         {
             workBuilding = building;
+            updateIndex();
 
             if (workBuilding != null)
             {
@@ -474,7 +489,12 @@ public class CitizenData
      */
     public void clearCitizenEntity()
     {
+        if (entity != null)
+        {
+            entity.getInventoryCitizen().destroyMaterialStore();
+        }
         entity = null;
+        updateIndex();
     }
 
     /**
@@ -495,6 +515,12 @@ public class CitizenData
     public void setJob(final AbstractJob job)
     {
         this.job = job;
+        updateIndex();
+
+        if (colony != null)
+        {
+            colony.getWorkManager().onJobChanged(this);
+        }
 
         @Nullable final EntityCitizen localEntity = getCitizenEntity();
         if (localEntity != null)
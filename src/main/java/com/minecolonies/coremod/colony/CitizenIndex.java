@@ -0,0 +1,254 @@
+package com.minecolonies.coremod.colony;
+
+import com.minecolonies.coremod.colony.jobs.AbstractJob;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * The citizens of a colony, indexed by the questions the colony asks about them all the time:
+ * which ids are free, who has no work building, no home or no entity, and who has which job.
+ * <p>
+ * The sets are bitsets of citizen ids, so they are iterated in the order of the ids.
+ * A citizen is indexed when it is added to the colony, and {@link CitizenData} updates its entry
+ * whenever its job, work building, home or entity changes.
+ */
+public class CitizenIndex
+{
+    /**
+     * The colony of the citizens.
+     */
+    @NotNull
+    private final Colony colony;
+
+    /**
+     * The ids of the citizens of the colony.
+     */
+    @NotNull
+    private final BitSet ids           = new BitSet();
+
+    /**
+     * The citizens without a work building.
+     */
+    @NotNull
+    private final BitSet jobless       = new BitSet();
+
+    /**
+     * The citizens without a home.
+     */
+    @NotNull
+    private final BitSet homeless      = new BitSet();
+
+    /**
+     * The citizens whose entity is not in the world.
+     */
+    @NotNull
+    private final BitSet withoutEntity = new BitSet();
+
+    /**
+     * The citizens by the class of their job.
+     */
+    @NotNull
+    private final Map<Class<? extends AbstractJob>, BitSet> byJob = new HashMap<>();
+
+    /**
+     * The job class each citizen is indexed under.
+     */
+    @NotNull
+    private final Map<Integer, Class<? extends AbstractJob>> jobClasses = new HashMap<>();
+
+    /**
+     * Create the index of a colony.
+     *
+     * @param colony the colony.
+     */
+    public CitizenIndex(@NotNull final Colony colony)
+    {
+        this.colony = colony;
+    }
+
+    /**
+     * Index a citizen which was added to the colony.
+     *
+     * @param citizen the citizen.
+     */
+    void add(@NotNull final CitizenData citizen)
+    {
+        ids.set(citizen.getId());
+        update(citizen);
+    }
+
+    /**
+     * Forget a citizen which was removed from the colony.
+     *
+     * @param citizen the citizen.
+     */
+    void remove(@NotNull final CitizenData citizen)
+    {
+        final int id = citizen.getId();
+        ids.clear(id);
+        jobless.clear(id);
+        homeless.clear(id);
+        withoutEntity.clear(id);
+        removeJob(id);
+    }
+
+    /**
+     * Update the entry of a citizen after its job, work building, home or entity changed.
+     * Citizens which are not added to the colony yet are ignored.
+     *
+     * @param citizen the citizen.
+     */
+    void update(@NotNull final CitizenData citizen)
+    {
+        final int id = citizen.getId();
+        if (!ids.get(id) || colony.getCitizen(id) != citizen)
+        {
+            return;
+        }
+
+        jobless.set(id, citizen.getWorkBuilding() == null);
+        homeless.set(id, citizen.getHomeBuilding() == null);
+        withoutEntity.set(id, citizen.getCitizenEntity() == null);
+
+        final AbstractJob job = citizen.getJob();
+        final Class<? extends AbstractJob> jobClass = job == null ? null : job.getClass();
+        if (jobClasses.get(id) != jobClass)
+        {
+            removeJob(id);
+            if (jobClass != null)
+            {
+                jobClasses.put(id, jobClass);
+                byJob.computeIfAbsent(jobClass, type -> new BitSet()).set(id);
+            }
+        }
+    }
+
+    /**
+     * Remove a citizen from the job index.
+     *
+     * @param id the id of the citizen.
+     */
+    private void removeJob(final int id)
+    {
+        final Class<? extends AbstractJob> jobClass = jobClasses.remove(id);
+        if (jobClass != null)
+        {
+            final BitSet citizens = byJob.get(jobClass);
+            citizens.clear(id);
+            if (citizens.isEmpty())
+            {
+                byJob.remove(jobClass);
+            }
+        }
+    }
+
+    /**
+     * Get the lowest id no citizen has.
+     *
+     * @return the id, at least 1.
+     */
+    public int getFreeId()
+    {
+        return ids.nextClearBit(1);
+    }
+
+    /**
+     * Get the citizen without a work building with the lowest id.
+     *
+     * @return the citizen or null if all have one.
+     */
+    @Nullable
+    public CitizenData getFirstJobless()
+    {
+        final int id = jobless.nextSetBit(0);
+        return id < 0 ? null : colony.getCitizen(id);
+    }
+
+    /**
+     * Get the citizens with a work building.
+     *
+     * @return the citizens.
+     */
+    @NotNull
+    public List<CitizenData> getEmployed()
+    {
+        @NotNull final BitSet employed = (BitSet) ids.clone();
+        employed.andNot(jobless);
+        return toCitizens(employed);
+    }
+
+    /**
+     * Get the citizens without a home.
+     *
+     * @return the citizens.
+     */
+    @NotNull
+    public List<CitizenData> getHomeless()
+    {
+        return toCitizens(homeless);
+    }
+
+    /**
+     * Get the citizens whose entity is not in the world.
+     *
+     * @return the citizens.
+     */
+    @NotNull
+    public List<CitizenData> getCitizensWithoutEntity()
+    {
+        return toCitizens(withoutEntity);
+    }
+
+    /**
+     * Check if any citizen has its entity in the world.
+     *
+     * @return true if so.
+     */
+    public boolean hasCitizenWithEntity()
+    {
+        return withoutEntity.cardinality() < ids.cardinality();
+    }
+
+    /**
+     * Get the citizens with a job of a type, including its subclasses.
+     *
+     * @param type the class of the job.
+     * @return the citizens.
+     */
+    @NotNull
+    public List<CitizenData> getCitizensWithJob(@NotNull final Class<? extends AbstractJob> type)
+    {
+        @NotNull final BitSet citizens = new BitSet();
+        for (@NotNull final Map.Entry<Class<? extends AbstractJob>, BitSet> entry : byJob.entrySet())
+        {
+            if (type.isAssignableFrom(entry.getKey()))
+            {
+                citizens.or(entry.getValue());
+            }
+        }
+        return toCitizens(citizens);
+    }
+
+    /**
+     * Look up the citizens of a set of ids.
+     *
+     * @param citizenIds the ids.
+     * @return the citizens, in the order of the ids.
+     */
+    @NotNull
+    private List<CitizenData> toCitizens(@NotNull final BitSet citizenIds)
+    {
+        @NotNull final List<CitizenData> citizens = new ArrayList<>(citizenIds.cardinality());
+        for (int id = citizenIds.nextSetBit(0); id >= 0; id = citizenIds.nextSetBit(id + 1))
+        {
+            final CitizenData citizen = colony.getCitizen(id);
+            if (citizen != null)
+            {
+                citizens.add(citizen);
+            }
+        }
+        return citizens;
+    }
+}
@@ -6,14 +6,16 @@ import com.minecolonies.coremod.colony.buildings.AbstractBuilding;
 import com.minecolonies.coremod.colony.buildings.BuildingFarmer;
 import com.minecolonies.coremod.colony.buildings.BuildingHome;
 import com.minecolonies.coremod.colony.buildings.BuildingTownHall;
+import com.minecolonies.coremod.colony.delivery.DeliveryManager;
 import com.minecolonies.coremod.colony.materials.MaterialSystem;
 import com.minecolonies.coremod.colony.permissions.Permissions;
 import com.minecolonies.coremod.colony.workorders.AbstractWorkOrder;
 import com.minecolonies.coremod.configuration.Configurations;
 import com.minecolonies.coremod.entity.EntityCitizen;
 import com.minecolonies.coremod.entity.ai.citizen.farmer.Field;
+import com.minecolonies.coremod.entity.pathfinding.PathCache;
+import com.minecolonies.coremod.entity.pathfinding.SectionGraph;
 import com.minecolonies.coremod.network.messages.*;
-import com.minecolonies.coremod.permissions.ColonyPermissionEventHandler;
 import com.minecolonies.coremod.tileentities.ScarecrowTileEntity;
 import com.minecolonies.coremod.tileentities.TileEntityColonyBuilding;
 import com.minecolonies.coremod.util.*;
@@ -30,7 +32,6 @@ import net.minecraft.stats.StatBase;
 import net.minecraft.stats.StatList;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
-import net.minecraftforge.common.MinecraftForge;
 import net.minecraftforge.common.util.Constants.NBT;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
 import org.jetbrains.annotations.NotNull;
@@ -68,7 +69,8 @@ public class Colony implements IColony
     private static final int    NUM_MOBS_ACHIEVEMENT_THIRD  = 100;
     private static final int    NUM_MOBS_ACHIEVEMENT_FOURTH = 500;
     private static final int    NUM_MOBS_ACHIEVEMENT_FIFTH  = 1000;
-    private static final int    CHECK_WAYPOINT_EVERY        = 100;
+    private static final int    CHECK_WAYPOINT_INTERVAL     = 50;
+    private static final int    BUILDING_CLEANUP_INTERVAL   = 20;
     private final int id;
     //  General Attributes
     private final int dimensionId;
@@ -82,6 +84,13 @@ public class Colony implements IColony
     //  Workload and Jobs
     private final WorkManager                     workManager      = new WorkManager(this);
     private final MaterialSystem                  materialSystem   = new MaterialSystem();
+    private final PathCache                       pathCache;
+    private final SectionGraph                    sectionGraph     = new SectionGraph(this);
+    private final ColonyViewSync                  viewSync         = new ColonyViewSync();
+    private final ColonyThreatIndex               threatIndex      = new ColonyThreatIndex(this);
+    private final CitizenIndex                    citizenIndex     = new CitizenIndex(this);
+    private final DeliveryManager                 deliveryManager  = new DeliveryManager(this);
+    private final ColonyChunkTracker              chunkTracker     = new ColonyChunkTracker();
     @NotNull
     private final Map<BlockPos, AbstractBuilding> buildings        = new HashMap<>();
     //  Citizenry
@@ -98,6 +107,8 @@ public class Colony implements IColony
     private       boolean                         isBuildingsDirty = false;
     private       boolean                         manualHiring     = false;
     private       boolean                         isFieldsDirty    = false;
+    private       boolean                         isSaveNeeded     = false;
+    private       long                            lastSaveTime     = 0;
     private       String                          name             = "ERROR(Wasn't placed by player)";
     private BlockPos         center;
     //  Administration/permissions
@@ -108,6 +119,13 @@ public class Colony implements IColony
     private int topCitizenId = 0;
     private int maxCitizens  = Configurations.maxCitizens;
     private int killedMobs   = 0;
+    //  Work which can wait, scheduled by the ColonyTickScheduler
+    private final ColonyTickScheduler.Job awolCitizenJob            = new ColonyTickScheduler.Job(CITIZEN_CLEANUP_TICK_INCREMENT, 0);
+    private final ColonyTickScheduler.Job buildingCleanupJob        = new ColonyTickScheduler.Job(BUILDING_CLEANUP_INTERVAL, 1);
+    private final ColonyTickScheduler.Job waypointCheckJob          = new ColonyTickScheduler.Job(CHECK_WAYPOINT_INTERVAL, 2);
+    //  The building ticked first, for each tick phase
+    private final int[]                   buildingTickCursors       = new int[TickEvent.Phase.values().length];
+    private       int                     deferredSubscriberUpdates = 0;
 
     /**
      * Constructor for a newly created Colony.
@@ -121,6 +139,7 @@ public class Colony implements IColony
         this(id, w.provider.getDimension());
         center = c;
         world = w;
+        chunkTracker.reset(w, c);
         this.permissions = new Permissions(this);
     }
 
@@ -134,11 +153,9 @@ public class Colony implements IColony
     {
         this.id = id;
         this.dimensionId = dim;
+        this.pathCache = new PathCache(dim);
         this.permissions = new Permissions(this);
         this.colonyAchievements = new ArrayList<>();
-
-        // Register a new event handler
-        MinecraftForge.EVENT_BUS.register(new ColonyPermissionEventHandler(this));
     }
 
     /**
@@ -181,6 +198,7 @@ public class Colony implements IColony
             final NBTTagCompound citizenCompound = citizenTagList.getCompoundTagAt(i);
             final CitizenData data = CitizenData.createFromNBT(citizenCompound, this);
             citizens.put(data.getId(), data);
+            citizenIndex.add(data);
             topCitizenId = Math.max(topCitizenId, data.getId());
         }
 
@@ -251,6 +269,9 @@ public class Colony implements IColony
         {
             townHall = (BuildingTownHall) building;
         }
+
+        //  Orders for the town hall can be taken by any builder
+        workManager.requestMatching();
     }
 
     /**
@@ -389,6 +410,69 @@ public class Colony implements IColony
     private void markDirty()
     {
         isDirty = true;
+        isSaveNeeded = true;
+    }
+
+    /**
+     * Marks the colony to be written to disk on the next save of the colony manager,
+     * and makes that save happen on the next tick.
+     */
+    public void markSaveNeeded()
+    {
+        isSaveNeeded = true;
+        ColonyManager.markDirty();
+    }
+
+    /**
+     * Check if the colony changed since it was written to disk the last time.
+     *
+     * @return true if it has to be saved.
+     */
+    public boolean isSaveNeeded()
+    {
+        return isSaveNeeded;
+    }
+
+    /**
+     * Get the time the colony was written to disk the last time.
+     *
+     * @return the time in milliseconds.
+     */
+    public long getLastSaveTime()
+    {
+        return lastSaveTime;
+    }
+
+    /**
+     * Called after the colony has been saved.
+     *
+     * @param time the time of the save in milliseconds.
+     */
+    public void onSaved(final long time)
+    {
+        isSaveNeeded = false;
+        lastSaveTime = time;
+    }
+
+    /**
+     * Check if the colony is in use: a subscriber is online, a citizen is loaded or a chunk within its working range is loaded.
+     * Colonies which are not in use can be unloaded.
+     *
+     * @return true if the colony is in use.
+     */
+    public boolean isInUse()
+    {
+        if (!subscribers.isEmpty())
+        {
+            return true;
+        }
+
+        if (citizenIndex.hasCitizenWithEntity())
+        {
+            return true;
+        }
+
+        return chunkTracker.isAnyLoaded();
     }
 
     @NotNull
@@ -506,6 +590,7 @@ public class Colony implements IColony
     public void markCitizensDirty()
     {
         isCitizensDirty = true;
+        isSaveNeeded = true;
     }
 
     /**
@@ -514,6 +599,7 @@ public class Colony implements IColony
     public void markBuildingsDirty()
     {
         isBuildingsDirty = true;
+        isSaveNeeded = true;
     }
 
     /**
@@ -526,6 +612,7 @@ public class Colony implements IColony
         if (w.provider.getDimension() == dimensionId)
         {
             world = w;
+            chunkTracker.reset(w, center);
         }
     }
 
@@ -542,6 +629,9 @@ public class Colony implements IColony
         }
 
         world = null;
+        chunkTracker.reset(null, null);
+        threatIndex.clear();
+        pathCache.clear();
     }
 
     /**
@@ -558,7 +648,26 @@ public class Colony implements IColony
 
         if (event.phase == TickEvent.Phase.END)
         {
-            updateSubscribers();
+            //  These flags are cleared when the views are sent, remember the change for the next save
+            if (permissions.isDirty() || workManager.isDirty())
+            {
+                isSaveNeeded = true;
+            }
+
+            //  Changes stay marked dirty until they are sent, so an update can wait for a tick with time left
+            if (ColonyManager.getTickScheduler().mayRun(deferredSubscriberUpdates))
+            {
+                deferredSubscriberUpdates = 0;
+                final long start = ColonyProfiler.start();
+                final long workStart = ColonyManager.getTickScheduler().startWork();
+                updateSubscribers();
+                ColonyManager.getTickScheduler().finishWork(workStart);
+                ColonyProfiler.record(id, ColonyProfiler.Section.SUBSCRIBERS, "updateSubscribers", start);
+            }
+            else
+            {
+                deferredSubscriberUpdates++;
+            }
         }
     }
 
@@ -624,17 +733,12 @@ public class Colony implements IColony
             //WorkOrders
             sendWorkOrderPackets(oldSubscribers, hasNewSubscribers);
 
-            //Citizens
-            sendCitizenPackets(oldSubscribers, hasNewSubscribers);
-
-            //Buildings
-            sendBuildingPackets(oldSubscribers, hasNewSubscribers);
-
-            //Fields
-            if (!isBuildingsDirty)
-            {
-                sendFieldPackets(oldSubscribers, hasNewSubscribers);
-            }
+            //Citizens, Buildings and Fields
+            sendViewUpdates(oldSubscribers, hasNewSubscribers);
+        }
+        else
+        {
+            viewSync.clear();
         }
 
         isFieldsDirty = false;
@@ -703,67 +807,55 @@ public class Colony implements IColony
     }
 
     /**
-     * Sends packages to update the citizens.
+     * Sends the changed citizen and building views in one update per player.
+     * Farmer buildings are included when their fields changed, everything when a player needs all views.
      *
      * @param oldSubscribers    the existing subscribers.
      * @param hasNewSubscribers the new subscribers.
      */
-    private void sendCitizenPackets(@NotNull final Set<EntityPlayerMP> oldSubscribers, final boolean hasNewSubscribers)
+    private void sendViewUpdates(@NotNull final Set<EntityPlayerMP> oldSubscribers, final boolean hasNewSubscribers)
     {
-        if (isCitizensDirty || hasNewSubscribers)
+        final boolean sendAll = hasNewSubscribers || viewSync.hasResyncRequests();
+
+        @NotNull final List<CitizenData> changedCitizens = new ArrayList<>();
+        if (isCitizensDirty || sendAll)
         {
             for (@NotNull final CitizenData citizen : citizens.values())
             {
-                if (citizen.isDirty() || hasNewSubscribers)
+                if (citizen.isDirty() || sendAll)
                 {
-                    subscribers.stream()
-                      .filter(player -> citizen.isDirty() || !oldSubscribers.contains(player))
-                      .forEach(player -> MineColonies.getNetwork().sendTo(new ColonyViewCitizenViewMessage(this, citizen), player));
+                    changedCitizens.add(citizen);
                 }
             }
         }
-    }
 
-    /**
-     * Sends packages to update the buildings.
-     *
-     * @param oldSubscribers    the existing subscribers.
-     * @param hasNewSubscribers the new subscribers.
-     */
-    private void sendBuildingPackets(@NotNull final Set<EntityPlayerMP> oldSubscribers, final boolean hasNewSubscribers)
-    {
-        if (isBuildingsDirty || hasNewSubscribers)
+        @NotNull final List<AbstractBuilding> changedBuildings = new ArrayList<>();
+        if (isBuildingsDirty || isFieldsDirty || sendAll)
         {
             for (@NotNull final AbstractBuilding building : buildings.values())
             {
-                if (building.isDirty() || hasNewSubscribers)
+                if (building.isDirty() || (isFieldsDirty && building instanceof BuildingFarmer) || sendAll)
                 {
-                    subscribers.stream()
-                      .filter(player -> building.isDirty() || !oldSubscribers.contains(player))
-                      .forEach(player -> MineColonies.getNetwork().sendTo(new ColonyViewBuildingViewMessage(building), player));
+                    changedBuildings.add(building);
                 }
             }
         }
+
+        if (!changedCitizens.isEmpty() || !changedBuildings.isEmpty())
+        {
+            viewSync.send(this, subscribers, oldSubscribers, changedCitizens, changedBuildings);
+        }
     }
 
     /**
-     * Sends packages to update the fields.
+     * Send all citizen and building views to a player with the next update,
+     * because the player missed an update.
      *
-     * @param oldSubscribers    the existing subscribers.
-     * @param hasNewSubscribers the new subscribers.
+     * @param player the player.
      */
-    private void sendFieldPackets(final Set<EntityPlayerMP> oldSubscribers, final boolean hasNewSubscribers)
+    public void requestViewResync(@NotNull final EntityPlayerMP player)
     {
-        if ((isFieldsDirty && !isBuildingsDirty) || hasNewSubscribers)
-        {
-            for (final AbstractBuilding building : buildings.values())
-            {
-                if (building instanceof BuildingFarmer)
-                {
-                    subscribers.forEach(player -> MineColonies.getNetwork().sendTo(new ColonyViewBuildingViewMessage(building), player));
-                }
-            }
-        }
+        viewSync.requestResync(player);
     }
 
     /**
@@ -791,6 +883,10 @@ public class Colony implements IColony
             throw new IllegalStateException("Colony's world does not match the event.");
         }
 
+        final long tickStart = ColonyProfiler.start();
+        final ColonyTickScheduler scheduler = ColonyManager.getTickScheduler();
+        final long worldTime = event.world.getWorldTime();
+
         if (event.phase == TickEvent.Phase.START)
         {
             //  Detect CitizenData whose EntityCitizen no longer exist in world, and clear the mapping
@@ -803,11 +899,12 @@ public class Colony implements IColony
             //  Cleanup disappeared citizens
             //  It would be really nice if we didn't have to do this... but Citizens can disappear without dying!
             //  Every CITIZEN_CLEANUP_TICK_INCREMENT, cleanup any 'lost' citizens
-            if ((event.world.getWorldTime() % CITIZEN_CLEANUP_TICK_INCREMENT) == 0 && areAllColonyChunksLoaded(event))
+            if (scheduler.isDue(awolCitizenJob, id, worldTime) && chunkTracker.areAllLoaded())
             {
+                final long workStart = scheduler.startWork();
                 //  All chunks within a good range of the colony should be loaded, so all citizens should be loaded
                 //  If we don't have any references to them, destroy the citizen
-                citizens.values().stream().filter(citizen -> citizen.getCitizenEntity() == null)
+                citizenIndex.getCitizensWithoutEntity()
                   .forEach(citizen ->
                   {
                       if (townHall != null)
@@ -816,10 +913,16 @@ public class Colony implements IColony
                           spawnCitizen(citizen);
                       }
                   });
+                scheduler.finishWork(workStart);
             }
 
             //  Cleanup Buildings whose Blocks have gone AWOL
-            cleanUpBuildings(event);
+            if (scheduler.isDue(buildingCleanupJob, id, worldTime))
+            {
+                final long workStart = scheduler.startWork();
+                cleanUpBuildings(event);
+                scheduler.finishWork(workStart);
+            }
 
             //  Spawn Citizens
             if (townHall != null && citizens.size() < maxCitizens)
@@ -827,54 +930,94 @@ public class Colony implements IColony
                 int respawnInterval = Configurations.citizenRespawnInterval * 20;
                 respawnInterval -= (60 * townHall.getBuildingLevel());
 
-                if (event.world.getWorldTime() % respawnInterval == 0)
+                if (worldTime % respawnInterval == 0)
                 {
                     spawnCitizen();
                 }
             }
+
+            if (scheduler.isDue(waypointCheckJob, id, worldTime))
+            {
+                final long workStart = scheduler.startWork();
+                checkWayPoint();
+                scheduler.finishWork(workStart);
+            }
         }
 
-        //  Tick Buildings
-        for (@NotNull final AbstractBuilding building : buildings.values())
+        tickBuildings(event, scheduler);
+
+        workManager.onWorldTick(event);
+
+        if (event.phase == TickEvent.Phase.START)
         {
-            building.onWorldTick(event);
+            threatIndex.onWorldTick(event.world);
         }
 
-        final Random rand = new Random();
-        if (rand.nextInt(CHECK_WAYPOINT_EVERY) <= 1 && wayPoints.size() > 0)
+        ColonyProfiler.record(id, ColonyProfiler.Section.COLONY_TICK, event.phase, tickStart);
+    }
+
+    /**
+     * Tick the buildings round-robin while the tick budget lasts, at least one building is ticked.
+     * The buildings which didn't fit are ticked first in the same phase of the next tick.
+     *
+     * @param event     the world tick event.
+     * @param scheduler the tick scheduler.
+     */
+    private void tickBuildings(@NotNull final TickEvent.WorldTickEvent event, @NotNull final ColonyTickScheduler scheduler)
+    {
+        //  Copy, a building tick may add or remove buildings
+        final List<AbstractBuilding> tempBuildings = new ArrayList<>(buildings.values());
+        final int size = tempBuildings.size();
+        if (size == 0)
         {
-            final Object[] entries = wayPoints.entrySet().toArray();
-            final int stopAt = rand.nextInt(entries.length);
-            final Object obj = entries[stopAt];
+            return;
+        }
 
-            if (obj instanceof Map.Entry && ((Map.Entry) obj).getKey() instanceof BlockPos && ((Map.Entry) obj).getValue() instanceof IBlockState)
-            {
-                @NotNull final BlockPos key = (BlockPos) ((Map.Entry) obj).getKey();
-                @NotNull final IBlockState value = (IBlockState) ((Map.Entry) obj).getValue();
-                if (world != null && world.getBlockState(key).getBlock() != (value.getBlock()))
-                {
-                    wayPoints.remove(key);
-                }
-            }
+        final int phase = event.phase.ordinal();
+        final int start = buildingTickCursors[phase] % size;
+        int ticked = 0;
+        while (ticked < size && (ticked == 0 || scheduler.hasBudget()))
+        {
+            final AbstractBuilding building = tempBuildings.get((start + ticked) % size);
+            final long buildingStart = ColonyProfiler.start();
+            final long workStart = scheduler.startWork();
+            building.onWorldTick(event);
+            scheduler.finishWork(workStart);
+            ColonyProfiler.record(id, ColonyProfiler.Section.BUILDING_TICK, building.getClass(), buildingStart);
+            ticked++;
         }
 
-        workManager.onWorldTick(event);
+        if (ticked < size)
+        {
+            scheduler.defer(size - ticked);
+        }
+
+        buildingTickCursors[phase] = (start + ticked) % size;
     }
 
-    private boolean areAllColonyChunksLoaded(@NotNull final TickEvent.WorldTickEvent event)
+    /**
+     * Check if a random waypoint still has its block, and forget it if not.
+     */
+    private void checkWayPoint()
     {
-        final int distanceFromCenter = Configurations.workingRangeTownHall + 48 /* 3 chunks */ + 15 /* round up a chunk */;
-        for (int x = -distanceFromCenter; x <= distanceFromCenter; x += 16)
+        if (wayPoints.isEmpty() || world == null)
+        {
+            return;
+        }
+
+        final Object[] entries = wayPoints.entrySet().toArray();
+        final int stopAt = world.rand.nextInt(entries.length);
+        final Object obj = entries[stopAt];
+
+        if (obj instanceof Map.Entry && ((Map.Entry) obj).getKey() instanceof BlockPos && ((Map.Entry) obj).getValue() instanceof IBlockState)
         {
-            for (int z = -distanceFromCenter; z <= distanceFromCenter; z += 16)
+            @NotNull final BlockPos key = (BlockPos) ((Map.Entry) obj).getKey();
+            @NotNull final IBlockState value = (IBlockState) ((Map.Entry) obj).getValue();
+            if (world.getBlockState(key).getBlock() != (value.getBlock()))
             {
-                if (!event.world.isBlockLoaded(new BlockPos(getCenter().getX() + x, 128, getCenter().getZ() + z)))
-                {
-                    return false;
-                }
+                wayPoints.remove(key);
             }
         }
-        return true;
     }
 
     private void cleanUpBuildings(@NotNull final TickEvent.WorldTickEvent event)
@@ -887,7 +1030,7 @@ public class Colony implements IColony
         for (@NotNull final AbstractBuilding building : tempBuildings)
         {
             final BlockPos loc = building.getLocation();
-            if (event.world.isBlockLoaded(loc) && !building.isMatchingBlock(event.world.getBlockState(loc).getBlock()))
+            if (chunkTracker.isLoaded(loc) && !building.isMatchingBlock(event.world.getBlockState(loc).getBlock()))
             {
                 //  Sanity cleanup
                 removedBuildings.add(building);
@@ -900,7 +1043,7 @@ public class Colony implements IColony
 
         for (@NotNull final Field field : tempFields)
         {
-            if (event.world.isBlockLoaded(field.getLocation()))
+            if (chunkTracker.isLoaded(field.getLocation()))
             {
                 final ScarecrowTileEntity scarecrow = (ScarecrowTileEntity) event.world.getTileEntity(field.getID());
                 if (scarecrow == null)
@@ -950,19 +1093,17 @@ public class Colony implements IColony
             {
                 //This ensures that citizen IDs are getting reused.
                 //That's needed to prevent bugs when calling IDs that are not used.
-                for (int i = 1; i <= this.getMaxCitizens(); i++)
+                final int freeId = citizenIndex.getFreeId();
+                if (freeId <= this.getMaxCitizens())
                 {
-                    if (this.getCitizen(i) == null)
-                    {
-                        topCitizenId = i;
-                        break;
-                    }
+                    topCitizenId = freeId;
                 }
 
                 citizenData = new CitizenData(topCitizenId, this);
                 citizenData.initializeFromEntity(entity);
 
                 citizens.put(citizenData.getId(), citizenData);
+                citizenIndex.add(citizenData);
 
                 if (getMaxCitizens() == getCitizens().size())
                 {
@@ -1074,6 +1215,7 @@ public class Colony implements IColony
     private void markFieldsDirty()
     {
         isFieldsDirty = true;
+        isSaveNeeded = true;
     }
 
     /**
@@ -1157,7 +1299,7 @@ public class Colony implements IColony
         }
 
         calculateMaxCitizens();
-        ColonyManager.markDirty();
+        markSaveNeeded();
 
         return building;
     }
@@ -1194,6 +1336,8 @@ public class Colony implements IColony
     {
         if (buildings.remove(building.getID()) != null)
         {
+            viewSync.removeBuilding(building.getID());
+            deliveryManager.onBuildingRemoved(building.getLocation());
             for (final EntityPlayerMP player : subscribers)
             {
                 MineColonies.getNetwork().sendTo(new ColonyViewRemoveBuildingMessage(this, building.getID()), player);
@@ -1218,7 +1362,7 @@ public class Colony implements IColony
 
         calculateMaxCitizens();
 
-        ColonyManager.markDirty();
+        markSaveNeeded();
     }
 
     /**
@@ -1273,6 +1417,7 @@ public class Colony implements IColony
     {
         //Remove the Citizen
         citizens.remove(citizen.getId());
+        citizenIndex.remove(citizen);
 
         for (@NotNull final AbstractBuilding building : buildings.values())
         {
@@ -1280,6 +1425,8 @@ public class Colony implements IColony
         }
 
         workManager.clearWorkForCitizen(citizen);
+        deliveryManager.completeRoute(citizen);
+        viewSync.removeCitizen(citizen.getId());
 
         //  Inform Subscribers of removed citizen
         for (final EntityPlayerMP player : subscribers)
@@ -1321,33 +1468,106 @@ public class Colony implements IColony
     @Nullable
     public CitizenData getJoblessCitizen()
     {
-        for (@NotNull final CitizenData citizen : citizens.values())
-        {
-            if (citizen.getWorkBuilding() == null)
-            {
-                return citizen;
-            }
-        }
-
-        return null;
+        return citizenIndex.getFirstJobless();
     }
 
+    /**
+     * Get the huts which wait for items a deliveryman could bring.
+     *
+     * @return the locations of the buildings.
+     */
     public List<BlockPos> getDeliverymanRequired()
     {
+        return deliveryManager.getRequestingHuts();
+    }
 
-        return citizens.values().stream()
-                 .filter(citizen -> citizen.getWorkBuilding() != null && citizen.getJob() != null)
-                 .filter(citizen -> !citizen.getJob().isMissingNeededItem())
-                 .map(citizen -> citizen.getWorkBuilding().getLocation())
-                 .collect(Collectors.toList());
+    /**
+     * Check if any hut reported items it waits for, without checking if a deliveryman could bring them.
+     *
+     * @return true if a worker or a builder waits for items.
+     */
+    public boolean isDeliverymanRequired()
+    {
+        return deliveryManager.hasOpenRequests();
     }
 
+    /**
+     * Get the loaded chunks around the colony.
+     *
+     * @return the chunk tracker.
+     */
+    @NotNull
+    public ColonyChunkTracker getChunkTracker()
+    {
+        return chunkTracker;
+    }
+
+    /**
+     * Get the requests for deliveries and the routes of the deliverymen.
+     *
+     * @return the delivery manager.
+     */
+    @NotNull
+    public DeliveryManager getDeliveryManager()
+    {
+        return deliveryManager;
+    }
+
+    /**
+     * Get the ledger of the items in the hut chests and citizen inventories of the colony.
+     *
+     * @return the material system.
+     */
     @NotNull
     public MaterialSystem getMaterialSystem()
     {
         return materialSystem;
     }
 
+    /**
+     * Get the cache of the paths found by the citizens of the colony.
+     *
+     * @return the path cache.
+     */
+    @NotNull
+    public PathCache getPathCache()
+    {
+        return pathCache;
+    }
+
+    /**
+     * Get the section graph used to plan long trips through the colony.
+     *
+     * @return the graph.
+     */
+    @NotNull
+    public SectionGraph getSectionGraph()
+    {
+        return sectionGraph;
+    }
+
+    /**
+     * Get the index of the mobs and players the guards of the colony may attack.
+     *
+     * @return the threat index.
+     */
+    @NotNull
+    public ColonyThreatIndex getThreatIndex()
+    {
+        return threatIndex;
+    }
+
+    /**
+     * Get the index of the citizens by job, home and entity.
+     *
+     * @return the citizen index.
+     */
+    @NotNull
+    public CitizenIndex getCitizenIndex()
+    {
+        return citizenIndex;
+    }
+
     /**
      * Performed when a building of this colony finished his upgrade state.
      *
@@ -1357,6 +1577,7 @@ public class Colony implements IColony
     public void onBuildingUpgradeComplete(@NotNull final AbstractBuilding building, final int level)
     {
         building.onUpgradeComplete(level);
+        workManager.requestMatching();
     }
 
     @NotNull
@@ -1391,6 +1612,7 @@ public class Colony implements IColony
     public void addWayPoint(final BlockPos point, IBlockState block)
     {
         wayPoints.put(point, block);
+        isSaveNeeded = true;
     }
 
     /**
@@ -1403,28 +1625,43 @@ public class Colony implements IColony
     @NotNull
     public List<BlockPos> getWayPoints(@NotNull final BlockPos position, @NotNull final BlockPos target)
     {
-        final List<BlockPos> tempWayPoints = new ArrayList<>();
-        tempWayPoints.addAll(wayPoints.keySet());
-        tempWayPoints.addAll(getBuildings().keySet());
+        final int maxX = Math.max(position.getX(), target.getX());
+        final int maxZ = Math.max(position.getZ(), target.getZ());
+
+        final int minX = Math.min(position.getX(), target.getX());
+        final int minZ = Math.min(position.getZ(), target.getZ());
 
-        final double maxX = Math.max(position.getX(), target.getX());
-        final double maxZ = Math.max(position.getZ(), target.getZ());
+        final List<BlockPos> tempWayPoints = new ArrayList<>();
+        addWayPointsInBox(wayPoints.keySet(), tempWayPoints, minX, minZ, maxX, maxZ);
+        addWayPointsInBox(buildings.keySet(), tempWayPoints, minX, minZ, maxX, maxZ);
 
-        final double minX = Math.min(position.getX(), target.getX());
-        final double minZ = Math.min(position.getZ(), target.getZ());
+        return tempWayPoints;
+    }
 
-        final List<BlockPos> wayPointsCopy = new ArrayList<>(tempWayPoints);
-        for (final BlockPos p : wayPointsCopy)
+    /**
+     * Add the positions which are inside a horizontal box to a list.
+     *
+     * @param positions the positions to check.
+     * @param result    the list to add to.
+     * @param minX      lowest x of the box.
+     * @param minZ      lowest z of the box.
+     * @param maxX      highest x of the box.
+     * @param maxZ      highest z of the box.
+     */
+    private static void addWayPointsInBox(
+                                           @NotNull final Collection<BlockPos> positions,
+                                           @NotNull final List<BlockPos> result,
+                                           final int minX, final int minZ, final int maxX, final int maxZ)
+    {
+        for (@NotNull final BlockPos p : positions)
         {
             final int x = p.getX();
             final int z = p.getZ();
-            if (x < minX || x > maxX || z < minZ || z > maxZ)
+            if (x >= minX && x <= maxX && z >= minZ && z <= maxZ)
             {
-                tempWayPoints.remove(p);
+                result.add(p);
             }
         }
-
-        return tempWayPoints;
     }
 
     /**
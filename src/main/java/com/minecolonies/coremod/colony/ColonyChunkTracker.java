@@ -0,0 +1,206 @@
+package com.minecolonies.coremod.colony;
+
+import com.minecolonies.coremod.configuration.Configurations;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.BitSet;
+
+/**
+ * The loaded chunks around a colony, kept up to date by the chunk load and unload events.
+ * <p>
+ * The bounds are the working range of the town hall plus a margin of three chunks. The world is scanned once when
+ * the colony gets its world or the working range changes, after that a chunk event only flips one bit, so asking if
+ * all or any chunks are loaded is a counter check and asking if a building is loaded a bit test.
+ */
+public class ColonyChunkTracker
+{
+    /**
+     * Blocks beyond the working range which must be loaded as well before all citizens can be expected to be
+     * loaded: 3 chunks, rounded up a chunk.
+     */
+    private static final int MARGIN = 48 + 15;
+
+    /**
+     * The world of the colony, null while it isn't loaded.
+     */
+    @Nullable
+    private World    world;
+
+    /**
+     * The center of the colony.
+     */
+    @Nullable
+    private BlockPos center;
+
+    /**
+     * The working range the bounds have been computed for.
+     */
+    private int trackedRange = -1;
+
+    /**
+     * The chunk bounds of the colony with the margin, the lowest chunk and the number of chunks on each axis.
+     */
+    private int minChunkX;
+    private int minChunkZ;
+    private int sizeX = 0;
+    private int sizeZ = 0;
+
+    /**
+     * The chunk bounds of the working range itself, inclusive.
+     */
+    private int rangeMinChunkX;
+    private int rangeMaxChunkX;
+    private int rangeMinChunkZ;
+    private int rangeMaxChunkZ;
+
+    /**
+     * The loaded chunks, by (x - minChunkX) * sizeZ + (z - minChunkZ).
+     */
+    @NotNull
+    private final BitSet loaded = new BitSet();
+
+    /**
+     * The number of loaded chunks within the bounds, and within the working range.
+     */
+    private int loadedCount      = 0;
+    private int rangeLoadedCount = 0;
+
+    /**
+     * Track the chunks of a colony in a world, or stop tracking with a null world.
+     *
+     * @param world  the world, or null when it unloads.
+     * @param center the center of the colony.
+     */
+    void reset(@Nullable final World world, @Nullable final BlockPos center)
+    {
+        this.world = world;
+        this.center = center;
+        trackedRange = Configurations.workingRangeTownHall;
+        loaded.clear();
+        loadedCount = 0;
+        rangeLoadedCount = 0;
+
+        if (world == null || center == null)
+        {
+            sizeX = 0;
+            sizeZ = 0;
+            return;
+        }
+
+        final int outerRange = trackedRange + MARGIN;
+        minChunkX = (center.getX() - outerRange) >> 4;
+        minChunkZ = (center.getZ() - outerRange) >> 4;
+        sizeX = ((center.getX() + outerRange) >> 4) - minChunkX + 1;
+        sizeZ = ((center.getZ() + outerRange) >> 4) - minChunkZ + 1;
+        rangeMinChunkX = (center.getX() - trackedRange) >> 4;
+        rangeMaxChunkX = (center.getX() + trackedRange) >> 4;
+        rangeMinChunkZ = (center.getZ() - trackedRange) >> 4;
+        rangeMaxChunkZ = (center.getZ() + trackedRange) >> 4;
+
+        for (int chunkX = minChunkX; chunkX < minChunkX + sizeX; chunkX++)
+        {
+            for (int chunkZ = minChunkZ; chunkZ < minChunkZ + sizeZ; chunkZ++)
+            {
+                if (world.getChunkProvider().getLoadedChunk(chunkX, chunkZ) != null)
+                {
+                    setLoaded(chunkX, chunkZ, true);
+                }
+            }
+        }
+    }
+
+    /**
+     * Record that a chunk has been loaded or unloaded, chunks outside of the bounds are ignored.
+     *
+     * @param chunkX   the chunk x.
+     * @param chunkZ   the chunk z.
+     * @param isLoaded true if it has been loaded.
+     */
+    void setLoaded(final int chunkX, final int chunkZ, final boolean isLoaded)
+    {
+        if (!contains(chunkX, chunkZ))
+        {
+            return;
+        }
+
+        final int index = (chunkX - minChunkX) * sizeZ + (chunkZ - minChunkZ);
+        if (loaded.get(index) == isLoaded)
+        {
+            return;
+        }
+
+        loaded.set(index, isLoaded);
+        final int delta = isLoaded ? 1 : -1;
+        loadedCount += delta;
+        if (chunkX >= rangeMinChunkX && chunkX <= rangeMaxChunkX && chunkZ >= rangeMinChunkZ && chunkZ <= rangeMaxChunkZ)
+        {
+            rangeLoadedCount += delta;
+        }
+    }
+
+    /**
+     * Check if all chunks of the colony and the margin around it are loaded.
+     *
+     * @return true if so.
+     */
+    public boolean areAllLoaded()
+    {
+        ensureRange();
+        return sizeX > 0 && loadedCount == sizeX * sizeZ;
+    }
+
+    /**
+     * Check if any chunk within the working range of the colony is loaded.
+     *
+     * @return true if one is.
+     */
+    public boolean isAnyLoaded()
+    {
+        ensureRange();
+        return rangeLoadedCount > 0;
+    }
+
+    /**
+     * Check if the chunk of a position is loaded, positions outside of the bounds ask the world.
+     *
+     * @param pos the position.
+     * @return true if it is loaded.
+     */
+    public boolean isLoaded(@NotNull final BlockPos pos)
+    {
+        ensureRange();
+        final int chunkX = pos.getX() >> 4;
+        final int chunkZ = pos.getZ() >> 4;
+        if (contains(chunkX, chunkZ))
+        {
+            return pos.getY() >= 0 && pos.getY() < 256 && loaded.get((chunkX - minChunkX) * sizeZ + (chunkZ - minChunkZ));
+        }
+        return world != null && world.isBlockLoaded(pos);
+    }
+
+    /**
+     * Check if a chunk is within the bounds.
+     *
+     * @param chunkX the chunk x.
+     * @param chunkZ the chunk z.
+     * @return true if so.
+     */
+    private boolean contains(final int chunkX, final int chunkZ)
+    {
+        return chunkX >= minChunkX && chunkX < minChunkX + sizeX && chunkZ >= minChunkZ && chunkZ < minChunkZ + sizeZ;
+    }
+
+    /**
+     * Rescan the world when the working range has been changed in the config.
+     */
+    private void ensureRange()
+    {
+        if (trackedRange != Configurations.workingRangeTownHall && world != null)
+        {
+            reset(world, center);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.minecolonies.coremod.colony;
+
+import com.minecolonies.coremod.colony.permissions.Permissions;
+import com.minecolonies.coremod.util.BlockPosUtil;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.nbt.NBTTagList;
+import net.minecraft.nbt.NBTTagString;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.common.util.Constants.NBT;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * The few facts about a colony needed while it is not loaded:
+ * where it is, what it is called and which players make it load when they log in.
+ * The radius of every colony is the configured town hall working range.
+ */
+public final class ColonyIndexEntry
+{
+    private static final String TAG_ID        = "id";
+    private static final String TAG_NAME      = "name";
+    private static final String TAG_DIMENSION = "dimension";
+    private static final String TAG_CENTER    = "center";
+    private static final String TAG_OWNER     = "owner";
+    private static final String TAG_MEMBERS   = "members";
+
+    private final int       id;
+    private final int       dimension;
+    @NotNull
+    private final String    name;
+    @NotNull
+    private final BlockPos  center;
+    @Nullable
+    private final UUID      owner;
+    @NotNull
+    private final Set<UUID> members;
+
+    /**
+     * Create an entry.
+     *
+     * @param id        the colony id.
+     * @param dimension the dimension of the colony.
+     * @param name      the name of the colony.
+     * @param center    the center of the colony.
+     * @param owner     the owner of the colony.
+     * @param members   the players subscribed to the colony.
+     */
+    private ColonyIndexEntry(
+                              final int id,
+                              final int dimension,
+                              @NotNull final String name,
+                              @NotNull final BlockPos center,
+                              @Nullable final UUID owner,
+                              @NotNull final Set<UUID> members)
+    {
+        this.id = id;
+        this.dimension = dimension;
+        this.name = name;
+        this.center = center;
+        this.owner = owner;
+        this.members = members;
+    }
+
+    /**
+     * Create the entry of a loaded colony.
+     *
+     * @param colony the colony, which has a center.
+     * @return the entry.
+     */
+    @NotNull
+    static ColonyIndexEntry of(@NotNull final Colony colony)
+    {
+        @NotNull final Set<UUID> members = new HashSet<>();
+        for (@NotNull final Permissions.Player player : colony.getPermissions().getPlayers().values())
+        {
+            if (player.getRank().isSubscriber)
+            {
+                members.add(player.getID());
+            }
+        }
+        return new ColonyIndexEntry(colony.getID(), colony.getDimension(), colony.getName(), colony.getCenter(), colony.getPermissions().getOwner(), members);
+    }
+
+    /**
+     * Read an entry from the colony index file.
+     *
+     * @param compound the compound.
+     * @return the entry.
+     */
+    @NotNull
+    static ColonyIndexEntry readFromNBT(@NotNull final NBTTagCompound compound)
+    {
+        @NotNull final Set<UUID> members = new HashSet<>();
+        final NBTTagList memberTagList = compound.getTagList(TAG_MEMBERS, NBT.TAG_STRING);
+        for (int i = 0; i < memberTagList.tagCount(); ++i)
+        {
+            members.add(UUID.fromString(memberTagList.getStringTagAt(i)));
+        }
+
+        @Nullable final UUID owner = compound.hasKey(TAG_OWNER) ? UUID.fromString(compound.getString(TAG_OWNER)) : null;
+        return new ColonyIndexEntry(compound.getInteger(TAG_ID),
+                                     compound.getInteger(TAG_DIMENSION),
+                                     compound.getString(TAG_NAME),
+                                     BlockPosUtil.readFromNBT(compound, TAG_CENTER),
+                                     owner,
+                                     members);
+    }
+
+    /**
+     * Write the entry to the colony index file.
+     *
+     * @param compound the compound.
+     */
+    void writeToNBT(@NotNull final NBTTagCompound compound)
+    {
+        compound.setInteger(TAG_ID, id);
+        compound.setInteger(TAG_DIMENSION, dimension);
+        compound.setString(TAG_NAME, name);
+        BlockPosUtil.writeToNBT(compound, TAG_CENTER, center);
+        if (owner != null)
+        {
+            compound.setString(TAG_OWNER, owner.toString());
+        }
+
+        @NotNull final NBTTagList memberTagList = new NBTTagList();
+        for (@NotNull final UUID member : members)
+        {
+            memberTagList.appendTag(new NBTTagString(member.toString()));
+        }
+        compound.setTag(TAG_MEMBERS, memberTagList);
+    }
+
+    /**
+     * Get the colony id.
+     *
+     * @return the id.
+     */
+    public int getID()
+    {
+        return id;
+    }
+
+    /**
+     * Get the dimension of the colony.
+     *
+     * @return the dimension id.
+     */
+    public int getDimension()
+    {
+        return dimension;
+    }
+
+    /**
+     * Get the name of the colony.
+     *
+     * @return the name.
+     */
+    @NotNull
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * Get the center of the colony.
+     *
+     * @return the center.
+     */
+    @NotNull
+    public BlockPos getCenter()
+    {
+        return center;
+    }
+
+    /**
+     * Get the owner of the colony.
+     *
+     * @return the owner or null.
+     */
+    @Nullable
+    public UUID getOwner()
+    {
+        return owner;
+    }
+
+    /**
+     * Check if a player is subscribed to the colony, the owner is too.
+     *
+     * @param player the id of the player.
+     * @return true if the player is a member.
+     */
+    public boolean isMember(@NotNull final UUID player)
+    {
+        return player.equals(owner) || members.contains(player);
+    }
+}
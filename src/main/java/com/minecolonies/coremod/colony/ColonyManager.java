@@ -5,22 +5,25 @@ import com.minecolonies.coremod.blocks.AbstractBlockHut;
 import com.minecolonies.coremod.colony.buildings.AbstractBuilding;
 import com.minecolonies.coremod.colony.permissions.Permissions;
 import com.minecolonies.coremod.configuration.Configurations;
-import com.minecolonies.coremod.util.AchievementUtils;
-import com.minecolonies.coremod.util.LanguageHandler;
-import com.minecolonies.coremod.util.Log;
+import com.minecolonies.coremod.entity.pathfinding.WorldSnapshot;
+import com.minecolonies.coremod.util.*;
 import io.netty.buffer.ByteBuf;
 import net.minecraft.client.Minecraft;
+import net.minecraft.entity.item.EntityItem;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.nbt.CompressedStreamTools;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
 import net.minecraft.util.DamageSource;
+import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraftforge.common.DimensionManager;
 import net.minecraftforge.common.util.Constants.NBT;
+import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.gameevent.TickEvent;
 import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.relauncher.Side;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
@@ -43,6 +46,26 @@ public final class ColonyManager
      */
     private static final String FILENAME_MINECOLONIES = "colonies.dat";
 
+    /**
+     * The name of the directory with one file per colony.
+     */
+    private static final String FILENAME_COLONIES_DIRECTORY = "colonies";
+
+    /**
+     * Milliseconds after which a colony is written even if it did not report a change.
+     */
+    private static final long MAX_SAVE_INTERVAL = 10L * 60L * 1000L;
+
+    /**
+     * Server ticks between the checks for idle colonies to unload.
+     */
+    private static final int UNLOAD_CHECK_INTERVAL = 20 * 60;
+
+    /**
+     * Milliseconds per minute, for the idle time config.
+     */
+    private static final long MILLIS_PER_MINUTE = 60L * 1000L;
+
     /**
      * The tag of the colonies.
      */
@@ -51,6 +74,14 @@ public final class ColonyManager
      * The damage source used to kill citizens.
      */
     private static final DamageSource               CONSOLE_DAMAGE_SOURCE = new DamageSource("Console");
+    /**
+     * Index cells around a position searched for a building outside of its colony's radius.
+     */
+    private static final int                        BUILDING_SEARCH_CELLS = 2;
+    /**
+     * Index cells around a chunk searched for unloaded colonies overlapping it.
+     */
+    private static final int                        CHUNK_SEARCH_CELLS    = 2;
     /**
      * The list of all colonies.
      */
@@ -70,6 +101,42 @@ public final class ColonyManager
      */
     @NotNull
     private static final Map<Integer, ColonyView>   colonyViews           = new HashMap<>();
+    /**
+     * Spatial index of the colonies.
+     */
+    @NotNull
+    private static final ColonySpatialIndex<Colony>           colonyIndex         =
+      new ColonySpatialIndex<>(Colony::getCenter, (colony, world) -> world.equals(colony.getWorld()));
+    /**
+     * Spatial index of the colony views.
+     */
+    @NotNull
+    private static final ColonySpatialIndex<ColonyView>       colonyViewIndex     = new ColonySpatialIndex<>(ColonyView::getCenter);
+    /**
+     * The colonies which are stored but not loaded, with lazy colony loading.
+     */
+    @NotNull
+    private static final Map<Integer, ColonyIndexEntry>       unloadedColonies    = new HashMap<>();
+    /**
+     * Spatial index of the unloaded colonies.
+     */
+    @NotNull
+    private static final ColonySpatialIndex<ColonyIndexEntry> unloadedColonyIndex = new ColonySpatialIndex<>(ColonyIndexEntry::getCenter);
+    /**
+     * The last time each loaded colony was in use, with lazy colony loading.
+     */
+    @NotNull
+    private static final Map<Integer, Long>                   lastUseTimes        = new HashMap<>();
+    /**
+     * Shares the time of a tick between the colonies.
+     */
+    @NotNull
+    private static final ColonyTickScheduler                  tickScheduler       = new ColonyTickScheduler();
+    /**
+     * The index of the dropped items of each loaded server world, by dimension.
+     */
+    @NotNull
+    private static final Map<Integer, WorldItemIndex>         itemIndexes         = new HashMap<>();
     /**
      * Amount of worlds loaded.
      */
@@ -78,6 +145,32 @@ public final class ColonyManager
      * Whether the colonyManager should persist data.
      */
     private static boolean saveNeeded;
+    /**
+     * Whether the colony index file has to be written.
+     */
+    private static boolean indexSaveNeeded;
+    /**
+     * Whether the colonies of the old single colonies file are still being moved to their own files.
+     */
+    private static boolean migrationPending;
+    /**
+     * Unloaded colonies to load on the next server tick, requested while chunks or other colonies were loading.
+     */
+    @NotNull
+    private static final Set<Integer> pendingLoads = new LinkedHashSet<>();
+    /**
+     * Whether a colony is being loaded, loads requested meanwhile are queued.
+     */
+    private static boolean loadingColony;
+    /**
+     * Server ticks until the next check for idle colonies.
+     */
+    private static int ticksUntilUnloadCheck = UNLOAD_CHECK_INTERVAL;
+    /**
+     * The storage of the colony files, set while a world is loaded.
+     */
+    @Nullable
+    private static ColonyStorage storage;
 
     private ColonyManager()
     {
@@ -105,6 +198,9 @@ public final class ColonyManager
         }
 
         coloniesByWorld.get(colony.getDimension()).add(colony);
+        colonyIndex.update(colony, colony.getDimension());
+        colony.markSaveNeeded();
+        indexSaveNeeded = true;
 
         final String colonyName = LanguageHandler.format("com.minecolonies.coremod.gui.townHall.defaultName", player.getDisplayNameString());
         colony.setName(colonyName);
@@ -141,6 +237,15 @@ public final class ColonyManager
             Log.getLogger().info("Deleting colony " + id);
             colonies.remove(id);
             coloniesByWorld.get(colony.getDimension()).remove(colony);
+            colonyIndex.remove(colony);
+            lastUseTimes.remove(id);
+            colony.getPathCache().clear();
+            if (storage != null)
+            {
+                storage.delete(id);
+            }
+            indexSaveNeeded = true;
+            saveNeeded = true;
             final Set<World> colonyWorlds = new HashSet<>();
             Log.getLogger().info("Removing citizens for " + id);
             for (final CitizenData citizenData : new ArrayList<>(colony.getCitizens().values()))
@@ -174,15 +279,70 @@ public final class ColonyManager
         }
     }
 
+    /**
+     * Get a loaded colony by its id, without loading it.
+     * Network messages use this, a client can only ask for colonies it has a view of, which are loaded.
+     *
+     * @param id the id of the colony.
+     * @return the colony, or null if there is none with this id or it is not loaded.
+     */
+    @Nullable
+    public static Colony getLoadedColony(final int id)
+    {
+        return colonies.get(id);
+    }
+
+    /**
+     * Queue an unloaded colony to be loaded on the next server tick.
+     * Entities and tile entities use this, they are read while their chunk loads and must not load a colony then.
+     *
+     * @param id the id of the colony.
+     * @return true if the colony exists and will be loaded, false if there is no such colony.
+     */
+    public static boolean queueColonyLoad(final int id)
+    {
+        if (!unloadedColonies.containsKey(id))
+        {
+            return false;
+        }
+
+        pendingLoads.add(id);
+        return true;
+    }
+
+    /**
+     * Get a loaded colony that contains a given coordinate, without loading it.
+     * World listeners use this, they can be called while a chunk is loaded.
+     *
+     * @param w   World.
+     * @param pos coordinates.
+     * @return the colony, or null if there is none at the location or it is not loaded.
+     */
+    @Nullable
+    public static Colony getLoadedColony(@NotNull final World w, @NotNull final BlockPos pos)
+    {
+        return colonyIndex.getColonyAt(w, pos);
+    }
+
     /**
      * Get Colony by UUID.
+     * An unloaded colony is loaded.
      *
      * @param id ID of colony.
      * @return Colony with given ID.
      */
     public static Colony getColony(final int id)
     {
-        return colonies.get(id);
+        @Nullable final Colony colony = colonies.get(id);
+        if (colony == null)
+        {
+            @Nullable final ColonyIndexEntry entry = unloadedColonies.get(id);
+            if (entry != null)
+            {
+                return loadUnloadedColony(entry);
+            }
+        }
+        return colony;
     }
 
     /**
@@ -213,15 +373,13 @@ public final class ColonyManager
         }
 
         //  Fallback - there might be a AbstractBuilding for this block, but it's outside of it's owning colony's radius.
-        if (coloniesByWorld.containsKey(w.provider.getDimension()))
+        //  Buildings are placed inside a colony, so only colonies up to twice the working range away are checked.
+        for (@NotNull final Colony otherColony : colonyIndex.getColoniesNear(w, pos, BUILDING_SEARCH_CELLS))
         {
-            for (@NotNull final Colony otherColony : coloniesByWorld.get(w.provider.getDimension()))
+            final AbstractBuilding building = otherColony.getBuilding(pos);
+            if (building != null)
             {
-                final AbstractBuilding building = otherColony.getBuilding(pos);
-                if (building != null)
-                {
-                    return building;
-                }
+                return building;
             }
         }
 
@@ -230,6 +388,7 @@ public final class ColonyManager
 
     /**
      * Get colony that contains a given coordinate.
+     * An unloaded colony is loaded.
      *
      * @param w   World.
      * @param pos coordinates.
@@ -237,21 +396,16 @@ public final class ColonyManager
      */
     public static Colony getColony(@NotNull final World w, @NotNull final BlockPos pos)
     {
-        final List<Colony> coloniesInWorld = coloniesByWorld.get(w.provider.getDimension());
-        if (coloniesInWorld == null)
-        {
-            return null;
-        }
-
-        for (@NotNull final Colony c : coloniesInWorld)
+        @Nullable final Colony colony = colonyIndex.getColonyAt(w, pos);
+        if (colony == null && !unloadedColonies.isEmpty())
         {
-            if (c.isCoordInColony(w, pos))
+            @Nullable final ColonyIndexEntry entry = unloadedColonyIndex.getColonyAt(w, pos);
+            if (entry != null)
             {
-                return c;
+                return loadUnloadedColony(entry);
             }
         }
-
-        return null;
+        return colony;
     }
 
     /**
@@ -272,7 +426,25 @@ public final class ColonyManager
     }
 
     /**
-     * Get all colonies in all worlds.
+     * Get the dropped items touching an area of a world.
+     *
+     * @param w    World.
+     * @param area the area.
+     * @return the items, empty if the world isn't a loaded server world.
+     */
+    @NotNull
+    public static List<EntityItem> getDroppedItems(@NotNull final World w, @NotNull final AxisAlignedBB area)
+    {
+        @Nullable final WorldItemIndex itemIndex = itemIndexes.get(w.provider.getDimension());
+        if (itemIndex == null)
+        {
+            return Collections.emptyList();
+        }
+        return itemIndex.getItems(area);
+    }
+
+    /**
+     * Get all loaded colonies in all worlds.
      *
      * @return a list of colonies.
      */
@@ -282,6 +454,26 @@ public final class ColonyManager
         return new ArrayList<>(colonies.values());
     }
 
+    /**
+     * Get the index entries of all colonies, loaded or not, sorted by id.
+     *
+     * @return a list of entries.
+     */
+    @NotNull
+    public static List<ColonyIndexEntry> getColonyEntries()
+    {
+        @NotNull final List<ColonyIndexEntry> entries = new ArrayList<>(unloadedColonies.values());
+        for (@NotNull final Colony colony : colonies.values())
+        {
+            if (colony.getCenter() != null)
+            {
+                entries.add(ColonyIndexEntry.of(colony));
+            }
+        }
+        entries.sort(Comparator.comparingInt(ColonyIndexEntry::getID));
+        return entries;
+    }
+
     /**
      * Get a AbstractBuilding by position.
      *
@@ -327,15 +519,7 @@ public final class ColonyManager
      */
     private static ColonyView getColonyView(@NotNull final World w, @NotNull final BlockPos pos)
     {
-        for (@NotNull final ColonyView c : colonyViews.values())
-        {
-            if (c.isCoordInColony(w, pos))
-            {
-                return c;
-            }
-        }
-
-        return null;
+        return colonyViewIndex.getColonyAt(w, pos);
     }
 
     /**
@@ -364,23 +548,7 @@ public final class ColonyManager
     @Nullable
     public static ColonyView getClosestColonyView(@NotNull final World w, @NotNull final BlockPos pos)
     {
-        @Nullable ColonyView closestColony = null;
-        long closestDist = Long.MAX_VALUE;
-
-        for (@NotNull final ColonyView c : colonyViews.values())
-        {
-            if (c.getDimension() == w.provider.getDimension())
-            {
-                final long dist = c.getDistanceSquared(pos);
-                if (dist < closestDist)
-                {
-                    closestColony = c;
-                    closestDist = dist;
-                }
-            }
-        }
-
-        return closestColony;
+        return colonyViewIndex.getClosest(w, pos);
     }
 
     /**
@@ -392,29 +560,22 @@ public final class ColonyManager
      */
     public static Colony getClosestColony(@NotNull final World w, @NotNull final BlockPos pos)
     {
-        final List<Colony> coloniesInWorld = coloniesByWorld.get(w.provider.getDimension());
-        if (coloniesInWorld == null)
+        @Nullable final Colony colony = colonyIndex.getClosest(w, pos);
+        if (unloadedColonies.isEmpty())
         {
-            return null;
+            return colony;
         }
 
-        @Nullable Colony closestColony = null;
-        long closestDist = Long.MAX_VALUE;
-
-        for (@NotNull final Colony c : coloniesInWorld)
+        @Nullable final ColonyIndexEntry entry = unloadedColonyIndex.getClosest(w, pos);
+        if (entry != null && (colony == null || BlockPosUtil.getDistanceSquared2D(entry.getCenter(), pos) < colony.getDistanceSquared(pos)))
         {
-            if (c.getDimension() == w.provider.getDimension())
+            @Nullable final Colony loaded = loadUnloadedColony(entry);
+            if (loaded != null)
             {
-                final long dist = c.getDistanceSquared(pos);
-                if (dist < closestDist)
-                {
-                    closestColony = c;
-                    closestDist = dist;
-                }
+                return loaded;
             }
         }
-
-        return closestColony;
+        return colony;
     }
 
     /**
@@ -485,11 +646,24 @@ public final class ColonyManager
             return null;
         }
 
-        return colonies.values()
-                 .stream()
-                 .filter(c -> owner.equals(c.getPermissions().getOwner()))
-                 .findFirst()
-                 .orElse(null);
+        @Nullable final Colony colony = colonies.values()
+                                          .stream()
+                                          .filter(c -> owner.equals(c.getPermissions().getOwner()))
+                                          .findFirst()
+                                          .orElse(null);
+        if (colony != null)
+        {
+            return colony;
+        }
+
+        for (@NotNull final ColonyIndexEntry entry : unloadedColonies.values())
+        {
+            if (owner.equals(entry.getOwner()))
+            {
+                return loadUnloadedColony(entry);
+            }
+        }
+        return null;
     }
 
     /**
@@ -511,31 +685,346 @@ public final class ColonyManager
      */
     public static void onServerTick(@NotNull final TickEvent.ServerTickEvent event)
     {
-        for (@NotNull final Colony c : colonies.values())
+        if (event.phase == TickEvent.Phase.START)
+        {
+            tickScheduler.startTick();
+            loadPendingColonies();
+        }
+
+        //  Ticking a colony can load chunks, which can load other colonies
+        final List<Colony> coloniesCopy = new ArrayList<>(colonies.values());
+        final int start = tickScheduler.getStartIndex(coloniesCopy.size());
+        for (int i = 0; i < coloniesCopy.size(); i++)
         {
-            c.onServerTick(event);
+            coloniesCopy.get((start + i) % coloniesCopy.size()).onServerTick(event);
+        }
+
+        if (Configurations.lazyColonyLoading && event.phase == TickEvent.Phase.END && --ticksUntilUnloadCheck <= 0)
+        {
+            ticksUntilUnloadCheck = UNLOAD_CHECK_INTERVAL;
+            unloadIdleColonies();
         }
 
         if (saveNeeded)
         {
-            saveColonies();
+            saveColonies(false);
+        }
+    }
+
+    /**
+     * Unload the colonies which have not been in use for the configured idle time.
+     * They are written to disk and loaded again when needed.
+     */
+    private static void unloadIdleColonies()
+    {
+        if (storage == null)
+        {
+            return;
+        }
+
+        final long now = System.currentTimeMillis();
+        final long maxIdleTime = Configurations.colonyEvictionIdleMinutes * MILLIS_PER_MINUTE;
+        for (@NotNull final Colony colony : new ArrayList<>(colonies.values()))
+        {
+            @Nullable final Long lastUseTime = lastUseTimes.get(colony.getID());
+            if (colony.getCenter() == null || colony.isInUse() || lastUseTime == null)
+            {
+                lastUseTimes.put(colony.getID(), now);
+            }
+            else if (now - lastUseTime > maxIdleTime)
+            {
+                unloadColony(colony, now);
+            }
         }
     }
 
     /**
-     * Save all the Colonies.
+     * Write a colony to disk and remove it from the loaded colonies.
+     *
+     * @param colony the colony.
+     * @param now    the current time in milliseconds.
      */
-    private static void saveColonies()
+    private static void unloadColony(@NotNull final Colony colony, final long now)
     {
+        final long start = ColonyProfiler.start();
         @NotNull final NBTTagCompound compound = new NBTTagCompound();
-        writeToNBT(compound);
+        colony.writeToNBT(compound);
+        storage.save(colony.getID(), compound);
+        ColonyProfiler.record(colony.getID(), ColonyProfiler.Section.SAVE, "unload", start);
+
+        colonies.remove(colony.getID());
+        coloniesByWorld.get(colony.getDimension()).remove(colony);
+        colonyIndex.remove(colony);
+        lastUseTimes.remove(colony.getID());
+        colony.getPathCache().clear();
+
+        addUnloadedColony(ColonyIndexEntry.of(colony));
+        indexSaveNeeded = true;
+        saveNeeded = true;
+        Log.getLogger().info(String.format("Unloaded idle colony %d", colony.getID()));
+    }
 
-        @NotNull final File file = getSaveLocation();
-        saveNBTToPath(file, compound);
+    /**
+     * Register a colony which is stored but not loaded.
+     *
+     * @param entry the index entry of the colony.
+     */
+    private static void addUnloadedColony(@NotNull final ColonyIndexEntry entry)
+    {
+        unloadedColonies.put(entry.getID(), entry);
+        unloadedColonyIndex.update(entry, entry.getDimension());
+        topColonyId = Math.max(topColonyId, entry.getID());
+    }
+
+    /**
+     * Load the colonies queued by chunk loads and nested colony loads.
+     */
+    private static void loadPendingColonies()
+    {
+        if (pendingLoads.isEmpty())
+        {
+            return;
+        }
+
+        //  Loading a colony loads chunks, which queue the colonies they overlap for the next tick
+        final List<Integer> ids = new ArrayList<>(pendingLoads);
+        pendingLoads.clear();
+        for (final int id : ids)
+        {
+            @Nullable final ColonyIndexEntry entry = unloadedColonies.get(id);
+            if (entry != null)
+            {
+                loadUnloadedColony(entry);
+            }
+        }
+    }
+
+    /**
+     * Load an unloaded colony from its file.
+     * Only done on the server thread, other threads don't get the colony.
+     * A load requested while another colony is loading is queued for the next server tick.
+     *
+     * @param entry the index entry of the colony.
+     * @return the colony, or null if it could not be loaded or has been queued.
+     */
+    @Nullable
+    private static Colony loadUnloadedColony(@NotNull final ColonyIndexEntry entry)
+    {
+        if (storage == null || FMLCommonHandler.instance().getEffectiveSide() != Side.SERVER)
+        {
+            return null;
+        }
+
+        if (loadingColony)
+        {
+            pendingLoads.add(entry.getID());
+            return null;
+        }
+
+        loadingColony = true;
+        try
+        {
+            return loadColonyFile(entry);
+        }
+        finally
+        {
+            loadingColony = false;
+        }
+    }
+
+    /**
+     * Read an unloaded colony from its file and add it to the loaded colonies.
+     *
+     * @param entry the index entry of the colony.
+     * @return the colony, or null if it could not be loaded.
+     */
+    @Nullable
+    private static Colony loadColonyFile(@NotNull final ColonyIndexEntry entry)
+    {
+        unloadedColonies.remove(entry.getID());
+        unloadedColonyIndex.remove(entry);
+
+        @Nullable final NBTTagCompound compound = storage.load(entry.getID());
+        if (compound == null)
+        {
+            Log.getLogger().error(String.format("Could not load colony %d", entry.getID()));
+            return null;
+        }
+
+        @NotNull final Colony colony = Colony.loadColony(compound);
+        addLoadedColony(colony);
+        @Nullable final World world = DimensionManager.getWorld(colony.getDimension());
+        if (world != null)
+        {
+            colony.onWorldLoad(world);
+        }
+        lastUseTimes.put(colony.getID(), System.currentTimeMillis());
+        Log.getLogger().info(String.format("Loaded colony %d", colony.getID()));
+        return colony;
+    }
+
+    /**
+     * Mark a chunk which has been loaded in the colonies around it,
+     * and queue the unloaded colonies overlapping it to be loaded on the next server tick.
+     * Loading them right away would load their chunks while the world is still loading this one.
+     *
+     * @param world  the world of the chunk.
+     * @param chunkX the chunk x.
+     * @param chunkZ the chunk z.
+     */
+    public static void onChunkLoad(@NotNull final World world, final int chunkX, final int chunkZ)
+    {
+        if (world.isRemote)
+        {
+            return;
+        }
 
+        setChunkLoaded(world, chunkX, chunkZ, true);
+        if (unloadedColonies.isEmpty())
+        {
+            return;
+        }
+
+        final int minX = chunkX << 4;
+        final int minZ = chunkZ << 4;
+        final double rangeSquared = MathUtils.square(Configurations.workingRangeTownHall);
+        for (@NotNull final ColonyIndexEntry entry : unloadedColonyIndex.getColoniesNear(world, new BlockPos(minX + 8, 0, minZ + 8), CHUNK_SEARCH_CELLS))
+        {
+            //  Distance from the center to the closest block of the chunk
+            final BlockPos center = entry.getCenter();
+            final long x = Math.max(minX, Math.min(minX + 15, center.getX())) - center.getX();
+            final long z = Math.max(minZ, Math.min(minZ + 15, center.getZ())) - center.getZ();
+            if (x * x + z * z <= rangeSquared)
+            {
+                pendingLoads.add(entry.getID());
+            }
+        }
+    }
+
+    /**
+     * Mark a chunk which is unloaded in the colonies around it.
+     *
+     * @param world  the world of the chunk.
+     * @param chunkX the chunk x.
+     * @param chunkZ the chunk z.
+     */
+    public static void onChunkUnload(@NotNull final World world, final int chunkX, final int chunkZ)
+    {
+        if (!world.isRemote)
+        {
+            setChunkLoaded(world, chunkX, chunkZ, false);
+        }
+    }
+
+    /**
+     * Update the chunk trackers of the loaded colonies around a chunk.
+     *
+     * @param world    the world of the chunk.
+     * @param chunkX   the chunk x.
+     * @param chunkZ   the chunk z.
+     * @param isLoaded true if it has been loaded.
+     */
+    private static void setChunkLoaded(@NotNull final World world, final int chunkX, final int chunkZ, final boolean isLoaded)
+    {
+        //  The trackers reach a margin beyond the working range the index cells are sized for, so ask all colonies of the world
+        final List<Colony> worldColonies = coloniesByWorld.get(world.provider.getDimension());
+        if (worldColonies == null)
+        {
+            return;
+        }
+
+        for (@NotNull final Colony colony : worldColonies)
+        {
+            if (colony.getWorld() == world)
+            {
+                colony.getChunkTracker().setLoaded(chunkX, chunkZ, isLoaded);
+            }
+        }
+    }
+
+    /**
+     * Load the unloaded colonies a player who logged in is a member of.
+     *
+     * @param player the player.
+     */
+    public static void onPlayerLogin(@NotNull final EntityPlayer player)
+    {
+        final UUID id = player.getGameProfile().getId();
+        for (@NotNull final ColonyIndexEntry entry : new ArrayList<>(unloadedColonies.values()))
+        {
+            if (entry.isMember(id))
+            {
+                loadUnloadedColony(entry);
+            }
+        }
+    }
+
+    /**
+     * Save the colonies which changed since their last save.
+     * The colonies are serialized right away, the files are written in the background.
+     *
+     * @param all true to save every colony.
+     */
+    private static void saveColonies(final boolean all)
+    {
+        if (storage == null)
+        {
+            return;
+        }
+
+        final long now = System.currentTimeMillis();
+        for (@NotNull final Colony colony : colonies.values())
+        {
+            //  Not every change is reported, so colonies are written every now and then anyway.
+            if (all || colony.isSaveNeeded() || now - colony.getLastSaveTime() > MAX_SAVE_INTERVAL)
+            {
+                final long start = ColonyProfiler.start();
+                @NotNull final NBTTagCompound compound = new NBTTagCompound();
+                colony.writeToNBT(compound);
+                storage.save(colony.getID(), compound);
+                colony.onSaved(now);
+                ColonyProfiler.record(colony.getID(), ColonyProfiler.Section.SAVE, "save", start);
+            }
+        }
+
+        if (indexSaveNeeded)
+        {
+            saveIndex();
+        }
+
+        if (migrationPending)
+        {
+            //  Queued after the colonies, so it only ends up on disk once all of them are
+            storage.markMigrated();
+            migrationPending = false;
+        }
         saveNeeded = false;
     }
 
+    /**
+     * Write the index of all colonies, used to load the colonies when needed.
+     */
+    private static void saveIndex()
+    {
+        if (storage == null)
+        {
+            return;
+        }
+
+        @NotNull final NBTTagList entryTagList = new NBTTagList();
+        for (@NotNull final ColonyIndexEntry entry : getColonyEntries())
+        {
+            @NotNull final NBTTagCompound entryCompound = new NBTTagCompound();
+            entry.writeToNBT(entryCompound);
+            entryTagList.appendTag(entryCompound);
+        }
+
+        @NotNull final NBTTagCompound compound = new NBTTagCompound();
+        compound.setTag(TAG_COLONIES, entryTagList);
+        storage.saveIndex(compound);
+        indexSaveNeeded = false;
+    }
+
     /**
      * Write colonies to NBT data for saving.
      *
@@ -566,25 +1055,15 @@ public final class ColonyManager
     }
 
     /**
-     * Save an NBTTagCompound to a file.  Does so in a safe manner using an intermediate tmp file.
+     * Get the directory the colony files are stored in.
      *
-     * @param file     The destination file to write the data to.
-     * @param compound The NBTTagCompound to write to the file.
+     * @return the directory.
      */
-    private static void saveNBTToPath(@Nullable final File file, @NotNull final NBTTagCompound compound)
+    @NotNull
+    private static File getColoniesDirectory()
     {
-        try
-        {
-            if (file != null)
-            {
-                file.getParentFile().mkdir();
-                CompressedStreamTools.safeWrite(compound, file);
-            }
-        }
-        catch (final IOException exception)
-        {
-            Log.getLogger().error("Exception when saving ColonyManager", exception);
-        }
+        @NotNull final File saveDir = new File(DimensionManager.getWorld(0).getSaveHandler().getWorldDirectory(), FILENAME_MINECOLONIES_PATH);
+        return new File(saveDir, FILENAME_COLONIES_DIRECTORY);
     }
 
     /**
@@ -598,6 +1077,7 @@ public final class ColonyManager
         {
             //  Player has left the game, clear the Colony View cache
             colonyViews.clear();
+            colonyViewIndex.clear();
         }
     }
 
@@ -610,11 +1090,36 @@ public final class ColonyManager
     public static void onWorldTick(
                                     @NotNull final TickEvent.WorldTickEvent event)
     {
-        final Map<Integer, Colony> coloniesCopy = new HashMap<>(colonies);
+        @Nullable final WorldItemIndex itemIndex = itemIndexes.get(event.world.provider.getDimension());
+        if (itemIndex != null && event.phase == TickEvent.Phase.START)
+        {
+            itemIndex.onWorldTick();
+        }
+
+        @Nullable final List<Colony> worldColonies = coloniesByWorld.get(event.world.provider.getDimension());
+        if (worldColonies == null)
+        {
+            return;
+        }
 
-        coloniesCopy.values().stream()
-          .filter(c -> c.getDimension() == event.world.provider.getDimension())
-          .forEach(c -> c.onWorldTick(event));
+        //  Start with a different colony every tick, so the same colonies don't always get the rest of the budget
+        final List<Colony> coloniesCopy = new ArrayList<>(worldColonies);
+        final int start = tickScheduler.getStartIndex(coloniesCopy.size());
+        for (int i = 0; i < coloniesCopy.size(); i++)
+        {
+            coloniesCopy.get((start + i) % coloniesCopy.size()).onWorldTick(event);
+        }
+    }
+
+    /**
+     * Get the scheduler sharing the time of a tick between the colonies.
+     *
+     * @return the scheduler.
+     */
+    @NotNull
+    public static ColonyTickScheduler getTickScheduler()
+    {
+        return tickScheduler;
     }
 
     /**
@@ -629,12 +1134,7 @@ public final class ColonyManager
         {
             if (numWorldsLoaded == 0)
             {
-                @NotNull final File file = getSaveLocation();
-                @Nullable final NBTTagCompound data = loadNBTFromPath(file);
-                if (data != null)
-                {
-                    readFromNBT(data);
-                }
+                loadColonies();
             }
             ++numWorldsLoaded;
 
@@ -647,7 +1147,98 @@ public final class ColonyManager
                 }
             }
 
-            world.addEventListener(new ColonyManagerWorldAccess());
+            final WorldItemIndex itemIndex = new WorldItemIndex();
+            itemIndexes.put(world.provider.getDimension(), itemIndex);
+            world.addEventListener(new ColonyManagerWorldAccess(itemIndex));
+        }
+    }
+
+    /**
+     * Load the colonies from their files, or from the single colonies file of older versions.
+     * Until the move to the colony files is marked as complete, colonies missing a file are taken from the old file.
+     */
+    private static void loadColonies()
+    {
+        storage = new ColonyStorage(getColoniesDirectory());
+        if (storage.exists() && storage.isMigrated())
+        {
+            @Nullable final NBTTagCompound index = Configurations.lazyColonyLoading ? storage.loadIndex() : null;
+            if (index == null)
+            {
+                for (@NotNull final NBTTagCompound colonyCompound : storage.loadAll())
+                {
+                    addLoadedColony(Colony.loadColony(colonyCompound));
+                }
+                indexSaveNeeded = true;
+            }
+            else
+            {
+                loadIndex(index);
+            }
+            Log.getLogger().info(String.format("Loaded %d colonies, %d more are loaded when needed", colonies.size(), unloadedColonies.size()));
+            return;
+        }
+
+        //  A crash during the move may have left some colony files, they are at least as new as the old file.
+        if (storage.exists())
+        {
+            for (@NotNull final NBTTagCompound colonyCompound : storage.loadAll())
+            {
+                addLoadedColony(Colony.loadColony(colonyCompound));
+            }
+        }
+
+        @NotNull final File file = getSaveLocation();
+        @Nullable final NBTTagCompound data = loadNBTFromPath(file);
+        if (data != null)
+        {
+            final NBTTagList colonyTags = data.getTagList(TAG_COLONIES, NBT.TAG_COMPOUND);
+            for (int i = 0; i < colonyTags.tagCount(); ++i)
+            {
+                @NotNull final Colony colony = Colony.loadColony(colonyTags.getCompoundTagAt(i));
+                if (!colonies.containsKey(colony.getID()))
+                {
+                    addLoadedColony(colony);
+                }
+            }
+            Log.getLogger().info(String.format("Loaded %d colonies", colonies.size()));
+        }
+
+        //  Move the colonies to their own files, the old file is left as backup.
+        colonies.values().forEach(Colony::markSaveNeeded);
+        indexSaveNeeded = true;
+        migrationPending = true;
+        saveNeeded = true;
+    }
+
+    /**
+     * Register the colonies of the index as unloaded.
+     * Colonies which are stored but missing in the index are loaded right away.
+     *
+     * @param index the stored index.
+     */
+    private static void loadIndex(@NotNull final NBTTagCompound index)
+    {
+        @NotNull final Set<Integer> storedIds = storage.getStoredIds();
+        final NBTTagList entryTagList = index.getTagList(TAG_COLONIES, NBT.TAG_COMPOUND);
+        for (int i = 0; i < entryTagList.tagCount(); ++i)
+        {
+            @NotNull final ColonyIndexEntry entry = ColonyIndexEntry.readFromNBT(entryTagList.getCompoundTagAt(i));
+            if (storedIds.remove(entry.getID()))
+            {
+                addUnloadedColony(entry);
+            }
+        }
+
+        //  Saved after the index was written the last time
+        for (final int id : storedIds)
+        {
+            @Nullable final NBTTagCompound colonyCompound = storage.load(id);
+            if (colonyCompound != null)
+            {
+                addLoadedColony(Colony.loadColony(colonyCompound));
+                indexSaveNeeded = true;
+            }
         }
     }
 
@@ -684,19 +1275,32 @@ public final class ColonyManager
         final NBTTagList colonyTags = compound.getTagList(TAG_COLONIES, NBT.TAG_COMPOUND);
         for (int i = 0; i < colonyTags.tagCount(); ++i)
         {
-            @NotNull final Colony colony = Colony.loadColony(colonyTags.getCompoundTagAt(i));
-            colonies.put(colony.getID(), colony);
+            addLoadedColony(Colony.loadColony(colonyTags.getCompoundTagAt(i)));
+        }
 
-            if (!coloniesByWorld.containsKey(colony.getDimension()))
-            {
-                coloniesByWorld.put(colony.getDimension(), new ArrayList<>());
-            }
-            coloniesByWorld.get(colony.getDimension()).add(colony);
+        Log.getLogger().info(String.format("Loaded %d colonies", colonies.size()));
+    }
+
+    /**
+     * Register a colony which has been loaded from disk.
+     *
+     * @param colony the colony.
+     */
+    private static void addLoadedColony(@NotNull final Colony colony)
+    {
+        colonies.put(colony.getID(), colony);
 
-            topColonyId = Math.max(topColonyId, colony.getID());
+        if (!coloniesByWorld.containsKey(colony.getDimension()))
+        {
+            coloniesByWorld.put(colony.getDimension(), new ArrayList<>());
         }
+        coloniesByWorld.get(colony.getDimension()).add(colony);
+        colonyIndex.update(colony, colony.getDimension());
 
-        Log.getLogger().info(String.format("Loaded %d colonies", colonies.size()));
+        //  It is on disk already
+        colony.onSaved(System.currentTimeMillis());
+
+        topColonyId = Math.max(topColonyId, colony.getID());
     }
 
     /**
@@ -709,7 +1313,10 @@ public final class ColonyManager
         //We save when the first dimension is saved.
         if (!world.isRemote && world.provider.getDimension() == 0)
         {
-            saveColonies();
+            //  Names and members in the index might have changed
+            //  Not every change marks a colony dirty, so a world save writes all of them
+            indexSaveNeeded = true;
+            saveColonies(true);
         }
     }
 
@@ -732,11 +1339,29 @@ public final class ColonyManager
                 }
             }
 
+            WorldSnapshot.onWorldUnload(world);
+            itemIndexes.remove(world.provider.getDimension());
+
             --numWorldsLoaded;
             if (numWorldsLoaded == 0)
             {
+                //  The storage is closed right after, so unreported changes would be lost
+                indexSaveNeeded = true;
+                saveColonies(true);
+                if (storage != null)
+                {
+                    storage.close();
+                    storage = null;
+                }
+
                 colonies.clear();
                 coloniesByWorld.clear();
+                colonyIndex.clear();
+                unloadedColonies.clear();
+                unloadedColonyIndex.clear();
+                lastUseTimes.clear();
+                migrationPending = false;
+                pendingLoads.clear();
             }
         }
     }
@@ -759,7 +1384,9 @@ public final class ColonyManager
             colonyViews.put(colonyId, view);
         }
 
-        return view.handleColonyViewMessage(colonyData, isNewSubscription);
+        @Nullable final IMessage response = view.handleColonyViewMessage(colonyData, isNewSubscription);
+        colonyViewIndex.update(view, view.getDimension());
+        return response;
     }
 
     /**
@@ -796,22 +1423,22 @@ public final class ColonyManager
     }
 
     /**
-     * Returns result of {@link ColonyView#handleColonyViewCitizensMessage(int, ByteBuf)} if {@link #getColonyView(int)}
+     * Returns result of {@link ColonyView#handleColonyViewUpdateMessage(ByteBuf)} if {@link #getColonyView(int)}
      * gives a not-null result. If {@link #getColonyView(int)} is null, returns null.
      *
-     * @param colonyId  ID of the colony.
-     * @param citizenId ID of the citizen.
-     * @param buf       {@link ByteBuf} with colony data.
-     * @return result of {@link ColonyView#handleColonyViewCitizensMessage(int, ByteBuf)} or null.
+     * @param colonyId ID of the colony.
+     * @param buf      {@link ByteBuf} with the citizen and building view updates.
+     * @return result of {@link ColonyView#handleColonyViewUpdateMessage(ByteBuf)} or null.
      */
-    public static IMessage handleColonyViewCitizensMessage(final int colonyId, final int citizenId, final ByteBuf buf)
+    public static IMessage handleColonyViewUpdateMessage(final int colonyId, @NotNull final ByteBuf buf)
     {
         final ColonyView view = getColonyView(colonyId);
         if (view == null)
         {
+            Log.getLogger().error(String.format("Colony view does not exist for ID #%d", colonyId));
             return null;
         }
-        return view.handleColonyViewCitizensMessage(citizenId, buf);
+        return view.handleColonyViewUpdateMessage(buf);
     }
 
     /**
@@ -853,29 +1480,6 @@ public final class ColonyManager
         return null;
     }
 
-    /**
-     * Returns result of {@link ColonyView#handleColonyBuildingViewMessage(BlockPos, ByteBuf)} if {@link #getColonyView(int)}
-     * gives a not-null result. If {@link #getColonyView(int)} is null, returns null.
-     *
-     * @param colonyId   ID of the colony.
-     * @param buildingId ID of the building.
-     * @param buf        {@link ByteBuf} with colony data.
-     * @return result of {@link ColonyView#handleColonyBuildingViewMessage(BlockPos, ByteBuf)} or null.
-     */
-    public static IMessage handleColonyBuildingViewMessage(final int colonyId, final BlockPos buildingId, @NotNull final ByteBuf buf)
-    {
-        final ColonyView view = getColonyView(colonyId);
-        if (view != null)
-        {
-            return view.handleColonyBuildingViewMessage(buildingId, buf);
-        }
-        else
-        {
-            Log.getLogger().error(String.format("Colony view does not exist for ID #%d", colonyId));
-            return null;
-        }
-    }
-
     /**
      * Returns result of {@link ColonyView#handleColonyViewRemoveBuildingMessage(BlockPos)} if {@link #getColonyView(int)}
      * gives a not-null result. If {@link #getColonyView(int)} is null, returns null.
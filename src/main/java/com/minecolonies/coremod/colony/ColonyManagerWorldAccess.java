@@ -1,26 +1,62 @@
 package com.minecolonies.coremod.colony;
 
 import com.minecolonies.coremod.entity.EntityCitizen;
+import com.minecolonies.coremod.entity.pathfinding.PathCache;
+import com.minecolonies.coremod.entity.pathfinding.WorldSnapshot;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
+import net.minecraft.entity.item.EntityItem;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.util.SoundCategory;
 import net.minecraft.util.SoundEvent;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.IWorldEventListener;
 import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Allows us to respond to entity addition and removal events.
  */
 public class ColonyManagerWorldAccess implements IWorldEventListener
 {
+    /**
+     * The colony whose threat index each threat of the world was added to, it may have left the colony since.
+     */
+    @NotNull
+    private final Map<Entity, Integer> threatOwners = new HashMap<>();
+
+    /**
+     * The index of the dropped items of the world this listens to.
+     */
+    @NotNull
+    private final WorldItemIndex itemIndex;
+
+    /**
+     * Create the listener of a world.
+     *
+     * @param itemIndex the index of the dropped items of the world.
+     */
+    public ColonyManagerWorldAccess(@NotNull final WorldItemIndex itemIndex)
+    {
+        this.itemIndex = itemIndex;
+    }
 
     @Override
     public void notifyBlockUpdate(final World worldIn, final BlockPos pos, final IBlockState oldState, final IBlockState newState, final int flags)
     {
-        //Not needed
+        WorldSnapshot.onBlockChanged(worldIn, pos);
+
+        PathCache.onBlockChanged(worldIn, pos);
 
+        final Colony colony = ColonyManager.getLoadedColony(worldIn, pos);
+        if (colony != null)
+        {
+            colony.getSectionGraph().onBlockChanged(worldIn, pos, oldState, newState);
+        }
     }
 
     @Override
@@ -68,6 +104,18 @@ public class ColonyManagerWorldAccess implements IWorldEventListener
         {
             ((EntityCitizen) entity).updateColonyServer();
         }
+        else if (ColonyThreatIndex.isThreat(entity))
+        {
+            final Colony colony = ColonyManager.getLoadedColony(entity.worldObj, entity.getPosition());
+            if (colony != null && colony.getThreatIndex().onEntityAdded(entity))
+            {
+                threatOwners.put(entity, colony.getID());
+            }
+        }
+        else if (entity instanceof EntityItem)
+        {
+            itemIndex.onEntityAdded((EntityItem) entity);
+        }
     }
 
     @Override
@@ -81,6 +129,22 @@ public class ColonyManagerWorldAccess implements IWorldEventListener
                 citizen.setCitizenEntity(null);
             }
         }
+        else if (ColonyThreatIndex.isThreat(entity))
+        {
+            @Nullable final Integer owner = threatOwners.remove(entity);
+            //  Threats found by the periodic scan of a colony have no owner recorded, they are likely still in it
+            final Colony colony = owner == null
+                                    ? ColonyManager.getLoadedColony(entity.worldObj, entity.getPosition())
+                                    : ColonyManager.getLoadedColony(owner);
+            if (colony != null)
+            {
+                colony.getThreatIndex().onEntityRemoved(entity);
+            }
+        }
+        else if (entity instanceof EntityItem)
+        {
+            itemIndex.onEntityRemoved((EntityItem) entity);
+        }
     }
 
     @Override
@@ -0,0 +1,470 @@
+package com.minecolonies.coremod.colony;
+
+import com.minecolonies.coremod.configuration.Configurations;
+import com.minecolonies.coremod.util.BlockPosUtil;
+import com.minecolonies.coremod.util.MathUtils;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Grid of colony centers per dimension, to find the colony owning a position or the closest colony
+ * without looking at every colony of the dimension.
+ * <p>
+ * The cells are at least as big as the working range of a town hall, so a colony containing a position
+ * always has its center in the cell of the position or one of the 8 cells around it.
+ * When the working range is changed in the config, the grid is rebuilt with the new cell size.
+ * Only the centers are used, a position belongs to a colony if it is within the working range of its center.
+ *
+ * @param <T> the colony type, {@link Colony} and {@link ColonyIndexEntry} on the server and {@link ColonyView} on the client.
+ */
+final class ColonySpatialIndex<T>
+{
+    /**
+     * Smallest cell size as shift, one chunk.
+     */
+    private static final int MIN_CELL_SHIFT = 4;
+
+    /**
+     * Shift and mask to pack the cell coordinates into a key.
+     */
+    private static final int  KEY_SHIFT_X = 32;
+    private static final long KEY_MASK_Z  = 0xFFFFFFFFL;
+
+    /**
+     * Cells the closest colony search looks at per indexed colony before it checks all colonies instead.
+     */
+    private static final int CELLS_PER_COLONY = 4;
+
+    /**
+     * The indexed colonies of each dimension.
+     */
+    @NotNull
+    private final Map<Integer, DimensionIndex<T>> dimensions = new HashMap<>();
+
+    /**
+     * Gets the center of a colony.
+     */
+    @NotNull
+    private final Function<T, BlockPos> centerOf;
+
+    /**
+     * Checks if a colony of the dimension is in a world.
+     */
+    @NotNull
+    private final BiPredicate<T, World> isInWorld;
+
+    /**
+     * Where each colony is indexed.
+     */
+    @NotNull
+    private final Map<T, Long> cellOfColony = new IdentityHashMap<>();
+
+    /**
+     * Dimension of each indexed colony.
+     */
+    @NotNull
+    private final Map<T, Integer> dimensionOfColony = new IdentityHashMap<>();
+
+    /**
+     * Working range the cells have been sized for.
+     */
+    private int indexedRange = -1;
+
+    /**
+     * Cell size as shift.
+     */
+    private int cellShift = MIN_CELL_SHIFT;
+
+    /**
+     * Create an index of colonies which belong to every world of their dimension.
+     *
+     * @param centerOf gets the center of a colony.
+     */
+    ColonySpatialIndex(@NotNull final Function<T, BlockPos> centerOf)
+    {
+        this(centerOf, (colony, world) -> true);
+    }
+
+    /**
+     * Create an index.
+     *
+     * @param centerOf  gets the center of a colony.
+     * @param isInWorld checks if a colony of the dimension is in a world, like {@link Colony#isCoordInColony(World, BlockPos)}.
+     */
+    ColonySpatialIndex(@NotNull final Function<T, BlockPos> centerOf, @NotNull final BiPredicate<T, World> isInWorld)
+    {
+        this.centerOf = centerOf;
+        this.isInWorld = isInWorld;
+    }
+
+    /**
+     * Compute the key of a cell.
+     *
+     * @param cellX cell x.
+     * @param cellZ cell z.
+     * @return the key.
+     */
+    private static long cellKey(final int cellX, final int cellZ)
+    {
+        return ((long) cellX << KEY_SHIFT_X) | (cellZ & KEY_MASK_Z);
+    }
+
+    /**
+     * Add a colony, or move it if its center or dimension changed.
+     * Colonies without a center yet are ignored.
+     *
+     * @param colony    the colony.
+     * @param dimension the dimension of the colony.
+     */
+    void update(@NotNull final T colony, final int dimension)
+    {
+        ensureRange();
+
+        final BlockPos center = centerOf.apply(colony);
+        if (center == null)
+        {
+            remove(colony);
+            return;
+        }
+
+        final long key = cellKey(center.getX() >> cellShift, center.getZ() >> cellShift);
+        @Nullable final Long currentKey = cellOfColony.get(colony);
+        @Nullable final Integer currentDimension = dimensionOfColony.get(colony);
+        if (currentKey != null && currentKey == key && currentDimension != null && currentDimension == dimension)
+        {
+            return;
+        }
+
+        remove(colony);
+        DimensionIndex<T> index = dimensions.get(dimension);
+        if (index == null)
+        {
+            index = new DimensionIndex<>();
+            dimensions.put(dimension, index);
+        }
+        index.add(colony, key, center.getX() >> cellShift, center.getZ() >> cellShift);
+        cellOfColony.put(colony, key);
+        dimensionOfColony.put(colony, dimension);
+    }
+
+    /**
+     * Remove a colony.
+     *
+     * @param colony the colony.
+     */
+    void remove(@NotNull final T colony)
+    {
+        @Nullable final Long key = cellOfColony.remove(colony);
+        @Nullable final Integer dimension = dimensionOfColony.remove(colony);
+        if (key == null || dimension == null)
+        {
+            return;
+        }
+
+        @Nullable final DimensionIndex<T> index = dimensions.get(dimension);
+        if (index != null)
+        {
+            index.remove(colony, key);
+            if (index.all.isEmpty())
+            {
+                dimensions.remove(dimension);
+            }
+        }
+    }
+
+    /**
+     * Remove all colonies.
+     */
+    void clear()
+    {
+        dimensions.clear();
+        cellOfColony.clear();
+        dimensionOfColony.clear();
+    }
+
+    /**
+     * Get the colony a position belongs to.
+     *
+     * @param w   the world.
+     * @param pos the position.
+     * @return the colony or null.
+     */
+    @Nullable
+    T getColonyAt(@NotNull final World w, @NotNull final BlockPos pos)
+    {
+        ensureRange();
+
+        @Nullable final DimensionIndex<T> index = dimensions.get(w.provider.getDimension());
+        if (index == null)
+        {
+            return null;
+        }
+
+        final double rangeSquared = MathUtils.square(Configurations.workingRangeTownHall);
+        final int cellX = pos.getX() >> cellShift;
+        final int cellZ = pos.getZ() >> cellShift;
+        for (int x = cellX - 1; x <= cellX + 1; x++)
+        {
+            for (int z = cellZ - 1; z <= cellZ + 1; z++)
+            {
+                @Nullable final List<T> cell = index.cells.get(cellKey(x, z));
+                if (cell == null)
+                {
+                    continue;
+                }
+
+                for (@NotNull final T colony : cell)
+                {
+                    if (distanceSquared(colony, pos) <= rangeSquared && isInWorld.test(colony, w))
+                    {
+                        return colony;
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Get the colonies which have their center within the given amount of cells around a position.
+     * With one cell these are all colonies which could contain the position.
+     *
+     * @param w     the world.
+     * @param pos   the position.
+     * @param cells the amount of cells to look around the cell of the position.
+     * @return the colonies.
+     */
+    @NotNull
+    List<T> getColoniesNear(@NotNull final World w, @NotNull final BlockPos pos, final int cells)
+    {
+        ensureRange();
+
+        @Nullable final DimensionIndex<T> index = dimensions.get(w.provider.getDimension());
+        if (index == null)
+        {
+            return Collections.emptyList();
+        }
+
+        final List<T> result = new ArrayList<>();
+        final int cellX = pos.getX() >> cellShift;
+        final int cellZ = pos.getZ() >> cellShift;
+        for (int x = cellX - cells; x <= cellX + cells; x++)
+        {
+            for (int z = cellZ - cells; z <= cellZ + cells; z++)
+            {
+                @Nullable final List<T> cell = index.cells.get(cellKey(x, z));
+                if (cell != null)
+                {
+                    result.addAll(cell);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Get the colony with the center closest to a position.
+     * Looks at the cells in growing rings around the position until no closer colony is possible.
+     *
+     * @param w   the world.
+     * @param pos the position.
+     * @return the closest colony, or null if there is none in the dimension.
+     */
+    @Nullable
+    T getClosest(@NotNull final World w, @NotNull final BlockPos pos)
+    {
+        ensureRange();
+
+        @Nullable final DimensionIndex<T> index = dimensions.get(w.provider.getDimension());
+        if (index == null)
+        {
+            return null;
+        }
+
+        final int cellX = pos.getX() >> cellShift;
+        final int cellZ = pos.getZ() >> cellShift;
+        final int maxRing = Math.max(Math.max(Math.abs(cellX - index.minX), Math.abs(cellX - index.maxX)),
+          Math.max(Math.abs(cellZ - index.minZ), Math.abs(cellZ - index.maxZ)));
+        final long cellsToSearch = (2L * maxRing + 1) * (2L * maxRing + 1);
+        if (cellsToSearch > (long) index.all.size() * CELLS_PER_COLONY)
+        {
+            return closestOf(index.all, pos);
+        }
+
+        @Nullable T closest = null;
+        long closestDist = Long.MAX_VALUE;
+        for (int ring = 0; ring <= maxRing; ring++)
+        {
+            //  Everything in this ring is at least this far away
+            final long minDistance = (long) Math.max(0, ring - 1) << cellShift;
+            if (minDistance * minDistance >= closestDist)
+            {
+                break;
+            }
+
+            for (int x = cellX - ring; x <= cellX + ring; x++)
+            {
+                final int step = (x == cellX - ring || x == cellX + ring) ? 1 : (2 * ring);
+                for (int z = cellZ - ring; z <= cellZ + ring; z += Math.max(1, step))
+                {
+                    @Nullable final List<T> cell = index.cells.get(cellKey(x, z));
+                    if (cell == null)
+                    {
+                        continue;
+                    }
+
+                    for (@NotNull final T colony : cell)
+                    {
+                        final long dist = distanceSquared(colony, pos);
+                        if (dist < closestDist)
+                        {
+                            closest = colony;
+                            closestDist = dist;
+                        }
+                    }
+                }
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Find the closest colony of a collection by checking all of them.
+     *
+     * @param colonies the colonies.
+     * @param pos      the position.
+     * @return the closest colony.
+     */
+    @Nullable
+    private T closestOf(@NotNull final Collection<T> colonies, @NotNull final BlockPos pos)
+    {
+        @Nullable T closest = null;
+        long closestDist = Long.MAX_VALUE;
+        for (@NotNull final T colony : colonies)
+        {
+            final long dist = distanceSquared(colony, pos);
+            if (dist < closestDist)
+            {
+                closest = colony;
+                closestDist = dist;
+            }
+        }
+        return closest;
+    }
+
+    /**
+     * Compute the 2D distance between the center of a colony and a position.
+     *
+     * @param colony the colony.
+     * @param pos    the position.
+     * @return the squared distance.
+     */
+    private long distanceSquared(@NotNull final T colony, @NotNull final BlockPos pos)
+    {
+        return BlockPosUtil.getDistanceSquared2D(centerOf.apply(colony), pos);
+    }
+
+    /**
+     * Rebuild the grid if the working range changed since it was built.
+     */
+    private void ensureRange()
+    {
+        if (indexedRange == Configurations.workingRangeTownHall)
+        {
+            return;
+        }
+
+        indexedRange = Configurations.workingRangeTownHall;
+        cellShift = MIN_CELL_SHIFT;
+        while ((1 << cellShift) < indexedRange)
+        {
+            cellShift++;
+        }
+
+        final Map<T, Integer> indexed = new IdentityHashMap<>(dimensionOfColony);
+        clear();
+        for (@NotNull final Map.Entry<T, Integer> entry : indexed.entrySet())
+        {
+            update(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * The grid of one dimension.
+     *
+     * @param <T> the colony type.
+     */
+    private static final class DimensionIndex<T>
+    {
+        /**
+         * Colonies by the cell of their center.
+         */
+        @NotNull
+        private final Map<Long, List<T>> cells = new HashMap<>();
+
+        /**
+         * All colonies of the dimension.
+         */
+        @NotNull
+        private final Set<T> all = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        /**
+         * Bounds of the used cells, never shrunk.
+         */
+        private int minX = Integer.MAX_VALUE;
+        private int minZ = Integer.MAX_VALUE;
+        private int maxX = Integer.MIN_VALUE;
+        private int maxZ = Integer.MIN_VALUE;
+
+        /**
+         * Add a colony.
+         *
+         * @param colony the colony.
+         * @param key    the key of its cell.
+         * @param cellX  cell x.
+         * @param cellZ  cell z.
+         */
+        private void add(@NotNull final T colony, final long key, final int cellX, final int cellZ)
+        {
+            List<T> cell = cells.get(key);
+            if (cell == null)
+            {
+                cell = new ArrayList<>(1);
+                cells.put(key, cell);
+            }
+            cell.add(colony);
+            all.add(colony);
+
+            minX = Math.min(minX, cellX);
+            minZ = Math.min(minZ, cellZ);
+            maxX = Math.max(maxX, cellX);
+            maxZ = Math.max(maxZ, cellZ);
+        }
+
+        /**
+         * Remove a colony.
+         *
+         * @param colony the colony.
+         * @param key    the key of its cell.
+         */
+        private void remove(@NotNull final T colony, final long key)
+        {
+            @Nullable final List<T> cell = cells.get(key);
+            if (cell != null)
+            {
+                cell.remove(colony);
+                if (cell.isEmpty())
+                {
+                    cells.remove(key);
+                }
+            }
+            all.remove(colony);
+        }
+    }
+}
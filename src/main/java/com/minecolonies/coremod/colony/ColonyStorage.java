@@ -0,0 +1,485 @@
+package com.minecolonies.coremod.colony;
+
+import com.minecolonies.coremod.util.Log;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Stores every colony in its own file.
+ * <p>
+ * The colony is serialized on the server thread into an uncompressed byte snapshot,
+ * compressing and writing it happens on a background thread.
+ * Each file is written to a temporary file first and then moved over the old one,
+ * so a crash while saving never leaves a broken colony file behind.
+ * If a colony is saved again before its previous snapshot was written, only the newest snapshot is written.
+ * Next to the colony files there is an index file listing all colonies, used to load colonies on demand,
+ * and a marker file written after the colonies of the old single colonies file have all been written.
+ */
+final class ColonyStorage
+{
+    /**
+     * Prefix and suffixes of the colony files.
+     */
+    private static final String FILE_PREFIX = "colony";
+    private static final String FILE_SUFFIX = ".dat";
+    private static final String TMP_SUFFIX  = ".tmp";
+
+    /**
+     * Name of the index file.
+     */
+    private static final String INDEX_FILE = "index" + FILE_SUFFIX;
+
+    /**
+     * Name of the file marking the move from the single colonies file as complete.
+     */
+    private static final String MIGRATED_FILE = "migrated" + FILE_SUFFIX;
+
+    /**
+     * Seconds to wait for the pending writes when the storage is closed.
+     */
+    private static final long CLOSE_TIMEOUT = 60;
+
+    /**
+     * Marker for a colony whose file has to be deleted.
+     */
+    private static final byte[] DELETED = new byte[0];
+
+    /**
+     * The directory containing the colony files.
+     */
+    @NotNull
+    private final File directory;
+
+    /**
+     * Snapshots waiting to be written, by file name.
+     * A snapshot stays here until its file is written, so it can be read back in the meantime.
+     */
+    @NotNull
+    private final Map<String, byte[]> pending = new HashMap<>();
+
+    /**
+     * The thread writing the files.
+     */
+    @NotNull
+    private final ExecutorService writer = Executors.newSingleThreadExecutor(runnable ->
+    {
+        final Thread thread = new Thread(runnable, "Minecolonies Colony Writer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * Create a storage in a directory.
+     *
+     * @param directory the directory of the colony files.
+     */
+    ColonyStorage(@NotNull final File directory)
+    {
+        this.directory = directory;
+    }
+
+    /**
+     * Check if the storage directory has been created before.
+     *
+     * @return true if it exists.
+     */
+    boolean exists()
+    {
+        return directory.isDirectory();
+    }
+
+    /**
+     * Check if the colonies of the single colonies file have all been written to their own files.
+     * Storages written before the marker existed count as migrated once their index has been written,
+     * the index is always queued after the colonies it lists.
+     *
+     * @return true if the old file is not needed anymore.
+     */
+    boolean isMigrated()
+    {
+        synchronized (pending)
+        {
+            if (pending.containsKey(MIGRATED_FILE))
+            {
+                return true;
+            }
+        }
+        return new File(directory, MIGRATED_FILE).exists() || new File(directory, INDEX_FILE).exists();
+    }
+
+    /**
+     * Queue the marker which completes the move from the single colonies file.
+     * The writer works the files in the order they were queued, so the marker is written after every colony
+     * queued before this call.
+     */
+    void markMigrated()
+    {
+        @Nullable final byte[] data = serialize(new NBTTagCompound(), MIGRATED_FILE);
+        if (data != null)
+        {
+            queue(MIGRATED_FILE, data);
+        }
+    }
+
+    /**
+     * Read all stored colonies.
+     *
+     * @return the stored data of each colony.
+     */
+    @NotNull
+    List<NBTTagCompound> loadAll()
+    {
+        final List<NBTTagCompound> colonies = new ArrayList<>();
+        for (final int id : getStoredIds())
+        {
+            @Nullable final NBTTagCompound compound = load(id);
+            if (compound != null)
+            {
+                colonies.add(compound);
+            }
+        }
+        return colonies;
+    }
+
+    /**
+     * Get the ids of all stored colonies.
+     * Also removes temporary files left over from a crash while saving, the previous files are still intact.
+     *
+     * @return the ids.
+     */
+    @NotNull
+    Set<Integer> getStoredIds()
+    {
+        final Set<Integer> ids = new HashSet<>();
+        @Nullable final File[] files = directory.listFiles();
+        if (files != null)
+        {
+            for (@NotNull final File file : files)
+            {
+                final String name = file.getName();
+                if (name.endsWith(TMP_SUFFIX))
+                {
+                    if (!file.delete())
+                    {
+                        Log.getLogger().warn("Could not delete " + file);
+                    }
+                }
+                else if (name.startsWith(FILE_PREFIX) && name.endsWith(FILE_SUFFIX))
+                {
+                    try
+                    {
+                        ids.add(Integer.parseInt(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length())));
+                    }
+                    catch (final NumberFormatException e)
+                    {
+                        Log.getLogger().warn("Ignoring unknown file " + file);
+                    }
+                }
+            }
+        }
+
+        synchronized (pending)
+        {
+            for (@NotNull final Map.Entry<String, byte[]> entry : pending.entrySet())
+            {
+                final String name = entry.getKey();
+                if (!name.startsWith(FILE_PREFIX))
+                {
+                    continue;
+                }
+
+                final int id = Integer.parseInt(name.substring(FILE_PREFIX.length(), name.length() - FILE_SUFFIX.length()));
+                if (entry.getValue() == DELETED)
+                {
+                    ids.remove(id);
+                }
+                else
+                {
+                    ids.add(id);
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Read a stored colony, including a snapshot which has not been written yet.
+     *
+     * @param id the id of the colony.
+     * @return the stored data of the colony, or null if it can't be read.
+     */
+    @Nullable
+    NBTTagCompound load(final int id)
+    {
+        return read(getFileName(id));
+    }
+
+    /**
+     * Read the index file.
+     *
+     * @return the stored index, or null if there is none.
+     */
+    @Nullable
+    NBTTagCompound loadIndex()
+    {
+        return read(INDEX_FILE);
+    }
+
+    /**
+     * Queue the index file to be written.
+     * Has to be called on the server thread, the compound is not used after the call returns.
+     *
+     * @param compound the index.
+     */
+    void saveIndex(@NotNull final NBTTagCompound compound)
+    {
+        @Nullable final byte[] data = serialize(compound, INDEX_FILE);
+        if (data != null)
+        {
+            queue(INDEX_FILE, data);
+        }
+    }
+
+    /**
+     * Queue a colony to be written.
+     * Has to be called on the server thread, the compound is not used after the call returns.
+     *
+     * @param id       the id of the colony.
+     * @param compound the saved colony.
+     */
+    void save(final int id, @NotNull final NBTTagCompound compound)
+    {
+        final String fileName = getFileName(id);
+        @Nullable final byte[] data = serialize(compound, fileName);
+        if (data != null)
+        {
+            queue(fileName, data);
+        }
+    }
+
+    /**
+     * Queue the file of a colony to be deleted.
+     *
+     * @param id the id of the colony.
+     */
+    void delete(final int id)
+    {
+        queue(getFileName(id), DELETED);
+    }
+
+    /**
+     * Wait for all queued writes and stop the writer thread.
+     */
+    void close()
+    {
+        writer.shutdown();
+        try
+        {
+            if (!writer.awaitTermination(CLOSE_TIMEOUT, TimeUnit.SECONDS))
+            {
+                Log.getLogger().error("Timed out waiting for the colonies to be saved");
+            }
+        }
+        catch (final InterruptedException e)
+        {
+            Log.getLogger().error("Interrupted while waiting for the colonies to be saved", e);
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Get the name of the file of a colony.
+     *
+     * @param id the id of the colony.
+     * @return the file name.
+     */
+    @NotNull
+    private static String getFileName(final int id)
+    {
+        return FILE_PREFIX + id + FILE_SUFFIX;
+    }
+
+    /**
+     * Serialize a compound into an uncompressed snapshot.
+     *
+     * @param compound the compound.
+     * @param fileName the file it is for, used in the error message.
+     * @return the snapshot, or null if it could not be serialized.
+     */
+    @Nullable
+    private static byte[] serialize(@NotNull final NBTTagCompound compound, @NotNull final String fileName)
+    {
+        final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes))
+        {
+            CompressedStreamTools.write(compound, out);
+        }
+        catch (final IOException e)
+        {
+            Log.getLogger().error("Exception when saving " + fileName, e);
+            return null;
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Read a file, or its snapshot if it has not been written yet.
+     *
+     * @param fileName the name of the file.
+     * @return the compound, or null if there is none or it can't be read.
+     */
+    @Nullable
+    private NBTTagCompound read(@NotNull final String fileName)
+    {
+        @Nullable final byte[] data;
+        synchronized (pending)
+        {
+            data = pending.get(fileName);
+        }
+
+        if (data == DELETED)
+        {
+            return null;
+        }
+
+        try
+        {
+            if (data != null)
+            {
+                return CompressedStreamTools.read(new DataInputStream(new ByteArrayInputStream(data)));
+            }
+
+            final File file = new File(directory, fileName);
+            if (!file.exists())
+            {
+                return null;
+            }
+
+            try (InputStream in = new FileInputStream(file))
+            {
+                return CompressedStreamTools.readCompressed(in);
+            }
+        }
+        catch (final IOException e)
+        {
+            Log.getLogger().error("Exception when loading " + fileName, e);
+            return null;
+        }
+    }
+
+    /**
+     * Queue a snapshot, replacing an older one of the same file which was not written yet.
+     *
+     * @param fileName the name of the file.
+     * @param data     the snapshot or {@link #DELETED}.
+     */
+    private void queue(@NotNull final String fileName, @NotNull final byte[] data)
+    {
+        final boolean scheduled;
+        synchronized (pending)
+        {
+            scheduled = pending.put(fileName, data) != null;
+        }
+
+        if (!scheduled)
+        {
+            writer.execute(() -> write(fileName));
+        }
+    }
+
+    /**
+     * Write the newest snapshot of a file, runs on the writer thread.
+     * If a newer snapshot was queued while writing, it is written next.
+     *
+     * @param fileName the name of the file.
+     */
+    private void write(@NotNull final String fileName)
+    {
+        while (true)
+        {
+            @Nullable final byte[] data;
+            synchronized (pending)
+            {
+                data = pending.get(fileName);
+            }
+
+            if (data == null)
+            {
+                return;
+            }
+
+            writeFile(fileName, data);
+
+            synchronized (pending)
+            {
+                if (pending.get(fileName) == data)
+                {
+                    pending.remove(fileName);
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * Write or delete a file.
+     *
+     * @param fileName the name of the file.
+     * @param data     the snapshot or {@link #DELETED}.
+     */
+    private void writeFile(@NotNull final String fileName, @NotNull final byte[] data)
+    {
+        final File file = new File(directory, fileName);
+        if (data == DELETED)
+        {
+            if (file.exists() && !file.delete())
+            {
+                Log.getLogger().error("Could not delete colony file " + file);
+            }
+            return;
+        }
+
+        final File tmp = new File(directory, fileName + TMP_SUFFIX);
+        try
+        {
+            if (!directory.isDirectory() && !directory.mkdirs())
+            {
+                throw new IOException("Could not create " + directory);
+            }
+
+            try (FileOutputStream fileOut = new FileOutputStream(tmp);
+                 GZIPOutputStream out = new GZIPOutputStream(new BufferedOutputStream(fileOut)))
+            {
+                out.write(data);
+                out.finish();
+                out.flush();
+                fileOut.getFD().sync();
+            }
+
+            try
+            {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }
+            catch (final AtomicMoveNotSupportedException e)
+            {
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+        catch (final IOException e)
+        {
+            Log.getLogger().error("Exception when saving colony file " + file, e);
+        }
+    }
+}
@@ -0,0 +1,297 @@
+package com.minecolonies.coremod.colony;
+
+import com.minecolonies.coremod.colony.buildings.AbstractBuilding;
+import com.minecolonies.coremod.colony.buildings.BuildingGuardTower;
+import com.minecolonies.coremod.configuration.Configurations;
+import com.minecolonies.coremod.entity.EntityCitizen;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityLivingBase;
+import net.minecraft.entity.monster.EntityMob;
+import net.minecraft.entity.monster.EntitySlime;
+import net.minecraft.entity.player.EntityPlayer;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * The mobs and players in and around a colony which guards may attack.
+ * <p>
+ * The area of the colony is scanned once every {@link #REFRESH_INTERVAL} ticks instead of every guard scanning on its own,
+ * entities spawning or leaving the world in between are added and removed through the world listener.
+ * Colonies without a guard tower skip the scan and don't index spawning entities, nobody would hunt the threats.
+ * A guard claims the target it hunts, so the other guards pick different targets.
+ */
+public class ColonyThreatIndex
+{
+    /**
+     * Ticks between two scans of the colony area.
+     */
+    private static final int REFRESH_INTERVAL = 20;
+
+    /**
+     * Ticks after which a claim runs out if the guard doesn't renew it.
+     */
+    private static final int CLAIM_TIMEOUT = 100;
+
+    /**
+     * Blocks added around the colony, guards see a bit beyond its border.
+     */
+    private static final int AREA_PADDING = 48;
+
+    /**
+     * Height of the world.
+     */
+    private static final int WORLD_HEIGHT = 256;
+
+    /**
+     * The colony.
+     */
+    @NotNull
+    private final Colony colony;
+
+    /**
+     * The possible targets.
+     */
+    @NotNull
+    private final Set<EntityLivingBase> threats = new HashSet<>();
+
+    /**
+     * The claimed targets and their claims.
+     */
+    @NotNull
+    private final Map<EntityLivingBase, Claim> claims = new HashMap<>();
+
+    /**
+     * Ticks until the next scan.
+     */
+    private int ticksUntilRefresh = 0;
+
+    /**
+     * Whether the colony had a guard tower at the last scan.
+     */
+    private boolean guarded = false;
+
+    /**
+     * Create the index of a colony.
+     *
+     * @param colony the colony.
+     */
+    ColonyThreatIndex(@NotNull final Colony colony)
+    {
+        this.colony = colony;
+    }
+
+    /**
+     * Check if guards attack this kind of entity.
+     *
+     * @param entity the entity.
+     * @return true for mobs, slimes and players.
+     */
+    static boolean isThreat(@NotNull final Entity entity)
+    {
+        return entity instanceof EntityMob || entity instanceof EntitySlime || entity instanceof EntityPlayer;
+    }
+
+    /**
+     * Scan the colony area if it is time to.
+     *
+     * @param world the world of the colony.
+     */
+    void onWorldTick(@NotNull final World world)
+    {
+        if (--ticksUntilRefresh > 0)
+        {
+            return;
+        }
+        ticksUntilRefresh = REFRESH_INTERVAL;
+
+        threats.clear();
+        guarded = hasGuardTower();
+        @Nullable final BlockPos center = colony.getCenter();
+        if (center != null && guarded)
+        {
+            final int range = Configurations.workingRangeTownHall + Configurations.townHallPadding + AREA_PADDING;
+            @NotNull final AxisAlignedBB area = new AxisAlignedBB(center.getX() - range, 0, center.getZ() - range,
+                                                                   center.getX() + range, WORLD_HEIGHT, center.getZ() + range);
+            threats.addAll(world.getEntitiesWithinAABB(EntityMob.class, area));
+            threats.addAll(world.getEntitiesWithinAABB(EntitySlime.class, area));
+            threats.addAll(world.getEntitiesWithinAABB(EntityPlayer.class, area));
+        }
+
+        final long now = world.getTotalWorldTime();
+        claims.entrySet().removeIf(entry -> !threats.contains(entry.getKey()) || entry.getValue().expires < now);
+    }
+
+    /**
+     * Check if the colony has a guard tower whose guards use the index.
+     *
+     * @return true if it has one.
+     */
+    private boolean hasGuardTower()
+    {
+        for (@NotNull final AbstractBuilding building : colony.getBuildings().values())
+        {
+            if (building instanceof BuildingGuardTower)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Add a threat which joined the world in the colony, unless the colony had no guard tower at the last scan.
+     *
+     * @param entity the entity, see {@link #isThreat(Entity)}.
+     * @return true if it was added.
+     */
+    boolean onEntityAdded(@NotNull final Entity entity)
+    {
+        if (!guarded)
+        {
+            return false;
+        }
+
+        threats.add((EntityLivingBase) entity);
+        return true;
+    }
+
+    /**
+     * Remove a threat which left the world.
+     *
+     * @param entity the entity.
+     */
+    void onEntityRemoved(@NotNull final Entity entity)
+    {
+        threats.remove(entity);
+        claims.remove(entity);
+    }
+
+    /**
+     * Forget all entities, when the world of the colony is unloaded.
+     */
+    void clear()
+    {
+        threats.clear();
+        claims.clear();
+        ticksUntilRefresh = 0;
+        guarded = false;
+    }
+
+    /**
+     * Find the closest target of a guard which no other guard claimed, and claim it.
+     *
+     * @param guard       the guard.
+     * @param range       the horizontal range.
+     * @param heightRange the vertical range.
+     * @param filter      additional checks the target has to pass, tested closest first.
+     * @return the target or null if there is none.
+     */
+    @Nullable
+    public EntityLivingBase claimTarget(
+                                         @NotNull final EntityCitizen guard,
+                                         final double range,
+                                         final double heightRange,
+                                         @NotNull final Predicate<EntityLivingBase> filter)
+    {
+        final long now = guard.worldObj.getTotalWorldTime();
+        final double rangeSquared = range * range;
+
+        @NotNull final List<EntityLivingBase> candidates = new ArrayList<>();
+        for (@NotNull final EntityLivingBase entity : threats)
+        {
+            if (!entity.isEntityAlive() || Math.abs(entity.posY - guard.posY) > heightRange || isClaimedByOther(entity, guard, now))
+            {
+                continue;
+            }
+
+            final double xDiff = entity.posX - guard.posX;
+            final double zDiff = entity.posZ - guard.posZ;
+            if (xDiff * xDiff + zDiff * zDiff <= rangeSquared)
+            {
+                candidates.add(entity);
+            }
+        }
+
+        candidates.sort(Comparator.comparingDouble(guard::getDistanceSqToEntity));
+        for (@NotNull final EntityLivingBase entity : candidates)
+        {
+            if (filter.test(entity))
+            {
+                claim(guard, entity);
+                return entity;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Claim a target for a guard, or renew the claim.
+     * A guard has at most one claim, an older one is released.
+     *
+     * @param guard  the guard.
+     * @param target the target.
+     */
+    public void claim(@NotNull final EntityCitizen guard, @NotNull final EntityLivingBase target)
+    {
+        release(guard);
+        claims.put(target, new Claim(guard.getEntityId(), guard.worldObj.getTotalWorldTime() + CLAIM_TIMEOUT));
+    }
+
+    /**
+     * Release the claim of a guard.
+     *
+     * @param guard the guard.
+     */
+    public void release(@NotNull final EntityCitizen guard)
+    {
+        claims.values().removeIf(claim -> claim.guardId == guard.getEntityId());
+    }
+
+    /**
+     * Check if another guard claimed a target.
+     *
+     * @param target the target.
+     * @param guard  the guard asking.
+     * @param now    the current world time.
+     * @return true if the target has a valid claim of another guard.
+     */
+    private boolean isClaimedByOther(@NotNull final EntityLivingBase target, @NotNull final EntityCitizen guard, final long now)
+    {
+        @Nullable final Claim claim = claims.get(target);
+        return claim != null && claim.guardId != guard.getEntityId() && claim.expires >= now;
+    }
+
+    /**
+     * The claim of a guard on a target.
+     */
+    private static final class Claim
+    {
+        /**
+         * The entity id of the guard.
+         */
+        private final int  guardId;
+
+        /**
+         * The world time after which the claim runs out.
+         */
+        private final long expires;
+
+        /**
+         * Create a claim.
+         *
+         * @param guardId the entity id of the guard.
+         * @param expires the world time after which it runs out.
+         */
+        private Claim(final int guardId, final long expires)
+        {
+            this.guardId = guardId;
+            this.expires = expires;
+        }
+    }
+}
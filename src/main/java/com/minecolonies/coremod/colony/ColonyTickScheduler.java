@@ -0,0 +1,271 @@
+package com.minecolonies.coremod.colony;
+
+import com.minecolonies.coremod.configuration.Configurations;
+import com.minecolonies.coremod.util.Log;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Shares a time budget per server tick between all colonies.
+ * <p>
+ * Work which has to happen every tick always runs. Work which can wait, like building ticks and periodic checks,
+ * only runs while the budget of {@link Configurations#colonyTickBudget} milliseconds lasts, and is deferred to the next
+ * ticks otherwise. Only the time spent in the work which can wait is counted, reported through {@link #startWork()}
+ * and {@link #finishWork(long)}, so the ticks of the worlds and of the other mods don't use up the budget. Colonies and buildings are served round-robin so deferring doesn't always hit the same ones.
+ * Periodic jobs are shifted by colony, so the jobs of different colonies don't all fall on the same tick.
+ */
+public class ColonyTickScheduler
+{
+    /**
+     * Nanoseconds per millisecond.
+     */
+    private static final long NANOS_PER_MILLI = 1_000_000L;
+
+    /**
+     * Server ticks between two reports of deferred work.
+     */
+    private static final int REPORT_INTERVAL = 20 * 60;
+
+    /**
+     * Times a job or update can be deferred before it runs regardless of the budget.
+     */
+    private static final int MAX_DEFERRALS = 20;
+
+    /**
+     * Factors spreading the phases of the periodic jobs over the colonies and jobs.
+     */
+    private static final int COLONY_PHASE_FACTOR = 7;
+    private static final int JOB_PHASE_FACTOR    = 13;
+
+    /**
+     * The budget of the current tick in nanoseconds, 0 for no limit.
+     */
+    private long budget = 0;
+
+    /**
+     * The time spent in work which can wait in the current tick, in nanoseconds.
+     */
+    private long spent = 0;
+
+    /**
+     * Rotates the colony which is ticked first.
+     */
+    private int rotation = 0;
+
+    /**
+     * Work deferred in the current tick.
+     */
+    private int deferredThisTick = 0;
+
+    /**
+     * Counters of the current report interval.
+     */
+    private int ticks          = 0;
+    private int saturatedTicks = 0;
+    private int deferred       = 0;
+
+    /**
+     * Counters of the last complete report interval.
+     */
+    private int lastSaturatedTicks = 0;
+    private int lastDeferred       = 0;
+
+    /**
+     * Start the budget of a server tick.
+     */
+    public void startTick()
+    {
+        if (deferredThisTick > 0)
+        {
+            saturatedTicks++;
+            deferred += deferredThisTick;
+            deferredThisTick = 0;
+        }
+
+        if (++ticks >= REPORT_INTERVAL)
+        {
+            if (saturatedTicks > 0)
+            {
+                Log.getLogger().info(String.format("Colony tick budget of %dms was used up in %d of the last %d ticks, %d tasks were deferred",
+                  Configurations.colonyTickBudget, saturatedTicks, ticks, deferred));
+            }
+            lastSaturatedTicks = saturatedTicks;
+            lastDeferred = deferred;
+            ticks = 0;
+            saturatedTicks = 0;
+            deferred = 0;
+        }
+
+        budget = Math.max(0, Configurations.colonyTickBudget) * NANOS_PER_MILLI;
+        spent = 0;
+        rotation++;
+    }
+
+    /**
+     * Check if work which can wait may still run in this tick.
+     *
+     * @return true if the budget is not used up.
+     */
+    public boolean hasBudget()
+    {
+        return budget == 0 || spent < budget;
+    }
+
+    /**
+     * Start timing work which can wait.
+     *
+     * @return the start time, to pass to {@link #finishWork(long)}.
+     */
+    public long startWork()
+    {
+        return System.nanoTime();
+    }
+
+    /**
+     * Count the time of work which can wait against the budget of the current tick.
+     *
+     * @param start the time returned by {@link #startWork()}.
+     */
+    public void finishWork(final long start)
+    {
+        spent += System.nanoTime() - start;
+    }
+
+    /**
+     * Record work which was deferred to a later tick.
+     *
+     * @param count the number of deferred tasks.
+     */
+    public void defer(final int count)
+    {
+        deferredThisTick += count;
+    }
+
+    /**
+     * Get the index to start ticking a list of colonies at, it moves on every tick.
+     *
+     * @param size the size of the list.
+     * @return the index.
+     */
+    public int getStartIndex(final int size)
+    {
+        return size == 0 ? 0 : Math.floorMod(rotation, size);
+    }
+
+    /**
+     * Check if a periodic job of a colony should run now.
+     * A job which is due but doesn't fit in the budget stays due, it runs at the latest {@link #MAX_DEFERRALS} ticks later.
+     *
+     * @param job       the job.
+     * @param colonyId  the id of the colony of the job.
+     * @param worldTime the current world time.
+     * @return true if the job should run.
+     */
+    public boolean isDue(@NotNull final Job job, final int colonyId, final long worldTime)
+    {
+        final int phase = Math.floorMod(colonyId * COLONY_PHASE_FACTOR + job.salt * JOB_PHASE_FACTOR, job.interval);
+        if (Math.floorMod(worldTime - phase, job.interval) == 0)
+        {
+            job.due = true;
+        }
+
+        if (!job.due)
+        {
+            return false;
+        }
+
+        if (hasBudget() || job.deferrals >= MAX_DEFERRALS)
+        {
+            job.due = false;
+            job.deferrals = 0;
+            return true;
+        }
+
+        job.deferrals++;
+        defer(1);
+        return false;
+    }
+
+    /**
+     * Check if an update which should run every tick may run now, or has been deferred too often.
+     *
+     * @param deferrals the times the update was deferred in a row.
+     * @return true if it should run.
+     */
+    public boolean mayRun(final int deferrals)
+    {
+        if (hasBudget() || deferrals >= MAX_DEFERRALS)
+        {
+            return true;
+        }
+        defer(1);
+        return false;
+    }
+
+    /**
+     * Get the number of ticks of the last report interval in which work was deferred.
+     *
+     * @return the number of ticks.
+     */
+    public int getSaturatedTicks()
+    {
+        return lastSaturatedTicks;
+    }
+
+    /**
+     * Get the number of tasks deferred in the last report interval.
+     *
+     * @return the number of tasks.
+     */
+    public int getDeferred()
+    {
+        return lastDeferred;
+    }
+
+    /**
+     * Get the number of server ticks of a report interval.
+     *
+     * @return the number of ticks.
+     */
+    public int getReportInterval()
+    {
+        return REPORT_INTERVAL;
+    }
+
+    /**
+     * A periodic job of a colony.
+     */
+    public static final class Job
+    {
+        /**
+         * Ticks between two runs.
+         */
+        private final int interval;
+
+        /**
+         * Distinguishes the jobs of a colony, so they are shifted against each other.
+         */
+        private final int salt;
+
+        /**
+         * If the job is waiting to run.
+         */
+        private boolean due = false;
+
+        /**
+         * Times the job was deferred in a row.
+         */
+        private int deferrals = 0;
+
+        /**
+         * Create a job.
+         *
+         * @param interval ticks between two runs.
+         * @param salt     distinguishes the jobs of a colony.
+         */
+        public Job(final int interval, final int salt)
+        {
+            this.interval = interval;
+            this.salt = salt;
+        }
+    }
+}
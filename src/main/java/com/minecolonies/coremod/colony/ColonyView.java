@@ -6,11 +6,13 @@ import com.minecolonies.coremod.colony.buildings.BuildingTownHall;
 import com.minecolonies.coremod.colony.permissions.Permissions;
 import com.minecolonies.coremod.colony.workorders.AbstractWorkOrder;
 import com.minecolonies.coremod.configuration.Configurations;
+import com.minecolonies.coremod.network.messages.ColonyViewResyncMessage;
 import com.minecolonies.coremod.network.messages.PermissionsMessage;
 import com.minecolonies.coremod.network.messages.TownHallRenameMessage;
 import com.minecolonies.coremod.util.BlockPosUtil;
 import com.minecolonies.coremod.util.MathUtils;
 import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.world.World;
 import net.minecraftforge.fml.common.network.ByteBufUtils;
@@ -36,6 +38,11 @@ public final class ColonyView implements IColony
     //  Citizenry
     @NotNull
     private final Map<Integer, CitizenDataView>        citizens    = new HashMap<>();
+    //  Last received revisions of the views, the base of the next delta
+    @NotNull
+    private final Map<Integer, ViewDelta.Revision>     citizenRevisions  = new HashMap<>();
+    @NotNull
+    private final Map<BlockPos, ViewDelta.Revision>    buildingRevisions = new HashMap<>();
     private       String                      name       = "Unknown";
     private int      dimensionId;
     private BlockPos center;
@@ -269,6 +276,8 @@ public final class ColonyView implements IColony
             citizens.clear();
             townHall = null;
             buildings.clear();
+            citizenRevisions.clear();
+            buildingRevisions.clear();
         }
 
         return null;
@@ -329,6 +338,7 @@ public final class ColonyView implements IColony
     public IMessage handleColonyViewRemoveCitizenMessage(final int citizen)
     {
         citizens.remove(citizen);
+        citizenRevisions.remove(citizen);
         return null;
     }
 
@@ -341,6 +351,7 @@ public final class ColonyView implements IColony
     public IMessage handleColonyViewRemoveBuildingMessage(final BlockPos buildingId)
     {
         final AbstractBuilding.View building = buildings.remove(buildingId);
+        buildingRevisions.remove(buildingId);
         if (townHall == building)
         {
             townHall = null;
@@ -385,6 +396,74 @@ public final class ColonyView implements IColony
         return null;
     }
 
+    /**
+     * Apply the citizen and building view updates of a tick.
+     * Full views replace the known revision, deltas are applied to it.
+     * If a delta is not based on the known revision, all views are requested again.
+     *
+     * @param buf the updates.
+     * @return a resync request if an update could not be applied, otherwise null.
+     */
+    @Nullable
+    public IMessage handleColonyViewUpdateMessage(@NotNull final ByteBuf buf)
+    {
+        boolean needsResync = false;
+        while (buf.isReadable())
+        {
+            final byte type = buf.readByte();
+            final boolean isCitizen = type == ColonyViewSync.CITIZEN_FULL || type == ColonyViewSync.CITIZEN_DELTA;
+            final boolean isDelta = type == ColonyViewSync.CITIZEN_DELTA || type == ColonyViewSync.BUILDING_DELTA;
+            final int citizenId = isCitizen ? buf.readInt() : 0;
+            final BlockPos buildingId = isCitizen ? null : BlockPosUtil.readFromByteBuf(buf);
+            final int revision = buf.readInt();
+            final ByteBuf record = buf.readBytes(ByteBufUtils.readVarInt(buf, ColonyViewSync.VAR_INT_SIZE));
+
+            @Nullable final ViewDelta.Revision known = isCitizen ? citizenRevisions.get(citizenId) : buildingRevisions.get(buildingId);
+            final byte[] data;
+            if (!isDelta)
+            {
+                data = new byte[record.readableBytes()];
+                record.readBytes(data);
+            }
+            else if (known != null && known.getRevision() == revision - 1)
+            {
+                data = ViewDelta.decode(record, known.getData());
+            }
+            else
+            {
+                needsResync = true;
+                continue;
+            }
+
+            if (known == null)
+            {
+                if (isCitizen)
+                {
+                    citizenRevisions.put(citizenId, new ViewDelta.Revision(revision, data));
+                }
+                else
+                {
+                    buildingRevisions.put(buildingId, new ViewDelta.Revision(revision, data));
+                }
+            }
+            else
+            {
+                known.update(revision, data);
+            }
+
+            if (isCitizen)
+            {
+                handleColonyViewCitizensMessage(citizenId, Unpooled.wrappedBuffer(data));
+            }
+            else
+            {
+                handleColonyBuildingViewMessage(buildingId, Unpooled.wrappedBuffer(data));
+            }
+        }
+
+        return needsResync ? new ColonyViewResyncMessage(id) : null;
+    }
+
     /**
      * Update a players permissions.
      *
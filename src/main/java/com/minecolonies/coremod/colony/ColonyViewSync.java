@@ -0,0 +1,368 @@
+package com.minecolonies.coremod.colony;
+
+import com.minecolonies.coremod.MineColonies;
+import com.minecolonies.coremod.colony.buildings.AbstractBuilding;
+import com.minecolonies.coremod.network.messages.ColonyViewUpdateMessage;
+import com.minecolonies.coremod.util.BlockPosUtil;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraft.util.math.BlockPos;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Sends the citizen and building views of a colony to its subscribers.
+ * <p>
+ * Every view has a revision which counts up when its serialized data changes.
+ * Subscribers which received the previous revision only get the changed bytes,
+ * new subscribers and subscribers which asked for a resync get the full data.
+ * All updates of a tick are sent in one compressed message per player.
+ * The client answers an update it can't apply with a resync request.
+ */
+final class ColonyViewSync
+{
+    /**
+     * Record types of an update.
+     */
+    static final byte CITIZEN_FULL   = 0;
+    static final byte CITIZEN_DELTA  = 1;
+    static final byte BUILDING_FULL  = 2;
+    static final byte BUILDING_DELTA = 3;
+
+    /**
+     * Maximum bytes of a var int.
+     */
+    static final int VAR_INT_SIZE = 5;
+
+    /**
+     * Uncompressed bytes after which the updates are split into another message, to stay below the packet size limit.
+     */
+    private static final int MAX_MESSAGE_SIZE = 512 * 1024;
+
+    /**
+     * The last sent revision of each citizen view.
+     */
+    @NotNull
+    private final Map<Integer, ViewDelta.Revision> citizens = new HashMap<>();
+
+    /**
+     * The last sent revision of each building view.
+     */
+    @NotNull
+    private final Map<BlockPos, ViewDelta.Revision> buildings = new HashMap<>();
+
+    /**
+     * Players which asked to get all views again.
+     */
+    @NotNull
+    private final Set<UUID> resyncRequests = new HashSet<>();
+
+    /**
+     * Serialize a citizen view.
+     *
+     * @param citizen the citizen.
+     * @return the view data.
+     */
+    @NotNull
+    private static byte[] serialize(@NotNull final CitizenData citizen)
+    {
+        final ByteBuf buf = Unpooled.buffer();
+        citizen.serializeViewNetworkData(buf);
+        return toArray(buf);
+    }
+
+    /**
+     * Serialize a building view.
+     *
+     * @param building the building.
+     * @return the view data.
+     */
+    @NotNull
+    private static byte[] serialize(@NotNull final AbstractBuilding building)
+    {
+        final ByteBuf buf = Unpooled.buffer();
+        building.serializeToView(buf);
+        return toArray(buf);
+    }
+
+    /**
+     * Copy the readable bytes of a buffer.
+     *
+     * @param buf the buffer.
+     * @return the bytes.
+     */
+    @NotNull
+    private static byte[] toArray(@NotNull final ByteBuf buf)
+    {
+        final byte[] data = new byte[buf.readableBytes()];
+        buf.readBytes(data);
+        return data;
+    }
+
+    /**
+     * Write a full view.
+     *
+     * @param buf      the updates.
+     * @param revision the revision.
+     */
+    private static void writeFull(@NotNull final ByteBuf buf, @NotNull final ViewDelta.Revision revision)
+    {
+        buf.writeInt(revision.getRevision());
+        ByteBufUtils.writeVarInt(buf, revision.getData().length, VAR_INT_SIZE);
+        buf.writeBytes(revision.getData());
+    }
+
+    /**
+     * Write the changes of a view.
+     *
+     * @param buf      the updates.
+     * @param oldData  the data of the previous revision.
+     * @param revision the new revision.
+     */
+    private static void writeDelta(@NotNull final ByteBuf buf, @NotNull final byte[] oldData, @NotNull final ViewDelta.Revision revision)
+    {
+        final ByteBuf delta = Unpooled.buffer();
+        ViewDelta.encode(delta, oldData, revision.getData());
+
+        buf.writeInt(revision.getRevision());
+        ByteBufUtils.writeVarInt(buf, delta.readableBytes(), VAR_INT_SIZE);
+        buf.writeBytes(delta);
+    }
+
+    /**
+     * Check if a player asked for all views.
+     *
+     * @return true if there is a request.
+     */
+    boolean hasResyncRequests()
+    {
+        return !resyncRequests.isEmpty();
+    }
+
+    /**
+     * Send all views to a player with the next update.
+     *
+     * @param player the player.
+     */
+    void requestResync(@NotNull final EntityPlayerMP player)
+    {
+        resyncRequests.add(player.getUniqueID());
+    }
+
+    /**
+     * Forget a removed citizen.
+     *
+     * @param citizenId the id of the citizen.
+     */
+    void removeCitizen(final int citizenId)
+    {
+        citizens.remove(citizenId);
+    }
+
+    /**
+     * Forget a removed building.
+     *
+     * @param buildingId the id of the building.
+     */
+    void removeBuilding(@NotNull final BlockPos buildingId)
+    {
+        buildings.remove(buildingId);
+    }
+
+    /**
+     * Forget all views, when there are no subscribers left.
+     * The next subscribers get full views anyway.
+     */
+    void clear()
+    {
+        citizens.clear();
+        buildings.clear();
+        resyncRequests.clear();
+    }
+
+    /**
+     * Send the changed views to the subscribers.
+     * When a player needs all views, all citizens and buildings have to be passed.
+     *
+     * @param colony           the colony.
+     * @param subscribers      the current subscribers.
+     * @param oldSubscribers   the subscribers of the last update.
+     * @param changedCitizens  the citizens which might have changed.
+     * @param changedBuildings the buildings which might have changed.
+     */
+    void send(
+               @NotNull final Colony colony,
+               @NotNull final Set<EntityPlayerMP> subscribers,
+               @NotNull final Set<EntityPlayerMP> oldSubscribers,
+               @NotNull final Collection<CitizenData> changedCitizens,
+               @NotNull final Collection<AbstractBuilding> changedBuildings)
+    {
+        @NotNull final List<EntityPlayerMP> fullPlayers = new ArrayList<>();
+        @NotNull final List<EntityPlayerMP> deltaPlayers = new ArrayList<>();
+        for (@NotNull final EntityPlayerMP player : subscribers)
+        {
+            if (!oldSubscribers.contains(player) || resyncRequests.contains(player.getUniqueID()))
+            {
+                fullPlayers.add(player);
+            }
+            else
+            {
+                deltaPlayers.add(player);
+            }
+        }
+        resyncRequests.clear();
+
+        @Nullable final Batch deltas = deltaPlayers.isEmpty() ? null : new Batch(colony.getID());
+        @Nullable final Batch fulls = fullPlayers.isEmpty() ? null : new Batch(colony.getID());
+
+        for (@NotNull final CitizenData citizen : changedCitizens)
+        {
+            final byte[] data = serialize(citizen);
+            ViewDelta.Revision revision = citizens.get(citizen.getId());
+            if (revision == null)
+            {
+                revision = new ViewDelta.Revision(1, data);
+                citizens.put(citizen.getId(), revision);
+                if (deltas != null)
+                {
+                    deltas.start(CITIZEN_FULL).writeInt(citizen.getId());
+                    writeFull(deltas.buf, revision);
+                }
+            }
+            else if (!Arrays.equals(revision.getData(), data))
+            {
+                final byte[] oldData = revision.getData();
+                revision.update(revision.getRevision() + 1, data);
+                if (deltas != null)
+                {
+                    deltas.start(CITIZEN_DELTA).writeInt(citizen.getId());
+                    writeDelta(deltas.buf, oldData, revision);
+                }
+            }
+
+            if (fulls != null)
+            {
+                fulls.start(CITIZEN_FULL).writeInt(citizen.getId());
+                writeFull(fulls.buf, revision);
+            }
+        }
+
+        for (@NotNull final AbstractBuilding building : changedBuildings)
+        {
+            final byte[] data = serialize(building);
+            ViewDelta.Revision revision = buildings.get(building.getID());
+            if (revision == null)
+            {
+                revision = new ViewDelta.Revision(1, data);
+                buildings.put(building.getID(), revision);
+                if (deltas != null)
+                {
+                    BlockPosUtil.writeToByteBuf(deltas.start(BUILDING_FULL), building.getID());
+                    writeFull(deltas.buf, revision);
+                }
+            }
+            else if (!Arrays.equals(revision.getData(), data))
+            {
+                final byte[] oldData = revision.getData();
+                revision.update(revision.getRevision() + 1, data);
+                if (deltas != null)
+                {
+                    BlockPosUtil.writeToByteBuf(deltas.start(BUILDING_DELTA), building.getID());
+                    writeDelta(deltas.buf, oldData, revision);
+                }
+            }
+
+            if (fulls != null)
+            {
+                BlockPosUtil.writeToByteBuf(fulls.start(BUILDING_FULL), building.getID());
+                writeFull(fulls.buf, revision);
+            }
+        }
+
+        if (deltas != null)
+        {
+            deltas.sendTo(deltaPlayers);
+        }
+        if (fulls != null)
+        {
+            fulls.sendTo(fullPlayers);
+        }
+    }
+
+    /**
+     * The updates sent to a group of players, split into messages of limited size.
+     */
+    private static final class Batch
+    {
+        /**
+         * The id of the colony.
+         */
+        private final int colonyId;
+
+        /**
+         * The finished messages.
+         */
+        @NotNull
+        private final List<ColonyViewUpdateMessage> messages = new ArrayList<>();
+
+        /**
+         * The updates of the current message.
+         */
+        @NotNull
+        private ByteBuf buf = Unpooled.buffer();
+
+        /**
+         * Create a batch.
+         *
+         * @param colonyId the id of the colony.
+         */
+        private Batch(final int colonyId)
+        {
+            this.colonyId = colonyId;
+        }
+
+        /**
+         * Start a record, finishing the current message if it is full.
+         *
+         * @param type the record type.
+         * @return the buffer to write the record to.
+         */
+        @NotNull
+        private ByteBuf start(final byte type)
+        {
+            if (buf.readableBytes() > MAX_MESSAGE_SIZE)
+            {
+                messages.add(new ColonyViewUpdateMessage(colonyId, buf));
+                buf = Unpooled.buffer();
+            }
+            buf.writeByte(type);
+            return buf;
+        }
+
+        /**
+         * Send the messages, each message is compressed only once.
+         *
+         * @param players the players to send to.
+         */
+        private void sendTo(@NotNull final List<EntityPlayerMP> players)
+        {
+            if (buf.isReadable())
+            {
+                messages.add(new ColonyViewUpdateMessage(colonyId, buf));
+                buf = Unpooled.buffer();
+            }
+
+            for (@NotNull final ColonyViewUpdateMessage message : messages)
+            {
+                for (@NotNull final EntityPlayerMP player : players)
+                {
+                    MineColonies.getNetwork().sendTo(message, player);
+                }
+            }
+        }
+    }
+}
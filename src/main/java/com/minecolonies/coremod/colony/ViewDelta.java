@@ -0,0 +1,176 @@
+package com.minecolonies.coremod.colony;
+
+import io.netty.buffer.ByteBuf;
+import net.minecraftforge.fml.common.network.ByteBufUtils;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Encodes a serialized view as the difference to the previous version the client has.
+ * <p>
+ * A delta is the new length followed by runs of a count of unchanged bytes to copy
+ * and a count of bytes to take from the delta, until the new length is reached.
+ */
+final class ViewDelta
+{
+    /**
+     * Unchanged bytes in a row needed to end a run of changed bytes, shorter gaps are cheaper to send again.
+     */
+    private static final int MIN_MATCH = 4;
+
+    /**
+     * Maximum bytes of a var int.
+     */
+    private static final int VAR_INT_SIZE = 5;
+
+    private ViewDelta()
+    {
+        //Hides default constructor.
+    }
+
+    /**
+     * Write the delta between two versions of a view.
+     *
+     * @param buf     the buffer to write to.
+     * @param oldData the version the client has.
+     * @param newData the new version.
+     */
+    static void encode(@NotNull final ByteBuf buf, @NotNull final byte[] oldData, @NotNull final byte[] newData)
+    {
+        final int length = newData.length;
+        ByteBufUtils.writeVarInt(buf, length, VAR_INT_SIZE);
+
+        int pos = 0;
+        while (pos < length)
+        {
+            final int unchangedStart = pos;
+            while (pos < length && pos < oldData.length && oldData[pos] == newData[pos])
+            {
+                pos++;
+            }
+
+            final int changedStart = pos;
+            while (pos < length && !matches(oldData, newData, pos))
+            {
+                pos++;
+            }
+
+            ByteBufUtils.writeVarInt(buf, changedStart - unchangedStart, VAR_INT_SIZE);
+            ByteBufUtils.writeVarInt(buf, pos - changedStart, VAR_INT_SIZE);
+            buf.writeBytes(newData, changedStart, pos - changedStart);
+        }
+    }
+
+    /**
+     * Read a delta and apply it to the version the client has.
+     *
+     * @param buf     the buffer to read from.
+     * @param oldData the version the client has.
+     * @return the new version.
+     */
+    @NotNull
+    static byte[] decode(@NotNull final ByteBuf buf, @NotNull final byte[] oldData)
+    {
+        final byte[] newData = new byte[ByteBufUtils.readVarInt(buf, VAR_INT_SIZE)];
+
+        int pos = 0;
+        while (pos < newData.length)
+        {
+            final int unchanged = ByteBufUtils.readVarInt(buf, VAR_INT_SIZE);
+            System.arraycopy(oldData, pos, newData, pos, unchanged);
+            pos += unchanged;
+
+            final int changed = ByteBufUtils.readVarInt(buf, VAR_INT_SIZE);
+            buf.readBytes(newData, pos, changed);
+            pos += changed;
+        }
+        return newData;
+    }
+
+    /**
+     * Check if enough unchanged bytes follow a position to end a run of changed bytes.
+     *
+     * @param oldData the old version.
+     * @param newData the new version.
+     * @param pos     the position.
+     * @return true if the bytes up to {@link #MIN_MATCH} bytes or the end are unchanged.
+     */
+    private static boolean matches(@NotNull final byte[] oldData, @NotNull final byte[] newData, final int pos)
+    {
+        final int end = Math.min(pos + MIN_MATCH, newData.length);
+        if (end > oldData.length)
+        {
+            return false;
+        }
+
+        for (int i = pos; i < end; i++)
+        {
+            if (oldData[i] != newData[i])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * A version of a serialized view.
+     */
+    static final class Revision
+    {
+        /**
+         * Counts up with every change.
+         */
+        private int    revision;
+
+        /**
+         * The serialized view.
+         */
+        @NotNull
+        private byte[] data;
+
+        /**
+         * Create the first revision of a view.
+         *
+         * @param revision the revision number.
+         * @param data     the serialized view.
+         */
+        Revision(final int revision, @NotNull final byte[] data)
+        {
+            this.revision = revision;
+            this.data = data;
+        }
+
+        /**
+         * Get the revision number.
+         *
+         * @return the revision.
+         */
+        int getRevision()
+        {
+            return revision;
+        }
+
+        /**
+         * Get the serialized view.
+         *
+         * @return the data.
+         */
+        @NotNull
+        byte[] getData()
+        {
+            return data;
+        }
+
+        /**
+         * Replace the view with a newer version.
+         *
+         * @param newRevision the revision number of the new version.
+         * @param newData     the new serialized view.
+         */
+        void update(final int newRevision, @NotNull final byte[] newData)
+        {
+            this.revision = newRevision;
+            this.data = newData;
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.minecolonies.coremod.colony;
 
+import com.minecolonies.coremod.colony.jobs.JobBuilder;
 import com.minecolonies.coremod.colony.workorders.AbstractWorkOrder;
 import com.minecolonies.coremod.util.Log;
 import net.minecraft.nbt.NBTTagCompound;
@@ -9,20 +10,32 @@ import net.minecraftforge.fml.common.gameevent.TickEvent;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Iterator;
-import java.util.LinkedHashMap;
-import java.util.List;
-import java.util.Map;
+import java.util.*;
 import java.util.stream.Collectors;
 
 /**
  * Handles work orders for a colony.
+ * <p>
+ * The work orders are indexed by type, and the unclaimed ones are kept sorted by priority, the sorting is only
+ * redone after an order was added, removed, claimed or its priority changed.
+ * The builders are looked up in the {@link CitizenIndex} of the colony. Matching orders to builders only runs after something
+ * happened which may let a builder take an order: an order was added or unclaimed, a builder was hired or freed,
+ * or a building was built or upgraded. A full matching still runs every {@link #FORCED_MATCH_RUNS} fulfill runs.
  */
 public class WorkManager
 {
     private static final String TAG_WORK_ORDERS              = "workOrders";
     //  Once a second
     private static final int    WORK_ORDER_FULFILL_INCREMENT = 1 * 20;
+    /**
+     * Fulfill runs without any event after which the matching runs anyway.
+     */
+    private static final int    FORCED_MATCH_RUNS            = 30;
+    /**
+     * Unclaimed work orders are fulfilled in this order: highest priority first, then the oldest.
+     */
+    private static final Comparator<AbstractWorkOrder> PRIORITY_ORDER =
+      Comparator.comparingInt(AbstractWorkOrder::getPriority).reversed().thenComparingInt(AbstractWorkOrder::getID);
     /**
      * The Colony the workManager takes part of.
      */
@@ -34,6 +47,39 @@ public class WorkManager
      * Checks if there has been changes.
      */
     private       boolean                         dirty          = false;
+    /**
+     * Fulfilling the open work orders, spread over the ticks by the tick scheduler.
+     */
+    private final ColonyTickScheduler.Job         fulfillJob     = new ColonyTickScheduler.Job(WORK_ORDER_FULFILL_INCREMENT, 3);
+    /**
+     * The work orders by their class.
+     */
+    @NotNull
+    private final Map<Class<? extends AbstractWorkOrder>, Map<Integer, AbstractWorkOrder>> workOrdersByType = new HashMap<>();
+    /**
+     * The unclaimed work orders in {@link #PRIORITY_ORDER}, to fulfill them.
+     */
+    @NotNull
+    private final List<AbstractWorkOrder>                                            unclaimedOrders       = new ArrayList<>();
+    /**
+     * The unclaimed work orders by class and their position among all of them, in the order they were added.
+     */
+    @NotNull
+    private final Map<Class<? extends AbstractWorkOrder>, List<AbstractWorkOrder>> unclaimedOrdersByType = new HashMap<>();
+    @NotNull
+    private final Map<AbstractWorkOrder, Integer>                                   unclaimedPositions    = new IdentityHashMap<>();
+    /**
+     * If the unclaimed work orders have to be collected and sorted again.
+     */
+    private boolean unclaimedChanged = true;
+    /**
+     * If something happened which may let a builder take a work order.
+     */
+    private boolean matchPending = true;
+    /**
+     * Fulfill runs skipped since the last matching.
+     */
+    private int     skippedFulfillRuns = 0;
 
     /**
      * Constructor, saves reference to the colony.
@@ -62,10 +108,50 @@ public class WorkManager
      */
     public void removeWorkOrder(final int orderId)
     {
-        workOrders.remove(orderId);
+        @Nullable final AbstractWorkOrder order = workOrders.remove(orderId);
+        if (order != null)
+        {
+            removeFromIndex(order);
+        }
         colony.removeWorkOrder(orderId);
     }
 
+    /**
+     * Remove a work order from the type index.
+     *
+     * @param order the removed order.
+     */
+    private void removeFromIndex(@NotNull final AbstractWorkOrder order)
+    {
+        final Map<Integer, AbstractWorkOrder> ordersOfType = workOrdersByType.get(order.getClass());
+        if (ordersOfType != null)
+        {
+            ordersOfType.remove(order.getID());
+            if (ordersOfType.isEmpty())
+            {
+                workOrdersByType.remove(order.getClass());
+            }
+        }
+        unclaimedChanged = true;
+    }
+
+    /**
+     * Change the priority of a work order.
+     *
+     * @param orderId  the id of the order.
+     * @param priority the new priority.
+     */
+    public void setPriority(final int orderId, final int priority)
+    {
+        @Nullable final AbstractWorkOrder order = workOrders.get(orderId);
+        if (order != null)
+        {
+            order.setPriority(priority);
+            unclaimedChanged = true;
+            matchPending = true;
+        }
+    }
+
     /**
      * Get a work order of the specified id, as a specific type.
      *
@@ -101,7 +187,7 @@ public class WorkManager
     }
 
     /**
-     * Get an unclaimed work order of a specified type.
+     * Get the unclaimed work order of a specified type which was added first.
      *
      * @param type the class of the type of work order to find.
      * @param <W>  the type of work order to return.
@@ -110,15 +196,29 @@ public class WorkManager
     @Nullable
     public <W extends AbstractWorkOrder> W getUnassignedWorkOrder(@NotNull final Class<W> type)
     {
-        for (@NotNull final AbstractWorkOrder o : workOrders.values())
+        updateUnclaimedOrders();
+
+        @Nullable AbstractWorkOrder first = null;
+        for (@NotNull final Map.Entry<Class<? extends AbstractWorkOrder>, List<AbstractWorkOrder>> entry : unclaimedOrdersByType.entrySet())
         {
-            if (!o.isClaimed() && type.isAssignableFrom(o.getClass()))
+            if (type.isAssignableFrom(entry.getKey()))
             {
-                return type.cast(o);
+                for (@NotNull final AbstractWorkOrder o : entry.getValue())
+                {
+                    //  Claims made since the last update are only seen on the next tick
+                    if (!o.isClaimed())
+                    {
+                        if (first == null || unclaimedPositions.get(o) < unclaimedPositions.get(first))
+                        {
+                            first = o;
+                        }
+                        break;
+                    }
+                }
             }
         }
 
-        return null;
+        return first == null ? null : type.cast(first);
     }
 
     /**
@@ -130,7 +230,67 @@ public class WorkManager
      */
     public <W extends AbstractWorkOrder> List<W> getWorkOrdersOfType(@NotNull final Class<W> type)
     {
-        return workOrders.values().stream().filter(o -> type.isAssignableFrom(o.getClass())).map(type::cast).collect(Collectors.toList());
+        return workOrdersByType.entrySet().stream()
+                 .filter(entry -> type.isAssignableFrom(entry.getKey()))
+                 .flatMap(entry -> entry.getValue().values().stream())
+                 .map(type::cast)
+                 .collect(Collectors.toList());
+    }
+
+    /**
+     * Collect and sort the unclaimed work orders again if they changed.
+     */
+    private void updateUnclaimedOrders()
+    {
+        if (!unclaimedChanged)
+        {
+            return;
+        }
+        unclaimedChanged = false;
+
+        unclaimedOrders.clear();
+        unclaimedOrdersByType.clear();
+        unclaimedPositions.clear();
+        for (@NotNull final AbstractWorkOrder o : workOrders.values())
+        {
+            if (!o.isClaimed())
+            {
+                unclaimedPositions.put(o, unclaimedOrders.size());
+                unclaimedOrders.add(o);
+                unclaimedOrdersByType.computeIfAbsent(o.getClass(), type -> new ArrayList<>()).add(o);
+            }
+        }
+        unclaimedOrders.sort(PRIORITY_ORDER);
+    }
+
+    /**
+     * Get the citizens with a builder job.
+     *
+     * @return the builders, in the order of their ids.
+     */
+    @NotNull
+    public Collection<CitizenData> getBuilders()
+    {
+        return colony.getCitizenIndex().getCitizensWithJob(JobBuilder.class);
+    }
+
+    /**
+     * A citizen got a new job, it may have been hired or fired as builder.
+     *
+     * @param citizen the citizen.
+     */
+    public void onJobChanged(@NotNull final CitizenData citizen)
+    {
+        matchPending = true;
+    }
+
+    /**
+     * Something happened which may let a builder take a work order, like a builder finishing its order
+     * or a building being upgraded. The open work orders are matched in the next fulfill run.
+     */
+    public void requestMatching()
+    {
+        matchPending = true;
     }
 
     /**
@@ -153,6 +313,8 @@ public class WorkManager
     {
         dirty = true;
         workOrders.values().stream().filter(o -> o.isClaimedBy(citizen)).forEach(AbstractWorkOrder::clearClaimedBy);
+        unclaimedChanged = true;
+        matchPending = true;
     }
 
     /**
@@ -219,6 +381,9 @@ public class WorkManager
         }
 
         workOrders.put(order.getID(), order);
+        workOrdersByType.computeIfAbsent(order.getClass(), type -> new LinkedHashMap<>()).put(order.getID(), order);
+        unclaimedChanged = true;
+        matchPending = true;
     }
 
     /**
@@ -238,22 +403,51 @@ public class WorkManager
                 if (!o.isValid(colony))
                 {
                     iter.remove();
+                    removeFromIndex(o);
                     dirty = true;
                 }
                 else if (o.hasChanged())
                 {
+                    //  Claimed or unclaimed
                     dirty = true;
+                    unclaimedChanged = true;
                     o.resetChange();
                 }
             }
 
-            if ((event.world.getWorldTime() % WORK_ORDER_FULFILL_INCREMENT) == 0)
+            final ColonyTickScheduler scheduler = ColonyManager.getTickScheduler();
+            if (scheduler.isDue(fulfillJob, colony.getID(), event.world.getWorldTime()))
+            {
+                final long workStart = scheduler.startWork();
+                fulfillWorkOrders();
+                scheduler.finishWork(workStart);
+            }
+        }
+    }
+
+    /**
+     * Let the unclaimed work orders look for a worker, highest priority first, if anything changed since the last time.
+     */
+    private void fulfillWorkOrders()
+    {
+        if (!matchPending && ++skippedFulfillRuns < FORCED_MATCH_RUNS)
+        {
+            return;
+        }
+        matchPending = false;
+        skippedFulfillRuns = 0;
+
+        updateUnclaimedOrders();
+        for (@NotNull final AbstractWorkOrder o : new ArrayList<>(unclaimedOrders))
+        {
+            if (!o.isClaimed())
             {
-                workOrders.values().stream().filter(o -> !o.isClaimed())
-                  .sorted((first, second) -> second.getPriority() > first.getPriority() ? 1 : (second.getPriority() < first.getPriority() ? -1 : 0))
-                  .forEach(o -> o.attemptToFulfill(colony));
+                o.attemptToFulfill(colony);
             }
         }
+
+        //  Orders claimed just now drop out of the unclaimed orders
+        unclaimedChanged = true;
     }
 
     /**
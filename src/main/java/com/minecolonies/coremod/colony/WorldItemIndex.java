@@ -0,0 +1,219 @@
+package com.minecolonies.coremod.colony;
+
+import net.minecraft.entity.item.EntityItem;
+import net.minecraft.util.math.AxisAlignedBB;
+import net.minecraft.util.math.MathHelper;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * The dropped items of a world, grouped by chunk.
+ * <p>
+ * Items are added and removed through the world listener, items which moved to another chunk
+ * are moved to its group once per tick. So citizens find the items around them by looking at a few chunks,
+ * instead of querying the world every tick. The whole world is indexed, so items dropped outside of a colony
+ * or carried across its border are found the same as the ones inside.
+ */
+public class WorldItemIndex
+{
+    /**
+     * Shift and mask used to pack the chunk coordinates into a key.
+     */
+    private static final int  KEY_SHIFT_X = 32;
+    private static final long KEY_MASK_Z  = 0xFFFFFFFFL;
+
+    /**
+     * Shift from block to chunk coordinates.
+     */
+    private static final int CHUNK_SHIFT = 4;
+
+    /**
+     * The items of each chunk.
+     */
+    @NotNull
+    private final Map<Long, List<EntityItem>> chunks = new HashMap<>();
+
+    /**
+     * The chunk each item is filed under.
+     */
+    @NotNull
+    private final Map<EntityItem, Long> chunkOfItem = new HashMap<>();
+
+    /**
+     * Compute the key of the chunk containing a position.
+     *
+     * @param x block x.
+     * @param z block z.
+     * @return the key.
+     */
+    private static long chunkKey(final double x, final double z)
+    {
+        return chunkKey(MathHelper.floor_double(x) >> CHUNK_SHIFT, MathHelper.floor_double(z) >> CHUNK_SHIFT);
+    }
+
+    /**
+     * Compute the key of a chunk.
+     *
+     * @param chunkX chunk x.
+     * @param chunkZ chunk z.
+     * @return the key.
+     */
+    private static long chunkKey(final int chunkX, final int chunkZ)
+    {
+        return ((long) chunkX << KEY_SHIFT_X) | (chunkZ & KEY_MASK_Z);
+    }
+
+    /**
+     * Add an item which joined the world.
+     *
+     * @param item the item.
+     */
+    void onEntityAdded(@NotNull final EntityItem item)
+    {
+        if (!chunkOfItem.containsKey(item))
+        {
+            file(item, chunkKey(item.posX, item.posZ));
+        }
+    }
+
+    /**
+     * Remove an item which left the world.
+     *
+     * @param item the item.
+     */
+    void onEntityRemoved(@NotNull final EntityItem item)
+    {
+        @Nullable final Long key = chunkOfItem.remove(item);
+        if (key != null)
+        {
+            unfile(item, key);
+        }
+    }
+
+    /**
+     * Move the items which left their chunk, and forget dead items.
+     */
+    void onWorldTick()
+    {
+        if (chunkOfItem.isEmpty())
+        {
+            return;
+        }
+
+        @Nullable List<EntityItem> moved = null;
+        @NotNull final Iterator<Map.Entry<EntityItem, Long>> it = chunkOfItem.entrySet().iterator();
+        while (it.hasNext())
+        {
+            final Map.Entry<EntityItem, Long> entry = it.next();
+            final EntityItem item = entry.getKey();
+            if (item.isDead || chunkKey(item.posX, item.posZ) != entry.getValue())
+            {
+                it.remove();
+                unfile(item, entry.getValue());
+                if (!item.isDead)
+                {
+                    if (moved == null)
+                    {
+                        moved = new ArrayList<>();
+                    }
+                    moved.add(item);
+                }
+            }
+        }
+
+        if (moved != null)
+        {
+            for (@NotNull final EntityItem item : moved)
+            {
+                file(item, chunkKey(item.posX, item.posZ));
+            }
+        }
+    }
+
+    /**
+     * Forget all items, when the world is unloaded.
+     */
+    void clear()
+    {
+        chunks.clear();
+        chunkOfItem.clear();
+    }
+
+    /**
+     * Get the living items touching an area.
+     *
+     * @param area the area.
+     * @return the items, an empty list without allocating if there are none.
+     */
+    @NotNull
+    public List<EntityItem> getItems(@NotNull final AxisAlignedBB area)
+    {
+        if (chunkOfItem.isEmpty())
+        {
+            return Collections.emptyList();
+        }
+
+        @Nullable List<EntityItem> result = null;
+        final int minX = MathHelper.floor_double(area.minX) >> CHUNK_SHIFT;
+        final int maxX = MathHelper.floor_double(area.maxX) >> CHUNK_SHIFT;
+        final int minZ = MathHelper.floor_double(area.minZ) >> CHUNK_SHIFT;
+        final int maxZ = MathHelper.floor_double(area.maxZ) >> CHUNK_SHIFT;
+        for (int x = minX; x <= maxX; x++)
+        {
+            for (int z = minZ; z <= maxZ; z++)
+            {
+                @Nullable final List<EntityItem> items = chunks.get(chunkKey(x, z));
+                if (items == null)
+                {
+                    continue;
+                }
+
+                for (@NotNull final EntityItem item : items)
+                {
+                    if (!item.isDead && area.intersectsWith(item.getEntityBoundingBox()))
+                    {
+                        if (result == null)
+                        {
+                            result = new ArrayList<>();
+                        }
+                        result.add(item);
+                    }
+                }
+            }
+        }
+        return result == null ? Collections.emptyList() : result;
+    }
+
+    /**
+     * File an item under a chunk.
+     *
+     * @param item the item.
+     * @param key  the key of the chunk.
+     */
+    private void file(@NotNull final EntityItem item, final long key)
+    {
+        chunkOfItem.put(item, key);
+        chunks.computeIfAbsent(key, k -> new ArrayList<>()).add(item);
+    }
+
+    /**
+     * Remove an item from the group of a chunk.
+     *
+     * @param item the item.
+     * @param key  the key of the chunk.
+     */
+    private void unfile(@NotNull final EntityItem item, final long key)
+    {
+        @Nullable final List<EntityItem> items = chunks.get(key);
+        if (items != null)
+        {
+            items.remove(item);
+            if (items.isEmpty())
+            {
+                chunks.remove(key);
+            }
+        }
+    }
+}
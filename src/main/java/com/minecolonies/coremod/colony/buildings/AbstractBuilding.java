@@ -7,7 +7,6 @@ import com.minecolonies.coremod.colony.Colony;
 import com.minecolonies.coremod.colony.ColonyManager;
 import com.minecolonies.coremod.colony.ColonyView;
 import com.minecolonies.coremod.colony.materials.MaterialStore;
-import com.minecolonies.coremod.colony.materials.MaterialSystem;
 import com.minecolonies.coremod.colony.workorders.WorkOrderBuild;
 import com.minecolonies.coremod.tileentities.TileEntityColonyBuilding;
 import com.minecolonies.coremod.util.BlockPosUtil;
@@ -115,7 +114,7 @@ public abstract class AbstractBuilding
     private final Colony colony;
 
     /**
-     * The material store of the colony (WIP).
+     * The material store keeping track of the chest of the building.
      */
     private final MaterialStore materialStore;
 
@@ -154,7 +153,7 @@ public abstract class AbstractBuilding
     {
         location = pos;
         this.colony = colony;
-        materialStore = new MaterialStore(MaterialStore.Type.CHEST, colony.getMaterialSystem());
+        materialStore = new MaterialStore(MaterialStore.Type.CHEST, colony.getMaterialSystem(), pos);
     }
 
     /**
@@ -269,11 +268,6 @@ public abstract class AbstractBuilding
             Log.getLogger().warn("Loaded empty style, setting to default");
             style = "default";
         }
-
-        if (MaterialSystem.isEnabled)
-        {
-            materialStore.readFromNBT(compound);
-        }
     }
 
     /**
@@ -411,11 +405,6 @@ public abstract class AbstractBuilding
         compound.setInteger(TAG_BUILDING_LEVEL, buildingLevel);
         compound.setInteger(TAG_ROTATION, rotation);
         compound.setString(TAG_STYLE, style);
-
-        if (MaterialSystem.isEnabled)
-        {
-            materialStore.writeToNBT(compound);
-        }
     }
 
     /**
@@ -471,10 +460,7 @@ public abstract class AbstractBuilding
             world.updateComparatorOutputLevel(this.location, block);
         }
 
-        if (MaterialSystem.isEnabled)
-        {
-            materialStore.destroy();
-        }
+        materialStore.destroy();
     }
 
     /**
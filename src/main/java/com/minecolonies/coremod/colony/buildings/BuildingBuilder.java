@@ -133,6 +133,7 @@ public class BuildingBuilder extends AbstractBuildingWorker
             final ItemStack stack = ItemStack.loadItemStackFromNBT(neededRes);
             neededResources.put(stack.getUnlocalizedName(), stack);
         }
+        updateDeliveryRequest();
     }
 
     @Override
@@ -194,6 +195,7 @@ public class BuildingBuilder extends AbstractBuildingWorker
         }
         res.stackSize = preAmount + amount;
         this.neededResources.put(res.getUnlocalizedName(), res);
+        updateDeliveryRequest();
         this.markDirty();
     }
 
@@ -219,6 +221,7 @@ public class BuildingBuilder extends AbstractBuildingWorker
         {
             this.neededResources.get(res.getUnlocalizedName()).stackSize = preAmount - amount;
         }
+        updateDeliveryRequest();
         this.markDirty();
     }
 
@@ -228,9 +231,18 @@ public class BuildingBuilder extends AbstractBuildingWorker
     public void resetNeededResources()
     {
         neededResources = new HashMap<>();
+        updateDeliveryRequest();
         this.markDirty();
     }
 
+    /**
+     * Tell the delivery manager if the build still needs resources.
+     */
+    private void updateDeliveryRequest()
+    {
+        getColony().getDeliveryManager().setBuilderNeedsResources(getLocation(), !neededResources.isEmpty());
+    }
+
     /**
      * Provides a view of the builder building class.
      */
@@ -124,24 +124,37 @@ public class BuildingHome extends AbstractBuildingHut
     /**
      * Looks for a homeless citizen to add to the current building Calls.
      * {@link #addResident(CitizenData)}
+     * <p>
+     * Homeless citizens are taken from the citizen index first, then residents of lower level huts move in.
      */
     private void addHomelessCitizens()
     {
-        for (@NotNull final CitizenData citizen : getColony().getCitizens().values())
+        for (@NotNull final CitizenData citizen : getColony().getCitizenIndex().getHomeless())
         {
-            // Move the citizen to a better hut
-            if (citizen.getHomeBuilding() != null && citizen.getHomeBuilding().getBuildingLevel() < this.getBuildingLevel())
+            addResident(citizen);
+
+            if (residents.size() >= getMaxInhabitants())
             {
-                // The citizen can move to this hut to improve conditions
-                citizen.getHomeBuilding().removeCitizen(citizen);
+                return;
             }
-            if (citizen.getHomeBuilding() == null)
+        }
+
+        for (@NotNull final AbstractBuilding building : getColony().getBuildings().values())
+        {
+            if (!(building instanceof BuildingHome) || building.getBuildingLevel() >= this.getBuildingLevel())
             {
+                continue;
+            }
+
+            for (@NotNull final CitizenData citizen : new ArrayList<>(((BuildingHome) building).residents))
+            {
+                // The citizen can move to this hut to improve conditions
+                building.removeCitizen(citizen);
                 addResident(citizen);
 
                 if (residents.size() >= getMaxInhabitants())
                 {
-                    break;
+                    return;
                 }
             }
         }
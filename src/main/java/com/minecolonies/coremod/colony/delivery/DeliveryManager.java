@@ -0,0 +1,482 @@
+package com.minecolonies.coremod.colony.delivery;
+
+import com.minecolonies.coremod.colony.CitizenData;
+import com.minecolonies.coremod.colony.Colony;
+import com.minecolonies.coremod.colony.buildings.AbstractBuilding;
+import com.minecolonies.coremod.colony.buildings.BuildingBuilder;
+import com.minecolonies.coremod.colony.materials.MaterialStore;
+import com.minecolonies.coremod.entity.EntityCitizen;
+import com.minecolonies.coremod.util.InventoryUtils;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Collects what the huts of a colony ask for and hands route plans to the deliverymen.
+ * <p>
+ * Workers report the items they wait for each time they check for them, builders report when the list of
+ * resources their build still needs changes. When a deliveryman is free, the open demand is matched to the nearest
+ * chests which hold the items according to the material ledger, and {@link RoutePlanner} batches the resulting tasks
+ * into round trips. Nothing here is saved: the requests are reported again after a load.
+ */
+public class DeliveryManager
+{
+    /**
+     * Requests which weren't reported again for this many ticks are dropped, their worker stopped waiting.
+     */
+    private static final long REQUEST_TIMEOUT = 1200;
+
+    /**
+     * Routes are given up after this many ticks, their deliveryman got lost.
+     */
+    private static final long ROUTE_TIMEOUT = 6000;
+
+    /**
+     * The most tasks planned at once, the savings heuristic is quadratic in them.
+     */
+    private static final int MAX_TASKS = 64;
+
+    /**
+     * The colony of the huts.
+     */
+    @NotNull
+    private final Colony colony;
+
+    /**
+     * The items the workers wait for, by the location of their hut.
+     */
+    @NotNull
+    private final Map<BlockPos, Request> requests = new HashMap<>();
+
+    /**
+     * The world time the builders started to need resources, by the location of their hut.
+     */
+    @NotNull
+    private final Map<BlockPos, Long> builderRequestTimes = new HashMap<>();
+
+    /**
+     * The builders which still need resources, reported by the builders when their list changes.
+     * So checking for open requests doesn't have to collect the demand.
+     */
+    @NotNull
+    private final Set<BlockPos> buildersWithNeeds = new HashSet<>();
+
+    /**
+     * The routes the deliverymen are on, by citizen id.
+     */
+    @NotNull
+    private final Map<Integer, DeliveryRoute> activeRoutes = new HashMap<>();
+
+    /**
+     * Create the delivery manager of a colony.
+     *
+     * @param colony the colony.
+     */
+    public DeliveryManager(@NotNull final Colony colony)
+    {
+        this.colony = colony;
+    }
+
+    /**
+     * Report the items the worker of a hut waits for, replacing the previous report of the hut.
+     *
+     * @param hut   the location of the hut.
+     * @param items the items with the missing amount.
+     */
+    public void request(@NotNull final BlockPos hut, @NotNull final List<ItemStack> items)
+    {
+        if (items.isEmpty())
+        {
+            clearRequests(hut);
+            return;
+        }
+
+        final long time = getWorldTime();
+        final Request request = requests.computeIfAbsent(hut, pos -> new Request(time));
+        request.items.clear();
+        for (@NotNull final ItemStack stack : items)
+        {
+            request.items.add(stack.copy());
+        }
+        request.lastReported = time;
+    }
+
+    /**
+     * The worker of a hut doesn't wait for items anymore.
+     *
+     * @param hut the location of the hut.
+     */
+    public void clearRequests(@NotNull final BlockPos hut)
+    {
+        requests.remove(hut);
+    }
+
+    /**
+     * Report if a builder still needs resources for its build.
+     *
+     * @param hut            the location of the builder's hut.
+     * @param needsResources true if its list of needed resources isn't empty.
+     */
+    public void setBuilderNeedsResources(@NotNull final BlockPos hut, final boolean needsResources)
+    {
+        if (needsResources)
+        {
+            buildersWithNeeds.add(hut);
+        }
+        else
+        {
+            buildersWithNeeds.remove(hut);
+        }
+    }
+
+    /**
+     * Forget the requests of a hut which was removed.
+     *
+     * @param hut the location of the hut.
+     */
+    public void onBuildingRemoved(@NotNull final BlockPos hut)
+    {
+        requests.remove(hut);
+        buildersWithNeeds.remove(hut);
+        builderRequestTimes.remove(hut);
+    }
+
+    /**
+     * Check if any hut reported items it waits for.
+     * Unlike {@link #getRequestingHuts()} this doesn't subtract what the chests hold or the deliverymen carry,
+     * so it is cheap enough to be asked every tick.
+     *
+     * @return true if a worker or a builder does.
+     */
+    public boolean hasOpenRequests()
+    {
+        dropExpiredRequests(getWorldTime());
+        return !requests.isEmpty() || !buildersWithNeeds.isEmpty();
+    }
+
+    /**
+     * Get the huts which wait for items.
+     *
+     * @return their locations.
+     */
+    @NotNull
+    public List<BlockPos> getRequestingHuts()
+    {
+        return new ArrayList<>(collectDemand().keySet());
+    }
+
+    /**
+     * Plan the open demand and give a deliveryman the route which serves the oldest request.
+     *
+     * @param deliveryman the deliveryman.
+     * @param depot       the hut the deliveryman starts and ends at.
+     * @param capacity    the number of stacks the deliveryman can carry.
+     * @return the route, or null if there is nothing to deliver.
+     */
+    @Nullable
+    public DeliveryRoute takeRoute(@NotNull final CitizenData deliveryman, @NotNull final BlockPos depot, final int capacity)
+    {
+        activeRoutes.remove(deliveryman.getId());
+        if (capacity <= 0)
+        {
+            return null;
+        }
+
+        final List<DeliveryTask> tasks = createTasks(collectDemand());
+        if (tasks.isEmpty())
+        {
+            return null;
+        }
+
+        @Nullable DeliveryRoute best = null;
+        long bestTime = Long.MAX_VALUE;
+        for (@NotNull final DeliveryRoute route : RoutePlanner.plan(depot, tasks, capacity))
+        {
+            final long oldest = route.getTasks().stream().mapToLong(DeliveryTask::getRequestTime).min().orElse(Long.MAX_VALUE);
+            if (oldest < bestTime || (oldest == bestTime && best != null && route.getTasks().size() > best.getTasks().size()))
+            {
+                best = route;
+                bestTime = oldest;
+            }
+        }
+
+        if (best != null)
+        {
+            best.setAssignedTime(getWorldTime());
+            activeRoutes.put(deliveryman.getId(), best);
+        }
+        return best;
+    }
+
+    /**
+     * A deliveryman finished or gave up its route.
+     *
+     * @param deliveryman the deliveryman.
+     */
+    public void completeRoute(@NotNull final CitizenData deliveryman)
+    {
+        activeRoutes.remove(deliveryman.getId());
+    }
+
+    /**
+     * Get the route a deliveryman is on.
+     *
+     * @param deliveryman the deliveryman.
+     * @return the route, or null.
+     */
+    @Nullable
+    public DeliveryRoute getRoute(@NotNull final CitizenData deliveryman)
+    {
+        return activeRoutes.get(deliveryman.getId());
+    }
+
+    /**
+     * Collect what the huts still need: the requested items minus what the hut chest holds
+     * and what the deliverymen are carrying there already.
+     *
+     * @return the demand by hut location, with the world time it was first asked for.
+     */
+    @NotNull
+    private Map<BlockPos, Request> collectDemand()
+    {
+        final long time = getWorldTime();
+        dropExpiredRequests(time);
+        activeRoutes.values().removeIf(route -> route.isDone() || time - route.getAssignedTime() > ROUTE_TIMEOUT);
+
+        @NotNull final Map<BlockPos, Request> demand = new LinkedHashMap<>();
+        for (@NotNull final Map.Entry<BlockPos, Request> entry : requests.entrySet())
+        {
+            final AbstractBuilding building = colony.getBuilding(entry.getKey());
+            if (building != null && !(building instanceof BuildingBuilder))
+            {
+                addDemand(demand, building, entry.getValue().items, entry.getValue().since, null);
+            }
+        }
+
+        builderRequestTimes.keySet().retainAll(buildersWithNeeds);
+        for (@NotNull final BlockPos hut : buildersWithNeeds)
+        {
+            final AbstractBuilding building = colony.getBuilding(hut);
+            if (building instanceof BuildingBuilder)
+            {
+                final BuildingBuilder builder = (BuildingBuilder) building;
+                final long since = builderRequestTimes.computeIfAbsent(hut, pos -> time);
+                final CitizenData worker = builder.getWorker();
+                addDemand(demand, building, builder.getNeededResources().values(), since, worker == null ? null : worker.getCitizenEntity());
+            }
+        }
+        return demand;
+    }
+
+    /**
+     * Drop the requests which weren't reported again in time, their worker stopped waiting.
+     *
+     * @param time the current world time.
+     */
+    private void dropExpiredRequests(final long time)
+    {
+        requests.values().removeIf(request -> time - request.lastReported > REQUEST_TIMEOUT);
+    }
+
+    /**
+     * Add what a hut still needs of some items to the demand.
+     *
+     * @param demand   the demand to add to.
+     * @param building the hut.
+     * @param items    the items with the needed amount.
+     * @param since    the world time the hut first asked for them.
+     * @param worker   the worker whose inventory counts as the hut, or null.
+     */
+    private void addDemand(
+                            @NotNull final Map<BlockPos, Request> demand,
+                            @NotNull final AbstractBuilding building,
+                            @NotNull final Collection<ItemStack> items,
+                            final long since,
+                            @Nullable final EntityCitizen worker)
+    {
+        final BlockPos hut = building.getLocation();
+        for (@NotNull final ItemStack stack : items)
+        {
+            if (stack.getItem() == null)
+            {
+                continue;
+            }
+
+            int missing = stack.stackSize - building.getMaterialStore().getMaterialCount(stack.getItem(), stack.getItemDamage()) - getInFlight(hut, stack);
+            if (worker != null)
+            {
+                missing -= InventoryUtils.getItemCountInInventory(worker.getInventoryCitizen(), stack.getItem(), stack.getItemDamage());
+            }
+
+            if (missing > 0)
+            {
+                final ItemStack missingStack = stack.copy();
+                missingStack.stackSize = missing;
+                demand.computeIfAbsent(hut, pos -> new Request(since)).items.add(missingStack);
+            }
+        }
+    }
+
+    /**
+     * Count how much of an item the deliverymen are carrying to a hut.
+     *
+     * @param hut   the location of the hut.
+     * @param stack the item.
+     * @return the amount on its way.
+     */
+    private int getInFlight(@NotNull final BlockPos hut, @NotNull final ItemStack stack)
+    {
+        int amount = 0;
+        for (@NotNull final DeliveryRoute route : activeRoutes.values())
+        {
+            for (@NotNull final DeliveryTask task : route.getTasks())
+            {
+                if (task.getDestination().equals(hut) && task.matches(stack) && route.isPending(task))
+                {
+                    amount += task.getStack().stackSize;
+                }
+            }
+        }
+        return amount;
+    }
+
+    /**
+     * Match the demand to the chests holding the items, oldest requests first.
+     * Each task carries at most one stack from the nearest chest to the hut which holds some of the item.
+     *
+     * @param demand the demand by hut location.
+     * @return the tasks.
+     */
+    @NotNull
+    private List<DeliveryTask> createTasks(@NotNull final Map<BlockPos, Request> demand)
+    {
+        @NotNull final List<Map.Entry<BlockPos, Request>> entries = new ArrayList<>(demand.entrySet());
+        entries.sort(Comparator.comparingLong(entry -> entry.getValue().since));
+
+        @NotNull final List<DeliveryTask> tasks = new ArrayList<>();
+        for (@NotNull final Map.Entry<BlockPos, Request> entry : entries)
+        {
+            final BlockPos hut = entry.getKey();
+            for (@NotNull final ItemStack stack : entry.getValue().items)
+            {
+                int missing = stack.stackSize;
+                while (missing > 0 && tasks.size() < MAX_TASKS)
+                {
+                    final Predicate<MaterialStore> filter = store -> isSource(store, hut, stack) && getAvailable(store, stack, tasks) > 0;
+                    final MaterialStore source = colony.getMaterialSystem().findNearest(stack, 1, hut, filter);
+                    if (source == null)
+                    {
+                        break;
+                    }
+
+                    final int amount = Math.min(Math.min(missing, stack.getMaxStackSize()), getAvailable(source, stack, tasks));
+                    final ItemStack carried = stack.copy();
+                    carried.stackSize = amount;
+                    tasks.add(new DeliveryTask(source.getLocation(), hut, carried, entry.getValue().since));
+                    missing -= amount;
+                }
+            }
+        }
+        return tasks;
+    }
+
+    /**
+     * Check if a deliveryman may take an item from a store for a hut: it must be the chest of another hut
+     * which isn't a builder and doesn't wait for the item itself.
+     *
+     * @param store the store.
+     * @param hut   the hut the item is for.
+     * @param stack the item.
+     * @return true if so.
+     */
+    private boolean isSource(@NotNull final MaterialStore store, @NotNull final BlockPos hut, @NotNull final ItemStack stack)
+    {
+        final BlockPos location = store.getLocation();
+        if (store.getType() != MaterialStore.Type.CHEST || location == null || location.equals(hut))
+        {
+            return false;
+        }
+
+        final AbstractBuilding building = colony.getBuilding(location);
+        if (building == null || building instanceof BuildingBuilder)
+        {
+            return false;
+        }
+
+        final Request request = requests.get(location);
+        return request == null || request.items.stream().noneMatch(item -> DeliveryTask.isSameItem(stack, item));
+    }
+
+    /**
+     * Count how much of an item a store holds which isn't planned for a task yet,
+     * neither by the tasks planned now nor by the active routes which didn't pick it up yet.
+     *
+     * @param store the store.
+     * @param stack the item.
+     * @param tasks the tasks planned so far.
+     * @return the amount left to plan.
+     */
+    private int getAvailable(@NotNull final MaterialStore store, @NotNull final ItemStack stack, @NotNull final List<DeliveryTask> tasks)
+    {
+        int available = store.getMaterialCount(stack.getItem(), stack.getItemDamage());
+        for (@NotNull final DeliveryTask task : tasks)
+        {
+            if (task.getSource().equals(store.getLocation()) && task.matches(stack))
+            {
+                available -= task.getStack().stackSize;
+            }
+        }
+
+        for (@NotNull final DeliveryRoute route : activeRoutes.values())
+        {
+            for (@NotNull final DeliveryTask task : route.getTasks())
+            {
+                if (task.getSource().equals(store.getLocation()) && task.matches(stack) && route.isPickupPending(task))
+                {
+                    available -= task.getStack().stackSize;
+                }
+            }
+        }
+        return available;
+    }
+
+    /**
+     * @return the world time of the colony, 0 while it isn't loaded.
+     */
+    private long getWorldTime()
+    {
+        return colony.getWorld() == null ? 0 : colony.getWorld().getTotalWorldTime();
+    }
+
+    /**
+     * The items a hut asks for.
+     */
+    private static final class Request
+    {
+        /**
+         * The items with the missing amount.
+         */
+        @NotNull
+        private final List<ItemStack> items = new ArrayList<>();
+
+        /**
+         * The world time the hut first asked.
+         */
+        private final long since;
+
+        /**
+         * The world time the hut last reported its items.
+         */
+        private long lastReported;
+
+        private Request(final long since)
+        {
+            this.since = since;
+            this.lastReported = since;
+        }
+    }
+}
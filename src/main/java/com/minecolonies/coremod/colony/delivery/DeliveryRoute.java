@@ -0,0 +1,211 @@
+package com.minecolonies.coremod.colony.delivery;
+
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A round trip of a deliveryman: the huts to pick stacks up at, then the huts to drop them off at.
+ * The deliveryman works the stops in order and {@link #advance() advances} after each one.
+ */
+public class DeliveryRoute
+{
+    /**
+     * The tasks served by the route.
+     */
+    @NotNull
+    private final List<DeliveryTask> tasks;
+
+    /**
+     * The stops, all pickups before all drops.
+     */
+    @NotNull
+    private final List<Stop>         stops;
+
+    /**
+     * The length of the trip from the depot over all stops back to the depot.
+     */
+    private final double             length;
+
+    /**
+     * The index of the stop the deliveryman heads for.
+     */
+    private int  nextStop     = 0;
+
+    /**
+     * The world time a deliveryman took the route.
+     */
+    private long assignedTime = 0;
+
+    /**
+     * Create a route.
+     *
+     * @param tasks  the tasks served by the route.
+     * @param stops  the stops, all pickups before all drops.
+     * @param length the length of the round trip.
+     */
+    DeliveryRoute(@NotNull final List<DeliveryTask> tasks, @NotNull final List<Stop> stops, final double length)
+    {
+        this.tasks = tasks;
+        this.stops = stops;
+        this.length = length;
+    }
+
+    /**
+     * @return the tasks served by the route.
+     */
+    @NotNull
+    public List<DeliveryTask> getTasks()
+    {
+        return Collections.unmodifiableList(tasks);
+    }
+
+    /**
+     * @return the length of the round trip.
+     */
+    public double getLength()
+    {
+        return length;
+    }
+
+    /**
+     * Get the stop the deliveryman heads for.
+     *
+     * @return the stop, or null if the route is done.
+     */
+    @Nullable
+    public Stop getNextStop()
+    {
+        return isDone() ? null : stops.get(nextStop);
+    }
+
+    /**
+     * Head for the next stop, after the current one was worked.
+     */
+    public void advance()
+    {
+        if (!isDone())
+        {
+            nextStop++;
+        }
+    }
+
+    /**
+     * @return true if all stops were worked.
+     */
+    public boolean isDone()
+    {
+        return nextStop >= stops.size();
+    }
+
+    /**
+     * Check if the deliveryman still has to drop a task off.
+     *
+     * @param task the task.
+     * @return true if the stop of its destination is not worked yet.
+     */
+    boolean isPending(@NotNull final DeliveryTask task)
+    {
+        for (int i = nextStop; i < stops.size(); i++)
+        {
+            final Stop stop = stops.get(i);
+            if (!stop.isPickup() && stop.getTasks().contains(task))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if the deliveryman still has to pick a task up.
+     *
+     * @param task the task.
+     * @return true if the stop of its source is not worked yet.
+     */
+    boolean isPickupPending(@NotNull final DeliveryTask task)
+    {
+        for (int i = nextStop; i < stops.size(); i++)
+        {
+            final Stop stop = stops.get(i);
+            if (stop.isPickup() && stop.getTasks().contains(task))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return the world time a deliveryman took the route.
+     */
+    long getAssignedTime()
+    {
+        return assignedTime;
+    }
+
+    /**
+     * Remember when a deliveryman took the route.
+     *
+     * @param assignedTime the world time.
+     */
+    void setAssignedTime(final long assignedTime)
+    {
+        this.assignedTime = assignedTime;
+    }
+
+    /**
+     * A hut on the route, with the tasks to pick up or drop off there.
+     */
+    public static class Stop
+    {
+        @NotNull
+        private final BlockPos           location;
+        private final boolean            pickup;
+        @NotNull
+        private final List<DeliveryTask> tasks;
+
+        /**
+         * Create a stop.
+         *
+         * @param location the location of the hut.
+         * @param pickup   true to pick the stacks up, false to drop them off.
+         * @param tasks    the tasks to work at the hut.
+         */
+        Stop(@NotNull final BlockPos location, final boolean pickup, @NotNull final List<DeliveryTask> tasks)
+        {
+            this.location = location;
+            this.pickup = pickup;
+            this.tasks = tasks;
+        }
+
+        /**
+         * @return the location of the hut.
+         */
+        @NotNull
+        public BlockPos getLocation()
+        {
+            return location;
+        }
+
+        /**
+         * @return true to pick the stacks up, false to drop them off.
+         */
+        public boolean isPickup()
+        {
+            return pickup;
+        }
+
+        /**
+         * @return the tasks to work at the hut.
+         */
+        @NotNull
+        public List<DeliveryTask> getTasks()
+        {
+            return Collections.unmodifiableList(tasks);
+        }
+    }
+}
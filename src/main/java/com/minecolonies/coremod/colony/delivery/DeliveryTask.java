@@ -0,0 +1,111 @@
+package com.minecolonies.coremod.colony.delivery;
+
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * One stack a deliveryman carries from the chest of one hut to the chest of another.
+ */
+public class DeliveryTask
+{
+    /**
+     * The hut to pick the stack up at.
+     */
+    @NotNull
+    private final BlockPos  source;
+
+    /**
+     * The hut to drop the stack off at.
+     */
+    @NotNull
+    private final BlockPos  destination;
+
+    /**
+     * The item, damage and amount to carry.
+     */
+    @NotNull
+    private final ItemStack stack;
+
+    /**
+     * The world time the destination first asked for the item.
+     */
+    private final long      requestTime;
+
+    /**
+     * Create a task.
+     *
+     * @param source      the hut to pick the stack up at.
+     * @param destination the hut to drop the stack off at.
+     * @param stack       the item, damage and amount to carry.
+     * @param requestTime the world time the destination first asked for the item.
+     */
+    public DeliveryTask(@NotNull final BlockPos source, @NotNull final BlockPos destination, @NotNull final ItemStack stack, final long requestTime)
+    {
+        this.source = source;
+        this.destination = destination;
+        this.stack = stack;
+        this.requestTime = requestTime;
+    }
+
+    /**
+     * @return the hut to pick the stack up at.
+     */
+    @NotNull
+    public BlockPos getSource()
+    {
+        return source;
+    }
+
+    /**
+     * @return the hut to drop the stack off at.
+     */
+    @NotNull
+    public BlockPos getDestination()
+    {
+        return destination;
+    }
+
+    /**
+     * @return a copy of the item, damage and amount to carry.
+     */
+    @NotNull
+    public ItemStack getStack()
+    {
+        return stack.copy();
+    }
+
+    /**
+     * @return the world time the destination first asked for the item.
+     */
+    public long getRequestTime()
+    {
+        return requestTime;
+    }
+
+    /**
+     * Check if a stack is of the item of this task.
+     *
+     * @param other the stack.
+     * @return true if it has the item and damage, damageable items match any damage.
+     */
+    public boolean matches(@Nullable final ItemStack other)
+    {
+        return isSameItem(stack, other);
+    }
+
+    /**
+     * Check if two stacks are of the same item the way the material ledger counts them.
+     *
+     * @param stack the first stack.
+     * @param other the second stack.
+     * @return true if they have the same item and damage, damageable items match any damage.
+     */
+    public static boolean isSameItem(@NotNull final ItemStack stack, @Nullable final ItemStack other)
+    {
+        return other != null
+                 && other.getItem() == stack.getItem()
+                 && (stack.getItem().isDamageable() || other.getItemDamage() == stack.getItemDamage());
+    }
+}
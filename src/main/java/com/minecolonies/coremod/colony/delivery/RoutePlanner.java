@@ -0,0 +1,264 @@
+package com.minecolonies.coremod.colony.delivery;
+
+import net.minecraft.util.math.BlockPos;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Batches delivery tasks into round trips from a depot.
+ * <p>
+ * The tasks are merged with the Clarke-Wright savings heuristic: every task starts on a trip of its own, and the
+ * pairs of tasks are merged in the order of the distance saved by serving them on one trip, as long as the merged
+ * trip fits into the inventory of the deliveryman. A trip picks everything up before it drops anything off, each
+ * half ordered nearest neighbour first and then improved by 2-opt.
+ */
+final class RoutePlanner
+{
+    /**
+     * The most 2-opt passes over the stops of one half of a trip.
+     */
+    private static final int MAX_TWO_OPT_PASSES = 8;
+
+    /**
+     * Improvements smaller than this are rounding noise.
+     */
+    private static final double EPSILON = 1.0E-6;
+
+    /**
+     * Private constructor to hide the implicit public one.
+     */
+    private RoutePlanner()
+    {
+        /*
+         * Intentionally left empty.
+         */
+    }
+
+    /**
+     * Batch tasks into routes.
+     *
+     * @param depot    the hut the deliveryman starts and ends at.
+     * @param tasks    the tasks, each one stack.
+     * @param capacity the most tasks one route may carry.
+     * @return the routes, every task on exactly one.
+     */
+    @NotNull
+    static List<DeliveryRoute> plan(@NotNull final BlockPos depot, @NotNull final List<DeliveryTask> tasks, final int capacity)
+    {
+        final int size = tasks.size();
+        @NotNull final List<List<Integer>> trips = new ArrayList<>(size);
+        @NotNull final int[] tripOf = new int[size];
+        for (int i = 0; i < size; i++)
+        {
+            trips.add(new ArrayList<>(Collections.singletonList(i)));
+            tripOf[i] = i;
+        }
+
+        for (@NotNull final Saving saving : getSavings(depot, tasks))
+        {
+            final int first = tripOf[saving.first];
+            final int second = tripOf[saving.second];
+            if (first == second || trips.get(first).size() + trips.get(second).size() > capacity)
+            {
+                continue;
+            }
+
+            for (final int task : trips.get(second))
+            {
+                tripOf[task] = first;
+            }
+            trips.get(first).addAll(trips.get(second));
+            trips.get(second).clear();
+        }
+
+        @NotNull final List<DeliveryRoute> routes = new ArrayList<>();
+        for (@NotNull final List<Integer> trip : trips)
+        {
+            if (!trip.isEmpty())
+            {
+                @NotNull final List<DeliveryTask> tripTasks = new ArrayList<>(trip.size());
+                for (final int task : trip)
+                {
+                    tripTasks.add(tasks.get(task));
+                }
+                routes.add(sequence(depot, tripTasks));
+            }
+        }
+        return routes;
+    }
+
+    /**
+     * Compute the positive savings of all pairs of tasks, largest first.
+     * Serving two tasks on one trip saves the way back to the depot between the pickups and the way out again
+     * between the drops, and costs the legs between the two sources and between the two destinations.
+     *
+     * @param depot the depot.
+     * @param tasks the tasks.
+     * @return the savings.
+     */
+    @NotNull
+    private static List<Saving> getSavings(@NotNull final BlockPos depot, @NotNull final List<DeliveryTask> tasks)
+    {
+        final int size = tasks.size();
+        @NotNull final double[] toSource = new double[size];
+        @NotNull final double[] fromDestination = new double[size];
+        for (int i = 0; i < size; i++)
+        {
+            toSource[i] = distance(depot, tasks.get(i).getSource());
+            fromDestination[i] = distance(tasks.get(i).getDestination(), depot);
+        }
+
+        @NotNull final List<Saving> savings = new ArrayList<>();
+        for (int i = 0; i < size; i++)
+        {
+            for (int j = i + 1; j < size; j++)
+            {
+                final double value = toSource[i] + toSource[j] - distance(tasks.get(i).getSource(), tasks.get(j).getSource())
+                                       + fromDestination[i] + fromDestination[j] - distance(tasks.get(i).getDestination(), tasks.get(j).getDestination());
+                if (value > EPSILON)
+                {
+                    savings.add(new Saving(i, j, value));
+                }
+            }
+        }
+        savings.sort((a, b) -> Double.compare(b.value, a.value));
+        return savings;
+    }
+
+    /**
+     * Order the stops of a trip: the pickups from the depot on, then the drops back to the depot.
+     *
+     * @param depot the depot.
+     * @param tasks the tasks of the trip.
+     * @return the route.
+     */
+    @NotNull
+    private static DeliveryRoute sequence(@NotNull final BlockPos depot, @NotNull final List<DeliveryTask> tasks)
+    {
+        @NotNull final Map<BlockPos, List<DeliveryTask>> pickups = new HashMap<>();
+        @NotNull final Map<BlockPos, List<DeliveryTask>> drops = new HashMap<>();
+        for (@NotNull final DeliveryTask task : tasks)
+        {
+            pickups.computeIfAbsent(task.getSource(), pos -> new ArrayList<>()).add(task);
+            drops.computeIfAbsent(task.getDestination(), pos -> new ArrayList<>()).add(task);
+        }
+
+        @NotNull final List<BlockPos> pickupOrder = order(depot, pickups.keySet(), null);
+        final BlockPos lastPickup = pickupOrder.get(pickupOrder.size() - 1);
+        @NotNull final List<BlockPos> dropOrder = order(lastPickup, drops.keySet(), depot);
+
+        @NotNull final List<DeliveryRoute.Stop> stops = new ArrayList<>(pickupOrder.size() + dropOrder.size());
+        double length = 0;
+        BlockPos previous = depot;
+        for (@NotNull final BlockPos pos : pickupOrder)
+        {
+            stops.add(new DeliveryRoute.Stop(pos, true, pickups.get(pos)));
+            length += distance(previous, pos);
+            previous = pos;
+        }
+        for (@NotNull final BlockPos pos : dropOrder)
+        {
+            stops.add(new DeliveryRoute.Stop(pos, false, drops.get(pos)));
+            length += distance(previous, pos);
+            previous = pos;
+        }
+        length += distance(previous, depot);
+
+        return new DeliveryRoute(tasks, stops, length);
+    }
+
+    /**
+     * Order a set of stops nearest neighbour first, then improve the order with 2-opt.
+     *
+     * @param start     the position before the first stop.
+     * @param positions the stops.
+     * @param end       the position after the last stop, or null if the path may end anywhere.
+     * @return the ordered stops.
+     */
+    @NotNull
+    private static List<BlockPos> order(@NotNull final BlockPos start, @NotNull final Collection<BlockPos> positions, @Nullable final BlockPos end)
+    {
+        @NotNull final List<BlockPos> left = new ArrayList<>(positions);
+        @NotNull final List<BlockPos> path = new ArrayList<>(left.size());
+        BlockPos current = start;
+        while (!left.isEmpty())
+        {
+            int nearest = 0;
+            for (int i = 1; i < left.size(); i++)
+            {
+                if (current.distanceSq(left.get(i)) < current.distanceSq(left.get(nearest)))
+                {
+                    nearest = i;
+                }
+            }
+            current = left.remove(nearest);
+            path.add(current);
+        }
+
+        twoOpt(start, path, end);
+        return path;
+    }
+
+    /**
+     * Reverse segments of a path as long as that shortens it.
+     *
+     * @param start the position before the first stop.
+     * @param path  the stops, reordered in place.
+     * @param end   the position after the last stop, or null if the path may end anywhere.
+     */
+    private static void twoOpt(@NotNull final BlockPos start, @NotNull final List<BlockPos> path, @Nullable final BlockPos end)
+    {
+        final int size = path.size();
+        boolean improved = true;
+        for (int pass = 0; improved && pass < MAX_TWO_OPT_PASSES; pass++)
+        {
+            improved = false;
+            for (int i = 0; i < size - 1; i++)
+            {
+                final BlockPos before = i == 0 ? start : path.get(i - 1);
+                for (int k = i + 1; k < size; k++)
+                {
+                    final BlockPos after = k == size - 1 ? end : path.get(k + 1);
+                    final double oldLength = distance(before, path.get(i)) + (after == null ? 0 : distance(path.get(k), after));
+                    final double newLength = distance(before, path.get(k)) + (after == null ? 0 : distance(path.get(i), after));
+                    if (newLength < oldLength - EPSILON)
+                    {
+                        Collections.reverse(path.subList(i, k + 1));
+                        improved = true;
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The straight distance between two positions.
+     *
+     * @param from the first position.
+     * @param to   the second position.
+     * @return the distance in blocks.
+     */
+    private static double distance(@NotNull final BlockPos from, @NotNull final BlockPos to)
+    {
+        return Math.sqrt(from.distanceSq(to));
+    }
+
+    /**
+     * The distance saved by serving two tasks on one trip.
+     */
+    private static final class Saving
+    {
+        private final int    first;
+        private final int    second;
+        private final double value;
+
+        private Saving(final int first, final int second, final double value)
+        {
+            this.first = first;
+            this.second = second;
+            this.value = value;
+        }
+    }
+}
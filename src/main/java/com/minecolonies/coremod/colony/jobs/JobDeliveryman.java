@@ -87,7 +87,7 @@ public class JobDeliveryman extends AbstractJob
     public boolean isNeeded()
     {
         final Colony colony = getCitizen().getColony();
-        return colony != null && !colony.getDeliverymanRequired().isEmpty();
+        return colony != null && colony.isDeliverymanRequired();
     }
 
     /**
@@ -0,0 +1,159 @@
+package com.minecolonies.coremod.colony.materials;
+
+/**
+ * Counts by int key, without boxing.
+ * An open addressing hash table with linear probing, a count of 0 marks a free cell so keys with a count of 0 are not kept.
+ */
+final class IntCounter
+{
+    /**
+     * Initial number of cells, a power of two.
+     */
+    private static final int INITIAL_CAPACITY = 16;
+
+    /**
+     * Golden ratio constant to spread the keys over the cells.
+     */
+    private static final int HASH_FACTOR = 0x9E3779B9;
+
+    /**
+     * The table is grown when it is fuller than LOAD_NUMERATOR / LOAD_DENOMINATOR.
+     */
+    private static final int LOAD_NUMERATOR   = 3;
+    private static final int LOAD_DENOMINATOR = 4;
+
+    /**
+     * The keys and counts of the cells.
+     */
+    private int[] keys   = new int[INITIAL_CAPACITY];
+    private int[] counts = new int[INITIAL_CAPACITY];
+
+    /**
+     * Number of keys with a count.
+     */
+    private int size = 0;
+
+    /**
+     * Get the count of a key.
+     *
+     * @param key the key.
+     * @return the count, 0 if the key is not counted.
+     */
+    int get(final int key)
+    {
+        final int mask = keys.length - 1;
+        for (int cell = hash(key) & mask; counts[cell] != 0; cell = (cell + 1) & mask)
+        {
+            if (keys[cell] == key)
+            {
+                return counts[cell];
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * Change the count of a key.
+     * The count must not become negative, callers check with {@link #get(int)} first.
+     *
+     * @param key   the key.
+     * @param delta the change of the count.
+     * @return the new count.
+     */
+    int add(final int key, final int delta)
+    {
+        final int mask = keys.length - 1;
+        int cell = hash(key) & mask;
+        for (; counts[cell] != 0; cell = (cell + 1) & mask)
+        {
+            if (keys[cell] == key)
+            {
+                final int count = counts[cell] + delta;
+                if (count == 0)
+                {
+                    removeCell(cell);
+                }
+                else
+                {
+                    counts[cell] = count;
+                }
+                return count;
+            }
+        }
+
+        if (delta == 0)
+        {
+            return 0;
+        }
+
+        keys[cell] = key;
+        counts[cell] = delta;
+        if (++size * LOAD_DENOMINATOR > keys.length * LOAD_NUMERATOR)
+        {
+            grow();
+        }
+        return delta;
+    }
+
+    /**
+     * Free a cell, and move the following cells of the probe run back so they can still be found.
+     *
+     * @param cell the cell.
+     */
+    private void removeCell(final int cell)
+    {
+        final int mask = keys.length - 1;
+        int gap = cell;
+        for (int next = (cell + 1) & mask; counts[next] != 0; next = (next + 1) & mask)
+        {
+            final int home = hash(keys[next]) & mask;
+            //  The entry may move into the gap if the gap lies between its home cell and its cell
+            if (((next - home) & mask) >= ((next - gap) & mask))
+            {
+                keys[gap] = keys[next];
+                counts[gap] = counts[next];
+                gap = next;
+            }
+        }
+        counts[gap] = 0;
+        size--;
+    }
+
+    /**
+     * Double the number of cells.
+     */
+    private void grow()
+    {
+        final int[] oldKeys = keys;
+        final int[] oldCounts = counts;
+        keys = new int[oldKeys.length * 2];
+        counts = new int[oldCounts.length * 2];
+
+        final int mask = keys.length - 1;
+        for (int i = 0; i < oldKeys.length; i++)
+        {
+            if (oldCounts[i] != 0)
+            {
+                int cell = hash(oldKeys[i]) & mask;
+                while (counts[cell] != 0)
+                {
+                    cell = (cell + 1) & mask;
+                }
+                keys[cell] = oldKeys[i];
+                counts[cell] = oldCounts[i];
+            }
+        }
+    }
+
+    /**
+     * Spread a key over the cells.
+     *
+     * @param key the key.
+     * @return the hash.
+     */
+    private static int hash(final int key)
+    {
+        final int hash = key * HASH_FACTOR;
+        return hash ^ (hash >>> 16);
+    }
+}
@@ -4,8 +4,8 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.HashSet;
+import java.util.Set;
 
 /**
  * Material Data Structure, also keeps note of where this material is stored.
@@ -16,17 +16,22 @@ import java.util.Map;
 public class Material
 {
     /**
-     * Map of where each Material is stored and how much is there.
+     * The stores which hold some of this material.
      */
     @NotNull
-    private final Map<MaterialStore, Integer> locations = new HashMap<>();
+    private final Set<MaterialStore> stores = new HashSet<>();
 
     /**
      * Universal Item/Block ID.
      */
-    private final Integer id;
+    private final int id;
 
-    Material(final Integer id)
+    /**
+     * How much of this material the colony has.
+     */
+    private int count = 0;
+
+    Material(final int id)
     {
         this.id = id;
     }
@@ -45,72 +50,61 @@ public class Material
     @Override
     public boolean equals(@Nullable final Object material)
     {
-        return material != null && material.getClass() == this.getClass() && id.equals(((Material) material).id);
+        return material != null && material.getClass() == this.getClass() && id == ((Material) material).id;
     }
 
     /**
-     * @return An unmodifiable version of locations.
+     * @return An unmodifiable version of the stores holding this material.
      */
     @NotNull
-    public Map<MaterialStore, Integer> getLocationsStored()
+    public Set<MaterialStore> getLocationsStored()
     {
-        return Collections.unmodifiableMap(locations);
+        return Collections.unmodifiableSet(stores);
+    }
+
+    /**
+     * Returns how much of this material the colony has.
+     *
+     * @return the count over all stores.
+     */
+    public int getCount()
+    {
+        return count;
     }
 
     /**
      * Returns how much material is at a location.
      *
-     * @param store    Location we are checking.
-     * @param material Material that we are checking.
+     * @param store Location we are checking.
      * @return How many of material is stored at store.
      */
-    public int getMaterialCount(@NotNull final MaterialStore store, final Material material)
+    public int getMaterialCount(@NotNull final MaterialStore store)
     {
-        if (locations.containsKey(store))
-        {
-            return store.getMaterialCount(material);
-        }
-
-        return 0;
+        return stores.contains(store) ? store.getMaterialCount(this) : 0;
     }
 
-    void add(final MaterialStore store, final int quantity)
+    void add(@NotNull final MaterialStore store, final int quantity)
     {
-        final Integer count = locations.get(store);
-        if (count == null)
-        {
-            locations.put(store, quantity);
-        }
-        else
-        {
-            locations.put(store, count + quantity);
-        }
+        count += quantity;
+        stores.add(store);
     }
 
-    void remove(final MaterialStore store, final int quantity)
+    void remove(@NotNull final MaterialStore store, final int quantity, final boolean storeEmpty)
     {
-        final Integer count = locations.get(store);
-        if (count == null || count < quantity)
+        if (count < quantity)
         {
-            throw new QuantityNotFound("MaterialStore (Material)", getID(), count == null ? 0 : count, quantity);
+            throw new QuantityNotFound("MaterialSystem (Material)", id, count, quantity);
         }
-        else if (count == quantity)
-        {
-            locations.remove(store);
-        }
-        else
+
+        count -= quantity;
+        if (storeEmpty)
         {
-            locations.put(store, count - quantity);
+            stores.remove(store);
         }
     }
 
-    Integer getID()
+    int getID()
     {
         return id;
     }
-
-    void remove(final MaterialStore store)
-    {
-        locations.remove(store);
-    }
 }
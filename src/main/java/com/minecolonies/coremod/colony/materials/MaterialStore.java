@@ -1,59 +1,101 @@
 package com.minecolonies.coremod.colony.materials;
 
+import com.minecolonies.coremod.inventory.InventoryCitizen;
+import com.minecolonies.coremod.util.Log;
+import com.minecolonies.coremod.util.Utils;
 import net.minecraft.block.Block;
+import net.minecraft.inventory.IInventory;
 import net.minecraft.item.Item;
-import net.minecraft.nbt.NBTTagCompound;
-import net.minecraft.nbt.NBTTagList;
-import net.minecraftforge.common.util.Constants;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.Collections;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.*;
 
 /**
  * A material store is a node in the material network, keeping track of materials in a specific inventory.
  * Created: December 14, 2015
+ * <p>
+ * The store mirrors the slots of its inventory: it remembers the item, count and tool levels it last recorded for
+ * every slot, so a slot update only has to replace the record of that slot. Stacks which were changed in place are
+ * picked up by {@link #sync(IInventory)}, which the inventories call when they are marked dirty.
  *
  * @author Colton
  */
 public class MaterialStore
 {
-    private static final String                 TAG_MATERIAL_STORE = "MaterialStore";
-    private static final String                 TAG_DONT_NEED      = "HaveDontNeed";
-    private static final String                 TAG_HAVE_NEED      = "HaveNeed";
-    private static final String                 TAG_NEED           = "NeedDontHave";
-    private static final String                 TAG_ID             = "ID";
-    private static final String                 TAG_QUANTITY       = "quantity";
     /**
-     * These are Materials we have that we don't need right now. So they could be used for something else.
+     * Tool type of the items which serve as weapon.
+     */
+    public static final String WEAPON = "weapon";
+
+    /**
+     * Item id of an empty slot.
+     */
+    private static final int NO_ITEM = -1;
+
+    /**
+     * The item id is shifted by this many bits to make room for the damage in the variant key.
+     */
+    private static final int VARIANT_SHIFT = 16;
+
+    /**
+     * Mask of the damage in the variant key.
+     */
+    private static final int VARIANT_MASK = 0xFFFF;
+
+    private final Type           type;
+    private final MaterialSystem system;
+
+    /**
+     * The position of the inventory, null if it moves around.
+     */
+    @Nullable
+    private final BlockPos location;
+
+    /**
+     * How much of each item is stored, by item id.
      */
     @NotNull
-    private final        Map<Material, Integer> dontNeed           = new HashMap<>();
+    private final IntCounter counts = new IntCounter();
+
     /**
-     * These are Materials we have that we currently need. So we don't tell anyone else about them.
+     * How much of each item and damage is stored, by variant key.
      */
     @NotNull
-    private final        Map<Material, Integer> haveNeed           = new HashMap<>();
+    private final IntCounter variantCounts = new IntCounter();
+
     /**
-     * These are Materials that we don't have, but we need. The deliveryman try to keep this list empty.
+     * How many items of each tool type are stored.
      */
     @NotNull
-    private final        Map<Material, Integer> need               = new HashMap<>();
-    private final Type           type;
-    private final MaterialSystem system;
+    private final Map<String, Integer> toolCounts = new HashMap<>();
+
+    /**
+     * The item id, variant key, count and tool levels recorded for each slot.
+     */
+    @NotNull
+    private int[]                      slotIds      = new int[0];
+    @NotNull
+    private int[]                      slotVariants = new int[0];
+    @NotNull
+    private int[]                      slotCounts   = new int[0];
+    @NotNull
+    private final List<Map<String, Integer>> slotTools = new ArrayList<>();
 
     /**
      * Constructor for MaterialStore.
      *
-     * @param type   What kind of inventory, Entity(INVENTORY) or AbstractBuilding(CHEST).
-     * @param system The MaterialSystem associated with the colony.
+     * @param type     What kind of inventory, Entity(INVENTORY) or AbstractBuilding(CHEST).
+     * @param system   The MaterialSystem associated with the colony.
+     * @param location The position of a chest, null for an entity inventory.
      */
-    public MaterialStore(final Type type, @NotNull final MaterialSystem system)
+    public MaterialStore(final Type type, @NotNull final MaterialSystem system, @Nullable final BlockPos location)
     {
         this.type = type;
         this.system = system;
+        this.location = location;
 
         system.addStore(this);
     }
@@ -67,433 +109,287 @@ public class MaterialStore
     }
 
     /**
-     * These are the Materials that we need, this function will provide a list and quantity for someone like the deliveryman..
-     *
-     * @return An unmodifiable version of the need map.
+     * @return The position of the chest, or null for an entity inventory.
      */
-    @NotNull
-    public Map<Material, Integer> getNeed()
+    @Nullable
+    public BlockPos getLocation()
     {
-        return Collections.unmodifiableMap(need);
+        return location;
     }
 
     /**
-     * These are the Materials that we have, but we don't need. So someone else could come and take them if they wanted.
+     * This returns how many of a Material that we have.
      *
-     * @return An unmodifiable version of the dontNeed map.
+     * @param material Material that we are checking.
+     * @return How many of material that we have.
      */
-    @NotNull
-    public Map<Material, Integer> getHave()
+    public int getMaterialCount(@NotNull final Material material)
     {
-        return Collections.unmodifiableMap(dontNeed);
+        return counts.get(material.getID());
     }
 
     /**
-     * This returns how many of a Material that we have and don't need.
+     * This returns how many of an item we have, of any damage.
      *
-     * @param material Material that we are checking.
-     * @return How many of material that we have.
+     * @param item Item that we are checking.
+     * @return How many of item we have.
      */
-    public int getMaterialCount(final Material material)
+    public int getMaterialCount(@NotNull final Item item)
     {
-        final Integer count = dontNeed.get(material);
-
-        return count == null ? 0 : count;
+        return counts.get(Item.getIdFromItem(item));
     }
 
     /**
-     * Add a Material to this inventory. First check if we need that item and act accordingly. Then put any extra
-     * in the dontNeed map.
+     * This returns how many of an item with a damage we have, damageable items match any damage.
      *
-     * @param item     Item that is being added to the MaterialStore.
-     * @param quantity How much of item is being added.
+     * @param item   Item that we are checking.
+     * @param damage the damage of the item.
+     * @return How many of item we have.
      */
-    public void addMaterial(final Item item, final int quantity)
+    public int getMaterialCount(@NotNull final Item item, final int damage)
     {
-        addMaterial(system.getMaterial(item), quantity);
-    }
-
-    private void addMaterial(@Nullable final Material material, final int quantity)
-    {
-        if (quantity <= 0 || material == null)
-        {
-            return;
-        }
-
-        final Integer count = dontNeed.get(material);
-        if (count == null)
-        {
-            final Integer needCount = need.get(material);
-            if (needCount == null)
-            {
-                dontNeed.put(material, quantity);
-
-                system.addMaterial(material, quantity);
-                material.add(this, quantity);
-            }
-            else
-            {
-                if (quantity < needCount)
-                {
-                    haveNeed.put(material, quantity);
-                    need.put(material, needCount - quantity);
-                }
-                else if (quantity == needCount)
-                {
-                    haveNeed.put(material, quantity);
-                    need.remove(material);
-                }
-                else
-                {
-                    haveNeed.put(material, needCount);
-                    need.remove(material);
-                    dontNeed.put(material, quantity - needCount);
-
-                    system.addMaterial(material, quantity - needCount);
-                    material.add(this, quantity - needCount);
-                }
-            }
-        }
-        else
-        {
-            dontNeed.put(material, count + quantity);
-
-            system.addMaterial(material, quantity);
-            material.add(this, quantity);
-        }
+        return variantCounts.get(getVariantKey(item, damage));
     }
 
     /**
-     * Add a Material to this inventory. First check if we need that item and act accordingly. Then put any extra
-     * in the dontNeed map.
+     * This returns how many of a block we have, of any meta.
      *
-     * @param block    Block that is being added to the MaterialStore.
-     * @param quantity How much of block is being added.
+     * @param block Block that we are checking.
+     * @return How many of block we have.
      */
-    public void addMaterial(final Block block, final int quantity)
+    public int getMaterialCount(@NotNull final Block block)
     {
-        addMaterial(system.getMaterial(block), quantity);
+        final Item item = Item.getItemFromBlock(block);
+        return item == null ? 0 : getMaterialCount(item);
     }
 
     /**
-     * Remove a material from this inventory. First remove from dontNeed, then remove from haveNeed. If material was removed
-     * from haveNeed, then request that quantity in need.
+     * Check if we have an item of a tool type.
      *
-     * @param item     Item that is being removed from the MaterialStore.
-     * @param quantity How much of item is being removed.
+     * @param tool the tool type, or {@link #WEAPON}.
+     * @return true if so.
      */
-    public void removeMaterial(final Item item, final int quantity)
+    public boolean hasTool(@NotNull final String tool)
     {
-        removeMaterial(system.getMaterial(item), quantity);
+        return toolCounts.containsKey(tool);
     }
 
-    private void removeMaterial(@Nullable final Material material, final int quantity)
+    /**
+     * Check if we have a tool of a type within a range of mining levels.
+     *
+     * @param tool     the tool type, or {@link #WEAPON}.
+     * @param minLevel the lowest mining level.
+     * @param maxLevel the highest mining level.
+     * @return true if one slot holds such a tool.
+     */
+    public boolean hasToolLevel(@NotNull final String tool, final int minLevel, final int maxLevel)
     {
-        if (quantity <= 0 || material == null)
+        if (!hasTool(tool))
         {
-            return;
+            return false;
         }
 
-        final Integer count = dontNeed.get(material);
-        if (count == null || count < quantity)
+        for (@NotNull final Map<String, Integer> tools : slotTools)
         {
-            final Integer countNeed = haveNeed.get(material);
-            if (count == null)
-            {
-                if (countNeed == null || countNeed < quantity)
-                {
-                    throw new QuantityNotFound("MaterialStore (haveNeed)", material.getID(), countNeed == null ? 0 : countNeed, quantity);
-                }
-                else
-                {
-                    if (countNeed == quantity)
-                    {
-                        haveNeed.remove(material);
-                    }
-                    else
-                    {
-                        haveNeed.put(material, countNeed - quantity);
-                    }
-                }
-            }
-            else
+            final Integer slotLevel = tools.get(tool);
+            if (slotLevel != null && slotLevel >= minLevel && slotLevel <= maxLevel)
             {
-                final int countToRemove = quantity - count;
-                if (countNeed == null || countNeed < countToRemove)
-                {
-                    throw new QuantityNotFound("MaterialStore (dontNeed+haveNeed)", material.getID(), countNeed == null ? count : (countNeed + count), quantity);
-                }
-                else
-                {
-                    removeMaterial(material);
-
-                    if (countNeed == countToRemove)
-                    {
-                        haveNeed.remove(material);
-                    }
-                    else
-                    {
-                        haveNeed.put(material, countNeed - countToRemove);
-                    }
-                }
+                return true;
             }
         }
-        else if (count == quantity)
-        {
-            removeMaterial(material);
-        }
-        else
-        {
-            dontNeed.put(material, count - quantity);
-
-            system.removeMaterial(material, quantity);
-            material.remove(this, quantity);
-        }
-    }
-
-    private void removeMaterial(@NotNull final Material material)
-    {
-        final int count = dontNeed.get(material);
-
-        dontNeed.remove(material);
-
-        removeMaterialFromExternal(material, count);
-    }
-
-    private void removeMaterialFromExternal(@NotNull final Material material, final int count)
-    {
-        system.removeMaterial(material, count);
-        material.remove(this);
-    }
-
-    /**
-     * Remove a material from this inventory. First remove from dontNeed, then remove from haveNeed. If material was removed
-     * from haveNeed, then request that quantity in need.
-     *
-     * @param block    Block that is being removed from the MaterialStore.
-     * @param quantity How much of block is being removed.
-     */
-    public void removeMaterial(final Block block, final int quantity)
-    {
-        removeMaterial(system.getMaterial(block), quantity);
+        return false;
     }
 
     /**
-     * Call this method when you need something.
+     * Record the stack now in a slot of the inventory.
      *
-     * @param item     Item that you need.
-     * @param quantity How much you need.
+     * @param slot  the slot.
+     * @param stack the stack in the slot, or null.
      */
-    public void addNeededMaterial(final Item item, final int quantity)
+    public void updateSlot(final int slot, @Nullable final ItemStack stack)
     {
-        addNeededMaterial(system.getMaterial(item), quantity);
-    }
+        ensureSlots(slot + 1);
 
-    /**
-     * Call this method when you need something.
-     *
-     * @param block    Block that you need.
-     * @param quantity How much you need.
-     */
-    public void addNeededMaterial(final Block block, final int quantity)
-    {
-        addNeededMaterial(system.getMaterial(block), quantity);
-    }
-
-    /**
-     * Call this method when you don't need something anymore.
-     *
-     * @param item     Item that you need.
-     * @param quantity How much you need.
-     */
-    public void removeNeededMaterial(final Item item, final int quantity)
-    {
-        removeNeededMaterial(system.getMaterial(item), quantity);
-    }
+        final boolean empty = stack == null || stack.getItem() == null || stack.stackSize <= 0;
+        final int variant = empty ? NO_ITEM : getVariantKey(stack.getItem(), stack.getItemDamage());
+        final int count = empty ? 0 : stack.stackSize;
+        if (slotVariants[slot] == variant && slotCounts[slot] == count)
+        {
+            return;
+        }
 
-    private void removeNeededMaterial(@Nullable final Material material, final int quantity)
-    {
-        if (quantity <= 0 || material == null)
+        clearSlot(slot);
+        if (empty)
         {
             return;
         }
 
-        final Integer count = haveNeed.get(material);
-        if (count != null)
+        final int id = Item.getIdFromItem(stack.getItem());
+        final Map<String, Integer> tools = getToolLevels(stack);
+        slotIds[slot] = id;
+        slotVariants[slot] = variant;
+        slotCounts[slot] = count;
+        slotTools.set(slot, tools);
+
+        counts.add(id, count);
+        variantCounts.add(variant, count);
+        system.addMaterial(this, id, count);
+        for (@NotNull final String tool : tools.keySet())
         {
-            if (count > quantity)
+            if (toolCounts.merge(tool, count, Integer::sum) == count)
             {
-                haveNeed.put(material, count - quantity);
-                addMaterial(material, count - quantity);
-            }
-            else
-            {
-                if (count < quantity)
-                {
-                    removeFromNeededMap(material, quantity - count);
-                }
-
-                haveNeed.remove(material);
-                addMaterial(material, count);
+                system.addToolStore(tool, this);
             }
         }
-        else
-        {
-            removeFromNeededMap(material, quantity);
-        }
     }
 
-    private void removeFromNeededMap(@NotNull final Material material, final int quantity)
+    /**
+     * Record all slots of the inventory, after stacks may have been changed in place.
+     *
+     * @param inventory the inventory of this store.
+     */
+    public void sync(@NotNull final IInventory inventory)
     {
-        final Integer count = need.get(material);
-        if (count == null || count < quantity)
-        {
-            throw new QuantityNotFound("MaterialStore (need)", material.getID(), count == null ? 0 : count, quantity);
-        }
-        else if (count == quantity)
+        final int size = inventory.getSizeInventory();
+        for (int slot = 0; slot < size; slot++)
         {
-            need.remove(material);
+            updateSlot(slot, inventory.getStackInSlot(slot));
         }
-        else
+        for (int slot = size; slot < slotCounts.length; slot++)
         {
-            need.put(material, count - quantity);
+            clearSlot(slot);
         }
     }
 
     /**
-     * Call this method when you don't need something anymore.
+     * Remove the record of a slot.
+     * If the totals hold less than the slot recorded, the mismatch is logged and only what they hold is removed,
+     * so the slot is recorded afresh instead of failing the inventory change which called this.
      *
-     * @param block    Block that you need.
-     * @param quantity How much you need.
+     * @param slot the slot.
      */
-    public void removeNeededMaterial(final Block block, final int quantity)
+    private void clearSlot(final int slot)
     {
-        removeNeededMaterial(system.getMaterial(block), quantity);
-    }
-
-    private void addNeededMaterial(@Nullable final Material material, final int quantity)
-    {
-        if (quantity <= 0 || material == null)
+        final int count = slotCounts[slot];
+        if (count == 0)
         {
             return;
         }
 
-        final Integer count = dontNeed.get(material);
-        if (count != null)
+        final int id = slotIds[slot];
+        final int have = counts.get(id);
+        final int removed = Math.min(count, have);
+        if (have < count)
+        {
+            Log.getLogger().warn(String.format("Material store at %s recorded %d of item %d in slot %d but only holds %d in total, resyncing the slot",
+              location, count, id, slot, have));
+        }
+
+        final int left = counts.add(id, -removed);
+        variantCounts.add(slotVariants[slot], -Math.min(removed, variantCounts.get(slotVariants[slot])));
+        if (removed > 0)
         {
-            if (count >= quantity)
+            system.removeMaterial(this, id, removed, left == 0);
+        }
+        for (@NotNull final String tool : slotTools.get(slot).keySet())
+        {
+            final int toolsLeft = toolCounts.getOrDefault(tool, 0) - count;
+            if (toolsLeft <= 0)
             {
-                haveNeed.put(material, quantity);
-                removeMaterial(material, quantity);
+                toolCounts.remove(tool);
+                system.removeToolStore(tool, this);
             }
             else
             {
-                haveNeed.put(material, count);
-                removeMaterial(material);
-                need.put(material, quantity - count);
+                toolCounts.put(tool, toolsLeft);
             }
         }
-        else
-        {
-            need.put(material, quantity);
-        }
+
+        slotIds[slot] = NO_ITEM;
+        slotVariants[slot] = NO_ITEM;
+        slotCounts[slot] = 0;
+        slotTools.set(slot, Collections.emptyMap());
     }
 
     /**
-     * Removes all Materials from the system before the MaterialStore is destroyed.
+     * Make room for the records of a number of slots.
+     *
+     * @param size the number of slots.
      */
-    public void destroy()
+    private void ensureSlots(final int size)
     {
-        this.clear();
+        final int oldSize = slotCounts.length;
+        if (size <= oldSize)
+        {
+            return;
+        }
 
-        system.removeStore(this);
+        slotIds = Arrays.copyOf(slotIds, size);
+        slotVariants = Arrays.copyOf(slotVariants, size);
+        slotCounts = Arrays.copyOf(slotCounts, size);
+        Arrays.fill(slotIds, oldSize, size, NO_ITEM);
+        Arrays.fill(slotVariants, oldSize, size, NO_ITEM);
+        while (slotTools.size() < size)
+        {
+            slotTools.add(Collections.emptyMap());
+        }
     }
 
     /**
-     * Removes all the Materials from the store.
+     * Get the key of an item and damage, damageable items get the same key for all damage values.
+     *
+     * @param item   the item.
+     * @param damage the damage.
+     * @return the key.
      */
-    public void clear()
+    private static int getVariantKey(@NotNull final Item item, final int damage)
     {
-        for (@NotNull final Map.Entry<Material, Integer> entry : dontNeed.entrySet())
-        {
-            removeMaterialFromExternal(entry.getKey(), entry.getValue());
-        }
+        final int id = Item.getIdFromItem(item) << VARIANT_SHIFT;
+        return item.isDamageable() ? id : (id | (damage & VARIANT_MASK));
     }
 
     /**
-     * Read a state from nbt.
+     * Get the tool types of a stack with their mining level.
      *
-     * @param nbtTagCompound the compound used.
+     * @param stack the stack.
+     * @return the levels by tool type, {@link #WEAPON} with level 0 if it serves as weapon.
      */
-    public void readFromNBT(@NotNull final NBTTagCompound nbtTagCompound)
+    @NotNull
+    private static Map<String, Integer> getToolLevels(@NotNull final ItemStack stack)
     {
-        final NBTTagCompound compound = nbtTagCompound.getCompoundTag(TAG_MATERIAL_STORE);
-
-        final NBTTagList list = compound.getTagList(TAG_DONT_NEED, Constants.NBT.TAG_COMPOUND);
-        for (int i = 0; i < list.tagCount(); i++)
+        @NotNull final Map<String, Integer> levels = new HashMap<>();
+        for (@NotNull final String tool : InventoryCitizen.getToolTypes(stack))
         {
-            final NBTTagCompound tag = list.getCompoundTagAt(i);
-
-            @NotNull final Material material = new Material(tag.getInteger(TAG_ID));
-
-            addMaterial(material, tag.getInteger(TAG_QUANTITY));
+            if (Utils.isTool(stack, tool))
+            {
+                levels.put(tool, Math.max(0, Utils.getMiningLevel(stack, tool)));
+            }
         }
-
-
-        final NBTTagList listHaveNeed = compound.getTagList(TAG_HAVE_NEED, Constants.NBT.TAG_COMPOUND);
-        readMapFromNBT(listHaveNeed, haveNeed);
-
-        final NBTTagList listNeed = compound.getTagList(TAG_NEED, Constants.NBT.TAG_COMPOUND);
-        readMapFromNBT(listNeed, need);
-    }
-
-    private static void readMapFromNBT(@NotNull final NBTTagList list, @NotNull final Map<Material, Integer> map)
-    {
-        for (int i = 0; i < list.tagCount(); i++)
+        if (Utils.doesItemServeAsWeapon(stack))
         {
-            final NBTTagCompound tag = list.getCompoundTagAt(i);
-
-            final Integer id = tag.getInteger(TAG_ID);
-
-            map.put(new Material(id), tag.getInteger(TAG_QUANTITY));
+            levels.put(WEAPON, 0);
         }
+        return levels.isEmpty() ? Collections.emptyMap() : levels;
     }
 
     /**
-     * Store data to NBT.
-     *
-     * @param nbtTagCompound compound used to store.
+     * Removes all Materials from the system before the MaterialStore is destroyed.
      */
-    public void writeToNBT(@NotNull final NBTTagCompound nbtTagCompound)
+    public void destroy()
     {
-        @NotNull final NBTTagCompound compound = new NBTTagCompound();
-
-        @NotNull final NBTTagList dontNeedList = new NBTTagList();
-        writeMapToNBT(dontNeedList, dontNeed);
-        compound.setTag(TAG_DONT_NEED, dontNeedList);
-
-        @NotNull final NBTTagList haveNeedList = new NBTTagList();
-        writeMapToNBT(haveNeedList, haveNeed);
-        compound.setTag(TAG_HAVE_NEED, haveNeedList);
-
-        @NotNull final NBTTagList needList = new NBTTagList();
-        writeMapToNBT(needList, need);
-        compound.setTag(TAG_NEED, needList);
+        this.clear();
 
-        nbtTagCompound.setTag(TAG_MATERIAL_STORE, compound);
+        system.removeStore(this);
     }
 
-    private static void writeMapToNBT(@NotNull final NBTTagList compound, @NotNull final Map<Material, Integer> map)
+    /**
+     * Removes all the Materials from the store.
+     */
+    public void clear()
     {
-        for (@NotNull final Map.Entry<Material, Integer> entry : map.entrySet())
+        for (int slot = 0; slot < slotCounts.length; slot++)
         {
-            @NotNull final NBTTagCompound tag = new NBTTagCompound();
-
-            //hashCode is item ID
-            tag.setInteger(TAG_ID, entry.getKey().hashCode());
-            tag.setInteger(TAG_QUANTITY, entry.getValue());
-
-            compound.appendTag(tag);
+            clearSlot(slot);
         }
     }
 
@@ -2,29 +2,36 @@ package com.minecolonies.coremod.colony.materials;
 
 import net.minecraft.block.Block;
 import net.minecraft.item.Item;
+import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 /**
  * Controller class for the whole material system.
  * Created: December 14, 2015
+ * <p>
+ * A live ledger of what the colony owns: the hut chests and citizen inventories report every slot change to their
+ * {@link MaterialStore}, which keeps the counts here up to date. The materials are kept in an array indexed by
+ * item id, so finding the stores which hold an item doesn't depend on the number of stores or slots.
  *
  * @author Colton
  */
 public class MaterialSystem
 {
     /**
-     * Temporary variable to disabled MaterialHandling until I have time to complete it - Colton.
+     * Initial size of the material array, it grows to the highest item id stored.
      */
-    public static final boolean isEnabled = false;
+    private static final int INITIAL_MATERIAL_CAPACITY = 512;
 
     /**
-     * This Map contains keeps track of how many extra materials we have in the colony. (Materials that aren't needed).
+     * The materials the colony has, by item id.
      */
     @NotNull
-    private final Map<Material, Integer> materials = new HashMap<>();
+    private Material[] materials = new Material[INITIAL_MATERIAL_CAPACITY];
 
     /**
      * Set of MaterialStores inside this MaterialSystem(Colony).
@@ -33,19 +40,10 @@ public class MaterialSystem
     private final Set<MaterialStore> stores = new HashSet<>();
 
     /**
-     * So that we only have one Material reference per material inside of the system.
+     * The stores holding an item of a tool type, by tool type.
      */
     @NotNull
-    private final Map<Integer, Material> materialCache = new HashMap<>();
-
-    /**
-     * @return An unmodifiable version of the materials map.
-     */
-    @NotNull
-    public Map<Material, Integer> getMaterials()
-    {
-        return Collections.unmodifiableMap(materials);
-    }
+    private final Map<String, Set<MaterialStore>> toolStores = new HashMap<>();
 
     /**
      * @return An unmodifiable version of the stores set.
@@ -57,124 +55,207 @@ public class MaterialSystem
     }
 
     /**
-     * Finds how much extra(unneeded) items we have in the system(colony).
+     * Finds how many items of a type we have in the system(colony).
      *
      * @param item Item you want to know how much of you have.
-     * @return The number of unneeded item that is in the colony.
+     * @return The number of item that is in the colony.
      */
     public int getMaterialCount(final Item item)
     {
-        return getMaterialCount(getMaterial(item));
+        final Material material = getMaterial(item);
+        return material == null ? 0 : material.getCount();
     }
 
-    private int getMaterialCount(@NotNull final Material material)
+    /**
+     * Finds how many blocks of a type we have in the system(colony).
+     *
+     * @param block Block you want to know how much of you have.
+     * @return The number of block that is in the colony.
+     */
+    public int getMaterialCount(final Block block)
     {
-        final Integer count = materials.get(material);
+        final Material material = getMaterial(block);
+        return material == null ? 0 : material.getCount();
+    }
 
-        if (count == null)
+    @Nullable
+    Material getMaterial(@Nullable final Item item)
+    {
+        if (item == null)
         {
-            removeItemFromCache(material);
-            return 0;
+            return null;
         }
 
-        return count;
+        return getMaterial(Item.getIdFromItem(item));
     }
 
     @Nullable
-    Material getMaterial(@Nullable final Item item)
+    Material getMaterial(@Nullable final Block block)
     {
-        if (item == null)
+        if (block == null)
         {
             return null;
         }
 
-        return getMaterial(Item.getIdFromItem(item));
+        return getMaterial(Item.getItemFromBlock(block));
     }
 
-    private void removeItemFromCache(@NotNull final Material material)
+    /**
+     * Gets a material by item id.
+     *
+     * @param id the item id.
+     * @return the material, or null if the colony has none.
+     */
+    @Nullable
+    private Material getMaterial(final int id)
     {
-        materialCache.remove(material.getID());
+        return id >= 0 && id < materials.length ? materials[id] : null;
     }
 
     /**
-     * Gets a material from the cache, or create it if it doesn't exist.
+     * Find the nearest chest holding a quantity of the item and damage of a stack, damageable items match any damage.
      *
-     * @return Material from cache
+     * @param stack    the item and damage to look for.
+     * @param quantity the quantity the chest must hold.
+     * @param from     the position to measure the distance from.
+     * @param filter   the stores which may be chosen.
+     * @return the store of the chest, or null if none holds enough.
      */
-    private Material getMaterial(final Integer id)
+    @Nullable
+    public MaterialStore findNearest(@NotNull final ItemStack stack, final int quantity, @NotNull final BlockPos from, @NotNull final Predicate<MaterialStore> filter)
     {
-        Material material = materialCache.get(id);
-        if (material == null)
+        final Material material = getMaterial(stack.getItem());
+        if (material == null || material.getCount() < quantity)
         {
-            material = new Material(id);
-            materialCache.put(id, material);
+            return null;
         }
 
-        return material;
+        return findNearest(material.getLocationsStored(), from,
+          store -> store.getMaterialCount(stack.getItem(), stack.getItemDamage()) >= quantity && filter.test(store));
     }
 
     /**
-     * Finds how much extra(unneeded) blocks we have in the system(colony).
+     * Find the nearest chest holding a tool of a type within a range of levels.
      *
-     * @param block Block you want to know how much of you have.
-     * @return The number of unneeded block that is in the colony.
+     * @param tool     the tool type, or {@link MaterialStore#WEAPON}.
+     * @param minLevel the lowest mining level the tool may have.
+     * @param maxLevel the highest mining level the tool may have.
+     * @param from     the position to measure the distance from.
+     * @param filter   the stores which may be chosen.
+     * @return the store of the chest, or null if none holds such a tool.
      */
-    public int getMaterialCount(final Block block)
+    @Nullable
+    public MaterialStore findNearestTool(
+                                          @NotNull final String tool, final int minLevel, final int maxLevel,
+                                          @NotNull final BlockPos from, @NotNull final Predicate<MaterialStore> filter)
     {
-        return getMaterialCount(getMaterial(block));
+        final Set<MaterialStore> candidates = toolStores.get(tool);
+        if (candidates == null)
+        {
+            return null;
+        }
+
+        return findNearest(candidates, from, store -> store.hasToolLevel(tool, minLevel, maxLevel) && filter.test(store));
     }
 
+    /**
+     * Find the nearest chest of a set of stores.
+     *
+     * @param candidates the stores.
+     * @param from       the position to measure the distance from.
+     * @param filter     the stores which may be chosen.
+     * @return the nearest store with a location, or null.
+     */
     @Nullable
-    Material getMaterial(@Nullable final Block block)
+    private static MaterialStore findNearest(@NotNull final Collection<MaterialStore> candidates, @NotNull final BlockPos from, @NotNull final Predicate<MaterialStore> filter)
     {
-        if (block == null)
+        @Nullable MaterialStore nearest = null;
+        double nearestDistance = Double.MAX_VALUE;
+        for (@NotNull final MaterialStore store : candidates)
         {
-            return null;
-        }
+            final BlockPos location = store.getLocation();
+            if (location == null)
+            {
+                continue;
+            }
 
-        return getMaterial(Block.getIdFromBlock(block));
+            final double distance = location.distanceSq(from);
+            if (distance < nearestDistance && filter.test(store))
+            {
+                nearest = store;
+                nearestDistance = distance;
+            }
+        }
+        return nearest;
     }
 
     /**
-     * Adds a material to the system.
+     * Adds a material of a store to the system.
      *
-     * @param material What material you're adding.
+     * @param store    the store which got the material.
+     * @param id       the item id of the material.
      * @param quantity How much you're adding.
      */
-    void addMaterial(final Material material, final int quantity)
+    void addMaterial(@NotNull final MaterialStore store, final int id, final int quantity)
     {
-        final Integer count = materials.get(material);
-        if (count == null)
+        if (id >= materials.length)
         {
-            materials.put(material, quantity);
+            materials = Arrays.copyOf(materials, Math.max(id + 1, materials.length * 2));
         }
-        else
+
+        Material material = materials[id];
+        if (material == null)
         {
-            materials.put(material, quantity + count);
+            material = new Material(id);
+            materials[id] = material;
         }
+        material.add(store, quantity);
     }
 
     /**
-     * Removes material from the system.
+     * Removes material of a store from the system.
      *
-     * @param material What material you're removing
-     * @param quantity How much you're removing
+     * @param store      the store which lost the material.
+     * @param id         the item id of the material.
+     * @param quantity   How much you're removing.
+     * @param storeEmpty if the store has none of the material left.
      */
-    void removeMaterial(@NotNull final Material material, final int quantity)
+    void removeMaterial(@NotNull final MaterialStore store, final int id, final int quantity, final boolean storeEmpty)
     {
-        final Integer count = materials.get(material);
-        if (count == null || count < quantity)
+        final Material material = getMaterial(id);
+        if (material == null)
         {
-            throw new QuantityNotFound("MaterialSystem", material.getID(), count == null ? 0 : count, quantity);
+            throw new QuantityNotFound("MaterialSystem", id, 0, quantity);
         }
-        else if (count == quantity)
+
+        material.remove(store, quantity, storeEmpty);
+        if (material.getCount() == 0)
         {
-            materials.remove(material);
-            removeItemFromCache(material);
+            materials[id] = null;
         }
-        else
+    }
+
+    /**
+     * A store got its first item of a tool type.
+     */
+    void addToolStore(@NotNull final String tool, @NotNull final MaterialStore store)
+    {
+        toolStores.computeIfAbsent(tool, type -> new HashSet<>()).add(store);
+    }
+
+    /**
+     * A store has no item of a tool type anymore.
+     */
+    void removeToolStore(@NotNull final String tool, @NotNull final MaterialStore store)
+    {
+        final Set<MaterialStore> toolStore = toolStores.get(tool);
+        if (toolStore != null)
         {
-            materials.put(material, count - quantity);
+            toolStore.remove(store);
+            if (toolStore.isEmpty())
+            {
+                toolStores.remove(tool);
+            }
         }
     }
 
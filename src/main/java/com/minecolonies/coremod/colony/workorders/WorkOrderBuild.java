@@ -151,7 +151,7 @@ public class WorkOrderBuild extends AbstractWorkOrder
         boolean sendMessage = true;
         boolean hasBuilder = false;
 
-        for (@NotNull final CitizenData citizen : colony.getCitizens().values())
+        for (@NotNull final CitizenData citizen : colony.getWorkManager().getBuilders())
         {
             final JobBuilder job = citizen.getJob(JobBuilder.class);
 
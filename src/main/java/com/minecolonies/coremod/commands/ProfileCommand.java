@@ -0,0 +1,240 @@
+package com.minecolonies.coremod.commands;
+
+import com.minecolonies.coremod.colony.CitizenData;
+import com.minecolonies.coremod.colony.Colony;
+import com.minecolonies.coremod.colony.ColonyManager;
+import com.minecolonies.coremod.colony.ColonyTickScheduler;
+import com.minecolonies.coremod.configuration.Configurations;
+import com.minecolonies.coremod.entity.EntityCitizen;
+import com.minecolonies.coremod.entity.ai.basic.AbstractAISkeleton;
+import com.minecolonies.coremod.entity.ai.util.AITarget;
+import com.minecolonies.coremod.entity.pathfinding.PathCache;
+import com.minecolonies.coremod.entity.pathfinding.Pathfinding;
+import com.minecolonies.coremod.entity.pathfinding.SectionGraph;
+import com.minecolonies.coremod.permissions.ColonyPermissionEventHandler;
+import com.minecolonies.coremod.util.ColonyProfiler;
+import net.minecraft.command.CommandBase;
+import net.minecraft.command.CommandException;
+import net.minecraft.command.ICommandSender;
+import net.minecraft.entity.ai.EntityAITasks;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.text.TextComponentString;
+import org.jetbrains.annotations.NotNull;
+
+import javax.annotation.Nullable;
+import java.io.File;
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Starts, stops and shows the colony profiler.
+ */
+public class ProfileCommand extends AbstractSingleCommand
+{
+    public static final  String DESC                = "profile";
+    private static final String START               = "start";
+    private static final String STOP                = "stop";
+    private static final String RESET               = "reset";
+    private static final String DUMP                = "dump";
+    private static final String CSV                 = "csv";
+    private static final String CSV_FILE            = "minecolonies/profile.csv";
+    private static final int    DEFAULT_TOP_COUNT   = 5;
+    private static final String STARTED_TEXT        = "§2Colony profiler started.";
+    private static final String STOPPED_TEXT        = "§2Colony profiler stopped.";
+    private static final String RESET_TEXT          = "§2Colony profiler reset.";
+    private static final String CSV_TEXT            = "§2Colony profile written to §f%s";
+    private static final String CSV_FAILED_TEXT     = "§4Couldn't write the colony profile: %s";
+    private static final String NO_DATA_TEXT        = "§2No profile data, start the profiler with /mc profile start.";
+    private static final String COLONY_TEXT         = "§2Colony %d:";
+    private static final String ENTRY_TEXT          = "§f %s %s: %d calls, %s total, %s avg, %s max";
+    private static final String AI_TARGET_TEXT      = "§f AI target %s: %d checks, %d runs, %s total";
+    private static final String PATH_CACHE_TEXT     = "§f Path cache: %d paths, %d hits, %d misses, %d invalidated";
+    private static final String SECTION_GRAPH_TEXT  = "§f Section graph: %d sections, %d routes, %d failed";
+    private static final String SCHEDULER_TEXT      = "§2Tick budget used up in %d of the last %d ticks, %d tasks deferred";
+    private static final String PATHFINDING_TEXT    = "§2Pathfinding: %d queued, %d dropped";
+    private static final String PERMISSION_TEXT     = "§2Permission events %s: %d, %s total, %s max";
+
+    /**
+     * Initialize this SubCommand with it's parents.
+     *
+     * @param parents an array of all the parents.
+     */
+    public ProfileCommand(@NotNull final String... parents)
+    {
+        super(parents);
+    }
+
+    @NotNull
+    @Override
+    public String getCommandUsage(@NotNull final ICommandSender sender)
+    {
+        return super.getCommandUsage(sender) + "<start|stop|reset|dump|csv> [ColonyId] [count]";
+    }
+
+    @Override
+    public void execute(@NotNull final MinecraftServer server, @NotNull final ICommandSender sender, @NotNull final String... args) throws CommandException
+    {
+        if (args.length == 0)
+        {
+            throw new CommandException(getCommandUsage(sender));
+        }
+
+        switch (args[0])
+        {
+            case START:
+                ColonyProfiler.setEnabled(true);
+                sender.addChatMessage(new TextComponentString(STARTED_TEXT));
+                break;
+            case STOP:
+                ColonyProfiler.setEnabled(false);
+                sender.addChatMessage(new TextComponentString(STOPPED_TEXT));
+                break;
+            case RESET:
+                ColonyProfiler.reset();
+                sender.addChatMessage(new TextComponentString(RESET_TEXT));
+                break;
+            case DUMP:
+                dump(sender, getIthArgument(args, 1, -1), getIthArgument(args, 2, DEFAULT_TOP_COUNT));
+                break;
+            case CSV:
+                final File file = server.getFile(CSV_FILE);
+                try
+                {
+                    ColonyProfiler.writeCsv(file);
+                    sender.addChatMessage(new TextComponentString(String.format(CSV_TEXT, file.getAbsolutePath())));
+                }
+                catch (final IOException e)
+                {
+                    sender.addChatMessage(new TextComponentString(String.format(CSV_FAILED_TEXT, e.getMessage())));
+                }
+                break;
+            default:
+                throw new CommandException(getCommandUsage(sender));
+        }
+    }
+
+    /**
+     * Show the most expensive timers of the colonies, and the statistics of the colony subsystems.
+     *
+     * @param sender   the sender to show them to.
+     * @param colonyId the colony to show, or -1 for all profiled colonies.
+     * @param count    the number of timers per colony.
+     */
+    private static void dump(@NotNull final ICommandSender sender, final int colonyId, final int count)
+    {
+        final List<Integer> colonyIds = colonyId == -1 ? ColonyProfiler.getColonyIds() : Collections.singletonList(colonyId);
+        if (colonyIds.isEmpty())
+        {
+            sender.addChatMessage(new TextComponentString(NO_DATA_TEXT));
+        }
+
+        for (final int id : colonyIds)
+        {
+            sender.addChatMessage(new TextComponentString(String.format(COLONY_TEXT, id)));
+            for (@NotNull final ColonyProfiler.Entry entry : ColonyProfiler.getTop(id, count))
+            {
+                final ColonyProfiler.Timer timer = entry.getTimer();
+                sender.addChatMessage(new TextComponentString(String.format(ENTRY_TEXT, entry.getSection(), entry.getName(), timer.getCount(),
+                  ColonyProfiler.formatMicros(timer.getTotalNanos()),
+                  ColonyProfiler.formatMicros(timer.getRecentAverageNanos()),
+                  ColonyProfiler.formatMicros(timer.getRecentMaxNanos()))));
+            }
+
+            //  Only loaded colonies, dumping shouldn't load an unloaded one
+            ColonyManager.getColonies().stream()
+              .filter(colony -> colony.getID() == id)
+              .findFirst()
+              .ifPresent(colony -> dumpColonyStatistics(sender, colony, count));
+        }
+
+        final ColonyTickScheduler scheduler = ColonyManager.getTickScheduler();
+        sender.addChatMessage(new TextComponentString(String.format(SCHEDULER_TEXT,
+          scheduler.getSaturatedTicks(), scheduler.getReportInterval(), scheduler.getDeferred())));
+        sender.addChatMessage(new TextComponentString(String.format(PATHFINDING_TEXT, Pathfinding.getQueuedJobCount(), Pathfinding.getDroppedJobCount())));
+        for (@NotNull final ColonyPermissionEventHandler.EventType type : ColonyPermissionEventHandler.EventType.values())
+        {
+            final ColonyPermissionEventHandler.EventTimer timer = ColonyPermissionEventHandler.getTimer(type);
+            if (timer.getCount() > 0)
+            {
+                sender.addChatMessage(new TextComponentString(String.format(PERMISSION_TEXT, type, timer.getCount(),
+                  ColonyProfiler.formatMicros(timer.getTotalNanos()), ColonyProfiler.formatMicros(timer.getMaxNanos()))));
+            }
+        }
+    }
+
+    /**
+     * Show the path cache and section graph statistics of a colony, and its most expensive AI targets if they are counted.
+     *
+     * @param sender the sender to show them to.
+     * @param colony the colony.
+     * @param count  the number of AI targets.
+     */
+    private static void dumpColonyStatistics(@NotNull final ICommandSender sender, @NotNull final Colony colony, final int count)
+    {
+        final PathCache pathCache = colony.getPathCache();
+        sender.addChatMessage(new TextComponentString(String.format(PATH_CACHE_TEXT,
+          pathCache.size(), pathCache.getHits(), pathCache.getMisses(), pathCache.getInvalidations())));
+        final SectionGraph sectionGraph = colony.getSectionGraph();
+        sender.addChatMessage(new TextComponentString(String.format(SECTION_GRAPH_TEXT,
+          sectionGraph.size(), sectionGraph.getRouteCount(), sectionGraph.getFailedRouteCount())));
+
+        if (!Configurations.aiTargetStatistics)
+        {
+            return;
+        }
+
+        //  Sum up the targets of the same AI and state over all citizens
+        @NotNull final Map<String, long[]> targets = new HashMap<>();
+        for (@NotNull final CitizenData citizen : colony.getCitizens().values())
+        {
+            final EntityCitizen entity = citizen.getCitizenEntity();
+            if (entity == null)
+            {
+                continue;
+            }
+
+            for (@NotNull final EntityAITasks.EntityAITaskEntry task : entity.tasks.taskEntries)
+            {
+                if (task.action instanceof AbstractAISkeleton)
+                {
+                    final AbstractAISkeleton<?> ai = (AbstractAISkeleton<?>) task.action;
+                    for (@NotNull final AITarget target : ai.getTargets())
+                    {
+                        final long[] sums = targets.computeIfAbsent(ai.getClass().getSimpleName() + "/" + target.getState(), key -> new long[3]);
+                        sums[0] += target.getInvocations();
+                        sums[1] += target.getHits();
+                        sums[2] += target.getNanos();
+                    }
+                }
+            }
+        }
+
+        targets.entrySet().stream()
+          .sorted((first, second) -> Long.compare(second.getValue()[2], first.getValue()[2]))
+          .limit(count)
+          .forEach(entry -> sender.addChatMessage(new TextComponentString(String.format(AI_TARGET_TEXT,
+            entry.getKey(), entry.getValue()[0], entry.getValue()[1], ColonyProfiler.formatMicros(entry.getValue()[2])))));
+    }
+
+    @NotNull
+    @Override
+    public List<String> getTabCompletionOptions(
+                                                 @NotNull final MinecraftServer server,
+                                                 @NotNull final ICommandSender sender,
+                                                 @NotNull final String[] args,
+                                                 @Nullable final BlockPos pos)
+    {
+        if (args.length == 1)
+        {
+            return CommandBase.getListOfStringsMatchingLastWord(args, START, STOP, RESET, DUMP, CSV);
+        }
+        return Collections.emptyList();
+    }
+
+    @Override
+    public boolean isUsernameIndex(@NotNull final String[] args, final int index)
+    {
+        return false;
+    }
+}
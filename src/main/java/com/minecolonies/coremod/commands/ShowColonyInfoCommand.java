@@ -3,6 +3,7 @@ package com.minecolonies.coremod.commands;
 import com.minecolonies.coremod.colony.Colony;
 import com.minecolonies.coremod.colony.ColonyManager;
 import com.minecolonies.coremod.colony.IColony;
+import com.minecolonies.coremod.entity.pathfinding.PathCache;
 import com.mojang.authlib.GameProfile;
 import net.minecraft.command.CommandException;
 import net.minecraft.command.ICommandSender;
@@ -29,6 +30,7 @@ public class ShowColonyInfoCommand extends AbstractSingleCommand
     private static final String COORDINATES_TEXT           = "§2Coordinates: §f";
     private static final String COORDINATES_XYZ            = "§4x=§f%s §4y=§f%s §4z=§f%s";
     private static final String CITIZENS                   = "§2Citizens: §f";
+    private static final String PATH_CACHE_TEXT            = "§2Path cache: §f%d paths, %d hits, %d misses, %d invalidated";
     private static final String NO_COLONY_FOUND_MESSAGE    = "Colony with mayor %s not found.";
     private static final String NO_COLONY_FOUND_MESSAGE_ID = "Colony with ID %d not found.";
 
@@ -115,6 +117,9 @@ public class ShowColonyInfoCommand extends AbstractSingleCommand
         sender.addChatMessage(new TextComponentString(MAYOR_TEXT + mayor));
         sender.addChatMessage(new TextComponentString(CITIZENS + colony.getCitizens().size() + "/" + colony.getMaxCitizens()));
         sender.addChatMessage(new TextComponentString(COORDINATES_TEXT + String.format(COORDINATES_XYZ, position.getX(), position.getY(), position.getZ())));
+        final PathCache pathCache = colony.getPathCache();
+        sender.addChatMessage(new TextComponentString(String.format(PATH_CACHE_TEXT,
+          pathCache.size(), pathCache.getHits(), pathCache.getMisses(), pathCache.getInvalidations())));
     }
 
     private static UUID getUUIDFromName(@NotNull final ICommandSender sender, @NotNull final String... args)
@@ -61,11 +61,23 @@ public final class ConfigurationHandler
 
             enableInDevelopmentFeatures = config.get(CATEGORY_GAMEPLAY, "development", enableInDevelopmentFeatures,
               "Display in-development features which do not work and may break your game").getBoolean();
+            lazyColonyLoading = config.get(CATEGORY_GAMEPLAY, "lazyColonyLoading", lazyColonyLoading,
+              "Load colonies only when their area is loaded, a member is online or a command uses them, and unload idle colonies").getBoolean();
+            colonyEvictionIdleMinutes = config.get(CATEGORY_GAMEPLAY, "colonyEvictionIdleMinutes", colonyEvictionIdleMinutes,
+              "Minutes a colony without loaded chunks or online members stays loaded when lazy colony loading is enabled").getInt();
+            aiTargetStatistics = config.get(CATEGORY_GAMEPLAY, "aiTargetStatistics", aiTargetStatistics,
+              "Count how often each worker AI target runs and how long it takes, to find expensive AIs").getBoolean();
+            colonyTickBudget = config.get(CATEGORY_GAMEPLAY, "colonyTickBudget", colonyTickBudget,
+              "Milliseconds per server tick for colony work which can wait, like building ticks and periodic checks, 0 for no limit").getInt();
 
             pathfindingDebugDraw = config.get(CATEGORY_PATHFINDING, "debugDraw", pathfindingDebugDraw, "Render pathfinding results for debugging purposes (SSP only)").getBoolean();
             pathfindingDebugVerbosity = config.get(CATEGORY_PATHFINDING, "debugVerbosity", pathfindingDebugVerbosity,
               "Debug output verbosity of pathfinding (0=none, 1=results, 2=live work)").getInt();
             pathfindingMaxThreadCount = config.get(CATEGORY_PATHFINDING, "maxThreads", pathfindingMaxThreadCount, "Maximum number of threads to use for pathfinding.").getInt();
+            pathfindingMaxQueueSize = config.get(CATEGORY_PATHFINDING, "maxQueueSize", pathfindingMaxQueueSize,
+              "Maximum number of pathfinding requests waiting to be processed, further requests are dropped.").getInt();
+            pathfindingMaxQueuedJobsPerColony = config.get(CATEGORY_PATHFINDING, "maxQueuedJobsPerColony", pathfindingMaxQueuedJobsPerColony,
+              "Maximum number of queued pathfinding requests of one colony, the oldest is dropped for a newer one.").getInt();
 
             maleFirstNames = config.get(CATEGORY_NAMES, "maleFirstNames", maleFirstNames, "Male First Names").getStringList();
             femaleFirstNames = config.get(CATEGORY_NAMES, "femaleFirstNames", femaleFirstNames, "Female First Names").getStringList();
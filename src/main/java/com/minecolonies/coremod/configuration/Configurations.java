@@ -29,9 +29,16 @@ public class Configurations
 
     public static boolean enableInDevelopmentFeatures = false;
 
-    public static boolean pathfindingDebugDraw      = false;
-    public static int     pathfindingDebugVerbosity = 0;
-    public static int     pathfindingMaxThreadCount = 2;
+    public static boolean lazyColonyLoading         = false;
+    public static int     colonyEvictionIdleMinutes = 30;
+    public static boolean aiTargetStatistics        = false;
+    public static int     colonyTickBudget          = 0;
+
+    public static boolean pathfindingDebugDraw              = false;
+    public static int     pathfindingDebugVerbosity         = 0;
+    public static int     pathfindingMaxThreadCount         = 2;
+    public static int     pathfindingMaxQueueSize           = 1000;
+    public static int     pathfindingMaxQueuedJobsPerColony = 64;
 
     public static String[] maleFirstNames = new String[]
                                               {
@@ -618,6 +618,16 @@ public class EntityCitizen extends EntityAgeable implements INpc
         super.onDeath(par1DamageSource);
     }
 
+    /**
+     * Removes the inventory from the material system of the colony, the citizen leaves the world.
+     */
+    @Override
+    public void setDead()
+    {
+        super.setDead();
+        inventory.destroyMaterialStore();
+    }
+
     /**
      * Drop some experience share depending on the experience and experienceLevel.
      */
@@ -861,21 +871,15 @@ public class EntityCitizen extends EntityAgeable implements INpc
      */
     private void pickupItems()
     {
-        @NotNull final List<EntityItem> retList = new ArrayList<>();
-        //I know streams look better but they are flawed in type erasure
-        for (final Object o : worldObj.getEntitiesWithinAABB(EntityItem.class, getEntityBoundingBox().expand(2.0F, 0.0F, 2.0F)))
+        if (!canPickUpLoot())
         {
-            if (o instanceof EntityItem)
-            {
-                retList.add((EntityItem) o);
-            }
+            return;
         }
 
-        retList.stream()
-          .filter(item -> item != null)
-          .filter(item -> !item.isDead)
-          .filter(item -> canPickUpLoot())
-          .forEach(this::tryPickupEntityItem);
+        for (@NotNull final EntityItem item : ColonyManager.getDroppedItems(worldObj, getEntityBoundingBox().expand(2.0F, 0.0F, 2.0F)))
+        {
+            tryPickupEntityItem(item);
+        }
     }
 
     private void cleanupChatMessages()
@@ -954,13 +958,20 @@ public class EntityCitizen extends EntityAgeable implements INpc
 
     /**
      * Handles extreme cases like colony or citizen is null.
+     * This runs while the chunk of the citizen loads, so an unloaded colony is only queued, the citizen asks again
+     * on its next update.
      */
     private void handleNullColony()
     {
-        final Colony c = ColonyManager.getColony(colonyId);
+        final Colony c = ColonyManager.getLoadedColony(colonyId);
 
         if (c == null)
         {
+            if (ColonyManager.queueColonyLoad(colonyId))
+            {
+                return;
+            }
+
             Log.getLogger().warn(String.format("EntityCitizen '%s' unable to find Colony #%d", getUniqueID(), colonyId));
             setDead();
             return;
@@ -1,17 +1,19 @@
 package com.minecolonies.coremod.entity.ai.basic;
 
 import com.minecolonies.coremod.colony.jobs.AbstractJob;
+import com.minecolonies.coremod.configuration.Configurations;
 import com.minecolonies.coremod.entity.EntityCitizen;
 import com.minecolonies.coremod.entity.ai.util.AIState;
 import com.minecolonies.coremod.entity.ai.util.AITarget;
 import com.minecolonies.coremod.entity.ai.util.ChatSpamFilter;
+import com.minecolonies.coremod.util.ColonyProfiler;
 import com.minecolonies.coremod.util.Log;
 import net.minecraft.entity.ai.EntityAIBase;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.*;
 
 import static com.minecolonies.coremod.entity.EntityCitizen.Status.IDLE;
 
@@ -36,6 +38,17 @@ public abstract class AbstractAISkeleton<J extends AbstractJob> extends EntityAI
     protected final ChatSpamFilter      chatSpamFilter;
     @NotNull
     private final   ArrayList<AITarget> targetList;
+    /**
+     * The targets to check in each state, in order of registration.
+     * Contains the targets of the state and the targets matching all states.
+     */
+    @NotNull
+    private final   Map<AIState, AITarget[]> targetsByState = new EnumMap<>(AIState.class);
+    /**
+     * The targets matching all states, checked in states without own targets.
+     */
+    @NotNull
+    private         AITarget[]          stateIndependentTargets = new AITarget[0];
     /**
      * The current state the ai is in.
      * Used to compare to state matching targets.
@@ -79,6 +92,48 @@ public abstract class AbstractAISkeleton<J extends AbstractJob> extends EntityAI
     protected final void registerTargets(final AITarget... targets)
     {
         Arrays.asList(targets).forEach(this::registerTarget);
+        compileTargets();
+    }
+
+    /**
+     * Sort the registered targets by the state they match on,
+     * so each tick only checks the targets which can run in the current state.
+     */
+    private void compileTargets()
+    {
+        @NotNull final List<AITarget> independent = new ArrayList<>();
+        @NotNull final Set<AIState> states = EnumSet.noneOf(AIState.class);
+        for (@NotNull final AITarget target : targetList)
+        {
+            if (target.getState() == null)
+            {
+                independent.add(target);
+            }
+            else
+            {
+                states.add(target.getState());
+            }
+        }
+        stateIndependentTargets = independent.toArray(new AITarget[independent.size()]);
+
+        targetsByState.clear();
+        for (@NotNull final AIState targetState : states)
+        {
+            targetsByState.put(targetState, targetList.stream()
+                                              .filter(target -> target.getState() == null || target.getState() == targetState)
+                                              .toArray(AITarget[]::new));
+        }
+    }
+
+    /**
+     * Get all registered targets, for example to read their statistics.
+     *
+     * @return an unmodifiable list of the targets.
+     */
+    @NotNull
+    public final List<AITarget> getTargets()
+    {
+        return Collections.unmodifiableList(targetList);
     }
 
     /**
@@ -126,7 +181,22 @@ public abstract class AbstractAISkeleton<J extends AbstractJob> extends EntityAI
     @Override
     public final void updateTask()
     {
-        targetList.stream().anyMatch(this::checkOnTarget);
+        final long start = ColonyProfiler.start();
+        final AIState startState = state;
+
+        @Nullable final AITarget[] stateTargets = targetsByState.get(state);
+        for (@NotNull final AITarget target : stateTargets == null ? stateIndependentTargets : stateTargets)
+        {
+            if (checkOnTarget(target))
+            {
+                break;
+            }
+        }
+
+        if (start != 0L && job.getColony() != null)
+        {
+            ColonyProfiler.record(job.getColony().getID(), ColonyProfiler.Section.AI, getClass().getSimpleName() + "/" + startState, start);
+        }
     }
 
     /**
@@ -144,28 +214,41 @@ public abstract class AbstractAISkeleton<J extends AbstractJob> extends EntityAI
 
     /**
      * Checks on one target to see if it has to be executed.
-     * It first checks for the state of the ai.
-     * If that matches it tests the predicate if the ai
-     * wants to run the target.
+     * The target matches the state of the ai already,
+     * so this tests the predicate if the ai wants to run the target.
      * And if that's a yes, runs the target.
      * Tester and target are both error-checked
      * to prevent minecraft from crashing on bad ai.
+     * Counts the statistics of the target if enabled.
      *
      * @param target the target to check
      * @return true if this target worked and we should stop executing this tick
      */
     private boolean checkOnTarget(@NotNull final AITarget target)
     {
-        if (state != target.getState() && target.getState() != null)
+        if (!Configurations.aiTargetStatistics)
         {
-            return false;
+            return test(target) && applyTarget(target);
         }
+
+        final long start = System.nanoTime();
+        final boolean hit = test(target);
+        final boolean result = hit && applyTarget(target);
+        target.record(hit, System.nanoTime() - start);
+        return result;
+    }
+
+    /**
+     * Tests the predicate of a target.
+     *
+     * @param target the target to test.
+     * @return true if the ai wants to run the target.
+     */
+    private boolean test(@NotNull final AITarget target)
+    {
         try
         {
-            if (!target.test())
-            {
-                return false;
-            }
+            return target.test();
         }
         catch (final RuntimeException e)
         {
@@ -173,7 +256,6 @@ public abstract class AbstractAISkeleton<J extends AbstractJob> extends EntityAI
             this.onException(e);
             return false;
         }
-        return applyTarget(target);
     }
 
     /**
@@ -1,12 +1,18 @@
 package com.minecolonies.coremod.entity.ai.basic;
 
+import com.minecolonies.coremod.colony.CitizenData;
+import com.minecolonies.coremod.colony.Colony;
+import com.minecolonies.coremod.colony.buildings.AbstractBuilding;
 import com.minecolonies.coremod.colony.buildings.AbstractBuildingWorker;
+import com.minecolonies.coremod.colony.buildings.BuildingBuilder;
 import com.minecolonies.coremod.colony.jobs.AbstractJob;
+import com.minecolonies.coremod.colony.materials.MaterialStore;
 import com.minecolonies.coremod.entity.ai.item.handling.ItemStorage;
 import com.minecolonies.coremod.entity.ai.util.AIState;
 import com.minecolonies.coremod.entity.ai.util.AITarget;
 import com.minecolonies.coremod.entity.pathfinding.WalkToProxy;
 import com.minecolonies.coremod.inventory.InventoryCitizen;
+import com.minecolonies.coremod.tileentities.TileEntityColonyBuilding;
 import com.minecolonies.coremod.util.*;
 import net.minecraft.block.Block;
 import net.minecraft.item.ItemStack;
@@ -108,6 +114,18 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
      */
     private int needsPickaxeLevel = -1;
 
+    /**
+     * The hut the worker walks to, to take a stack the material ledger of the colony found there.
+     */
+    @Nullable
+    private BlockPos fetchHut = null;
+
+    /**
+     * The stacks the worker takes from {@link #fetchHut}.
+     */
+    @Nullable
+    private Predicate<ItemStack> fetchPredicate = null;
+
     /**
      * If we have waited one delay.
      */
@@ -349,18 +367,23 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
     private AIState lookForNeededItems()
     {
         syncNeededItemsWithInventory();
+        reportNeededItems();
         if (itemsCurrentlyNeeded.isEmpty())
         {
             itemsNeeded.clear();
             job.clearItemsNeeded();
             return IDLE;
         }
+        if (isFetching())
+        {
+            return NEEDS_ITEM;
+        }
         if (!walkToBuilding())
         {
             delay += DELAY_RECHECK;
             final ItemStack first = itemsCurrentlyNeeded.get(0);
-            //Takes one Stack from the hut if existent
-            if (isInHut(first))
+            //Takes one Stack from the hut if existent, else fetches it from another hut
+            if (isInHut(first) || isInOtherHut(first))
             {
                 return NEEDS_ITEM;
             }
@@ -370,6 +393,18 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
         return NEEDS_ITEM;
     }
 
+    /**
+     * Tell the deliverymen of the colony which items the worker still waits for.
+     */
+    private void reportNeededItems()
+    {
+        @Nullable final AbstractBuildingWorker ownBuilding = getOwnBuilding();
+        if (ownBuilding != null)
+        {
+            ownBuilding.getColony().getDeliveryManager().request(ownBuilding.getLocation(), itemsCurrentlyNeeded);
+        }
+    }
+
     /**
      * Updates the itemsCurrentlyNeeded with current values.
      */
@@ -491,6 +526,126 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
         InventoryUtils.takeStackInSlot(ownBuilding.getTileEntity(), worker.getInventoryCitizen(), slot);
     }
 
+    /**
+     * Looks up the nearest other hut which has a stack of the type of {@code is} in the material ledger of the colony,
+     * and starts to fetch it from there. Damageable items of any damage qualify.
+     *
+     * @param is the type of item requested (amount is ignored)
+     * @return true if another hut has it, the worker walks there
+     */
+    private boolean isInOtherHut(@NotNull final ItemStack is)
+    {
+        final Colony colony = worker.getColony();
+        if (colony == null)
+        {
+            return false;
+        }
+
+        final MaterialStore store = colony.getMaterialSystem().findNearest(is, 1, worker.getPosition(), this::mayFetchFrom);
+        return fetchFromOtherHut(store, stack -> stack != null && stack.getItem() == is.getItem()
+                                                   && (is.getItem().isDamageable() || stack.getItemDamage() == is.getItemDamage()));
+    }
+
+    /**
+     * Looks up the nearest other hut which has a tool in the material ledger of the colony.
+     *
+     * @param tool     the tool type, or {@link MaterialStore#WEAPON}.
+     * @param minLevel the lowest mining level the tool may have.
+     * @param hutLevel the level of the hut of the worker, which limits the mining level.
+     * @return the store of the hut, or null if no other hut has one.
+     */
+    @Nullable
+    private MaterialStore findToolInOtherHut(@NotNull final String tool, final int minLevel, final int hutLevel)
+    {
+        final Colony colony = worker.getColony();
+        return colony == null ? null : colony.getMaterialSystem().findNearestTool(
+          tool, minLevel, InventoryUtils.getMaxToolLevel(hutLevel), worker.getPosition(), this::mayFetchFrom);
+    }
+
+    /**
+     * Check if the worker may take items from the chest of a store.
+     * Not from its own hut, which it just checked, not from a builder, whose chest holds the materials of its build,
+     * and not from a hut whose worker is waiting for items itself.
+     *
+     * @param store the store.
+     * @return true if it may.
+     */
+    private boolean mayFetchFrom(@NotNull final MaterialStore store)
+    {
+        final AbstractBuildingWorker ownBuilding = getOwnBuilding();
+        if (store.getType() != MaterialStore.Type.CHEST || ownBuilding == null || ownBuilding.getLocation().equals(store.getLocation()))
+        {
+            return false;
+        }
+
+        final AbstractBuilding building = ownBuilding.getColony().getBuilding(store.getLocation());
+        if (building == null || building instanceof BuildingBuilder)
+        {
+            return false;
+        }
+
+        if (building instanceof AbstractBuildingWorker)
+        {
+            final CitizenData otherWorker = ((AbstractBuildingWorker) building).getWorker();
+            return otherWorker == null || otherWorker.getJob() == null || !otherWorker.getJob().isMissingNeededItem();
+        }
+        return true;
+    }
+
+    /**
+     * Start to fetch a stack from the chest of another hut.
+     *
+     * @param store     the store of the hut, or null if no hut has the stack.
+     * @param predicate the stacks to take.
+     * @return true if the worker walks there.
+     */
+    private boolean fetchFromOtherHut(@Nullable final MaterialStore store, @NotNull final Predicate<ItemStack> predicate)
+    {
+        if (store == null || store.getLocation() == null)
+        {
+            return false;
+        }
+
+        fetchHut = store.getLocation();
+        fetchPredicate = predicate;
+        return true;
+    }
+
+    /**
+     * Walk to the hut the worker fetches a stack from, and take the first matching stack from its chest.
+     * If the stack is gone, the material store of the hut is synced so the ledger doesn't send the worker there again.
+     * Please return immediately if this returns true.
+     *
+     * @return true while the worker fetches a stack.
+     */
+    private boolean isFetching()
+    {
+        if (fetchHut == null || fetchPredicate == null)
+        {
+            return false;
+        }
+
+        if (walkToBlock(fetchHut))
+        {
+            return true;
+        }
+
+        final Predicate<ItemStack> predicate = fetchPredicate;
+        final AbstractBuilding building = worker.getColony() == null ? null : worker.getColony().getBuilding(fetchHut);
+        fetchHut = null;
+        fetchPredicate = null;
+
+        final TileEntityColonyBuilding chest = building == null ? null : building.getTileEntity();
+        if (chest != null && !InventoryFunctions.matchFirstInInventory(
+          chest,
+          predicate,
+          slot -> InventoryUtils.takeStackInSlot(chest, worker.getInventoryCitizen(), slot)))
+        {
+            building.getMaterialStore().sync(chest);
+        }
+        return true;
+    }
+
     /**
      * Wait for a needed shovel.
      *
@@ -544,7 +699,7 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
             return false;
         }
         delay += DELAY_RECHECK;
-        if (walkToBuilding())
+        if (isFetching() || walkToBuilding())
         {
             return true;
         }
@@ -552,6 +707,12 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
         {
             return false;
         }
+        //  A tool the worker may not use stays in his inventory, fetching another one won't help
+        if (needsTool && fetchFromOtherHut(findToolInOtherHut(tool, 0, hutLevel),
+          stack -> Utils.isTool(stack, tool) && InventoryUtils.verifyToolLevel(stack, Utils.getMiningLevel(stack, tool), hutLevel)))
+        {
+            return true;
+        }
         chatSpamFilter.talkWithoutSpam(LanguageHandler.format("entity.worker.toolRequest", tool, InventoryUtils.swapToolGrade(hutLevel)));
         return true;
     }
@@ -662,6 +823,7 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
         final InventoryCitizen inventory = worker.getInventoryCitizen();
         final int hutLevel = worker.getWorkBuilding().getBuildingLevel();
         final boolean isUsable = InventoryUtils.hasToolLevel(Utils.PICKAXE, inventory, hutLevel);
+        final boolean carriesUnusablePickaxe = !needsPickaxe && !isUsable;
 
         if (!isUsable)
         {
@@ -670,6 +832,10 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
         if (needsPickaxe)
         {
             needsPickaxeLevel = minlevel;
+            if (isFetching())
+            {
+                return true;
+            }
             if (walkToBuilding())
             {
                 return false;
@@ -678,6 +844,12 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
             {
                 return true;
             }
+            if (!carriesUnusablePickaxe && fetchFromOtherHut(findToolInOtherHut(Utils.PICKAXE, Math.max(0, minlevel), hutLevel),
+              stack -> Utils.checkIfPickaxeQualifies(minlevel, Utils.getMiningLevel(stack, Utils.PICKAXE))
+                         && InventoryUtils.verifyToolLevel(stack, Utils.getMiningLevel(stack, Utils.PICKAXE), hutLevel)))
+            {
+                return true;
+            }
             chatSpamFilter.talkWithoutSpam(LanguageHandler.format("entity.worker.pickaxeRequest", InventoryUtils.swapToolGrade(minlevel), InventoryUtils.swapToolGrade(hutLevel)));
         }
 
@@ -743,6 +915,10 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
 
         if (needsWeapon)
         {
+            if (isFetching())
+            {
+                return true;
+            }
             if (walkToBuilding())
             {
                 return false;
@@ -751,6 +927,12 @@ public abstract class AbstractEntityAIBasic<J extends AbstractJob> extends Abstr
             {
                 return true;
             }
+            final AbstractBuildingWorker ownBuilding = getOwnBuilding();
+            final int hutLevel = ownBuilding == null ? 0 : ownBuilding.getBuildingLevel();
+            if (fetchFromOtherHut(findToolInOtherHut(MaterialStore.WEAPON, 0, hutLevel), stack -> stack != null && Utils.doesItemServeAsWeapon(stack)))
+            {
+                return true;
+            }
             requestWithoutSpam(LanguageHandler.format("com.minecolonies.coremod.job.guard.needWeapon"));
         }
         return needsWeapon;
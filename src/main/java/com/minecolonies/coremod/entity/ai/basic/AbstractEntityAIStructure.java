@@ -21,7 +21,6 @@ import com.minecolonies.coremod.util.*;
 import net.minecraft.block.*;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.entity.Entity;
-import net.minecraft.entity.EntityList;
 import net.minecraft.entity.item.EntityArmorStand;
 import net.minecraft.entity.item.EntityItemFrame;
 import net.minecraft.init.Blocks;
@@ -29,10 +28,7 @@ import net.minecraft.init.Items;
 import net.minecraft.inventory.EntityEquipmentSlot;
 import net.minecraft.item.ItemDoor;
 import net.minecraft.item.ItemStack;
-import net.minecraft.nbt.NBTTagCompound;
-import net.minecraft.tileentity.TileEntity;
 import net.minecraft.tileentity.TileEntityFlowerPot;
-import net.minecraft.tileentity.TileEntityLockable;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
@@ -102,6 +98,12 @@ public abstract class AbstractEntityAIStructure<J extends AbstractJob> extends A
 
     private int rotation = 0;
 
+    /**
+     * The comparison of the materials of the structure with the world, while the materials are requested.
+     */
+    @Nullable
+    private BillOfMaterials.Diff materialDiff;
+
     /**
      * String which shows if something is a waypoint.
      */
@@ -123,6 +125,10 @@ public abstract class AbstractEntityAIStructure<J extends AbstractJob> extends A
                  * Check if tasks should be executed.
                  */
                 new AITarget(this::checkIfCanceled, IDLE),
+                /**
+                 * Request the materials of a new structure, spread over several ticks.
+                 */
+                new AITarget(() -> materialDiff != null, this::requestMaterials),
                 /**
                  * Select the appropriate State to do next.
                  */
@@ -468,7 +474,11 @@ public abstract class AbstractEntityAIStructure<J extends AbstractJob> extends A
         if (!Configurations.builderInfiniteResources && job instanceof JobBuilder && getOwnBuilding() instanceof BuildingBuilder)
         {
             ((BuildingBuilder) getOwnBuilding()).resetNeededResources();
-            requestMaterials();
+            final StructureWrapper structure = ((JobBuilder) job).getStructure();
+            if (structure != null)
+            {
+                materialDiff = BillOfMaterials.get(structure, rotation, world).diff(structure, world);
+            }
         }
     }
 
@@ -515,6 +525,7 @@ public abstract class AbstractEntityAIStructure<J extends AbstractJob> extends A
         {
             super.resetTask();
             workFrom = null;
+            materialDiff = null;
             ((JobBuilder) job).setStructure(null);
             return true;
         }
@@ -522,115 +533,25 @@ public abstract class AbstractEntityAIStructure<J extends AbstractJob> extends A
     }
 
     /**
-     * Iterates through all the required resources and stores them in the building.
-     */
-    private void requestMaterials()
-    {
-        final JobBuilder builderJob = (JobBuilder) job;
-        while (builderJob.getStructure().findNextBlock())
-        {
-            @Nullable final Template.BlockInfo blockInfo = builderJob.getStructure().getBlockInfo();
-            @Nullable final Template.EntityInfo entityInfo = builderJob.getStructure().getEntityinfo();
-
-            if (blockInfo == null)
-            {
-                continue;
-            }
-
-            requestEntityToBuildingIfRequired(entityInfo);
-
-            @Nullable final IBlockState blockState = blockInfo.blockState;
-            @Nullable final Block block = blockState.getBlock();
-
-            if (builderJob.getStructure().doesStructureBlockEqualWorldBlock()
-                    || (blockState.getBlock() instanceof BlockBed && blockState.getValue(BlockBed.PART).equals(BlockBed.EnumPartType.FOOT))
-                    || (blockState.getBlock() instanceof BlockDoor && blockState.getValue(BlockDoor.HALF).equals(BlockDoor.EnumDoorHalf.UPPER)))
-            {
-                continue;
-            }
-
-            final Block worldBlock = BlockPosUtil.getBlock(world, builderJob.getStructure().getBlockPosition());
-
-            if (block != null
-                    && block != Blocks.AIR
-                    && worldBlock != Blocks.BEDROCK
-                    && !(worldBlock instanceof AbstractBlockHut)
-                    && !isBlockFree(block, 0))
-            {
-                final AbstractBuilding building = getOwnBuilding();
-                if (building instanceof BuildingBuilder)
-                {
-                    requestBlockToBuildingIfRequired((BuildingBuilder) building, blockState);
-                }
-            }
-        }
-        builderJob.getWorkOrder().setRequested(true);
-    }
-
-    /**
-     * Add blocks to the builder building if he needs it.
+     * Compares the next blocks of the structure with the world and stores the missing resources in the building.
      *
-     * @param building   the building.
-     * @param blockState the block to add.
+     * @return the current state while comparing, null if there is nothing to request.
      */
-    private void requestBlockToBuildingIfRequired(BuildingBuilder building, IBlockState blockState)
+    private AIState requestMaterials()
     {
-        if (((JobBuilder) job).getStructure().getBlockInfo().tileentityData != null)
+        final AbstractBuilding building = getOwnBuilding();
+        if (materialDiff == null || !(job instanceof JobBuilder) || ((JobBuilder) job).getWorkOrder() == null || !(building instanceof BuildingBuilder))
         {
-            final List<ItemStack> itemList = new ArrayList<>();
-            itemList.addAll(getItemStacksOfTileEntity(((JobBuilder) job).getStructure().getBlockInfo().tileentityData));
-
-            for (final ItemStack stack : itemList)
-            {
-                building.addNeededResource(stack, 1);
-            }
+            materialDiff = null;
+            return null;
         }
 
-        building.addNeededResource(BlockUtils.getItemStackFromBlockState(blockState), 1);
-    }
-
-    /**
-     * Adds entities to the builder building if he needs it.
-     */
-    private void requestEntityToBuildingIfRequired(Template.EntityInfo entityInfo)
-    {
-        if (entityInfo != null)
+        if (materialDiff.request((BuildingBuilder) building, Configurations.maxBlocksCheckedByBuilder))
         {
-            final Entity entity = getEntityFromEntityInfoOrNull(entityInfo);
-
-            if (entity != null)
-            {
-                final List<ItemStack> request = new ArrayList<>();
-                if (entity instanceof EntityItemFrame)
-                {
-                    final ItemStack stack = ((EntityItemFrame) entity).getDisplayedItem();
-                    if (stack != null)
-                    {
-                        stack.stackSize = 1;
-                        request.add(stack);
-                        request.add(new ItemStack(Items.ITEM_FRAME, 1, stack.getItemDamage()));
-                    }
-                }
-                else if (entity instanceof EntityArmorStand)
-                {
-                    request.add(entity.getPickedResult(new RayTraceResult(worker)));
-                    entity.getArmorInventoryList().forEach(request::add);
-                }
-                else
-                {
-                    request.add(entity.getPickedResult(new RayTraceResult(worker)));
-                }
-
-                for (final ItemStack stack : request)
-                {
-                    final AbstractBuilding building = getOwnBuilding();
-                    if (building instanceof BuildingBuilder && stack != null && stack.getItem() != null)
-                    {
-                        ((BuildingBuilder) building).addNeededResource(stack, 1);
-                    }
-                }
-            }
+            materialDiff = null;
+            ((JobBuilder) job).getWorkOrder().setRequested(true);
         }
+        return getState();
     }
 
     /**
@@ -860,7 +781,7 @@ public abstract class AbstractEntityAIStructure<J extends AbstractJob> extends A
         if (job instanceof JobBuilder && ((JobBuilder) job).getStructure() != null
                 && ((JobBuilder) job).getStructure().getBlockInfo() != null && ((JobBuilder) job).getStructure().getBlockInfo().tileentityData != null)
         {
-            itemList.addAll(getItemStacksOfTileEntity(((JobBuilder) job).getStructure().getBlockInfo().tileentityData));
+            itemList.addAll(BillOfMaterials.getItemStacksOfTileEntity(((JobBuilder) job).getStructure().getBlockInfo().tileentityData, world));
         }
 
         for (final ItemStack stack : itemList)
@@ -892,34 +813,6 @@ public abstract class AbstractEntityAIStructure<J extends AbstractJob> extends A
         return stack;
     }
 
-    /**
-     * Get itemStack of tileEntityData. Retrieve the data from the tileEntity.
-     *
-     * @param compound the tileEntity stored in a compound.
-     * @return the list of itemstacks.
-     */
-    private List<ItemStack> getItemStacksOfTileEntity(NBTTagCompound compound)
-    {
-        final List<ItemStack> items = new ArrayList<>();
-        final TileEntity tileEntity = TileEntity.create(world, compound);
-        if (tileEntity instanceof TileEntityFlowerPot)
-        {
-            items.add(((TileEntityFlowerPot) tileEntity).getFlowerItemStack());
-        }
-        else if (tileEntity instanceof TileEntityLockable)
-        {
-            for (int i = 0; i < ((TileEntityLockable) tileEntity).getSizeInventory(); i++)
-            {
-                final ItemStack stack = ((TileEntityLockable) tileEntity).getStackInSlot(i);
-                if (stack != null)
-                {
-                    items.add(stack);
-                }
-            }
-        }
-        return items;
-    }
-
     /**
      * Defines blocks that can be built for free.
      *
@@ -1111,15 +1004,7 @@ public abstract class AbstractEntityAIStructure<J extends AbstractJob> extends A
     @Nullable
     private Entity getEntityFromEntityInfoOrNull(Template.EntityInfo entityInfo)
     {
-        try
-        {
-            return EntityList.createEntityFromNBT(entityInfo.entityData, world);
-        }
-        catch (RuntimeException e)
-        {
-            Log.getLogger().info("Couldn't restore entitiy", e);
-            return null;
-        }
+        return BillOfMaterials.createEntity(entityInfo, world);
     }
 
     private Boolean spawnEntity(@NotNull final Structure.StructureBlock currentBlock)
@@ -1,17 +1,56 @@
 package com.minecolonies.coremod.entity.ai.citizen.deliveryman;
 
+import com.minecolonies.coremod.colony.CitizenData;
+import com.minecolonies.coremod.colony.Colony;
+import com.minecolonies.coremod.colony.buildings.AbstractBuilding;
+import com.minecolonies.coremod.colony.buildings.AbstractBuildingWorker;
+import com.minecolonies.coremod.colony.delivery.DeliveryRoute;
+import com.minecolonies.coremod.colony.delivery.DeliveryTask;
 import com.minecolonies.coremod.colony.jobs.JobDeliveryman;
 import com.minecolonies.coremod.entity.ai.basic.AbstractEntityAIInteract;
+import com.minecolonies.coremod.entity.ai.util.AIState;
+import com.minecolonies.coremod.entity.ai.util.AITarget;
+import com.minecolonies.coremod.tileentities.TileEntityColonyBuilding;
+import com.minecolonies.coremod.util.InventoryUtils;
+import net.minecraft.inventory.IInventory;
+import net.minecraft.item.ItemStack;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import static com.minecolonies.coremod.entity.ai.util.AIState.*;
 
 /**
  * Performs deliveryman work.
  * Created: July 18, 2014
+ * <p>
+ * The deliveryman takes a route from the delivery manager of the colony at his warehouse, picks the stacks up at
+ * the huts which hold them, drops them off at the huts which asked for them and dumps what is left at the warehouse.
  *
  * @author MrIbby
  */
 public class EntityAIWorkDeliveryman extends AbstractEntityAIInteract<JobDeliveryman>
 {
+    /**
+     * Ticks to wait at the warehouse before asking for a route again.
+     */
+    private static final int WAIT_FOR_REQUESTS = 100;
+
+    /**
+     * Ticks to wait at a stop after moving the stacks.
+     */
+    private static final int DELAY_AT_STOP = 20;
+
+    /**
+     * Inventory slots left free on a route, so a full inventory doesn't send the deliveryman dumping midway.
+     */
+    private static final int FREE_SLOTS_KEPT = 1;
+
+    /**
+     * The route the deliveryman is on.
+     */
+    @Nullable
+    private DeliveryRoute route;
+
     /**
      * Initialize the deliveryman and add all his tasks.
      *
@@ -20,5 +59,142 @@ public class EntityAIWorkDeliveryman extends AbstractEntityAIInteract<JobDeliver
     public EntityAIWorkDeliveryman(@NotNull final JobDeliveryman deliveryman)
     {
         super(deliveryman);
+        super.registerTargets(
+          new AITarget(IDLE, START_WORKING),
+          new AITarget(START_WORKING, this::startWorkingAtOwnBuilding),
+          new AITarget(DELIVERYMAN_DELIVER, this::deliver)
+        );
+    }
+
+    /**
+     * Walk to the warehouse and take a route.
+     *
+     * @return the next AIState.
+     */
+    @NotNull
+    private AIState startWorkingAtOwnBuilding()
+    {
+        if (walkToBuilding())
+        {
+            return getState();
+        }
+
+        final AbstractBuildingWorker ownBuilding = getOwnBuilding();
+        final Colony colony = worker.getColony();
+        final CitizenData citizen = worker.getCitizenData();
+        if (ownBuilding == null || colony == null || citizen == null)
+        {
+            return getState();
+        }
+
+        route = colony.getDeliveryManager().takeRoute(citizen, ownBuilding.getLocation(), getFreeSlots() - FREE_SLOTS_KEPT);
+        if (route == null)
+        {
+            setDelay(WAIT_FOR_REQUESTS);
+            return getState();
+        }
+        return DELIVERYMAN_DELIVER;
+    }
+
+    /**
+     * Walk to the next stop of the route and pick up or drop off its stacks.
+     *
+     * @return the next AIState.
+     */
+    @NotNull
+    private AIState deliver()
+    {
+        final DeliveryRoute.Stop stop = route == null ? null : route.getNextStop();
+        if (stop == null)
+        {
+            finishRoute();
+            return IDLE;
+        }
+
+        job.setDestination(stop.getLocation());
+        if (walkToBlock(stop.getLocation()))
+        {
+            return getState();
+        }
+
+        final AbstractBuilding building = worker.getColony() == null ? null : worker.getColony().getBuilding(stop.getLocation());
+        final TileEntityColonyBuilding chest = building == null ? null : building.getTileEntity();
+        if (chest != null)
+        {
+            for (@NotNull final DeliveryTask task : stop.getTasks())
+            {
+                if (stop.isPickup())
+                {
+                    transfer(chest, worker.getInventoryCitizen(), task);
+                }
+                else
+                {
+                    transfer(worker.getInventoryCitizen(), chest, task);
+                }
+            }
+        }
+
+        route.advance();
+        setDelay(DELAY_AT_STOP);
+        return getState();
+    }
+
+    /**
+     * Hand the route back and dump what is left at the warehouse.
+     */
+    private void finishRoute()
+    {
+        final CitizenData citizen = worker.getCitizenData();
+        if (worker.getColony() != null && citizen != null)
+        {
+            worker.getColony().getDeliveryManager().completeRoute(citizen);
+        }
+        route = null;
+        job.setDestination(null);
+        incrementActionsDone();
+    }
+
+    /**
+     * Move the stack of a task from one inventory to another, as much of it as there is.
+     *
+     * @param from the inventory to take from.
+     * @param to   the inventory to put into.
+     * @param task the task.
+     */
+    private static void transfer(@NotNull final IInventory from, @NotNull final IInventory to, @NotNull final DeliveryTask task)
+    {
+        int left = task.getStack().stackSize;
+        for (int slot = 0; slot < from.getSizeInventory() && left > 0; slot++)
+        {
+            final ItemStack stack = from.getStackInSlot(slot);
+            if (task.matches(stack))
+            {
+                final int amount = Math.min(left, stack.stackSize);
+                if (!InventoryUtils.takeStackInSlot(from, to, slot, amount))
+                {
+                    return;
+                }
+                left -= amount;
+            }
+        }
+    }
+
+    /**
+     * @return the number of empty slots in the inventory of the deliveryman.
+     */
+    private int getFreeSlots()
+    {
+        return worker.getInventoryCitizen().getSizeInventory() - InventoryUtils.getAmountOfStacks(worker.getInventoryCitizen());
+    }
+
+    /**
+     * Dump the inventory after every route, so the leftovers of a route end up in the warehouse.
+     *
+     * @return 1.
+     */
+    @Override
+    protected int getActionsDoneUntilDumping()
+    {
+        return 1;
     }
 }
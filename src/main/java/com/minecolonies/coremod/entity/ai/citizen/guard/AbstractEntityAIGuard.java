@@ -1,6 +1,7 @@
 package com.minecolonies.coremod.entity.ai.citizen.guard;
 
 import com.minecolonies.coremod.colony.Colony;
+import com.minecolonies.coremod.colony.ColonyManager;
 import com.minecolonies.coremod.colony.buildings.AbstractBuilding;
 import com.minecolonies.coremod.colony.buildings.AbstractBuildingWorker;
 import com.minecolonies.coremod.colony.buildings.BuildingGuardTower;
@@ -14,20 +15,14 @@ import com.minecolonies.coremod.tileentities.TileEntityColonyBuilding;
 import com.minecolonies.coremod.util.BlockPosUtil;
 import com.minecolonies.coremod.util.LanguageHandler;
 import com.minecolonies.coremod.util.Log;
-import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityLivingBase;
-import net.minecraft.entity.item.EntityItem;
-import net.minecraft.entity.monster.EntityMob;
-import net.minecraft.entity.monster.EntitySlime;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.inventory.EntityEquipmentSlot;
 import net.minecraft.item.*;
-import net.minecraft.util.math.AxisAlignedBB;
 import net.minecraft.util.math.BlockPos;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
-import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -47,10 +42,6 @@ public abstract class AbstractEntityAIGuard extends AbstractEntityAISkill<JobGua
      * Follow the player if farther than this.
      */
     public static final int FOLLOW_RANGE = 10;
-    /**
-     * Distance the guard starts searching.
-     */
-    protected static final int START_SEARCH_DISTANCE = 5;
     /**
      * The start search distance of the guard to track/attack entities may get more depending on the level.
      */
@@ -103,10 +94,6 @@ public abstract class AbstractEntityAIGuard extends AbstractEntityAISkill<JobGua
      * Amount of arrows already shot or sword hits dealt.
      */
     protected int attacksExecuted       = 0;
-    /**
-     * The distance the guard is searching entities in currently.
-     */
-    protected int currentSearchDistance = START_SEARCH_DISTANCE;
     /**
      * Checks if the guard should dump its inventory.
      */
@@ -115,11 +102,6 @@ public abstract class AbstractEntityAIGuard extends AbstractEntityAISkill<JobGua
      * Current goTo task.
      */
     private BlockPos     currentPathTarget;
-    /**
-     * Containing all close entities.
-     */
-    private List<Entity> entityList;
-
     /**
      * Positions of all items that have to be collected.
      */
@@ -278,47 +260,51 @@ public abstract class AbstractEntityAIGuard extends AbstractEntityAISkill<JobGua
     }
 
     /**
-     * Chooses a target from the list.
+     * Claims the closest target of the colony threat index no other guard hunts.
      *
      * @return the next state.
      */
     protected AIState getTarget()
     {
-        if (entityList.isEmpty())
+        final Colony colony = worker.getColony();
+        if (colony == null)
         {
             return AIState.GUARD_PATROL;
         }
 
-        final Entity entity = entityList.get(0);
+        final EntityLivingBase target = colony.getThreatIndex().claimTarget(worker, getMaxVision(), HEIGHT_DETECTION_RANGE, this::isValidTarget);
+        if (target == null)
+        {
+            colony.getThreatIndex().release(worker);
+            targetEntity = null;
+            setDelay(BASE_DELAY);
+            return AIState.GUARD_PATROL;
+        }
 
-        final BlockPos buildingLocation = getOwnBuilding().getLocation();
+        targetEntity = target;
+        worker.getNavigator().clearPathEntity();
+        return AIState.GUARD_HUNT_DOWN_TARGET;
+    }
 
+    /**
+     * Checks if the guard may attack an entity.
+     *
+     * @param entity the entity.
+     * @return true if it is in patrol distance and either a visible mob or a player the guards may attack.
+     */
+    private boolean isValidTarget(@NotNull final EntityLivingBase entity)
+    {
         //Only attack entities in max patrol distance.
-        if (BlockPosUtil.getDistance2D(entity.getPosition(), buildingLocation) < getPatrolDistance())
+        if (BlockPosUtil.getDistance2D(entity.getPosition(), getOwnBuilding().getLocation()) >= getPatrolDistance())
         {
-            if (entity instanceof EntityPlayer)
-            {
-                if (worker.getColony() != null && worker.getColony().getPermissions().hasPermission((EntityPlayer) entity, Permissions.Action.GUARDS_ATTACK))
-                {
-                    targetEntity = (EntityLivingBase) entity;
-                    worker.getNavigator().clearPathEntity();
-                    return AIState.GUARD_HUNT_DOWN_TARGET;
-                }
-                entityList.remove(0);
-                setDelay(BASE_DELAY);
-                return AIState.GUARD_GET_TARGET;
-            }
-            else if (worker.getEntitySenses().canSee(entity) && (entityList.get(0)).isEntityAlive())
-            {
-                worker.getNavigator().clearPathEntity();
-                targetEntity = (EntityLivingBase) entity;
-                return AIState.GUARD_HUNT_DOWN_TARGET;
-            }
+            return false;
         }
 
-        entityList.remove(0);
-        setDelay(BASE_DELAY);
-        return AIState.GUARD_GET_TARGET;
+        if (entity instanceof EntityPlayer)
+        {
+            return worker.getColony() != null && worker.getColony().getPermissions().hasPermission((EntityPlayer) entity, Permissions.Action.GUARDS_ATTACK);
+        }
+        return worker.getEntitySenses().canSee(entity);
     }
 
     /**
@@ -332,42 +318,22 @@ public abstract class AbstractEntityAIGuard extends AbstractEntityAISkill<JobGua
     }
 
     /**
-     * Searches for the next target.
+     * Keeps hunting the current target while it is visible, else looks for the next target.
      *
      * @return the next AIState.
      */
     protected AIState searchTarget()
     {
-        entityList = this.worker.worldObj.getEntitiesWithinAABB(EntityMob.class, this.getTargetableArea(currentSearchDistance));
-        entityList.addAll(this.worker.worldObj.getEntitiesWithinAABB(EntitySlime.class, this.getTargetableArea(currentSearchDistance)));
-        entityList.addAll(this.worker.worldObj.getEntitiesWithinAABB(EntityPlayer.class, this.getTargetableArea(currentSearchDistance)));
-
         if (targetEntity != null && targetEntity.isEntityAlive() && worker.getEntitySenses().canSee(targetEntity))
         {
-            return AIState.GUARD_HUNT_DOWN_TARGET;
-        }
-
-        setDelay(BASE_DELAY);
-        if (entityList.isEmpty())
-        {
-            if (currentSearchDistance < getMaxVision())
+            if (worker.getColony() != null)
             {
-                currentSearchDistance += START_SEARCH_DISTANCE;
+                worker.getColony().getThreatIndex().claim(worker, targetEntity);
             }
-            else
-            {
-                currentSearchDistance = START_SEARCH_DISTANCE;
-                return AIState.GUARD_PATROL;
-            }
-
-            return AIState.GUARD_SEARCH_TARGET;
+            return AIState.GUARD_HUNT_DOWN_TARGET;
         }
-        return AIState.GUARD_GET_TARGET;
-    }
 
-    private AxisAlignedBB getTargetableArea(final double range)
-    {
-        return this.worker.getEntityBoundingBox().expand(range, HEIGHT_DETECTION_RANGE, range);
+        return AIState.GUARD_GET_TARGET;
     }
 
     /**
@@ -530,6 +496,7 @@ public abstract class AbstractEntityAIGuard extends AbstractEntityAISkill<JobGua
     {
         final Colony colony = this.getOwnBuilding().getColony();
         colony.incrementMobsKilled();
+        colony.getThreatIndex().release(worker);
         incrementActionsDone();
         worker.getNavigator().clearPathEntity();
     }
@@ -561,11 +528,8 @@ public abstract class AbstractEntityAIGuard extends AbstractEntityAISkill<JobGua
      */
     private void searchForItems()
     {
-        items = new ArrayList<>();
-
-        items = world.getEntitiesWithinAABB(EntityItem.class, worker.getEntityBoundingBox().expand(RANGE_HORIZONTAL_PICKUP, RANGE_VERTICAL_PICKUP, RANGE_HORIZONTAL_PICKUP))
+        items = ColonyManager.getDroppedItems(world, worker.getEntityBoundingBox().expand(RANGE_HORIZONTAL_PICKUP, RANGE_VERTICAL_PICKUP, RANGE_HORIZONTAL_PICKUP))
                   .stream()
-                  .filter(item -> item != null && !item.isDead)
                   .map(BlockPosUtil::fromEntity)
                   .collect(Collectors.toList());
     }
@@ -232,5 +232,14 @@ public enum AIState
     /**
      * Gather dropped items after kill.
      */
-    GUARD_GATHERING
+    GUARD_GATHERING,
+
+      /*
+###Deliveryman###
+    */
+
+    /**
+     * Work the stops of a delivery route.
+     */
+    DELIVERYMAN_DELIVER
 }
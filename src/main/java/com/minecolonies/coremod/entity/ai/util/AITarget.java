@@ -24,6 +24,13 @@ public class AITarget
     @NotNull
     private final Supplier<AIState> action;
 
+    /**
+     * Statistics, only counted if enabled in the configuration.
+     */
+    private long invocations = 0;
+    private long hits        = 0;
+    private long nanos       = 0;
+
     /**
      * Construct a target.
      *
@@ -124,4 +131,50 @@ public class AITarget
     {
         return action.get();
     }
+
+    /**
+     * Count one check of this target.
+     *
+     * @param hit      true if the action ran.
+     * @param duration the nanoseconds the check and the action took.
+     */
+    public void record(final boolean hit, final long duration)
+    {
+        invocations++;
+        if (hit)
+        {
+            hits++;
+        }
+        nanos += duration;
+    }
+
+    /**
+     * How often this target was checked.
+     *
+     * @return the number of checks.
+     */
+    public long getInvocations()
+    {
+        return invocations;
+    }
+
+    /**
+     * How often the action of this target ran.
+     *
+     * @return the number of runs.
+     */
+    public long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * The time spent checking and running this target.
+     *
+     * @return the time in nanoseconds.
+     */
+    public long getNanos()
+    {
+        return nanos;
+    }
 }
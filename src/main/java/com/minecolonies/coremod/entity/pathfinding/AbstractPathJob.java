@@ -13,7 +13,6 @@ import net.minecraft.pathfinding.PathPoint;
 import net.minecraft.util.EnumFacing;
 import net.minecraft.util.math.BlockPos;
 import net.minecraft.util.math.MathHelper;
-import net.minecraft.world.ChunkCache;
 import net.minecraft.world.IBlockAccess;
 import net.minecraft.world.World;
 import org.jetbrains.annotations.NotNull;
@@ -36,15 +35,12 @@ public abstract class AbstractPathJob implements Callable<Path>
     private static final   int      SHIFT_WEST            = 2;
     private static final   int      SHIFT_NORTH           = 3;
     private static final   int      SHIFT_EAST            = 4;
-    private static final   BlockPos BLOCKPOS_IDENTITY     = new BlockPos(0, 0, 0);
     private static final   BlockPos BLOCKPOS_UP           = new BlockPos(0, 1, 0);
     private static final   BlockPos BLOCKPOS_DOWN         = new BlockPos(0, -1, 0);
     private static final   BlockPos BLOCKPOS_NORTH = new BlockPos(0, 0, -1);
     private static final   BlockPos BLOCKPOS_SOUTH = new BlockPos(0, 0, 1);
     private static final   BlockPos BLOCKPOS_EAST  = new BlockPos(1, 0, 0);
     private static final   BlockPos BLOCKPOS_WEST  = new BlockPos(-1, 0, 0);
-    private static final   int      MAX_Y          = 256;
-    private static final   int      MIN_Y          = 0;
 
     /**
      * Additional cost of jumping and dropping - base 1.
@@ -90,11 +86,19 @@ public abstract class AbstractPathJob implements Callable<Path>
     @NotNull
     protected final  BlockPos     start;
     @NotNull
-    protected final  IBlockAccess world;
+    protected final  WorldSnapshot world;
     protected final  PathResult   result;
     private final    int          maxRange;
-    private final Queue<Node>        nodesOpen                    = new PriorityQueue<>(500);
-    private final Map<Integer, Node> nodesVisited                 = new HashMap<>();
+    private final NodeHeap           nodesOpen                    = new NodeHeap();
+    private final NodeTable          nodesVisited                 = new NodeTable();
+    /**
+     * Reused position of the space walked into, to not allocate a BlockPos per probe.
+     */
+    private final BlockPos.MutableBlockPos walkPos                = new BlockPos.MutableBlockPos();
+    /**
+     * Reused position for the block probes around a position.
+     */
+    private final BlockPos.MutableBlockPos probePos               = new BlockPos.MutableBlockPos();
     //  Debug Rendering
     protected     boolean            debugDrawEnabled             = false;
     protected     int                debugSleepMs                 = 0;
@@ -136,12 +140,7 @@ public abstract class AbstractPathJob implements Callable<Path>
      */
     public AbstractPathJob(final World world, @NotNull final BlockPos start, @NotNull final BlockPos end, final int range, final PathResult result)
     {
-        final int minX = Math.min(start.getX(), end.getX()) - (range / 2);
-        final int minZ = Math.min(start.getZ(), end.getZ()) - (range / 2);
-        final int maxX = Math.max(start.getX(), end.getX()) + (range / 2);
-        final int maxZ = Math.max(start.getZ(), end.getZ()) + (range / 2);
-
-        this.world = new ChunkCache(world, new BlockPos(minX, MIN_Y, minZ), new BlockPos(maxX, MAX_Y, maxZ), range);
+        this.world = WorldSnapshot.create(world, start, end, range);
 
         this.start = new BlockPos(start);
         this.maxRange = range;
@@ -160,9 +159,9 @@ public abstract class AbstractPathJob implements Callable<Path>
         }
     }
 
-    private static boolean onLadderGoingUp(@NotNull final Node currentNode, @NotNull final BlockPos dPos)
+    private static boolean onLadderGoingUp(@NotNull final Node currentNode, final int dx, final int dy, final int dz)
     {
-        return currentNode.isLadder() && (dPos.getY() >= 0 || dPos.getX() != 0 || dPos.getZ() != 0);
+        return currentNode.isLadder() && (dy >= 0 || dx != 0 || dz != 0);
     }
 
     /**
@@ -281,9 +280,23 @@ public abstract class AbstractPathJob implements Callable<Path>
      */
     private static int computeNodeKey(@NotNull final BlockPos pos)
     {
-        return ((pos.getX() & 0xFFF) << SHIFT_X_BY)
-                 | ((pos.getY() & 0xFF) << SHIFT_Y_BY)
-                 | (pos.getZ() & 0xFFF);
+        return computeNodeKey(pos.getX(), pos.getY(), pos.getZ());
+    }
+
+    /**
+     * Generate a pseudo-unique key for identifying a given node by it's coordinates.
+     *
+     * @param x the x coordinate.
+     * @param y the y coordinate.
+     * @param z the z coordinate.
+     * @return key for node in map
+     * @see AbstractPathJob#computeNodeKey(BlockPos)
+     */
+    private static int computeNodeKey(final int x, final int y, final int z)
+    {
+        return ((x & 0xFFF) << SHIFT_X_BY)
+                 | ((y & 0xFF) << SHIFT_Y_BY)
+                 | (z & 0xFFF);
     }
 
     /**
@@ -332,9 +345,23 @@ public abstract class AbstractPathJob implements Callable<Path>
         return node != null && node.isClosed();
     }
 
-    private static boolean calculateSwimming(@NotNull final IBlockAccess world, @NotNull final BlockPos pos, @Nullable final Node node)
+    private boolean calculateSwimming(@NotNull final BlockPos pos, @Nullable final Node node)
+    {
+        return (node == null) ? world.isLiquid(probe(pos, -1)) : node.isSwimming();
+    }
+
+    /**
+     * Get the reusable probe position set to a vertical offset of a position.
+     * The result is only valid until the next probe, it must not be stored.
+     *
+     * @param pos     the position.
+     * @param yOffset the offset on the y axis.
+     * @return the probe position.
+     */
+    @NotNull
+    private BlockPos probe(@NotNull final BlockPos pos, final int yOffset)
     {
-        return (node == null) ? world.getBlockState(pos.down()).getMaterial().isLiquid() : node.isSwimming();
+        return probePos.setPos(pos.getX(), pos.getY() + yOffset, pos.getZ());
     }
 
     public PathResult getResult()
@@ -472,52 +499,56 @@ public abstract class AbstractPathJob implements Callable<Path>
 
     private void walkCurrentNode(@NotNull final Node currentNode)
     {
-        BlockPos dPos = BLOCKPOS_IDENTITY;
+        int dx = 0;
+        int dy = 0;
+        int dz = 0;
         if (currentNode.parent != null)
         {
-            dPos = currentNode.pos.subtract(currentNode.parent.pos);
+            dx = currentNode.pos.getX() - currentNode.parent.pos.getX();
+            dy = currentNode.pos.getY() - currentNode.parent.pos.getY();
+            dz = currentNode.pos.getZ() - currentNode.parent.pos.getZ();
         }
 
         //  On a ladder, we can go 1 straight-up
-        if (onLadderGoingUp(currentNode, dPos))
+        if (onLadderGoingUp(currentNode, dx, dy, dz))
         {
             walk(currentNode, BLOCKPOS_UP);
         }
 
         //  We can also go down 1, if the lower block is a ladder
-        if (onLadderGoingDown(currentNode, dPos))
+        if (onLadderGoingDown(currentNode, dx, dy, dz))
         {
             walk(currentNode, BLOCKPOS_DOWN);
         }
 
         // N
-        if (dPos.getZ() <= 0)
+        if (dz <= 0)
         {
             walk(currentNode, BLOCKPOS_NORTH);
         }
 
         // E
-        if (dPos.getX() >= 0)
+        if (dx >= 0)
         {
             walk(currentNode, BLOCKPOS_EAST);
         }
 
         // S
-        if (dPos.getZ() >= 0)
+        if (dz >= 0)
         {
             walk(currentNode, BLOCKPOS_SOUTH);
         }
 
         // W
-        if (dPos.getX() <= 0)
+        if (dx <= 0)
         {
             walk(currentNode, BLOCKPOS_WEST);
         }
     }
 
-    private boolean onLadderGoingDown(@NotNull final Node currentNode, @NotNull final BlockPos dPos)
+    private boolean onLadderGoingDown(@NotNull final Node currentNode, final int dx, final int dy, final int dz)
     {
-        return (dPos.getY() <= 0 || dPos.getX() != 0 || dPos.getZ() != 0) && isLadder(currentNode.pos.down());
+        return (dy <= 0 || dx != 0 || dz != 0) && isLadder(probe(currentNode.pos, -1));
     }
 
     private void handleDebugDraw()
@@ -543,7 +574,7 @@ public abstract class AbstractPathJob implements Callable<Path>
         {
             startNode.setLadder();
         }
-        else if (world.getBlockState(start).getMaterial().isLiquid())
+        else if (world.isLiquid(start))
         {
             startNode.setSwimming();
         }
@@ -689,11 +720,20 @@ public abstract class AbstractPathJob implements Callable<Path>
      */
     protected final boolean walk(@NotNull final Node parent, @NotNull final BlockPos dPos)
     {
-        BlockPos pos = parent.pos.add(dPos);
+        final int x = parent.pos.getX() + dPos.getX();
+        final int y = parent.pos.getY() + dPos.getY();
+        final int z = parent.pos.getZ() + dPos.getZ();
+        @NotNull final BlockPos pos = walkPos.setPos(x, y, z);
+
+        //  Blocks which were not copied are unknown, not air: never plan through them
+        if (!world.contains(x, y - WorldSnapshot.PROBE_MARGIN, z) || !world.contains(x, y + WorldSnapshot.PROBE_MARGIN, z))
+        {
+            return false;
+        }
 
         //  Cheap test to perform before doing a 'y' test
         //  Has this node been visited?
-        int nodeKey = computeNodeKey(pos);
+        int nodeKey = computeNodeKey(x, y, z);
         Node node = nodesVisited.get(nodeKey);
 
         //  Can we traverse into this node?  Fix the y up
@@ -704,11 +744,11 @@ public abstract class AbstractPathJob implements Callable<Path>
             return false;
         }
 
-        if (pos.getY() != newY)
+        if (y != newY)
         {
             //  Has this node been visited?
-            pos = new BlockPos(pos.getX(), newY, pos.getZ());
-            nodeKey = computeNodeKey(pos);
+            walkPos.setPos(x, newY, z);
+            nodeKey = computeNodeKey(x, newY, z);
             node = nodesVisited.get(nodeKey);
             if (nodeClosed(node))
             {
@@ -718,7 +758,7 @@ public abstract class AbstractPathJob implements Callable<Path>
         }
 
 
-        final boolean isSwimming = calculateSwimming(world, pos, node);
+        final boolean isSwimming = calculateSwimming(pos, node);
         final boolean onRoad = BlockUtils.isPathBlock(world.getBlockState(pos).getBlock());
         //  Cost may have changed due to a jump up or drop
         final double stepCost = computeCost(dPos, isSwimming, onRoad);
@@ -728,15 +768,17 @@ public abstract class AbstractPathJob implements Callable<Path>
 
         if (node == null)
         {
-            node = createNode(parent, pos, nodeKey, isSwimming, heuristic, cost, score);
+            node = createNode(parent, pos.toImmutable(), nodeKey, isSwimming, heuristic, cost, score);
+            nodesOpen.offer(node);
         }
         else if (updateCurrentNode(parent, node, heuristic, cost, score))
         {
-
             return false;
         }
-
-        nodesOpen.offer(node);
+        else
+        {
+            nodesOpen.decreaseKey(node);
+        }
 
         //  Jump Point Search-ish optimization:
         // If this node was a (heuristic-based) improvement on our parent,
@@ -789,7 +831,7 @@ public abstract class AbstractPathJob implements Callable<Path>
             return true;
         }
 
-        if (!nodesOpen.remove(node))
+        if (!nodesOpen.contains(node))
         {
             return true;
         }
@@ -826,7 +868,7 @@ public abstract class AbstractPathJob implements Callable<Path>
         }
 
         //  Do we have something to stand on in the target space?
-        final IBlockState below = world.getBlockState(pos.down());
+        final IBlockState below = world.getBlockState(probe(pos, -1));
         final SurfaceType walkability = isWalkableSurface(below);
         if (walkability == SurfaceType.WALKABLE)
         {
@@ -850,7 +892,7 @@ public abstract class AbstractPathJob implements Callable<Path>
             return handleInLiquid(pos, below, isSwimming);
         }
 
-        if (isLadder(below.getBlock(), pos.down()))
+        if (isLadder(below.getBlock(), probe(pos, -1)))
         {
             return pos.getY();
         }
@@ -867,8 +909,7 @@ public abstract class AbstractPathJob implements Callable<Path>
             return -1;
         }
 
-        final BlockPos down = pos.down(2);
-        final IBlockState below = world.getBlockState(down);
+        final IBlockState below = world.getBlockState(probe(pos, -2));
         if (isWalkableSurface(below) == SurfaceType.WALKABLE)
         {
             //  Level path
@@ -906,13 +947,13 @@ public abstract class AbstractPathJob implements Callable<Path>
         }
 
         //  Check for headroom in the target space
-        if (!isPassable(pos.up(2)))
+        if (!isPassable(probe(pos, 2)))
         {
             return -1;
         }
 
         //  Check for jump room from the origin space
-        if (!isPassable(parent.pos.up(2)))
+        if (!isPassable(probe(parent.pos, 2)))
         {
             return -1;
         }
@@ -923,14 +964,14 @@ public abstract class AbstractPathJob implements Callable<Path>
 
     private boolean checkHeadBlock(@Nullable final Node parent, @NotNull final BlockPos pos)
     {
-        if (!isPassable(pos.up()))
+        if (!isPassable(probe(pos, 1)))
         {
             return true;
         }
 
         if (parent != null)
         {
-            final IBlockState hereState = world.getBlockState(parent.pos.down());
+            final IBlockState hereState = world.getBlockState(probe(parent.pos, -1));
             if (hereState.getMaterial().isLiquid() && !isPassable(pos))
             {
                 return true;
@@ -947,24 +988,19 @@ public abstract class AbstractPathJob implements Callable<Path>
      */
     protected boolean isPassable(@NotNull final IBlockState block)
     {
-        if (block.getMaterial() != Material.AIR)
-        {
-            if (block.getMaterial().blocksMovement())
-            {
-                return block.getBlock() instanceof BlockDoor || block.getBlock() instanceof BlockFenceGate;
-            }
-            else if (block.getMaterial().isLiquid())
-            {
-                return false;
-            }
-        }
-
-        return true;
+        return ChunkSectionSnapshot.isPassable(block);
     }
 
+    /**
+     * Is the space passable, read from the bits the snapshot computed for its states.
+     * Jobs which change {@link #isPassable(IBlockState)} have to change this as well.
+     *
+     * @param pos the position to check.
+     * @return true if the block does not block movement.
+     */
     protected boolean isPassable(final BlockPos pos)
     {
-        return isPassable(world.getBlockState(pos));
+        return world.isPassable(pos);
     }
 
     /**
@@ -1002,12 +1038,12 @@ public abstract class AbstractPathJob implements Callable<Path>
      */
     protected boolean isLadder(@NotNull final Block block, final BlockPos pos)
     {
-        return block.isLadder(this.world.getBlockState(pos), world, pos, null);
+        return world.isLadder(pos);
     }
 
     protected boolean isLadder(final BlockPos pos)
     {
-        return isLadder(world.getBlockState(pos).getBlock(), pos);
+        return world.isLadder(pos);
     }
 
     /**
@@ -0,0 +1,309 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import net.minecraft.block.*;
+import net.minecraft.block.material.Material;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Blocks;
+import net.minecraft.world.chunk.storage.ExtendedBlockStorage;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Immutable copy of the block states of a 16x16x16 chunk section.
+ * The states are stored as indices into a palette of the states which occur in the section, and the properties the
+ * search asks for most are computed once per palette entry, so probing them is an array lookup.
+ * Once created it is never modified, so it can be read from any thread without locking.
+ */
+final class ChunkSectionSnapshot
+{
+    /**
+     * Size of a section in each direction.
+     */
+    static final int SECTION_SIZE = 16;
+
+    /**
+     * Amount of blocks in a section.
+     */
+    private static final int SECTION_VOLUME = SECTION_SIZE * SECTION_SIZE * SECTION_SIZE;
+
+    /**
+     * Biggest palette which still fits into byte indices.
+     */
+    private static final int MAX_BYTE_PALETTE = 256;
+
+    /**
+     * Mask to read a byte as unsigned value.
+     */
+    private static final int UNSIGNED_BYTE_MASK = 0xFF;
+
+    /**
+     * Shifts to compute the index of a block in the section.
+     */
+    private static final int SHIFT_Y = 8;
+    private static final int SHIFT_Z = 4;
+
+    /**
+     * Property bits of a state.
+     */
+    static final int FLAG_PASSABLE = 1;
+    static final int FLAG_LADDER   = 2;
+    static final int FLAG_LIQUID   = 4;
+
+    /**
+     * A section which contains only air.
+     */
+    static final ChunkSectionSnapshot EMPTY = new ChunkSectionSnapshot(new IBlockState[] {Blocks.AIR.getDefaultState()}, null, null, 0);
+
+    /**
+     * The distinct states of the section.
+     */
+    @NotNull
+    private final IBlockState[] palette;
+
+    /**
+     * The property bits of each palette entry.
+     */
+    @NotNull
+    private final byte[] paletteFlags;
+
+    /**
+     * Palette indices if the palette has at most 256 entries.
+     */
+    @Nullable
+    private final byte[] byteIndices;
+
+    /**
+     * Palette indices if the palette is bigger.
+     */
+    @Nullable
+    private final char[] charIndices;
+
+    /**
+     * World time the snapshot was taken at.
+     */
+    private final long creationTime;
+
+    /**
+     * Creates a section snapshot.
+     *
+     * @param palette      the distinct states.
+     * @param byteIndices  byte indices into the palette, or null.
+     * @param charIndices  char indices into the palette, or null.
+     * @param creationTime world time of the copy.
+     */
+    private ChunkSectionSnapshot(
+                                  @NotNull final IBlockState[] palette,
+                                  @Nullable final byte[] byteIndices,
+                                  @Nullable final char[] charIndices,
+                                  final long creationTime)
+    {
+        this.palette = palette;
+        this.paletteFlags = new byte[palette.length];
+        for (int i = 0; i < palette.length; i++)
+        {
+            paletteFlags[i] = (byte) getFlags(palette[i]);
+        }
+        this.byteIndices = byteIndices;
+        this.charIndices = charIndices;
+        this.creationTime = creationTime;
+    }
+
+    /**
+     * Copies the states of a chunk section.
+     * Has to be called from the thread owning the world.
+     *
+     * @param storage      the section storage, null for an empty section.
+     * @param creationTime the current world time.
+     * @return the snapshot.
+     */
+    @NotNull
+    static ChunkSectionSnapshot copyOf(@Nullable final ExtendedBlockStorage storage, final long creationTime)
+    {
+        if (storage == null || storage.isEmpty())
+        {
+            return new ChunkSectionSnapshot(EMPTY.palette, null, null, creationTime);
+        }
+
+        final Map<IBlockState, Integer> paletteIndex = new IdentityHashMap<>();
+        final IBlockState[] states = new IBlockState[SECTION_VOLUME];
+        final char[] indices = new char[SECTION_VOLUME];
+
+        IBlockState lastState = null;
+        int lastIndex = 0;
+        for (int y = 0; y < SECTION_SIZE; y++)
+        {
+            for (int z = 0; z < SECTION_SIZE; z++)
+            {
+                for (int x = 0; x < SECTION_SIZE; x++)
+                {
+                    final IBlockState state = storage.get(x, y, z);
+                    if (state != lastState)
+                    {
+                        Integer paletteSlot = paletteIndex.get(state);
+                        if (paletteSlot == null)
+                        {
+                            paletteSlot = paletteIndex.size();
+                            paletteIndex.put(state, paletteSlot);
+                            states[paletteSlot] = state;
+                        }
+                        lastState = state;
+                        lastIndex = paletteSlot;
+                    }
+                    indices[index(x, y, z)] = (char) lastIndex;
+                }
+            }
+        }
+
+        final IBlockState[] palette = new IBlockState[paletteIndex.size()];
+        System.arraycopy(states, 0, palette, 0, palette.length);
+
+        if (palette.length == 1)
+        {
+            return new ChunkSectionSnapshot(palette, null, null, creationTime);
+        }
+
+        if (palette.length <= MAX_BYTE_PALETTE)
+        {
+            final byte[] bytes = new byte[SECTION_VOLUME];
+            for (int i = 0; i < SECTION_VOLUME; i++)
+            {
+                bytes[i] = (byte) indices[i];
+            }
+            return new ChunkSectionSnapshot(palette, bytes, null, creationTime);
+        }
+
+        return new ChunkSectionSnapshot(palette, null, indices, creationTime);
+    }
+
+    /**
+     * Compute the property bits of a state.
+     *
+     * @param state the state.
+     * @return the bits.
+     */
+    static int getFlags(@NotNull final IBlockState state)
+    {
+        int flags = 0;
+        if (isPassable(state))
+        {
+            flags |= FLAG_PASSABLE;
+        }
+        if (isLadder(state))
+        {
+            flags |= FLAG_LADDER;
+        }
+        if (state.getMaterial().isLiquid())
+        {
+            flags |= FLAG_LIQUID;
+        }
+        return flags;
+    }
+
+    /**
+     * Check if a state doesn't block movement, doors and gates count as open.
+     *
+     * @param state the state.
+     * @return true if a citizen can walk through it.
+     */
+    static boolean isPassable(@NotNull final IBlockState state)
+    {
+        if (state.getMaterial() != Material.AIR)
+        {
+            if (state.getMaterial().blocksMovement())
+            {
+                return state.getBlock() instanceof BlockDoor || state.getBlock() instanceof BlockFenceGate;
+            }
+            else if (state.getMaterial().isLiquid())
+            {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Check if a state is a ladder by its block alone.
+     * {@link Block#isLadder} wants the entity which climbs and some mods dereference it, the search has none.
+     *
+     * @param state the state.
+     * @return true for ladders and vines.
+     */
+    static boolean isLadder(@NotNull final IBlockState state)
+    {
+        return state.getBlock() instanceof BlockLadder || state.getBlock() instanceof BlockVine;
+    }
+
+    /**
+     * Index of a block in the section.
+     *
+     * @param x x inside the section.
+     * @param y y inside the section.
+     * @param z z inside the section.
+     * @return the index.
+     */
+    private static int index(final int x, final int y, final int z)
+    {
+        return (y << SHIFT_Y) | (z << SHIFT_Z) | x;
+    }
+
+    /**
+     * Get the state of a block.
+     *
+     * @param x x inside the section.
+     * @param y y inside the section.
+     * @param z z inside the section.
+     * @return the state.
+     */
+    @NotNull
+    IBlockState get(final int x, final int y, final int z)
+    {
+        if (byteIndices != null)
+        {
+            return palette[byteIndices[index(x, y, z)] & UNSIGNED_BYTE_MASK];
+        }
+
+        if (charIndices != null)
+        {
+            return palette[charIndices[index(x, y, z)]];
+        }
+
+        return palette[0];
+    }
+
+    /**
+     * Get the property bits of a block.
+     *
+     * @param x x inside the section.
+     * @param y y inside the section.
+     * @param z z inside the section.
+     * @return the bits, see {@link #FLAG_PASSABLE}, {@link #FLAG_LADDER} and {@link #FLAG_LIQUID}.
+     */
+    int getFlags(final int x, final int y, final int z)
+    {
+        if (byteIndices != null)
+        {
+            return paletteFlags[byteIndices[index(x, y, z)] & UNSIGNED_BYTE_MASK];
+        }
+
+        if (charIndices != null)
+        {
+            return paletteFlags[charIndices[index(x, y, z)]];
+        }
+
+        return paletteFlags[0];
+    }
+
+    /**
+     * Get the world time the section was copied at.
+     *
+     * @return the time.
+     */
+    long getCreationTime()
+    {
+        return creationTime;
+    }
+}
@@ -76,6 +76,11 @@ public class Node implements Comparable<Node>
      */
     private boolean ladder   = false;
 
+    /**
+     * Index of the node in the open set heap, -1 if it is not in there.
+     */
+    private int heapIndex = -1;
+
     /**
      * Checks if the node is in water.
      */
@@ -318,4 +323,22 @@ public class Node implements Comparable<Node>
     {
         return counterAdded;
     }
+
+    /**
+     * Getter of the index in the open set heap.
+     * @return the index or -1.
+     */
+    public int getHeapIndex()
+    {
+        return heapIndex;
+    }
+
+    /**
+     * Sets the index in the open set heap.
+     * @param heapIndex the index.
+     */
+    public void setHeapIndex(final int heapIndex)
+    {
+        this.heapIndex = heapIndex;
+    }
 }
@@ -0,0 +1,196 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+
+/**
+ * Indexed binary min-heap used as the open set of the A* search.
+ * Every node remembers its index in the heap, so a node which got a better score can be moved up in place
+ * instead of being removed and added again.
+ */
+final class NodeHeap
+{
+    /**
+     * Initial amount of nodes the heap can hold.
+     */
+    private static final int DEFAULT_CAPACITY = 512;
+
+    /**
+     * The nodes, ordered as binary heap.
+     */
+    @NotNull
+    private Node[] heap;
+
+    /**
+     * Amount of nodes in the heap.
+     */
+    private int size = 0;
+
+    /**
+     * Creates an empty heap.
+     */
+    NodeHeap()
+    {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty heap.
+     *
+     * @param capacity initial amount of nodes the heap can hold.
+     */
+    NodeHeap(final int capacity)
+    {
+        heap = new Node[Math.max(1, capacity)];
+    }
+
+    /**
+     * Checks if there are open nodes.
+     *
+     * @return true if empty.
+     */
+    boolean isEmpty()
+    {
+        return size == 0;
+    }
+
+    /**
+     * Amount of open nodes.
+     *
+     * @return the size.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Checks if the node is currently in the heap.
+     *
+     * @param node the node.
+     * @return true if so.
+     */
+    boolean contains(@NotNull final Node node)
+    {
+        final int index = node.getHeapIndex();
+        return index >= 0 && index < size && heap[index] == node;
+    }
+
+    /**
+     * Adds a node to the heap.
+     *
+     * @param node the node to add, must not be in the heap yet.
+     */
+    void offer(@NotNull final Node node)
+    {
+        if (size == heap.length)
+        {
+            heap = Arrays.copyOf(heap, size << 1);
+        }
+
+        heap[size] = node;
+        node.setHeapIndex(size);
+        size++;
+        siftUp(size - 1);
+    }
+
+    /**
+     * Removes and returns the node with the lowest score.
+     *
+     * @return the node or null if the heap is empty.
+     */
+    @Nullable
+    Node poll()
+    {
+        if (size == 0)
+        {
+            return null;
+        }
+
+        final Node first = heap[0];
+        size--;
+        if (size > 0)
+        {
+            heap[0] = heap[size];
+            heap[0].setHeapIndex(0);
+            siftDown(0);
+        }
+        heap[size] = null;
+        first.setHeapIndex(-1);
+        return first;
+    }
+
+    /**
+     * Restores the heap order after the score of a node in the heap decreased.
+     *
+     * @param node the node which got a better score.
+     */
+    void decreaseKey(@NotNull final Node node)
+    {
+        siftUp(node.getHeapIndex());
+    }
+
+    /**
+     * Moves the node at the index up until its parent is not worse.
+     *
+     * @param startIndex the index of the node.
+     */
+    private void siftUp(final int startIndex)
+    {
+        int index = startIndex;
+        final Node node = heap[index];
+        while (index > 0)
+        {
+            final int parentIndex = (index - 1) >>> 1;
+            final Node parent = heap[parentIndex];
+            if (node.compareTo(parent) >= 0)
+            {
+                break;
+            }
+
+            heap[index] = parent;
+            parent.setHeapIndex(index);
+            index = parentIndex;
+        }
+
+        heap[index] = node;
+        node.setHeapIndex(index);
+    }
+
+    /**
+     * Moves the node at the index down until its children are not better.
+     *
+     * @param startIndex the index of the node.
+     */
+    private void siftDown(final int startIndex)
+    {
+        int index = startIndex;
+        final Node node = heap[index];
+        final int half = size >>> 1;
+        while (index < half)
+        {
+            int childIndex = (index << 1) + 1;
+            Node child = heap[childIndex];
+            final int rightIndex = childIndex + 1;
+            if (rightIndex < size && heap[rightIndex].compareTo(child) < 0)
+            {
+                childIndex = rightIndex;
+                child = heap[childIndex];
+            }
+
+            if (node.compareTo(child) <= 0)
+            {
+                break;
+            }
+
+            heap[index] = child;
+            child.setHeapIndex(index);
+            index = childIndex;
+        }
+
+        heap[index] = node;
+        node.setHeapIndex(index);
+    }
+}
@@ -0,0 +1,157 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Open addressing hash table from the int node key to the visited node.
+ * Avoids boxing the keys and the entry objects a {@link java.util.HashMap} would create for every node.
+ */
+final class NodeTable
+{
+    /**
+     * Initial amount of slots, must be a power of two.
+     */
+    private static final int DEFAULT_CAPACITY = 1024;
+
+    /**
+     * Multiplier used to spread the keys over the table (golden ratio).
+     */
+    private static final int HASH_MULTIPLIER = 0x9E3779B9;
+
+    /**
+     * The keys of the slots.
+     */
+    @NotNull
+    private int[] keys;
+
+    /**
+     * The nodes of the slots, null for a free slot.
+     */
+    @NotNull
+    private Node[] nodes;
+
+    /**
+     * Amount of nodes in the table.
+     */
+    private int size = 0;
+
+    /**
+     * Creates an empty table.
+     */
+    NodeTable()
+    {
+        keys = new int[DEFAULT_CAPACITY];
+        nodes = new Node[DEFAULT_CAPACITY];
+    }
+
+    /**
+     * Computes the first slot to check for a key.
+     *
+     * @param key  the key.
+     * @param mask the table size - 1.
+     * @return the slot index.
+     */
+    private static int slotOf(final int key, final int mask)
+    {
+        final int hash = key * HASH_MULTIPLIER;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+    /**
+     * Amount of nodes in the table.
+     *
+     * @return the size.
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Get the node stored for a key.
+     *
+     * @param key the node key.
+     * @return the node or null.
+     */
+    @Nullable
+    Node get(final int key)
+    {
+        final int mask = keys.length - 1;
+        int slot = slotOf(key, mask);
+        while (nodes[slot] != null)
+        {
+            if (keys[slot] == key)
+            {
+                return nodes[slot];
+            }
+            slot = (slot + 1) & mask;
+        }
+        return null;
+    }
+
+    /**
+     * Store a node for a key, replacing the previous node of the key.
+     *
+     * @param key  the node key.
+     * @param node the node.
+     */
+    void put(final int key, @NotNull final Node node)
+    {
+        if ((size + 1) << 1 > keys.length)
+        {
+            resize();
+        }
+
+        if (insert(keys, nodes, key, node))
+        {
+            size++;
+        }
+    }
+
+    /**
+     * Inserts into the given arrays.
+     *
+     * @param keyArray  the keys.
+     * @param nodeArray the nodes.
+     * @param key       the key to insert.
+     * @param node      the node to insert.
+     * @return true if the key was new.
+     */
+    private static boolean insert(@NotNull final int[] keyArray, @NotNull final Node[] nodeArray, final int key, @NotNull final Node node)
+    {
+        final int mask = keyArray.length - 1;
+        int slot = slotOf(key, mask);
+        while (nodeArray[slot] != null)
+        {
+            if (keyArray[slot] == key)
+            {
+                nodeArray[slot] = node;
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        keyArray[slot] = key;
+        nodeArray[slot] = node;
+        return true;
+    }
+
+    /**
+     * Doubles the amount of slots.
+     */
+    private void resize()
+    {
+        final int[] newKeys = new int[keys.length << 1];
+        final Node[] newNodes = new Node[nodes.length << 1];
+        for (int i = 0; i < nodes.length; i++)
+        {
+            if (nodes[i] != null)
+            {
+                insert(newKeys, newNodes, keys[i], nodes[i]);
+            }
+        }
+        keys = newKeys;
+        nodes = newNodes;
+    }
+}
@@ -0,0 +1,428 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import net.minecraft.pathfinding.Path;
+import net.minecraft.pathfinding.PathPoint;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * Cache of the finished paths of the citizens of a colony.
+ * Citizens of a colony keep walking the same trips, so paths are stored by their start and end position
+ * and reused until a block in one of the chunk sections the path crosses changes.
+ * The paths may lead outside of the colony, so the caches register the sections they hold paths in per dimension,
+ * a block change only reaches the caches with a path crossing its section.
+ * Only accessed from the server thread.
+ */
+public class PathCache
+{
+    /**
+     * Maximum amount of paths kept per colony.
+     */
+    private static final int MAX_ENTRIES = 256;
+
+    /**
+     * Ticks a path is reused at most, to not follow outdated paths forever.
+     */
+    private static final long MAX_AGE = 20L * 60L * 5L;
+
+    /**
+     * Shift from block to section coordinates.
+     */
+    private static final int SECTION_SHIFT = 4;
+
+    /**
+     * Bit layout of the section keys.
+     */
+    private static final int  KEY_SHIFT_X = 36;
+    private static final int  KEY_SHIFT_Y = 28;
+    private static final long KEY_MASK_XZ = 0xFFFFFFFL;
+    private static final long KEY_MASK_Y  = 0xFL;
+
+    /**
+     * The caches holding a path crossing each chunk section, per dimension.
+     */
+    @NotNull
+    private static final Map<Integer, Map<Long, Set<PathCache>>> cachesBySection = new HashMap<>();
+
+    /**
+     * The dimension of the colony of the cache.
+     */
+    private final int dimension;
+
+    /**
+     * The cached paths, in least recently used order.
+     */
+    @NotNull
+    private final LinkedHashMap<PathKey, CachedPath> paths = new LinkedHashMap<>(16, 0.75F, true);
+
+    /**
+     * The paths crossing each chunk section.
+     */
+    @NotNull
+    private final Map<Long, Set<PathKey>> pathsBySection = new HashMap<>();
+
+    /**
+     * Statistics of the cache.
+     */
+    private long hits          = 0;
+    private long misses        = 0;
+    private long invalidations = 0;
+
+    /**
+     * Create the path cache of a colony.
+     *
+     * @param dimension the dimension of the colony.
+     */
+    public PathCache(final int dimension)
+    {
+        this.dimension = dimension;
+    }
+
+    /**
+     * Drop the paths crossing the section of a changed block from the caches holding one.
+     *
+     * @param world the world of the block.
+     * @param pos   the position of the block.
+     */
+    public static void onBlockChanged(@NotNull final World world, @NotNull final BlockPos pos)
+    {
+        @Nullable final Map<Long, Set<PathCache>> sections = cachesBySection.get(world.provider.getDimension());
+        if (sections == null)
+        {
+            return;
+        }
+
+        @Nullable final Set<PathCache> caches = sections.get(sectionKey(pos.getX(), pos.getY(), pos.getZ()));
+        if (caches == null)
+        {
+            return;
+        }
+
+        for (@NotNull final PathCache cache : new ArrayList<>(caches))
+        {
+            cache.onBlockChanged(pos);
+        }
+    }
+
+    /**
+     * Compute the key of the section containing a position.
+     *
+     * @param x the x coordinate.
+     * @param y the y coordinate.
+     * @param z the z coordinate.
+     * @return the key.
+     */
+    private static long sectionKey(final int x, final int y, final int z)
+    {
+        return (((x >> SECTION_SHIFT) & KEY_MASK_XZ) << KEY_SHIFT_X)
+                 | (((y >> SECTION_SHIFT) & KEY_MASK_Y) << KEY_SHIFT_Y)
+                 | ((z >> SECTION_SHIFT) & KEY_MASK_XZ);
+    }
+
+    /**
+     * Get a cached path.
+     *
+     * @param start     the start position.
+     * @param end       the end position.
+     * @param worldTime the current world time.
+     * @return a new path following the cached points, or null if there is no valid cached path.
+     */
+    @Nullable
+    public Path get(@NotNull final BlockPos start, @NotNull final BlockPos end, final long worldTime)
+    {
+        @NotNull final PathKey key = new PathKey(start, end);
+        @Nullable final CachedPath cached = paths.get(key);
+        if (cached == null)
+        {
+            misses++;
+            return null;
+        }
+
+        if (worldTime - cached.creationTime > MAX_AGE)
+        {
+            remove(key);
+            misses++;
+            return null;
+        }
+
+        hits++;
+        return new Path(cached.points.clone());
+    }
+
+    /**
+     * Store a path which reached its destination.
+     *
+     * @param start     the start position.
+     * @param end       the end position.
+     * @param path      the path.
+     * @param worldTime the current world time.
+     */
+    public void put(@NotNull final BlockPos start, @NotNull final BlockPos end, @NotNull final Path path, final long worldTime)
+    {
+        final int length = path.getCurrentPathLength();
+        if (length == 0)
+        {
+            return;
+        }
+
+        @NotNull final PathKey key = new PathKey(start, end);
+        remove(key);
+
+        @NotNull final PathPoint[] points = new PathPoint[length];
+        @NotNull final Set<Long> sections = new HashSet<>();
+        for (int i = 0; i < length; i++)
+        {
+            final PathPoint point = path.getPathPointFromIndex(i);
+            points[i] = point;
+
+            //  The block below and above the walked one decide if it is passable too
+            sections.add(sectionKey(point.xCoord, point.yCoord - 1, point.zCoord));
+            sections.add(sectionKey(point.xCoord, point.yCoord, point.zCoord));
+            sections.add(sectionKey(point.xCoord, point.yCoord + 1, point.zCoord));
+        }
+
+        paths.put(key, new CachedPath(points, sections, worldTime));
+        for (final Long section : sections)
+        {
+            Set<PathKey> keys = pathsBySection.get(section);
+            if (keys == null)
+            {
+                keys = new HashSet<>();
+                pathsBySection.put(section, keys);
+                register(section);
+            }
+            keys.add(key);
+        }
+
+        if (paths.size() > MAX_ENTRIES)
+        {
+            remove(paths.keySet().iterator().next());
+        }
+    }
+
+    /**
+     * Drop all paths crossing the section of a changed block.
+     *
+     * @param pos the position of the block.
+     */
+    public void onBlockChanged(@NotNull final BlockPos pos)
+    {
+        if (paths.isEmpty())
+        {
+            return;
+        }
+
+        @Nullable final Set<PathKey> keys = pathsBySection.get(sectionKey(pos.getX(), pos.getY(), pos.getZ()));
+        if (keys == null)
+        {
+            return;
+        }
+
+        for (@NotNull final PathKey key : new ArrayList<>(keys))
+        {
+            remove(key);
+            invalidations++;
+        }
+    }
+
+    /**
+     * Remove a path from the cache.
+     *
+     * @param key the key of the path.
+     */
+    private void remove(@NotNull final PathKey key)
+    {
+        @Nullable final CachedPath cached = paths.remove(key);
+        if (cached == null)
+        {
+            return;
+        }
+
+        for (final Long section : cached.sections)
+        {
+            @Nullable final Set<PathKey> keys = pathsBySection.get(section);
+            if (keys != null)
+            {
+                keys.remove(key);
+                if (keys.isEmpty())
+                {
+                    pathsBySection.remove(section);
+                    unregister(section);
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop all paths, when the colony or its world is unloaded or the colony is deleted.
+     */
+    public void clear()
+    {
+        for (final Long section : pathsBySection.keySet())
+        {
+            unregister(section);
+        }
+        pathsBySection.clear();
+        paths.clear();
+    }
+
+    /**
+     * Register this cache as holding a path crossing a section.
+     *
+     * @param section the key of the section.
+     */
+    private void register(final long section)
+    {
+        Map<Long, Set<PathCache>> sections = cachesBySection.get(dimension);
+        if (sections == null)
+        {
+            sections = new HashMap<>();
+            cachesBySection.put(dimension, sections);
+        }
+
+        Set<PathCache> caches = sections.get(section);
+        if (caches == null)
+        {
+            caches = new HashSet<>();
+            sections.put(section, caches);
+        }
+        caches.add(this);
+    }
+
+    /**
+     * Unregister this cache from a section it holds no path crossing anymore.
+     *
+     * @param section the key of the section.
+     */
+    private void unregister(final long section)
+    {
+        @Nullable final Map<Long, Set<PathCache>> sections = cachesBySection.get(dimension);
+        if (sections == null)
+        {
+            return;
+        }
+
+        @Nullable final Set<PathCache> caches = sections.get(section);
+        if (caches != null)
+        {
+            caches.remove(this);
+            if (caches.isEmpty())
+            {
+                sections.remove(section);
+            }
+        }
+    }
+
+    /**
+     * Amount of cached paths.
+     *
+     * @return the size.
+     */
+    public int size()
+    {
+        return paths.size();
+    }
+
+    /**
+     * Amount of requests answered from the cache.
+     *
+     * @return the hits.
+     */
+    public long getHits()
+    {
+        return hits;
+    }
+
+    /**
+     * Amount of requests which needed a new search.
+     *
+     * @return the misses.
+     */
+    public long getMisses()
+    {
+        return misses;
+    }
+
+    /**
+     * Amount of paths dropped because of block changes.
+     *
+     * @return the invalidations.
+     */
+    public long getInvalidations()
+    {
+        return invalidations;
+    }
+
+    /**
+     * Key of a path: its start and end position.
+     */
+    private static final class PathKey
+    {
+        private final long start;
+        private final long end;
+
+        /**
+         * Create a key.
+         *
+         * @param start the start.
+         * @param end   the end.
+         */
+        private PathKey(@NotNull final BlockPos start, @NotNull final BlockPos end)
+        {
+            this.start = start.toLong();
+            this.end = end.toLong();
+        }
+
+        @Override
+        public boolean equals(@Nullable final Object o)
+        {
+            if (this == o)
+            {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass())
+            {
+                return false;
+            }
+
+            final PathKey other = (PathKey) o;
+            return start == other.start && end == other.end;
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return 31 * Long.hashCode(start) + Long.hashCode(end);
+        }
+    }
+
+    /**
+     * A cached path with the sections it crosses.
+     */
+    private static final class CachedPath
+    {
+        @NotNull
+        private final PathPoint[] points;
+        @NotNull
+        private final Set<Long>   sections;
+        private final long        creationTime;
+
+        /**
+         * Create a cached path.
+         *
+         * @param points       the points of the path.
+         * @param sections     the keys of the crossed sections.
+         * @param creationTime the world time it was found at.
+         */
+        private CachedPath(@NotNull final PathPoint[] points, @NotNull final Set<Long> sections, final long creationTime)
+        {
+            this.points = points;
+            this.sections = sections;
+            this.creationTime = creationTime;
+        }
+    }
+}
@@ -101,4 +101,10 @@ public class PathJobFindTree extends AbstractPathJob
     {
         return super.isPassable(block) || block.getMaterial() == Material.LEAVES;
     }
+
+    @Override
+    protected boolean isPassable(final BlockPos pos)
+    {
+        return super.isPassable(pos) || world.getBlockState(pos).getMaterial() == Material.LEAVES;
+    }
 }
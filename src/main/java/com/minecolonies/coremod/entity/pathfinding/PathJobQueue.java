@@ -0,0 +1,490 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Bounded work queue of the pathfinding executor which hands out jobs round robin per owner (usually a colony).
+ * This way one colony with many queued requests can not starve the requests of other colonies.
+ */
+final class PathJobQueue extends AbstractQueue<Runnable> implements BlockingQueue<Runnable>
+{
+    /**
+     * Owner key used for jobs which do not belong to a colony.
+     */
+    static final int NO_OWNER = 0;
+
+    /**
+     * Pending jobs of each owner, in the order they have been added.
+     */
+    private final Map<Integer, Deque<Runnable>> jobsByOwner = new HashMap<>();
+
+    /**
+     * Owners with pending jobs, in the order they will be served.
+     */
+    private final Deque<Integer> ownerRotation = new ArrayDeque<>();
+
+    /**
+     * Lock guarding all the state of the queue.
+     */
+    private final ReentrantLock lock     = new ReentrantLock();
+    private final Condition     notEmpty = lock.newCondition();
+    private final Condition     notFull  = lock.newCondition();
+
+    /**
+     * Maximum amount of jobs in the whole queue.
+     */
+    private final int capacity;
+
+    /**
+     * Maximum amount of jobs a single owner may have queued.
+     */
+    private final int ownerCapacity;
+
+    /**
+     * Amount of jobs in the queue.
+     */
+    private int count = 0;
+
+    /**
+     * Amount of jobs dropped because their owner queued too many.
+     */
+    private long dropped = 0;
+
+    /**
+     * Creates a new fair pathfinding queue.
+     *
+     * @param capacity      the maximum amount of jobs in the queue.
+     * @param ownerCapacity the maximum amount of jobs of one owner.
+     */
+    PathJobQueue(final int capacity, final int ownerCapacity)
+    {
+        super();
+        this.capacity = Math.max(1, capacity);
+        this.ownerCapacity = Math.max(1, Math.min(ownerCapacity, this.capacity));
+    }
+
+    /**
+     * Get the owner key of a queued task.
+     *
+     * @param task the task.
+     * @return the owner key, or {@link #NO_OWNER}.
+     */
+    private static int getOwner(@NotNull final Runnable task)
+    {
+        if (task instanceof Pathfinding.PathJobTask)
+        {
+            return ((Pathfinding.PathJobTask) task).getOwner();
+        }
+        return NO_OWNER;
+    }
+
+    /**
+     * Amount of jobs which have been dropped to make room for newer jobs of the same owner.
+     *
+     * @return the amount.
+     */
+    long getDroppedCount()
+    {
+        lock.lock();
+        try
+        {
+            return dropped;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Queue a task.
+     * If the owner of the task has too many queued jobs its oldest job is dropped, those are stale anyway.
+     * If the whole queue is full the task is refused and the executor rejects it.
+     *
+     * @param task the task to add.
+     * @return true if it has been queued.
+     */
+    @Override
+    public boolean offer(@NotNull final Runnable task)
+    {
+        @Nullable final Runnable droppedTask;
+        lock.lock();
+        try
+        {
+            droppedTask = enqueue(task);
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        return finishOffer(task, droppedTask);
+    }
+
+    /**
+     * Queue a task, waiting while the whole queue is full.
+     * Jobs of an owner with too many queued jobs are dropped like in {@link #offer(Runnable)}.
+     *
+     * @param task the task to add.
+     * @throws InterruptedException if interrupted while waiting.
+     */
+    @Override
+    public void put(@NotNull final Runnable task) throws InterruptedException
+    {
+        @Nullable Runnable droppedTask;
+        lock.lockInterruptibly();
+        try
+        {
+            droppedTask = enqueue(task);
+            while (droppedTask == task)
+            {
+                notFull.await();
+                droppedTask = enqueue(task);
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        finishOffer(task, droppedTask);
+    }
+
+    @Override
+    public boolean offer(@NotNull final Runnable task, final long timeout, @NotNull final TimeUnit unit) throws InterruptedException
+    {
+        long nanos = unit.toNanos(timeout);
+        @Nullable Runnable droppedTask;
+        lock.lockInterruptibly();
+        try
+        {
+            droppedTask = enqueue(task);
+            while (droppedTask == task && nanos > 0)
+            {
+                nanos = notFull.awaitNanos(nanos);
+                droppedTask = enqueue(task);
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+        return finishOffer(task, droppedTask);
+    }
+
+    /**
+     * Add a task to the jobs of its owner.
+     * Has to be called with the lock held.
+     *
+     * @param task the task to add.
+     * @return the task itself if the queue is full, the job dropped to make room for it, or null.
+     */
+    @Nullable
+    private Runnable enqueue(@NotNull final Runnable task)
+    {
+        final int owner = getOwner(task);
+        @Nullable Runnable droppedTask = null;
+
+        Deque<Runnable> jobs = jobsByOwner.get(owner);
+        if (jobs != null && jobs.size() >= ownerCapacity)
+        {
+            droppedTask = jobs.pollFirst();
+            count--;
+            dropped++;
+        }
+        else if (count >= capacity)
+        {
+            return task;
+        }
+
+        if (jobs == null)
+        {
+            jobs = new ArrayDeque<>();
+            jobsByOwner.put(owner, jobs);
+            ownerRotation.addLast(owner);
+        }
+
+        jobs.addLast(task);
+        count++;
+        notEmpty.signal();
+        return droppedTask;
+    }
+
+    /**
+     * Discard the job dropped while queueing a task, outside of the lock.
+     *
+     * @param task        the task which was offered.
+     * @param droppedTask the result of {@link #enqueue(Runnable)}.
+     * @return true if the task has been queued.
+     */
+    private static boolean finishOffer(@NotNull final Runnable task, @Nullable final Runnable droppedTask)
+    {
+        if (droppedTask == task)
+        {
+            return false;
+        }
+
+        if (droppedTask instanceof Pathfinding.PathJobTask)
+        {
+            ((Pathfinding.PathJobTask) droppedTask).discard();
+        }
+        else if (droppedTask instanceof Future)
+        {
+            ((Future<?>) droppedTask).cancel(false);
+        }
+        return true;
+    }
+
+    /**
+     * Take the next job of the owner which is next in line.
+     * Has to be called with the lock held.
+     *
+     * @return the job or null if there is none.
+     */
+    @Nullable
+    private Runnable dequeue()
+    {
+        final Integer owner = ownerRotation.pollFirst();
+        if (owner == null)
+        {
+            return null;
+        }
+
+        final Deque<Runnable> jobs = jobsByOwner.get(owner);
+        final Runnable task = jobs.pollFirst();
+        if (jobs.isEmpty())
+        {
+            jobsByOwner.remove(owner);
+        }
+        else
+        {
+            ownerRotation.addLast(owner);
+        }
+
+        count--;
+        notFull.signal();
+        return task;
+    }
+
+    @Nullable
+    @Override
+    public Runnable poll()
+    {
+        lock.lock();
+        try
+        {
+            return dequeue();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @NotNull
+    @Override
+    public Runnable take() throws InterruptedException
+    {
+        lock.lockInterruptibly();
+        try
+        {
+            while (count == 0)
+            {
+                notEmpty.await();
+            }
+            return dequeue();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Nullable
+    @Override
+    public Runnable poll(final long timeout, @NotNull final TimeUnit unit) throws InterruptedException
+    {
+        long nanos = unit.toNanos(timeout);
+        lock.lockInterruptibly();
+        try
+        {
+            while (count == 0)
+            {
+                if (nanos <= 0)
+                {
+                    return null;
+                }
+                nanos = notEmpty.awaitNanos(nanos);
+            }
+            return dequeue();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Nullable
+    @Override
+    public Runnable peek()
+    {
+        lock.lock();
+        try
+        {
+            final Integer owner = ownerRotation.peekFirst();
+            return owner == null ? null : jobsByOwner.get(owner).peekFirst();
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean remove(@Nullable final Object o)
+    {
+        if (!(o instanceof Runnable))
+        {
+            return false;
+        }
+
+        final int owner = getOwner((Runnable) o);
+        lock.lock();
+        try
+        {
+            final Deque<Runnable> jobs = jobsByOwner.get(owner);
+            if (jobs == null || !jobs.remove(o))
+            {
+                return false;
+            }
+
+            if (jobs.isEmpty())
+            {
+                jobsByOwner.remove(owner);
+                ownerRotation.remove(owner);
+            }
+            count--;
+            notFull.signal();
+            return true;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int size()
+    {
+        lock.lock();
+        try
+        {
+            return count;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int remainingCapacity()
+    {
+        lock.lock();
+        try
+        {
+            return capacity - count;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public int drainTo(@NotNull final Collection<? super Runnable> c)
+    {
+        return drainTo(c, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public int drainTo(@NotNull final Collection<? super Runnable> c, final int maxElements)
+    {
+        lock.lock();
+        try
+        {
+            int drained = 0;
+            while (drained < maxElements && count > 0)
+            {
+                c.add(dequeue());
+                drained++;
+            }
+            return drained;
+        }
+        finally
+        {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Iterates over a snapshot of the queue, removal is passed through to the queue.
+     *
+     * @return the iterator.
+     */
+    @NotNull
+    @Override
+    public Iterator<Runnable> iterator()
+    {
+        final List<Runnable> snapshot = new ArrayList<>();
+        lock.lock();
+        try
+        {
+            for (final Integer owner : ownerRotation)
+            {
+                snapshot.addAll(jobsByOwner.get(owner));
+            }
+        }
+        finally
+        {
+            lock.unlock();
+        }
+
+        final Iterator<Runnable> it = snapshot.iterator();
+        return new Iterator<Runnable>()
+        {
+            @Nullable
+            private Runnable last = null;
+
+            @Override
+            public boolean hasNext()
+            {
+                return it.hasNext();
+            }
+
+            @Override
+            public Runnable next()
+            {
+                last = it.next();
+                return last;
+            }
+
+            @Override
+            public void remove()
+            {
+                if (last == null)
+                {
+                    throw new IllegalStateException();
+                }
+                PathJobQueue.this.remove(last);
+                last = null;
+            }
+        };
+    }
+}
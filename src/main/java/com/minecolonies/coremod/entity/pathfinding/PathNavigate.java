@@ -1,5 +1,6 @@
 package com.minecolonies.coremod.entity.pathfinding;
 
+import com.minecolonies.coremod.colony.Colony;
 import com.minecolonies.coremod.entity.EntityCitizen;
 import com.minecolonies.coremod.util.BlockPosUtil;
 import com.minecolonies.coremod.util.BlockUtils;
@@ -16,6 +17,7 @@ import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.Future;
 
@@ -37,6 +39,13 @@ public class PathNavigate extends PathNavigateGround
     private       Future<Path> future;
     @Nullable
     private       PathResult   pathResult;
+    /**
+     * Start and end of the running search, if its path may be stored in the colony path cache.
+     */
+    @Nullable
+    private       BlockPos     cacheStart;
+    @Nullable
+    private       BlockPos     cacheDestination;
 
     /**
      * Instantiates the navigation of an entity.
@@ -152,9 +161,66 @@ public class PathNavigate extends PathNavigateGround
         @NotNull final BlockPos start = AbstractPathJob.prepareStart(entity);
         @NotNull final BlockPos dest = new BlockPos(newX, newY, newZ);
 
-        return setPathJob(
+        @Nullable final PathCache pathCache = getPathCache();
+        if (pathCache != null)
+        {
+            @Nullable final Path cachedPath = pathCache.get(start, dest, entity.worldObj.getTotalWorldTime());
+            if (cachedPath != null)
+            {
+                return setCachedPath(cachedPath, dest, speed);
+            }
+        }
+
+        @Nullable final PathResult result = setPathJob(
           new PathJobMoveToLocation(entity.worldObj, start, dest, (int) getPathSearchRange()),
           dest, speed);
+        if (pathCache != null)
+        {
+            cacheStart = start;
+            cacheDestination = dest;
+        }
+        return result;
+    }
+
+    /**
+     * Get the path cache of the colony of the entity.
+     *
+     * @return the cache or null if the entity does not belong to a colony.
+     */
+    @Nullable
+    private PathCache getPathCache()
+    {
+        if (entity instanceof EntityCitizen)
+        {
+            final Colony colony = ((EntityCitizen) entity).getColony();
+            if (colony != null)
+            {
+                return colony.getPathCache();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Follow a path taken from the path cache, it is picked up like a finished search.
+     *
+     * @param path  the cached path.
+     * @param dest  the destination.
+     * @param speed the walking speed.
+     * @return the result of the path.
+     */
+    @NotNull
+    private PathResult setCachedPath(@NotNull final Path path, final BlockPos dest, final double speed)
+    {
+        clearPathEntity();
+
+        this.destination = dest;
+        this.walkSpeed = speed;
+
+        future = CompletableFuture.completedFuture(path);
+        pathResult = new PathResult();
+        pathResult.setPathReachesDestination(true);
+        return pathResult;
     }
 
     public boolean isUnableToReachDestination()
@@ -170,11 +236,29 @@ public class PathNavigate extends PathNavigateGround
         this.destination = dest;
         this.walkSpeed = speed;
 
-        future = Pathfinding.enqueue(job);
+        future = Pathfinding.enqueue(job, getPathfindingOwner());
         pathResult = job.getResult();
         return pathResult;
     }
 
+    /**
+     * Get the key the pathfinding queue uses to share the path threads fairly.
+     *
+     * @return the id of the colony of the entity, or 0 if it has none.
+     */
+    private int getPathfindingOwner()
+    {
+        if (entity instanceof EntityCitizen)
+        {
+            final Colony colony = ((EntityCitizen) entity).getColony();
+            if (colony != null)
+            {
+                return colony.getID();
+            }
+        }
+        return 0;
+    }
+
     @Override
     public boolean setPath(@NotNull Path path, final double speed)
     {
@@ -214,10 +298,17 @@ public class PathNavigate extends PathNavigateGround
             {
                 if (future.get() == null)
                 {
+                    //  No path, or the job was dropped from the queue: report the failure, not a cancel,
+                    //  then forget the destination so the next request paths again
                     future = null;
+                    pathResult.setPathReachesDestination(false);
+                    pathResult.setStatus(PathResult.Status.COMPLETE);
+                    pathResult = null;
+                    clearPathEntity();
                     return;
                 }
 
+                storeInPathCache(future.get());
                 setPath(future.get(), walkSpeed);
 
                 pathResult.setPathLength(getPath().getCurrentPathLength());
@@ -330,6 +421,26 @@ public class PathNavigate extends PathNavigateGround
         }
     }
 
+    /**
+     * Store a finished path in the colony path cache, if it reached its destination.
+     *
+     * @param path the found path.
+     */
+    private void storeInPathCache(@NotNull final Path path)
+    {
+        if (cacheStart != null && cacheDestination != null && pathResult != null && pathResult.getPathReachesDestination())
+        {
+            @Nullable final PathCache pathCache = getPathCache();
+            if (pathCache != null)
+            {
+                pathCache.put(cacheStart, cacheDestination, path, entity.worldObj.getTotalWorldTime());
+            }
+        }
+
+        cacheStart = null;
+        cacheDestination = null;
+    }
+
     @Override
     protected void pathFollow()
     {
@@ -384,6 +495,8 @@ public class PathNavigate extends PathNavigateGround
         }
 
         destination = null;
+        cacheStart = null;
+        cacheDestination = null;
         super.clearPathEntity();
     }
 
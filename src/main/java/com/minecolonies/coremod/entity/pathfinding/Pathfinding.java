@@ -1,6 +1,7 @@
 package com.minecolonies.coremod.entity.pathfinding;
 
 import com.minecolonies.coremod.configuration.Configurations;
+import com.minecolonies.coremod.util.ColonyProfiler;
 import com.minecolonies.coremod.util.Log;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.gui.FontRenderer;
@@ -19,19 +20,30 @@ import org.lwjgl.opengl.GL11;
 import java.util.ConcurrentModificationException;
 import java.util.Set;
 import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Static class the handles all the Pathfinding.
  */
 public final class Pathfinding
 {
-    private static final BlockingQueue<Runnable> jobQueue = new LinkedBlockingDeque<>();
-    private static final ResourceLocation        TEXTURE  = new ResourceLocation("textures/gui/widgets.png");
+    private static final ResourceLocation TEXTURE = new ResourceLocation("textures/gui/widgets.png");
+
+    /**
+     * Time in seconds an idle pathfinding thread is kept alive.
+     */
+    private static final int KEEP_ALIVE_SECONDS = 10;
+
+    private static final PathJobQueue       jobQueue;
     private static final ThreadPoolExecutor executor;
     static
     {
-        executor = new ThreadPoolExecutor(1, Configurations.pathfindingMaxThreadCount, 10, TimeUnit.SECONDS, jobQueue);
+        final int threads = Math.max(1, Configurations.pathfindingMaxThreadCount);
+        jobQueue = new PathJobQueue(Configurations.pathfindingMaxQueueSize, Configurations.pathfindingMaxQueuedJobsPerColony);
+        executor = new ThreadPoolExecutor(threads, threads, KEEP_ALIVE_SECONDS, TimeUnit.SECONDS, jobQueue, new PathfindingThreadFactory(), Pathfinding::rejectJob);
+        executor.allowCoreThreadTimeOut(true);
     }
+
     private Pathfinding()
     {
         //Hides default constructor.
@@ -45,7 +57,155 @@ public final class Pathfinding
      */
     public static Future<Path> enqueue(@NotNull final AbstractPathJob job)
     {
-        return executor.submit(job);
+        return enqueue(job, PathJobQueue.NO_OWNER);
+    }
+
+    /**
+     * Add a job to the queue for processing, jobs of different owners are processed round robin.
+     *
+     * @param job   PathJob
+     * @param owner the owner of the job, usually the id of the colony.
+     * @return a Future containing the Path, which contains null if the job had to be dropped.
+     */
+    public static Future<Path> enqueue(@NotNull final AbstractPathJob job, final int owner)
+    {
+        @NotNull final PathJobTask task = new PathJobTask(job, owner);
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Run other work of the pathfinding, like building the section graph, on the pathfinding threads.
+     *
+     * @param work the work.
+     * @param <T>  the type of the result.
+     * @return a Future containing the result, which is cancelled if the queue was full.
+     */
+    public static <T> Future<T> submit(@NotNull final Callable<T> work)
+    {
+        @NotNull final FutureTask<T> task = new FutureTask<>(work);
+        executor.execute(task);
+        return task;
+    }
+
+    /**
+     * Amount of jobs waiting to be processed.
+     *
+     * @return the amount of queued jobs.
+     */
+    public static int getQueuedJobCount()
+    {
+        return jobQueue.size();
+    }
+
+    /**
+     * Amount of jobs which were dropped for newer jobs of the same colony.
+     *
+     * @return the amount of dropped jobs.
+     */
+    public static long getDroppedJobCount()
+    {
+        return jobQueue.getDroppedCount();
+    }
+
+    /**
+     * Called when the queue is full, completes the job without a path.
+     *
+     * @param task     the rejected task.
+     * @param executor the executor which rejected it.
+     */
+    private static void rejectJob(final Runnable task, final ThreadPoolExecutor executor)
+    {
+        if (task instanceof PathJobTask)
+        {
+            ((PathJobTask) task).discard();
+        }
+        else if (task instanceof Future)
+        {
+            ((Future<?>) task).cancel(false);
+        }
+    }
+
+    /**
+     * Future of a path job which knows to which owner it belongs.
+     */
+    static final class PathJobTask extends FutureTask<Path>
+    {
+        /**
+         * The owner of the job.
+         */
+        private final int owner;
+
+        /**
+         * The type of the job, for the profiler.
+         */
+        private final Class<?> jobType;
+
+        /**
+         * The time the task was queued, for the profiler.
+         */
+        private final long queued = ColonyProfiler.start();
+
+        /**
+         * Create a task for a path job.
+         *
+         * @param job   the job to run.
+         * @param owner the owner of the job.
+         */
+        private PathJobTask(@NotNull final AbstractPathJob job, final int owner)
+        {
+            super(job);
+            this.owner = owner;
+            this.jobType = job.getClass();
+        }
+
+        /**
+         * Getter for the owner of the job.
+         *
+         * @return the owner key.
+         */
+        int getOwner()
+        {
+            return owner;
+        }
+
+        @Override
+        public void run()
+        {
+            ColonyProfiler.record(owner, ColonyProfiler.Section.PATHFINDING_WAIT, "queue", queued);
+            final long start = ColonyProfiler.start();
+            super.run();
+            ColonyProfiler.record(owner, ColonyProfiler.Section.PATHFINDING_RUN, jobType, start);
+        }
+
+        /**
+         * Finish the task without computing a path.
+         */
+        void discard()
+        {
+            set(null);
+        }
+    }
+
+    /**
+     * Creates the daemon threads of the pathfinding executor.
+     */
+    private static final class PathfindingThreadFactory implements ThreadFactory
+    {
+        /**
+         * Counter used to name the threads.
+         */
+        private final AtomicInteger threadNumber = new AtomicInteger(1);
+
+        @NotNull
+        @Override
+        public Thread newThread(@NotNull final Runnable runnable)
+        {
+            final Thread thread = new Thread(runnable, "Minecolonies Pathfinding Worker #" + threadNumber.getAndIncrement());
+            thread.setDaemon(true);
+            thread.setPriority(Thread.MIN_PRIORITY + 2);
+            return thread;
+        }
     }
 
     /**
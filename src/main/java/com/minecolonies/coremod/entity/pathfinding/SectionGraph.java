@@ -0,0 +1,1254 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import com.minecolonies.coremod.blocks.BlockHutField;
+import com.minecolonies.coremod.colony.IColony;
+import com.minecolonies.coremod.configuration.Configurations;
+import net.minecraft.block.*;
+import com.minecolonies.coremod.util.Log;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.World;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Abstract graph of the walkable space of a colony, used to plan trips which are longer than a single path search.
+ * <p>
+ * The colony area is split into 16x16x16 chunk sections. Each section knows its portals, the walkable blocks where
+ * a citizen can step into a neighbouring section, and the walking distance between those portals inside the section.
+ * A long trip is planned on the portals first, the local path searches then only have to walk from portal to portal.
+ * <p>
+ * Sections are built when a route first crosses them, and dropped again when a block in them changes the way a
+ * citizen can walk, so the next route crossing them rebuilds only that part of the graph. The walkable blocks of a
+ * section are computed on the pathfinding threads from a {@link WorldSnapshot}, a route search which needs a section
+ * still being built returns no route and the trip uses the way points meanwhile. The walking distances between the
+ * portals are flood filled on the server thread within a budget per tick, a route search which runs out of it
+ * returns no route the same way and the next searches continue linking where it stopped.
+ * Only accessed from the server thread, apart from the section builds which only read their snapshot.
+ */
+public class SectionGraph
+{
+    /**
+     * Shift from block to section coordinates.
+     */
+    private static final int SECTION_SHIFT = 4;
+
+    /**
+     * Size of a section in each direction.
+     */
+    private static final int SECTION_SIZE = 16;
+
+    /**
+     * Mask for the coordinate inside a section.
+     */
+    private static final int SECTION_MASK = SECTION_SIZE - 1;
+
+    /**
+     * Amount of blocks in a section.
+     */
+    private static final int SECTION_VOLUME = SECTION_SIZE * SECTION_SIZE * SECTION_SIZE;
+
+    /**
+     * Shifts to compute the index of a block in a section.
+     */
+    private static final int SHIFT_Y = 8;
+    private static final int SHIFT_Z = 4;
+
+    /**
+     * Highest section y of the world.
+     */
+    private static final int MAX_SECTION_Y = 15;
+
+    /**
+     * Bit layout of the section keys.
+     */
+    private static final int  KEY_SHIFT_X = 36;
+    private static final int  KEY_SHIFT_Y = 28;
+    private static final long KEY_MASK_XZ = 0xFFFFFFFL;
+    private static final long KEY_MASK_Y  = 0xFL;
+
+    /**
+     * The axes a section touches its neighbours on.
+     */
+    private static final int AXIS_X = 0;
+    private static final int AXIS_Y = 1;
+    private static final int AXIS_Z = 2;
+    private static final int AXES   = 3;
+
+    /**
+     * Section offset to the upper neighbour on each axis.
+     */
+    private static final int[] AXIS_OFFSET_X = {1, 0, 0};
+    private static final int[] AXIS_OFFSET_Y = {0, 1, 0};
+    private static final int[] AXIS_OFFSET_Z = {0, 0, 1};
+
+    /**
+     * The horizontal directions a citizen walks in.
+     */
+    private static final int[] WALK_X = {1, -1, 0, 0};
+    private static final int[] WALK_Z = {0, 0, 1, -1};
+
+    /**
+     * Marker for a face block without a step into the neighbour section.
+     */
+    private static final int NO_STEP = Integer.MIN_VALUE;
+
+    /**
+     * Marker for a block which can not be reached inside a section.
+     */
+    private static final int UNREACHABLE = -1;
+
+    /**
+     * Shift of the grid a top face is sampled on, to not create a portal for every step of a slope.
+     */
+    private static final int TOP_FACE_SAMPLE_SHIFT = 2;
+
+    /**
+     * Maximum amount of portals expanded by one route search.
+     */
+    private static final int MAX_EXPANSIONS = 4096;
+
+    /**
+     * Amount of built sections after which the whole graph is dropped.
+     */
+    private static final int MAX_SECTIONS = 8192;
+
+    /**
+     * Maximum amount of sections being built at the same time.
+     */
+    private static final int MAX_PENDING_BUILDS = 64;
+
+    /**
+     * Maximum amount of flood fills linking sections per tick.
+     */
+    private static final int MAX_FLOOD_FILLS_PER_TICK = 64;
+
+    /**
+     * The colony the graph covers.
+     */
+    @NotNull
+    private final IColony colony;
+
+    /**
+     * The built sections.
+     */
+    @NotNull
+    private final Map<Long, Section> sections = new HashMap<>();
+
+    /**
+     * The walkable blocks of the sections being built on the pathfinding threads.
+     */
+    @NotNull
+    private final Map<Long, Future<BitSet>> pendingBuilds = new HashMap<>();
+
+    /**
+     * Set when the current route search needed a section which is not built yet.
+     */
+    private boolean buildPending = false;
+
+    /**
+     * The tick the flood fill budget was last refilled in, and the flood fills left in it.
+     */
+    private long budgetTick = -1;
+    private int  floodFills = 0;
+
+    /**
+     * The portal pairs between neighbouring sections, for each axis by the key of the lower section.
+     */
+    @NotNull
+    private final List<Map<Long, List<PortalPair>>> faces = new ArrayList<>(AXES);
+
+    /**
+     * Statistics of the graph.
+     */
+    private long routes       = 0;
+    private long failedRoutes = 0;
+
+    /**
+     * Create the graph of a colony.
+     *
+     * @param colony the colony.
+     */
+    public SectionGraph(@NotNull final IColony colony)
+    {
+        this.colony = colony;
+        for (int axis = 0; axis < AXES; axis++)
+        {
+            faces.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * Compute the key of a section.
+     *
+     * @param sectionX section x.
+     * @param sectionY section y.
+     * @param sectionZ section z.
+     * @return the key.
+     */
+    private static long sectionKey(final int sectionX, final int sectionY, final int sectionZ)
+    {
+        return ((sectionX & KEY_MASK_XZ) << KEY_SHIFT_X) | ((sectionY & KEY_MASK_Y) << KEY_SHIFT_Y) | (sectionZ & KEY_MASK_XZ);
+    }
+
+    /**
+     * Index of a block in a section.
+     *
+     * @param x x inside the section.
+     * @param y y inside the section.
+     * @param z z inside the section.
+     * @return the index.
+     */
+    private static int index(final int x, final int y, final int z)
+    {
+        return (y << SHIFT_Y) | (z << SHIFT_Z) | x;
+    }
+
+    /**
+     * Index of a position in its section.
+     *
+     * @param pos the position.
+     * @return the index.
+     */
+    private static int index(@NotNull final BlockPos pos)
+    {
+        return index(pos.getX() & SECTION_MASK, pos.getY() & SECTION_MASK, pos.getZ() & SECTION_MASK);
+    }
+
+    /**
+     * Is the space passable, same rules as {@link AbstractPathJob}.
+     *
+     * @param state the state of the block.
+     * @return true if the block does not block movement.
+     */
+    private static boolean isPassable(@NotNull final IBlockState state)
+    {
+        return ChunkSectionSnapshot.isPassable(state);
+    }
+
+    /**
+     * Can a citizen stand on the block, same rules as {@link AbstractPathJob}.
+     *
+     * @param state the state of the block.
+     * @return true if it is walkable.
+     */
+    private static boolean isWalkableSurface(@NotNull final IBlockState state)
+    {
+        final Block block = state.getBlock();
+        return !(block instanceof BlockFence || block instanceof BlockFenceGate || block instanceof BlockWall || block instanceof BlockHutField)
+                 && state.getMaterial().isSolid();
+    }
+
+    /**
+     * Plan a trip on the section graph.
+     *
+     * @param world the world of the colony.
+     * @param start the start position.
+     * @param goal  the goal position.
+     * @return the portals to walk through in order, an empty list if the goal can be walked to directly,
+     * or null if there is no route inside the colony or the sections of the route are still being built.
+     */
+    @Nullable
+    public List<BlockPos> findRoute(@NotNull final World world, @NotNull final BlockPos start, @NotNull final BlockPos goal)
+    {
+        if (sections.size() > MAX_SECTIONS)
+        {
+            clear();
+        }
+
+        buildPending = false;
+        final long tick = world.getTotalWorldTime();
+        if (tick != budgetTick)
+        {
+            budgetTick = tick;
+            floodFills = MAX_FLOOD_FILLS_PER_TICK;
+        }
+
+        @Nullable final Section startSection = getSection(world, start.getX() >> SECTION_SHIFT, start.getY() >> SECTION_SHIFT, start.getZ() >> SECTION_SHIFT);
+        @Nullable final Section goalSection = getSection(world, goal.getX() >> SECTION_SHIFT, goal.getY() >> SECTION_SHIFT, goal.getZ() >> SECTION_SHIFT);
+        if (startSection == null || goalSection == null)
+        {
+            if (!buildPending)
+            {
+                failedRoutes++;
+            }
+            return null;
+        }
+
+        final int[] fromStart = walkDistances(startSection, index(start));
+        if (startSection == goalSection && fromStart[index(goal)] != UNREACHABLE)
+        {
+            routes++;
+            return Collections.emptyList();
+        }
+
+        if (!link(world, startSection))
+        {
+            return null;
+        }
+
+        //  The walk rules are symmetric, so the distances from the goal are the distances to it.
+        final int[] toGoal = walkDistances(goalSection, index(goal));
+
+        final Map<Portal, Integer> costs = new IdentityHashMap<>();
+        final Map<Portal, Portal> parents = new IdentityHashMap<>();
+        final PriorityQueue<RouteNode> open = new PriorityQueue<>();
+        for (@NotNull final Portal portal : startSection.portals)
+        {
+            final int distance = fromStart[index(portal.pos)];
+            if (distance != UNREACHABLE)
+            {
+                costs.put(portal, distance);
+                open.offer(new RouteNode(portal, distance, distance + estimate(portal.pos, goal)));
+            }
+        }
+
+        @Nullable Portal last = null;
+        int bestCost = Integer.MAX_VALUE;
+        int expansions = 0;
+        while (!open.isEmpty())
+        {
+            final RouteNode node = open.poll();
+            if (node.estimate >= bestCost)
+            {
+                break;
+            }
+            if (node.cost > costs.get(node.portal))
+            {
+                continue;
+            }
+            if (++expansions > MAX_EXPANSIONS)
+            {
+                routes++;
+                failedRoutes++;
+                return null;
+            }
+
+            final Portal portal = node.portal;
+            if (goalSection.contains(portal.pos))
+            {
+                final int distance = toGoal[index(portal.pos)];
+                if (distance != UNREACHABLE && node.cost + distance < bestCost)
+                {
+                    bestCost = node.cost + distance;
+                    last = portal;
+                }
+            }
+
+            //  Step through the portal into the neighbour section
+            @Nullable final Section neighbour =
+              getSection(world, portal.link.getX() >> SECTION_SHIFT, portal.link.getY() >> SECTION_SHIFT, portal.link.getZ() >> SECTION_SHIFT);
+            if (neighbour != null && link(world, neighbour))
+            {
+                @Nullable final Portal other = neighbour.portalsByPair.get(portal.pair);
+                if (other != null)
+                {
+                    relax(open, costs, parents, portal, other, node.cost + 1, goal);
+                }
+            }
+
+            //  Walk to the other portals of the section
+            for (int i = 0; i < portal.distances.length; i++)
+            {
+                if (i != portal.index && portal.distances[i] != UNREACHABLE)
+                {
+                    relax(open, costs, parents, portal, portal.siblings.get(i), node.cost + portal.distances[i], goal);
+                }
+            }
+        }
+
+        //  A route around a section which is still being built or linked may be a detour, wait for it instead.
+        if (buildPending)
+        {
+            return null;
+        }
+
+        routes++;
+        if (last == null)
+        {
+            failedRoutes++;
+            return null;
+        }
+
+        final List<BlockPos> route = new ArrayList<>();
+        for (@Nullable Portal portal = last; portal != null; portal = parents.get(portal))
+        {
+            route.add(portal.pos);
+        }
+        Collections.reverse(route);
+        return route;
+    }
+
+    /**
+     * Update the cost of a portal if it has been reached cheaper.
+     *
+     * @param open    the open portals.
+     * @param costs   the best known costs.
+     * @param parents the portals each portal has been reached from.
+     * @param from    the portal walked from.
+     * @param to      the portal walked to.
+     * @param cost    the cost to reach it this way.
+     * @param goal    the goal of the route.
+     */
+    private static void relax(
+                               @NotNull final PriorityQueue<RouteNode> open,
+                               @NotNull final Map<Portal, Integer> costs,
+                               @NotNull final Map<Portal, Portal> parents,
+                               @NotNull final Portal from,
+                               @NotNull final Portal to,
+                               final int cost,
+                               @NotNull final BlockPos goal)
+    {
+        @Nullable final Integer known = costs.get(to);
+        if (known == null || cost < known)
+        {
+            costs.put(to, cost);
+            parents.put(to, from);
+            open.offer(new RouteNode(to, cost, cost + estimate(to.pos, goal)));
+        }
+    }
+
+    /**
+     * Lower bound of the walking distance between two positions.
+     *
+     * @param pos  the position.
+     * @param goal the goal.
+     * @return the estimate.
+     */
+    private static int estimate(@NotNull final BlockPos pos, @NotNull final BlockPos goal)
+    {
+        return Math.abs(pos.getX() - goal.getX()) + Math.abs(pos.getZ() - goal.getZ());
+    }
+
+    /**
+     * Drop the sections affected by a changed block, they are built again when a route crosses them.
+     * Changes which neither block the way nor change the ground, like growing crops, keep the sections.
+     *
+     * @param world    the world the block changed in.
+     * @param pos      the position of the block.
+     * @param oldState the state before the change.
+     * @param newState the state after the change.
+     */
+    public void onBlockChanged(
+                                @NotNull final World world,
+                                @NotNull final BlockPos pos,
+                                @NotNull final IBlockState oldState,
+                                @NotNull final IBlockState newState)
+    {
+        if ((sections.isEmpty() && pendingBuilds.isEmpty()) || !isCollisionChange(oldState, newState))
+        {
+            return;
+        }
+
+        final int sectionX = pos.getX() >> SECTION_SHIFT;
+        final int sectionY = pos.getY() >> SECTION_SHIFT;
+        final int sectionZ = pos.getZ() >> SECTION_SHIFT;
+        invalidate(sectionX, sectionY, sectionZ);
+
+        //  The walkable blocks next to a section border depend on the ground and head room in the next section.
+        final int localY = pos.getY() & SECTION_MASK;
+        if (localY == 0)
+        {
+            invalidate(sectionX, sectionY - 1, sectionZ);
+        }
+        else if (localY == SECTION_MASK)
+        {
+            invalidate(sectionX, sectionY + 1, sectionZ);
+        }
+    }
+
+    /**
+     * Check if a block change can change where a citizen can walk.
+     *
+     * @param oldState the state before the change.
+     * @param newState the state after the change.
+     * @return true if the passability, the ground or a ladder changed.
+     */
+    private static boolean isCollisionChange(@NotNull final IBlockState oldState, @NotNull final IBlockState newState)
+    {
+        return isPassable(oldState) != isPassable(newState)
+                 || isWalkableSurface(oldState) != isWalkableSurface(newState)
+                 || ChunkSectionSnapshot.isLadder(oldState) != ChunkSectionSnapshot.isLadder(newState);
+    }
+
+    /**
+     * Drop all sections and stop the builds still running.
+     */
+    public void clear()
+    {
+        sections.clear();
+        for (@NotNull final Future<BitSet> build : pendingBuilds.values())
+        {
+            build.cancel(false);
+        }
+        pendingBuilds.clear();
+        for (@NotNull final Map<Long, List<PortalPair>> axisFaces : faces)
+        {
+            axisFaces.clear();
+        }
+    }
+
+    /**
+     * Amount of built sections.
+     *
+     * @return the size.
+     */
+    public int size()
+    {
+        return sections.size();
+    }
+
+    /**
+     * Amount of routes searched on the graph.
+     *
+     * @return the amount.
+     */
+    public long getRouteCount()
+    {
+        return routes;
+    }
+
+    /**
+     * Amount of trips which could not be planned on the graph.
+     *
+     * @return the amount.
+     */
+    public long getFailedRouteCount()
+    {
+        return failedRoutes;
+    }
+
+    /**
+     * Drop a section, its faces and the portals of its neighbours.
+     *
+     * @param sectionX section x.
+     * @param sectionY section y.
+     * @param sectionZ section z.
+     */
+    private void invalidate(final int sectionX, final int sectionY, final int sectionZ)
+    {
+        //  A build which is still running copied the block before the change.
+        @Nullable final Future<BitSet> build = pendingBuilds.remove(sectionKey(sectionX, sectionY, sectionZ));
+        if (build != null)
+        {
+            build.cancel(false);
+        }
+
+        if (sections.remove(sectionKey(sectionX, sectionY, sectionZ)) == null)
+        {
+            return;
+        }
+
+        for (int axis = 0; axis < AXES; axis++)
+        {
+            final Map<Long, List<PortalPair>> axisFaces = faces.get(axis);
+            axisFaces.remove(sectionKey(sectionX, sectionY, sectionZ));
+            axisFaces.remove(sectionKey(sectionX - AXIS_OFFSET_X[axis], sectionY - AXIS_OFFSET_Y[axis], sectionZ - AXIS_OFFSET_Z[axis]));
+
+            unlink(sectionX + AXIS_OFFSET_X[axis], sectionY + AXIS_OFFSET_Y[axis], sectionZ + AXIS_OFFSET_Z[axis]);
+            unlink(sectionX - AXIS_OFFSET_X[axis], sectionY - AXIS_OFFSET_Y[axis], sectionZ - AXIS_OFFSET_Z[axis]);
+        }
+    }
+
+    /**
+     * Drop the portals of a section, they are linked again when a route crosses it.
+     *
+     * @param sectionX section x.
+     * @param sectionY section y.
+     * @param sectionZ section z.
+     */
+    private void unlink(final int sectionX, final int sectionY, final int sectionZ)
+    {
+        @Nullable final Section section = sections.get(sectionKey(sectionX, sectionY, sectionZ));
+        if (section != null)
+        {
+            unlink(section);
+        }
+    }
+
+    /**
+     * Drop the portals of a section and the ones still being linked, its faces changed.
+     *
+     * @param section the section.
+     */
+    private static void unlink(@NotNull final Section section)
+    {
+        section.portals = null;
+        section.linking = null;
+    }
+
+    /**
+     * Get a section, starting the build of its walkable blocks if needed.
+     *
+     * @param world    the world.
+     * @param sectionX section x.
+     * @param sectionY section y.
+     * @param sectionZ section z.
+     * @return the section, or null if it is outside the colony, not loaded or still being built.
+     */
+    @Nullable
+    private Section getSection(@NotNull final World world, final int sectionX, final int sectionY, final int sectionZ)
+    {
+        if (sectionY < 0 || sectionY > MAX_SECTION_Y)
+        {
+            return null;
+        }
+
+        final long key = sectionKey(sectionX, sectionY, sectionZ);
+        @Nullable final Section section = sections.get(key);
+        if (section != null)
+        {
+            return section;
+        }
+
+        @Nullable final Future<BitSet> build = pendingBuilds.get(key);
+        if (build == null)
+        {
+            if (isInColony(sectionX, sectionZ) && world.getChunkProvider().getLoadedChunk(sectionX, sectionZ) != null)
+            {
+                startBuild(world, sectionX, sectionY, sectionZ);
+            }
+            return null;
+        }
+
+        if (!build.isDone())
+        {
+            buildPending = true;
+            return null;
+        }
+
+        pendingBuilds.remove(key);
+        try
+        {
+            addSection(sectionX, sectionY, sectionZ, build.get());
+            return sections.get(key);
+        }
+        catch (final CancellationException e)
+        {
+            //  Dropped by a full pathfinding queue, the next route crossing the section starts it again.
+        }
+        catch (final ExecutionException e)
+        {
+            Log.getLogger().warn("Failed to build path section " + sectionX + ", " + sectionY + ", " + sectionZ, e);
+        }
+        catch (final InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+
+    /**
+     * Copy the blocks of a section and compute its walkable blocks on the pathfinding threads.
+     *
+     * @param world    the world.
+     * @param sectionX section x.
+     * @param sectionY section y.
+     * @param sectionZ section z.
+     */
+    private void startBuild(@NotNull final World world, final int sectionX, final int sectionY, final int sectionZ)
+    {
+        if (pendingBuilds.size() >= MAX_PENDING_BUILDS)
+        {
+            buildPending = true;
+            return;
+        }
+
+        //  The snapshot covers the section and the blocks above and below it needed for the ground and head room.
+        final BlockPos min = new BlockPos(sectionX << SECTION_SHIFT, sectionY << SECTION_SHIFT, sectionZ << SECTION_SHIFT);
+        final BlockPos max = min.add(SECTION_MASK, SECTION_MASK, SECTION_MASK);
+        @NotNull final WorldSnapshot snapshot = WorldSnapshot.create(world, min, max, 0);
+
+        pendingBuilds.put(sectionKey(sectionX, sectionY, sectionZ), Pathfinding.submit(() -> computeWalkable(snapshot, sectionX, sectionY, sectionZ)));
+        buildPending = true;
+    }
+
+    /**
+     * Add a built section to the graph.
+     *
+     * @param sectionX section x.
+     * @param sectionY section y.
+     * @param sectionZ section z.
+     * @param walkable the walkable blocks by their index.
+     */
+    void addSection(final int sectionX, final int sectionY, final int sectionZ, @NotNull final BitSet walkable)
+    {
+        sections.put(sectionKey(sectionX, sectionY, sectionZ), new Section(sectionX, sectionY, sectionZ, walkable));
+    }
+
+    /**
+     * Check if a section column overlaps the colony area.
+     *
+     * @param sectionX section x.
+     * @param sectionZ section z.
+     * @return true if so.
+     */
+    private boolean isInColony(final int sectionX, final int sectionZ)
+    {
+        final BlockPos center = colony.getCenter();
+        final long dx = (sectionX << SECTION_SHIFT) + SECTION_SIZE / 2 - center.getX();
+        final long dz = (sectionZ << SECTION_SHIFT) + SECTION_SIZE / 2 - center.getZ();
+        final long range = Configurations.workingRangeTownHall + SECTION_SIZE;
+        return dx * dx + dz * dz <= range * range;
+    }
+
+    /**
+     * Find the blocks of a section a citizen can stand in.
+     *
+     * @param world    the snapshot of the section, read on a pathfinding thread.
+     * @param sectionX section x.
+     * @param sectionY section y.
+     * @param sectionZ section z.
+     * @return the walkable blocks by their index.
+     */
+    @NotNull
+    private static BitSet computeWalkable(@NotNull final IBlockAccess world, final int sectionX, final int sectionY, final int sectionZ)
+    {
+        final BitSet walkable = new BitSet(SECTION_VOLUME);
+        final BlockPos.MutableBlockPos pos = new BlockPos.MutableBlockPos();
+        final int baseY = sectionY << SECTION_SHIFT;
+
+        for (int x = 0; x < SECTION_SIZE; x++)
+        {
+            for (int z = 0; z < SECTION_SIZE; z++)
+            {
+                final int worldX = (sectionX << SECTION_SHIFT) + x;
+                final int worldZ = (sectionZ << SECTION_SHIFT) + z;
+
+                //  Walk up the column keeping the states below, at and above the feet, the snapshot is air outside the world.
+                IBlockState below = world.getBlockState(pos.setPos(worldX, baseY - 1, worldZ));
+                IBlockState feet = world.getBlockState(pos.setPos(worldX, baseY, worldZ));
+                for (int y = 0; y < SECTION_SIZE; y++)
+                {
+                    final int worldY = baseY + y;
+                    final IBlockState head = world.getBlockState(pos.setPos(worldX, worldY + 1, worldZ));
+
+                    if (isPassable(feet) && isPassable(head)
+                          && (isWalkableSurface(below) || ChunkSectionSnapshot.isLadder(feet)))
+                    {
+                        walkable.set(index(x, y, z));
+                    }
+
+                    below = feet;
+                    feet = head;
+                }
+            }
+        }
+        return walkable;
+    }
+
+    /**
+     * Compute the portals of a section and the walking distances between them, if not done yet.
+     * The flood fills stop when the budget of the tick is spent, the next call continues with the next portal.
+     *
+     * @param world   the world.
+     * @param section the section.
+     * @return true if the section is linked, false if it is still being linked.
+     */
+    private boolean link(@NotNull final World world, @NotNull final Section section)
+    {
+        if (section.portals != null)
+        {
+            return true;
+        }
+
+        if (section.linking == null)
+        {
+            final List<Portal> portals = new ArrayList<>();
+            final Map<PortalPair, Portal> portalsByPair = new IdentityHashMap<>();
+            for (int axis = 0; axis < AXES; axis++)
+            {
+                for (@NotNull final PortalPair pair : getFace(world, section, axis))
+                {
+                    final Portal portal = new Portal(portals, pair, pair.low, pair.high);
+                    portals.add(portal);
+                    portalsByPair.put(pair, portal);
+                }
+
+                @Nullable final Section lower = getSection(world,
+                  section.x - AXIS_OFFSET_X[axis],
+                  section.y - AXIS_OFFSET_Y[axis],
+                  section.z - AXIS_OFFSET_Z[axis]);
+                if (lower != null)
+                {
+                    for (@NotNull final PortalPair pair : getFace(world, lower, axis))
+                    {
+                        final Portal portal = new Portal(portals, pair, pair.high, pair.low);
+                        portals.add(portal);
+                        portalsByPair.put(pair, portal);
+                    }
+                }
+            }
+
+            section.linking = portals;
+            section.linkingByPair = portalsByPair;
+            section.linked = 0;
+        }
+
+        final List<Portal> portals = section.linking;
+        while (section.linked < portals.size())
+        {
+            if (floodFills <= 0)
+            {
+                buildPending = true;
+                return false;
+            }
+            floodFills--;
+
+            final Portal portal = portals.get(section.linked);
+            final int[] walked = walkDistances(section, index(portal.pos));
+            portal.distances = new int[portals.size()];
+            for (int i = 0; i < portal.distances.length; i++)
+            {
+                portal.distances[i] = walked[index(portals.get(i).pos)];
+            }
+            section.linked++;
+        }
+
+        section.portalsByPair = section.linkingByPair;
+        section.portals = portals;
+        section.linking = null;
+        return true;
+    }
+
+    /**
+     * Walking distances from a block to all blocks of its section, without leaving the section.
+     *
+     * @param section the section.
+     * @param start   the index of the start block, it does not need to be walkable.
+     * @return the distances by block index, {@link #UNREACHABLE} for blocks which can't be reached.
+     */
+    @NotNull
+    private static int[] walkDistances(@NotNull final Section section, final int start)
+    {
+        final int[] distances = new int[SECTION_VOLUME];
+        Arrays.fill(distances, UNREACHABLE);
+        final int[] queue = new int[SECTION_VOLUME];
+        int head = 0;
+        int tail = 0;
+
+        distances[start] = 0;
+        queue[tail++] = start;
+        while (head < tail)
+        {
+            final int current = queue[head++];
+            final int x = current & SECTION_MASK;
+            final int z = (current >> SHIFT_Z) & SECTION_MASK;
+            final int y = current >> SHIFT_Y;
+            final int distance = distances[current] + 1;
+
+            for (int dir = 0; dir < WALK_X.length; dir++)
+            {
+                final int nx = x + WALK_X[dir];
+                final int nz = z + WALK_Z[dir];
+                if (nx < 0 || nz < 0 || nx > SECTION_MASK || nz > SECTION_MASK)
+                {
+                    continue;
+                }
+
+                //  Level, one step up or one step down
+                for (int dy = -1; dy <= 1; dy++)
+                {
+                    final int ny = y + dy;
+                    if (ny >= 0 && ny <= SECTION_MASK)
+                    {
+                        tail = visit(section, distances, queue, tail, index(nx, ny, nz), distance);
+                    }
+                }
+            }
+
+            //  Two walkable blocks on top of each other are a ladder
+            if (y > 0)
+            {
+                tail = visit(section, distances, queue, tail, index(x, y - 1, z), distance);
+            }
+            if (y < SECTION_MASK)
+            {
+                tail = visit(section, distances, queue, tail, index(x, y + 1, z), distance);
+            }
+        }
+        return distances;
+    }
+
+    /**
+     * Queue a block of the distance search if it is walkable and not reached yet.
+     *
+     * @param section   the section.
+     * @param distances the distances found so far.
+     * @param queue     the queue of the search.
+     * @param tail      the end of the queue.
+     * @param index     the index of the block.
+     * @param distance  the distance to it.
+     * @return the new end of the queue.
+     */
+    private static int visit(
+                              @NotNull final Section section,
+                              @NotNull final int[] distances,
+                              @NotNull final int[] queue,
+                              final int tail,
+                              final int index,
+                              final int distance)
+    {
+        if (distances[index] != UNREACHABLE || !section.walkable.get(index))
+        {
+            return tail;
+        }
+        distances[index] = distance;
+        queue[tail] = index;
+        return tail + 1;
+    }
+
+    /**
+     * Get the portal pairs between a section and its upper neighbour on an axis.
+     *
+     * @param world the world.
+     * @param lower the lower section.
+     * @param axis  the axis.
+     * @return the pairs, empty if the neighbour is not available.
+     */
+    @NotNull
+    private List<PortalPair> getFace(@NotNull final World world, @NotNull final Section lower, final int axis)
+    {
+        final Map<Long, List<PortalPair>> axisFaces = faces.get(axis);
+        @Nullable List<PortalPair> pairs = axisFaces.get(lower.key);
+        if (pairs == null)
+        {
+            @Nullable final Section upper = getSection(world,
+              lower.x + AXIS_OFFSET_X[axis],
+              lower.y + AXIS_OFFSET_Y[axis],
+              lower.z + AXIS_OFFSET_Z[axis]);
+            if (upper == null)
+            {
+                return Collections.emptyList();
+            }
+
+            pairs = axis == AXIS_Y ? computeTopFace(lower, upper) : computeSideFace(lower, upper, axis);
+            axisFaces.put(lower.key, pairs);
+
+            //  Sections linked while their neighbour was not loaded yet miss these portals.
+            unlink(lower);
+            unlink(upper);
+        }
+        return pairs;
+    }
+
+    /**
+     * Find the portals between two sections next to each other.
+     * Neighbouring blocks which step into the other section at the same height are merged into one portal in their middle.
+     *
+     * @param lower the lower section.
+     * @param upper the upper section.
+     * @param axis  {@link #AXIS_X} or {@link #AXIS_Z}.
+     * @return the pairs.
+     */
+    @NotNull
+    private static List<PortalPair> computeSideFace(@NotNull final Section lower, @NotNull final Section upper, final int axis)
+    {
+        final List<PortalPair> pairs = new ArrayList<>();
+        for (int y = 0; y < SECTION_SIZE; y++)
+        {
+            int runStart = 0;
+            int runStep = NO_STEP;
+            for (int u = 0; u <= SECTION_SIZE; u++)
+            {
+                final int step = u < SECTION_SIZE ? findSideStep(lower, upper, axis, u, y) : NO_STEP;
+                if (step == runStep)
+                {
+                    continue;
+                }
+
+                if (runStep != NO_STEP)
+                {
+                    final int middle = (runStart + u - 1) / 2;
+                    pairs.add(new PortalPair(sidePos(lower, axis, SECTION_MASK, middle, y), sidePos(upper, axis, 0, middle, y + runStep)));
+                }
+                runStart = u;
+                runStep = step;
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * Find the height difference of the step from a block on the side of a section into its neighbour.
+     *
+     * @param lower the lower section.
+     * @param upper the upper section.
+     * @param axis  the axis.
+     * @param u     the position along the face.
+     * @param y     the height inside the section.
+     * @return the height difference, or {@link #NO_STEP}.
+     */
+    private static int findSideStep(@NotNull final Section lower, @NotNull final Section upper, final int axis, final int u, final int y)
+    {
+        if (!lower.walkable.get(sideIndex(axis, SECTION_MASK, u, y)))
+        {
+            return NO_STEP;
+        }
+
+        for (int dy = 0; dy <= 1; dy++)
+        {
+            if (y + dy <= SECTION_MASK && upper.walkable.get(sideIndex(axis, 0, u, y + dy)))
+            {
+                return dy;
+            }
+            if (dy > 0 && y - dy >= 0 && upper.walkable.get(sideIndex(axis, 0, u, y - dy)))
+            {
+                return -dy;
+            }
+        }
+        return NO_STEP;
+    }
+
+    /**
+     * Index of a block on the side face of a section.
+     *
+     * @param axis  the axis.
+     * @param depth the coordinate along the axis.
+     * @param u     the position along the face.
+     * @param y     the height.
+     * @return the index.
+     */
+    private static int sideIndex(final int axis, final int depth, final int u, final int y)
+    {
+        return axis == AXIS_X ? index(depth, y, u) : index(u, y, depth);
+    }
+
+    /**
+     * World position of a block on the side face of a section.
+     *
+     * @param section the section.
+     * @param axis    the axis.
+     * @param depth   the coordinate along the axis.
+     * @param u       the position along the face.
+     * @param y       the height.
+     * @return the position.
+     */
+    @NotNull
+    private static BlockPos sidePos(@NotNull final Section section, final int axis, final int depth, final int u, final int y)
+    {
+        final int x = axis == AXIS_X ? depth : u;
+        final int z = axis == AXIS_X ? u : depth;
+        return new BlockPos((section.x << SECTION_SHIFT) + x, (section.y << SECTION_SHIFT) + y, (section.z << SECTION_SHIFT) + z);
+    }
+
+    /**
+     * Find the portals between a section and the one above it, these are steps up onto the next layer or ladders.
+     *
+     * @param lower the lower section.
+     * @param upper the upper section.
+     * @return the pairs.
+     */
+    @NotNull
+    private static List<PortalPair> computeTopFace(@NotNull final Section lower, @NotNull final Section upper)
+    {
+        final List<PortalPair> pairs = new ArrayList<>();
+        final int samples = SECTION_SIZE >> TOP_FACE_SAMPLE_SHIFT;
+        final boolean[] sampled = new boolean[samples * samples];
+
+        for (int x = 0; x < SECTION_SIZE; x++)
+        {
+            for (int z = 0; z < SECTION_SIZE; z++)
+            {
+                final int sample = (x >> TOP_FACE_SAMPLE_SHIFT) * samples + (z >> TOP_FACE_SAMPLE_SHIFT);
+                if (sampled[sample] || !lower.walkable.get(index(x, SECTION_MASK, z)))
+                {
+                    continue;
+                }
+
+                if (upper.walkable.get(index(x, 0, z)))
+                {
+                    pairs.add(new PortalPair(sectionPos(lower, x, SECTION_MASK, z), sectionPos(upper, x, 0, z)));
+                    sampled[sample] = true;
+                    continue;
+                }
+
+                for (int dir = 0; dir < WALK_X.length; dir++)
+                {
+                    final int nx = x + WALK_X[dir];
+                    final int nz = z + WALK_Z[dir];
+                    if (nx >= 0 && nz >= 0 && nx <= SECTION_MASK && nz <= SECTION_MASK && upper.walkable.get(index(nx, 0, nz)))
+                    {
+                        pairs.add(new PortalPair(sectionPos(lower, x, SECTION_MASK, z), sectionPos(upper, nx, 0, nz)));
+                        sampled[sample] = true;
+                        break;
+                    }
+                }
+            }
+        }
+        return pairs;
+    }
+
+    /**
+     * World position of a block of a section.
+     *
+     * @param section the section.
+     * @param x       x inside the section.
+     * @param y       y inside the section.
+     * @param z       z inside the section.
+     * @return the position.
+     */
+    @NotNull
+    private static BlockPos sectionPos(@NotNull final Section section, final int x, final int y, final int z)
+    {
+        return new BlockPos((section.x << SECTION_SHIFT) + x, (section.y << SECTION_SHIFT) + y, (section.z << SECTION_SHIFT) + z);
+    }
+
+    /**
+     * A section of the graph.
+     */
+    private static final class Section
+    {
+        private final int    x;
+        private final int    y;
+        private final int    z;
+        private final long   key;
+        @NotNull
+        private final BitSet walkable;
+
+        /**
+         * The portals of the section, null until a route crosses it.
+         */
+        @Nullable
+        private List<Portal>            portals       = null;
+        @NotNull
+        private Map<PortalPair, Portal> portalsByPair = Collections.emptyMap();
+
+        /**
+         * The portals being linked, and how many of them have their distances already.
+         */
+        @Nullable
+        private List<Portal>            linking       = null;
+        @NotNull
+        private Map<PortalPair, Portal> linkingByPair = Collections.emptyMap();
+        private int                     linked        = 0;
+
+        /**
+         * Check if a position is inside the section.
+         *
+         * @param pos the position.
+         * @return true if so.
+         */
+        private boolean contains(@NotNull final BlockPos pos)
+        {
+            return (pos.getX() >> SECTION_SHIFT) == x && (pos.getY() >> SECTION_SHIFT) == y && (pos.getZ() >> SECTION_SHIFT) == z;
+        }
+
+        /**
+         * Create a section.
+         *
+         * @param x        section x.
+         * @param y        section y.
+         * @param z        section z.
+         * @param walkable the walkable blocks.
+         */
+        private Section(final int x, final int y, final int z, @NotNull final BitSet walkable)
+        {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.key = sectionKey(x, y, z);
+            this.walkable = walkable;
+        }
+    }
+
+    /**
+     * Two blocks in neighbouring sections a citizen can step between.
+     */
+    private static final class PortalPair
+    {
+        @NotNull
+        private final BlockPos low;
+        @NotNull
+        private final BlockPos high;
+
+        /**
+         * Create a pair.
+         *
+         * @param low  the block in the lower section.
+         * @param high the block in the upper section.
+         */
+        private PortalPair(@NotNull final BlockPos low, @NotNull final BlockPos high)
+        {
+            this.low = low;
+            this.high = high;
+        }
+    }
+
+    /**
+     * One side of a portal pair, seen from its section.
+     * Keeps its own copy of the section links, so a search holding it stays consistent when the section is linked again.
+     */
+    private static final class Portal
+    {
+        @NotNull
+        private final List<Portal> siblings;
+        private final int          index;
+        @NotNull
+        private final PortalPair   pair;
+        @NotNull
+        private final BlockPos     pos;
+        @NotNull
+        private final BlockPos     link;
+
+        /**
+         * Walking distance to each of the siblings.
+         */
+        @NotNull
+        private int[] distances = new int[0];
+
+        /**
+         * Create a portal, its index is the current size of the sibling list.
+         *
+         * @param siblings the portals of its section.
+         * @param pair     the pair it is part of.
+         * @param pos      the block in the section.
+         * @param link     the block in the neighbour section.
+         */
+        private Portal(@NotNull final List<Portal> siblings, @NotNull final PortalPair pair, @NotNull final BlockPos pos, @NotNull final BlockPos link)
+        {
+            this.siblings = siblings;
+            this.index = siblings.size();
+            this.pair = pair;
+            this.pos = pos;
+            this.link = link;
+        }
+    }
+
+    /**
+     * A portal in the open set of a route search.
+     */
+    private static final class RouteNode implements Comparable<RouteNode>
+    {
+        @NotNull
+        private final Portal portal;
+        private final int    cost;
+        private final int    estimate;
+
+        /**
+         * Create a route node.
+         *
+         * @param portal   the portal.
+         * @param cost     the cost to reach it.
+         * @param estimate the estimated total cost through it.
+         */
+        private RouteNode(@NotNull final Portal portal, final int cost, final int estimate)
+        {
+            this.portal = portal;
+            this.cost = cost;
+            this.estimate = estimate;
+        }
+
+        @Override
+        public int compareTo(@NotNull final RouteNode other)
+        {
+            return Integer.compare(estimate, other.estimate);
+        }
+    }
+}
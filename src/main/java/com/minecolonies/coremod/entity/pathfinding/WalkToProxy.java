@@ -1,5 +1,6 @@
 package com.minecolonies.coremod.entity.pathfinding;
 
+import com.minecolonies.coremod.colony.Colony;
 import com.minecolonies.coremod.colony.buildings.AbstractBuildingWorker;
 import com.minecolonies.coremod.colony.buildings.BuildingMiner;
 import com.minecolonies.coremod.colony.jobs.JobBuilder;
@@ -11,6 +12,7 @@ import com.minecolonies.coremod.util.BlockPosUtil;
 import com.minecolonies.coremod.util.EntityUtils;
 import net.minecraft.util.math.BlockPos;
 import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
 
 import java.awt.geom.Point2D;
 import java.util.ArrayList;
@@ -184,7 +186,11 @@ public class WalkToProxy
         }
         else
         {
-            proxyPoint = getProxy(target, worker.getPosition(), distanceToPath);
+            proxyPoint = getRouteProxy(target);
+            if (proxyPoint == null)
+            {
+                proxyPoint = getProxy(target, worker.getPosition(), distanceToPath);
+            }
         }
 
         if (!proxyList.isEmpty())
@@ -333,6 +339,52 @@ public class WalkToProxy
         return getProxy(target, worker.getPosition(), distanceToPath);
     }
 
+    /**
+     * Plans the trip on the section graph of the colony and fills the proxy list with portals along the route,
+     * each one close enough to the previous one to be reached by a single path search.
+     *
+     * @param target the target.
+     * @return the first proxy, or null if the graph has no route and the way points have to be used.
+     */
+    @Nullable
+    private BlockPos getRouteProxy(@NotNull final BlockPos target)
+    {
+        @Nullable final Colony colony = worker.getColony();
+        if (colony == null)
+        {
+            return null;
+        }
+
+        @Nullable final List<BlockPos> route = colony.getSectionGraph().findRoute(worker.worldObj, worker.getPosition(), target);
+        if (route == null)
+        {
+            return null;
+        }
+
+        BlockPos last = worker.getPosition();
+        BlockPos candidate = null;
+        for (@NotNull final BlockPos portal : route)
+        {
+            if (candidate != null && BlockPosUtil.getDistanceSquared(last, portal) > MIN_RANGE_FOR_DIRECT_PATH)
+            {
+                proxyList.add(candidate);
+                last = candidate;
+            }
+            candidate = portal;
+        }
+
+        if (candidate != null && BlockPosUtil.getDistanceSquared(last, target) > MIN_RANGE_FOR_DIRECT_PATH)
+        {
+            proxyList.add(candidate);
+        }
+
+        if (proxyList.isEmpty())
+        {
+            return target;
+        }
+        return proxyList.get(0);
+    }
+
     /**
      * Returns a proxy point to the goal.
      *
@@ -0,0 +1,494 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.init.Biomes;
+import net.minecraft.init.Blocks;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.EnumFacing;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.IBlockAccess;
+import net.minecraft.world.World;
+import net.minecraft.world.WorldType;
+import net.minecraft.world.biome.Biome;
+import net.minecraft.world.chunk.Chunk;
+import net.minecraftforge.fml.relauncher.Side;
+import net.minecraftforge.fml.relauncher.SideOnly;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * Read only copy of the blocks in the search box of a path job.
+ * It is taken on the server thread when the job is created, and afterwards only read by the pathfinding threads,
+ * so the search never touches the live chunks which are modified by the server at the same time.
+ * <p>
+ * Only the sections a path of the range of the job could cross are copied: every step moves at most one block
+ * sideways, so a path from the start to the end never leaves the ellipse with those foci whose distance sum is
+ * the range. A target beyond the range gets a corridor of half the range around the line to it instead.
+ * <p>
+ * The copied chunk sections are cached per world and shared by all jobs which search the same area,
+ * a section is copied again when a block in it changed or the copy got too old.
+ */
+public final class WorldSnapshot implements IBlockAccess
+{
+    /**
+     * Shift from block to section coordinates.
+     */
+    private static final int SECTION_SHIFT = 4;
+
+    /**
+     * Mask for the coordinate inside a section.
+     */
+    private static final int SECTION_MASK = ChunkSectionSnapshot.SECTION_SIZE - 1;
+
+    /**
+     * Highest y of the world.
+     */
+    private static final int MAX_Y = 255;
+
+    /**
+     * Additional vertical space needed for the head and drop checks of the search.
+     */
+    static final int PROBE_MARGIN = 2;
+
+    /**
+     * Blocks the corridor is widened by, for the probes next to the nodes and the rounding of the steps.
+     */
+    private static final int CORRIDOR_MARGIN = 2 * PROBE_MARGIN;
+
+    /**
+     * Ticks a cached section copy may be reused.
+     * Block changes are tracked, this only catches changes which do not notify the world listeners.
+     */
+    private static final long MAX_SECTION_AGE = 200;
+
+    /**
+     * Amount of cached sections per world after which old ones are dropped.
+     */
+    private static final int MAX_CACHED_SECTIONS = 4096;
+
+    /**
+     * Bit layout of the section cache keys.
+     */
+    private static final int  KEY_SHIFT_X = 36;
+    private static final int  KEY_SHIFT_Y = 28;
+    private static final long KEY_MASK_XZ = 0xFFFFFFFL;
+    private static final long KEY_MASK_Y  = 0xFL;
+
+    /**
+     * The cached section copies of each world.
+     */
+    private static final Map<World, Map<Long, ChunkSectionSnapshot>> sectionCache = new WeakHashMap<>();
+
+    /**
+     * The air state returned outside of the copied area, the search checks {@link #contains(int, int, int)} first.
+     */
+    private static final IBlockState AIR = Blocks.AIR.getDefaultState();
+
+    /**
+     * The property bits of {@link #AIR}.
+     */
+    private static final int AIR_FLAGS = ChunkSectionSnapshot.getFlags(AIR);
+
+    /**
+     * Section coordinates of the first section of the box.
+     */
+    private final int minSectionX;
+    private final int minSectionY;
+    private final int minSectionZ;
+
+    /**
+     * Amount of sections of the box in each direction.
+     */
+    private final int sizeX;
+    private final int sizeY;
+    private final int sizeZ;
+
+    /**
+     * The copied sections, null for sections of chunks which were not loaded.
+     */
+    @NotNull
+    private final ChunkSectionSnapshot[] sections;
+
+    /**
+     * Copy the sections covering the box from the world.
+     *
+     * @param sectionsIn  the copied sections.
+     * @param minSectionX first section x.
+     * @param minSectionY first section y.
+     * @param minSectionZ first section z.
+     * @param sizeX       sections in x direction.
+     * @param sizeY       sections in y direction.
+     * @param sizeZ       sections in z direction.
+     */
+    private WorldSnapshot(
+                           @NotNull final ChunkSectionSnapshot[] sectionsIn,
+                           final int minSectionX, final int minSectionY, final int minSectionZ,
+                           final int sizeX, final int sizeY, final int sizeZ)
+    {
+        this.sections = sectionsIn;
+        this.minSectionX = minSectionX;
+        this.minSectionY = minSectionY;
+        this.minSectionZ = minSectionZ;
+        this.sizeX = sizeX;
+        this.sizeY = sizeY;
+        this.sizeZ = sizeZ;
+    }
+
+    /**
+     * Take a snapshot of the area a path job searches.
+     * Has to be called from the thread owning the world.
+     *
+     * @param world the world.
+     * @param start the start of the path.
+     * @param end   the end of the path.
+     * @param range the range of the job.
+     * @return the snapshot.
+     */
+    @NotNull
+    public static WorldSnapshot create(@NotNull final World world, @NotNull final BlockPos start, @NotNull final BlockPos end, final int range)
+    {
+        //  The path may climb over or dig down past the start and end as far as it may stray sideways
+        final int verticalMargin = (range / 2) + PROBE_MARGIN;
+        final int minX = Math.min(start.getX(), end.getX()) - (range / 2);
+        final int minZ = Math.min(start.getZ(), end.getZ()) - (range / 2);
+        final int maxX = Math.max(start.getX(), end.getX()) + (range / 2);
+        final int maxZ = Math.max(start.getZ(), end.getZ()) + (range / 2);
+        final int minY = Math.max(0, Math.min(start.getY(), end.getY()) - verticalMargin);
+        final int maxY = Math.min(MAX_Y, Math.max(start.getY(), end.getY()) + verticalMargin);
+
+        final int minSectionX = minX >> SECTION_SHIFT;
+        final int minSectionY = minY >> SECTION_SHIFT;
+        final int minSectionZ = minZ >> SECTION_SHIFT;
+        final int sizeX = (maxX >> SECTION_SHIFT) - minSectionX + 1;
+        final int sizeY = (maxY >> SECTION_SHIFT) - minSectionY + 1;
+        final int sizeZ = (maxZ >> SECTION_SHIFT) - minSectionZ + 1;
+
+        @NotNull final ChunkSectionSnapshot[] sections = new ChunkSectionSnapshot[sizeX * sizeY * sizeZ];
+        final long worldTime = world.getTotalWorldTime();
+
+        //  Sideways distance sum a block of the path may have to the start and the end
+        final double distance = Math.sqrt(squareDistance(start.getX(), start.getZ(), end.getX(), end.getZ()));
+        final double maxDistanceSum = Math.max(range, distance + (range / 2)) + CORRIDOR_MARGIN;
+        final double maxStartDistance = range + CORRIDOR_MARGIN;
+
+        synchronized (sectionCache)
+        {
+            final Map<Long, ChunkSectionSnapshot> cache = getCache(world);
+
+            for (int sx = 0; sx < sizeX; sx++)
+            {
+                for (int sz = 0; sz < sizeZ; sz++)
+                {
+                    final int chunkX = minSectionX + sx;
+                    final int chunkZ = minSectionZ + sz;
+                    final double startDistance = distanceToColumn(start, chunkX, chunkZ);
+                    if (startDistance > maxStartDistance || startDistance + distanceToColumn(end, chunkX, chunkZ) > maxDistanceSum)
+                    {
+                        continue;
+                    }
+
+                    @Nullable final Chunk chunk = world.getChunkProvider().getLoadedChunk(chunkX, chunkZ);
+                    if (chunk == null)
+                    {
+                        continue;
+                    }
+
+                    for (int sy = 0; sy < sizeY; sy++)
+                    {
+                        final int sectionY = minSectionY + sy;
+                        final long key = sectionKey(chunkX, sectionY, chunkZ);
+                        ChunkSectionSnapshot section = cache.get(key);
+                        if (section == null || worldTime - section.getCreationTime() > MAX_SECTION_AGE)
+                        {
+                            section = ChunkSectionSnapshot.copyOf(chunk.getBlockStorageArray()[sectionY], worldTime);
+                            cache.put(key, section);
+                        }
+                        sections[(sx * sizeZ + sz) * sizeY + sy] = section;
+                    }
+                }
+            }
+
+            if (cache.size() > MAX_CACHED_SECTIONS)
+            {
+                purge(cache, worldTime);
+            }
+        }
+
+        return new WorldSnapshot(sections, minSectionX, minSectionY, minSectionZ, sizeX, sizeY, sizeZ);
+    }
+
+    /**
+     * Compute the sideways distance of a position to the nearest block of a chunk column.
+     *
+     * @param pos    the position.
+     * @param chunkX the chunk x.
+     * @param chunkZ the chunk z.
+     * @return the distance, 0 inside the column.
+     */
+    private static double distanceToColumn(@NotNull final BlockPos pos, final int chunkX, final int chunkZ)
+    {
+        final int minX = chunkX << SECTION_SHIFT;
+        final int minZ = chunkZ << SECTION_SHIFT;
+        final int nearestX = Math.max(minX, Math.min(minX + SECTION_MASK, pos.getX()));
+        final int nearestZ = Math.max(minZ, Math.min(minZ + SECTION_MASK, pos.getZ()));
+        return Math.sqrt(squareDistance(pos.getX(), pos.getZ(), nearestX, nearestZ));
+    }
+
+    /**
+     * Compute the square of the sideways distance of two positions.
+     *
+     * @param x1 the first x.
+     * @param z1 the first z.
+     * @param x2 the second x.
+     * @param z2 the second z.
+     * @return the square distance.
+     */
+    private static double squareDistance(final int x1, final int z1, final int x2, final int z2)
+    {
+        final double dx = x1 - x2;
+        final double dz = z1 - z2;
+        return dx * dx + dz * dz;
+    }
+
+    /**
+     * Drop the cached copy of the section containing a changed block.
+     *
+     * @param world the world the block changed in.
+     * @param pos   the position of the block.
+     */
+    public static void onBlockChanged(@NotNull final World world, @NotNull final BlockPos pos)
+    {
+        synchronized (sectionCache)
+        {
+            final Map<Long, ChunkSectionSnapshot> cache = sectionCache.get(world);
+            if (cache != null && !cache.isEmpty())
+            {
+                cache.remove(sectionKey(pos.getX() >> SECTION_SHIFT, pos.getY() >> SECTION_SHIFT, pos.getZ() >> SECTION_SHIFT));
+            }
+        }
+    }
+
+    /**
+     * Drop all cached sections of a world.
+     *
+     * @param world the world being unloaded.
+     */
+    public static void onWorldUnload(@NotNull final World world)
+    {
+        synchronized (sectionCache)
+        {
+            sectionCache.remove(world);
+        }
+    }
+
+    /**
+     * Get the section cache of a world.
+     *
+     * @param world the world.
+     * @return the cache.
+     */
+    @NotNull
+    private static Map<Long, ChunkSectionSnapshot> getCache(@NotNull final World world)
+    {
+        Map<Long, ChunkSectionSnapshot> cache = sectionCache.get(world);
+        if (cache == null)
+        {
+            cache = new HashMap<>();
+            sectionCache.put(world, cache);
+        }
+        return cache;
+    }
+
+    /**
+     * Drop the outdated sections, or all of them if that is not enough.
+     *
+     * @param cache     the cache.
+     * @param worldTime the current world time.
+     */
+    private static void purge(@NotNull final Map<Long, ChunkSectionSnapshot> cache, final long worldTime)
+    {
+        final Iterator<ChunkSectionSnapshot> it = cache.values().iterator();
+        while (it.hasNext())
+        {
+            if (worldTime - it.next().getCreationTime() > MAX_SECTION_AGE)
+            {
+                it.remove();
+            }
+        }
+
+        if (cache.size() > MAX_CACHED_SECTIONS)
+        {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Compute the cache key of a section.
+     *
+     * @param sectionX section x.
+     * @param sectionY section y.
+     * @param sectionZ section z.
+     * @return the key.
+     */
+    private static long sectionKey(final int sectionX, final int sectionY, final int sectionZ)
+    {
+        return ((sectionX & KEY_MASK_XZ) << KEY_SHIFT_X) | ((sectionY & KEY_MASK_Y) << KEY_SHIFT_Y) | (sectionZ & KEY_MASK_XZ);
+    }
+
+    /**
+     * Get the copied section containing a position.
+     *
+     * @param pos the position.
+     * @return the section or null if it is outside of the copied area.
+     */
+    @Nullable
+    private ChunkSectionSnapshot getSection(@NotNull final BlockPos pos)
+    {
+        final int sx = (pos.getX() >> SECTION_SHIFT) - minSectionX;
+        final int sy = (pos.getY() >> SECTION_SHIFT) - minSectionY;
+        final int sz = (pos.getZ() >> SECTION_SHIFT) - minSectionZ;
+        if (sx < 0 || sy < 0 || sz < 0 || sx >= sizeX || sy >= sizeY || sz >= sizeZ || pos.getY() < 0)
+        {
+            return null;
+        }
+        return sections[(sx * sizeZ + sz) * sizeY + sy];
+    }
+
+    /**
+     * Check if a position has been copied: it is within the box and its chunk was loaded.
+     * Positions above and below the world count as copied if their column is, they are always air.
+     *
+     * @param x the x coordinate.
+     * @param y the y coordinate.
+     * @param z the z coordinate.
+     * @return true if the snapshot knows the block.
+     */
+    public boolean contains(final int x, final int y, final int z)
+    {
+        final int sx = (x >> SECTION_SHIFT) - minSectionX;
+        final int sy = (Math.max(0, Math.min(MAX_Y, y)) >> SECTION_SHIFT) - minSectionY;
+        final int sz = (z >> SECTION_SHIFT) - minSectionZ;
+        return sx >= 0 && sy >= 0 && sz >= 0 && sx < sizeX && sy < sizeY && sz < sizeZ
+                 && sections[(sx * sizeZ + sz) * sizeY + sy] != null;
+    }
+
+    /**
+     * Get the property bits of a block, blocks outside of the copied area count as air.
+     *
+     * @param pos the position.
+     * @return the bits.
+     */
+    private int getFlags(@NotNull final BlockPos pos)
+    {
+        @Nullable final ChunkSectionSnapshot section = getSection(pos);
+        if (section == null)
+        {
+            return AIR_FLAGS;
+        }
+        return section.getFlags(pos.getX() & SECTION_MASK, pos.getY() & SECTION_MASK, pos.getZ() & SECTION_MASK);
+    }
+
+    /**
+     * Check if a block doesn't block movement, doors and gates count as open.
+     *
+     * @param pos the position.
+     * @return true if a citizen can walk through it.
+     */
+    public boolean isPassable(@NotNull final BlockPos pos)
+    {
+        return (getFlags(pos) & ChunkSectionSnapshot.FLAG_PASSABLE) != 0;
+    }
+
+    /**
+     * Check if a block is a ladder or vine.
+     *
+     * @param pos the position.
+     * @return true if it can be climbed.
+     */
+    public boolean isLadder(@NotNull final BlockPos pos)
+    {
+        return (getFlags(pos) & ChunkSectionSnapshot.FLAG_LADDER) != 0;
+    }
+
+    /**
+     * Check if a block is a liquid.
+     *
+     * @param pos the position.
+     * @return true if so.
+     */
+    public boolean isLiquid(@NotNull final BlockPos pos)
+    {
+        return (getFlags(pos) & ChunkSectionSnapshot.FLAG_LIQUID) != 0;
+    }
+
+    @Nullable
+    @Override
+    public TileEntity getTileEntity(final BlockPos pos)
+    {
+        //  Tile entities are not copied, the search only looks at states.
+        return null;
+    }
+
+    @SideOnly(Side.CLIENT)
+    @Override
+    public int getCombinedLight(final BlockPos pos, final int lightValue)
+    {
+        return 0;
+    }
+
+    @NotNull
+    @Override
+    public IBlockState getBlockState(@NotNull final BlockPos pos)
+    {
+        @Nullable final ChunkSectionSnapshot section = getSection(pos);
+        if (section == null)
+        {
+            return AIR;
+        }
+        return section.get(pos.getX() & SECTION_MASK, pos.getY() & SECTION_MASK, pos.getZ() & SECTION_MASK);
+    }
+
+    @Override
+    public boolean isAirBlock(@NotNull final BlockPos pos)
+    {
+        final IBlockState state = getBlockState(pos);
+        return state.getBlock().isAir(state, this, pos);
+    }
+
+    @SideOnly(Side.CLIENT)
+    @NotNull
+    @Override
+    public Biome getBiome(final BlockPos pos)
+    {
+        return Biomes.PLAINS;
+    }
+
+    @Override
+    public int getStrongPower(@NotNull final BlockPos pos, @NotNull final EnumFacing direction)
+    {
+        return getBlockState(pos).getStrongPower(this, pos, direction);
+    }
+
+    @SideOnly(Side.CLIENT)
+    @NotNull
+    @Override
+    public WorldType getWorldType()
+    {
+        return WorldType.DEFAULT;
+    }
+
+    @Override
+    public boolean isSideSolid(@NotNull final BlockPos pos, @NotNull final EnumFacing side, final boolean defaultValue)
+    {
+        if (getSection(pos) == null)
+        {
+            return defaultValue;
+        }
+        return getBlockState(pos).isSideSolid(this, pos, side);
+    }
+}
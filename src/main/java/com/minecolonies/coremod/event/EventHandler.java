@@ -22,6 +22,7 @@ import net.minecraftforge.event.entity.EntityJoinWorldEvent;
 import net.minecraftforge.event.entity.living.LivingDeathEvent;
 import net.minecraftforge.event.entity.player.PlayerInteractEvent;
 import net.minecraftforge.event.world.BlockEvent;
+import net.minecraftforge.event.world.ChunkEvent;
 import net.minecraftforge.event.world.WorldEvent;
 import net.minecraftforge.fml.common.FMLCommonHandler;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
@@ -367,6 +368,30 @@ public class EventHandler
         ColonyManager.onWorldUnload(event.getWorld());
     }
 
+    /**
+     * Gets called when a chunk loads.
+     * Calls {@link ColonyManager#onChunkLoad(World, int, int)}
+     *
+     * @param event {@link net.minecraftforge.event.world.ChunkEvent.Load}
+     */
+    @SubscribeEvent
+    public void onChunkLoad(@NotNull final ChunkEvent.Load event)
+    {
+        ColonyManager.onChunkLoad(event.getWorld(), event.getChunk().xPosition, event.getChunk().zPosition);
+    }
+
+    /**
+     * Gets called when a chunk unloads.
+     * Calls {@link ColonyManager#onChunkUnload(World, int, int)}
+     *
+     * @param event {@link net.minecraftforge.event.world.ChunkEvent.Unload}
+     */
+    @SubscribeEvent
+    public void onChunkUnload(@NotNull final ChunkEvent.Unload event)
+    {
+        ColonyManager.onChunkUnload(event.getWorld(), event.getChunk().xPosition, event.getChunk().zPosition);
+    }
+
     /**
      * Gets called when world saves.
      * Calls {@link ColonyManager#onWorldSave(World)}
@@ -52,7 +52,8 @@ public class FMLEventHandler
 
     /**
      * Called when a player logs in.
-     * If the joining player is a MP-Player, sends all possible styles in a message.
+     * If the joining player is a MP-Player, sends all possible styles in a message
+     * and loads the colonies the player is a member of.
      *
      * @param event {@link net.minecraftforge.fml.common.gameevent.PlayerEvent.PlayerLoggedInEvent}
      */
@@ -62,6 +63,7 @@ public class FMLEventHandler
         if (event.player instanceof EntityPlayerMP)
         {
             MineColonies.getNetwork().sendTo(new ColonyStylesMessage(), (EntityPlayerMP) event.player);
+            ColonyManager.onPlayerLogin(event.player);
             ColonyManager.syncAllColoniesAchievements();
         }
     }
@@ -9,6 +9,7 @@ import net.minecraft.crash.CrashReportCategory;
 import net.minecraft.entity.player.EntityPlayer;
 import net.minecraft.inventory.IInventory;
 import net.minecraft.item.Item;
+import net.minecraft.item.ItemHoe;
 import net.minecraft.item.ItemStack;
 import net.minecraft.nbt.NBTTagCompound;
 import net.minecraft.nbt.NBTTagList;
@@ -20,8 +21,15 @@ import net.minecraftforge.common.util.Constants;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.*;
+import java.util.stream.IntStream;
+
 /**
  * Basic inventory for the citizens.
+ * <p>
+ * Keeps an index of the slots holding each item and each kind of tool, and of the occupied slots,
+ * so the AI can look up its items without scanning all slots.
+ * Every change of a slot goes through {@link #setSlot(int, ItemStack)}, which keeps the index up to date.
  */
 public class InventoryCitizen implements IInventory
 {
@@ -57,12 +65,20 @@ public class InventoryCitizen implements IInventory
      * Size of the hotbar.
      */
     private static final int    HOTBAR_SIZE     = 0;
+    /**
+     * Tool type of hoes.
+     */
+    private static final String HOE             = "hoe";
+    /**
+     * Tool type of fishing rods.
+     */
+    private static final String ROD             = "rod";
 
     /**
      * The inventory content.
      */
     @NotNull
-    private ItemStack[] stacks = new ItemStack[INVENTORY_SIZE];
+    private final ItemStack[] stacks = new ItemStack[INVENTORY_SIZE];
     /**
      * The inventories custom name. In our case the citizens name.
      */
@@ -75,6 +91,11 @@ public class InventoryCitizen implements IInventory
      * The material store object.
      */
     private MaterialStore materialStore;
+    /**
+     * The slots whose stack was handed out since the last {@link #markDirty()}, it may have been changed in place.
+     */
+    @NotNull
+    private final BitSet lentSlots = new BitSet(INVENTORY_SIZE);
     /**
      * Updated after the inventory has been changed.
      */
@@ -83,6 +104,21 @@ public class InventoryCitizen implements IInventory
      * The citizen which owns the inventory.
      */
     private EntityCitizen citizen;
+    /**
+     * The slots holding each item.
+     */
+    @NotNull
+    private final Map<Item, BitSet>   itemSlots     = new HashMap<>();
+    /**
+     * The slots holding each type of tool.
+     */
+    @NotNull
+    private final Map<String, BitSet> toolSlots     = new HashMap<>();
+    /**
+     * The slots which are not empty.
+     */
+    @NotNull
+    private final BitSet              occupiedSlots = new BitSet(INVENTORY_SIZE);
 
     /**
      * Creates the inventory of the citizen.
@@ -188,7 +224,11 @@ public class InventoryCitizen implements IInventory
             --this.stacks[i].stackSize;
             if (this.stacks[i].stackSize <= 0)
             {
-                this.stacks[i] = null;
+                setSlot(i, null);
+            }
+            else
+            {
+                updateMaterialStore(i);
             }
 
             return true;
@@ -197,17 +237,173 @@ public class InventoryCitizen implements IInventory
 
     private int getInventorySlotContainItem(final Item itemIn)
     {
-        for (int i = 0; i < this.stacks.length; ++i)
+        return findFirstSlot(itemIn, -1);
+    }
+
+    /**
+     * Find the first slot holding an item.
+     *
+     * @param item       the item.
+     * @param itemDamage the damage value, -1 for any.
+     * @return the slot or -1 if there is none.
+     */
+    public int findFirstSlot(@Nullable final Item item, final int itemDamage)
+    {
+        final BitSet slots = itemSlots.get(item);
+        if (slots != null)
         {
-            if (this.stacks[i] != null && this.stacks[i].getItem() == itemIn)
+            for (int i = slots.nextSetBit(0); i >= 0; i = slots.nextSetBit(i + 1))
             {
-                return i;
+                if (itemDamage == -1 || this.stacks[i].getItemDamage() == itemDamage)
+                {
+                    return i;
+                }
             }
         }
-
         return NO_SLOT;
     }
 
+    /**
+     * Count an item over all slots holding it.
+     *
+     * @param item       the item.
+     * @param itemDamage the damage value, -1 for any.
+     * @return the amount.
+     */
+    public int getItemCount(@Nullable final Item item, final int itemDamage)
+    {
+        int count = 0;
+        final BitSet slots = itemSlots.get(item);
+        if (slots != null)
+        {
+            for (int i = slots.nextSetBit(0); i >= 0; i = slots.nextSetBit(i + 1))
+            {
+                if (itemDamage == -1 || this.stacks[i].getItemDamage() == itemDamage)
+                {
+                    count += this.stacks[i].stackSize;
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Find the first slot holding a type of tool.
+     *
+     * @param tool the tool type, like "pickaxe", "hoe" or "rod".
+     * @return the slot or -1 if there is none.
+     */
+    public int getFirstSlotContainingTool(@NotNull final String tool)
+    {
+        final BitSet slots = toolSlots.get(tool);
+        return slots == null ? NO_SLOT : slots.nextSetBit(0);
+    }
+
+    /**
+     * Get the slots holding a type of tool.
+     *
+     * @param tool the tool type.
+     * @return the slots in ascending order, the inventory must not be changed while they are used.
+     */
+    @NotNull
+    public IntStream getSlotsContainingTool(@NotNull final String tool)
+    {
+        final BitSet slots = toolSlots.get(tool);
+        return slots == null ? IntStream.empty() : slots.stream();
+    }
+
+    /**
+     * Set the stack of a slot and update the index.
+     *
+     * @param index the slot.
+     * @param stack the new stack or null.
+     */
+    private void setSlot(final int index, @Nullable final ItemStack stack)
+    {
+        final ItemStack previous = this.stacks[index];
+        if (previous != null)
+        {
+            removeFromIndex(itemSlots, previous.getItem(), index);
+            for (@NotNull final String tool : getToolTypes(previous))
+            {
+                removeFromIndex(toolSlots, tool, index);
+            }
+        }
+
+        this.stacks[index] = stack;
+        occupiedSlots.set(index, stack != null);
+
+        if (stack != null)
+        {
+            itemSlots.computeIfAbsent(stack.getItem(), item -> new BitSet(INVENTORY_SIZE)).set(index);
+            for (@NotNull final String tool : getToolTypes(stack))
+            {
+                toolSlots.computeIfAbsent(tool, type -> new BitSet(INVENTORY_SIZE)).set(index);
+            }
+        }
+
+        if (materialStore != null)
+        {
+            materialStore.updateSlot(index, stack);
+        }
+    }
+
+    /**
+     * Remove a slot from an index.
+     *
+     * @param index the index.
+     * @param key   the item or tool type of the slot.
+     * @param slot  the slot.
+     * @param <K>   the key type.
+     */
+    private static <K> void removeFromIndex(@NotNull final Map<K, BitSet> index, @NotNull final K key, final int slot)
+    {
+        final BitSet slots = index.get(key);
+        if (slots != null)
+        {
+            slots.clear(slot);
+            if (slots.isEmpty())
+            {
+                index.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Get the tool types of a stack, the same ones {@link com.minecolonies.coremod.util.InventoryUtils#getFirstSlotContainingTool(IInventory, String)}
+     * looks for: the tool classes of the item, hoes and fishing rods.
+     *
+     * @param stack the stack.
+     * @return the tool types.
+     */
+    @NotNull
+    public static Set<String> getToolTypes(@NotNull final ItemStack stack)
+    {
+        if (stack.getItem() == null)
+        {
+            return Collections.emptySet();
+        }
+
+        final Set<String> toolClasses = stack.getItem().getToolClasses(stack);
+        final boolean hoe = stack.getItem() instanceof ItemHoe || stack.getUnlocalizedName().contains(HOE);
+        final boolean rod = stack.getUnlocalizedName().contains("fishingRod");
+        if (!hoe && !rod)
+        {
+            return toolClasses;
+        }
+
+        @NotNull final Set<String> types = new HashSet<>(toolClasses);
+        if (hoe)
+        {
+            types.add(HOE);
+        }
+        if (rod)
+        {
+            types.add(ROD);
+        }
+        return types;
+    }
+
     /**
      * Adds the item stack to the inventory, returns false if it is impossible.
      *
@@ -228,7 +424,7 @@ public class InventoryCitizen implements IInventory
                     {
                         return false;
                     }
-                    this.stacks[j] = ItemStack.copyItemStack(itemStackIn);
+                    setSlot(j, ItemStack.copyItemStack(itemStackIn));
                     itemStackIn.stackSize = 0;
                     return true;
                 }
@@ -280,15 +476,8 @@ public class InventoryCitizen implements IInventory
      */
     public int getFirstEmptySlot()
     {
-        for (int i = 0; i < this.stacks.length; ++i)
-        {
-            if (this.stacks[i] == null)
-            {
-                return i;
-            }
-        }
-
-        return NO_SLOT;
+        final int slot = occupiedSlots.nextClearBit(0);
+        return slot < INVENTORY_SIZE ? slot : NO_SLOT;
     }
 
     /**
@@ -314,8 +503,9 @@ public class InventoryCitizen implements IInventory
             if (this.stacks[j] == null)
             {
                 // Forge: Replace Item clone above to preserve item capabilities when picking the item up.
-                this.stacks[j] = itemStackIn.copy();
-                this.stacks[j].stackSize = 0;
+                final ItemStack copy = itemStackIn.copy();
+                copy.stackSize = 0;
+                setSlot(j, copy);
             }
 
             int k = i;
@@ -338,6 +528,7 @@ public class InventoryCitizen implements IInventory
             {
                 i = i - k;
                 this.stacks[j].stackSize += k;
+                updateMaterialStore(j);
                 return i;
             }
         }
@@ -348,9 +539,15 @@ public class InventoryCitizen implements IInventory
      */
     private int storeItemStack(@NotNull final ItemStack itemStackIn)
     {
-        for (int i = 0; i < this.stacks.length; ++i)
+        final BitSet slots = itemSlots.get(itemStackIn.getItem());
+        if (slots == null)
+        {
+            return NO_SLOT;
+        }
+
+        for (int i = slots.nextSetBit(0); i >= 0; i = slots.nextSetBit(i + 1))
         {
-            if (this.stacks[i] != null && this.stacks[i].getItem() == itemStackIn.getItem() && this.stacks[i].isStackable()
+            if (this.stacks[i].isStackable()
                   && this.stacks[i].stackSize < this.stacks[i].getMaxStackSize() && this.stacks[i].stackSize < this.getInventoryStackLimit()
                   && (!this.stacks[i].getHasSubtypes() || this.stacks[i].getMetadata() == itemStackIn.getMetadata())
                   && ItemStack.areItemStackTagsEqual(this.stacks[i], itemStackIn))
@@ -404,14 +601,35 @@ public class InventoryCitizen implements IInventory
     {
         if (materialStore == null)
         {
-            materialStore = new MaterialStore(MaterialStore.Type.INVENTORY, system);
+            materialStore = new MaterialStore(MaterialStore.Type.INVENTORY, system, null);
+            materialStore.sync(this);
+        }
+    }
+
+    /**
+     * Remove the items of the inventory from the material system, when the citizen leaves the world.
+     */
+    public void destroyMaterialStore()
+    {
+        if (materialStore != null)
+        {
+            materialStore.destroy();
+            materialStore = null;
         }
     }
 
+    /**
+     * Gets the MaterialStore for this inventory.
+     *
+     * @return The MaterialStore that tracks this inventory, or null if the citizen has no colony.
+     */
+    @Nullable
     public MaterialStore getMaterialStore()
     {
         return materialStore;
-    }    /**
+    }
+
+    /**
      * Get the name of this object. For citizens this returns their name.
      *
      * @return the name of the inventory.
@@ -423,32 +641,6 @@ public class InventoryCitizen implements IInventory
         return this.hasCustomName() ? this.customName : "citizen.inventory";
     }
 
-    private void addStackToMaterialStore(@Nullable final ItemStack stack)
-    {
-        if (stack == null)
-        {
-            return;
-        }
-
-        if (MaterialSystem.isEnabled)
-        {
-            materialStore.addMaterial(stack.getItem(), stack.stackSize);
-        }
-    }
-
-    private void removeStackFromMaterialStore(@Nullable final ItemStack stack)
-    {
-        if (stack == null)
-        {
-            return;
-        }
-
-        if (MaterialSystem.isEnabled)
-        {
-            materialStore.removeMaterial(stack.getItem(), stack.stackSize);
-        }
-    }
-
     /**
      * Used to retrieve variables.
      *
@@ -457,7 +649,7 @@ public class InventoryCitizen implements IInventory
     public void readFromNBT(@NotNull final NBTTagCompound compound)
     {
         final NBTTagList nbttaglist = compound.getTagList(TAG_ITEMS, Constants.NBT.TAG_COMPOUND);
-        this.stacks = new ItemStack[this.getSizeInventory()];
+        clear();
 
         for (int i = 0; i < nbttaglist.tagCount(); ++i)
         {
@@ -466,7 +658,7 @@ public class InventoryCitizen implements IInventory
 
             if (j != NO_SLOT && j < this.stacks.length)
             {
-                this.stacks[j] = ItemStack.loadItemStackFromNBT(nbttagcompound);
+                setSlot(j, ItemStack.loadItemStackFromNBT(nbttagcompound));
             }
         }
 
@@ -496,6 +688,10 @@ public class InventoryCitizen implements IInventory
     @Override
     public ItemStack getStackInSlot(final int index)
     {
+        if (this.stacks[index] != null)
+        {
+            lentSlots.set(index);
+        }
         return this.stacks[index];
     }
 
@@ -515,7 +711,7 @@ public class InventoryCitizen implements IInventory
             if (this.stacks[index].stackSize <= count)
             {
                 final ItemStack itemstack1 = this.stacks[index];
-                this.stacks[index] = null;
+                setSlot(index, null);
                 this.markDirty();
                 if (index == heldItem)
                 {
@@ -533,7 +729,11 @@ public class InventoryCitizen implements IInventory
 
                 if (this.stacks[index].stackSize == 0)
                 {
-                    this.stacks[index] = null;
+                    setSlot(index, null);
+                }
+                else
+                {
+                    updateMaterialStore(index);
                 }
 
                 this.markDirty();
@@ -562,7 +762,7 @@ public class InventoryCitizen implements IInventory
         }
 
         final ItemStack itemstack = this.stacks[index];
-        this.stacks[index] = null;
+        setSlot(index, null);
         return itemstack;
     }
 
@@ -584,13 +784,12 @@ public class InventoryCitizen implements IInventory
             heldItem = 0;
         }
 
-        this.stacks[index] = stack;
-
         if (stack != null && stack.stackSize > this.getInventoryStackLimit())
         {
             stack.stackSize = this.getInventoryStackLimit();
         }
 
+        setSlot(index, stack);
         this.markDirty();
     }    /**
      * Checks if the inventory is named.
@@ -622,6 +821,26 @@ public class InventoryCitizen implements IInventory
     public void markDirty()
     {
         this.inventoryChanged = true;
+
+        //  Stacks may have been changed in place, but only the ones which were handed out
+        for (int slot = lentSlots.nextSetBit(0); slot >= 0; slot = lentSlots.nextSetBit(slot + 1))
+        {
+            updateMaterialStore(slot);
+        }
+        lentSlots.clear();
+    }
+
+    /**
+     * Record the stack of a slot in the material store, after it has been changed in place.
+     *
+     * @param index the slot.
+     */
+    private void updateMaterialStore(final int index)
+    {
+        if (materialStore != null)
+        {
+            materialStore.updateSlot(index, this.stacks[index]);
+        }
     }
 
     /**
@@ -728,7 +947,7 @@ public class InventoryCitizen implements IInventory
     {
         for (int i = 0; i < this.stacks.length; ++i)
         {
-            this.stacks[i] = null;
+            setSlot(i, null);
         }
     }
 
@@ -758,33 +977,7 @@ public class InventoryCitizen implements IInventory
         {
             compound.setString(TAG_CUSTOM_NAME, this.customName);
         }
-        if (MaterialSystem.isEnabled)
-        {
-            materialStore.writeToNBT(compound);
-        }
 
         compound.setTag(TAG_INVENTORY, nbttaglist);
     }
-
-
-
-
-
-
-
-
-    //-----------------------------Material Handling--------------------------------
-
-
-    //todo missing now
-    /*
-    @Override
-    public ItemStack getStackInSlotOnClosing(int index)
-    {
-            ItemStack removed = super.getStackInSlotOnClosing(index);
-
-                    removeStackFromMaterialStore(removed);
-
-                    return removed;
-    }*/
 }
@@ -68,7 +68,7 @@ public class AssignFieldMessage extends AbstractMessage<AssignFieldMessage, IMes
     @Override
     public void messageOnServerThread(final AssignFieldMessage message, final EntityPlayerMP player)
     {
-        final Colony colony = ColonyManager.getColony(message.colonyId);
+        final Colony colony = ColonyManager.getLoadedColony(message.colonyId);
         if (colony != null)
         {
             //Verify player has permission to change this huts settings
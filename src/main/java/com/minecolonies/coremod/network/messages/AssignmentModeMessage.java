@@ -63,7 +63,7 @@ public class AssignmentModeMessage extends AbstractMessage<AssignmentModeMessage
     @Override
     public void messageOnServerThread(final AssignmentModeMessage message, final EntityPlayerMP player)
     {
-        final Colony colony = ColonyManager.getColony(message.colonyId);
+        final Colony colony = ColonyManager.getLoadedColony(message.colonyId);
         if (colony != null)
         {
             //Verify player has permission to change this huts settings
@@ -81,7 +81,7 @@ public class BuildRequestMessage extends AbstractMessage<BuildRequestMessage, IM
     @Override
     public void messageOnServerThread(final BuildRequestMessage message, final EntityPlayerMP player)
     {
-        final Colony colony = ColonyManager.getColony(message.colonyId);
+        final Colony colony = ColonyManager.getLoadedColony(message.colonyId);
         if (colony == null)
         {
             return;
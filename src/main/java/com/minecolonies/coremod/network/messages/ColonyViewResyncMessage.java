@@ -0,0 +1,58 @@
+package com.minecolonies.coremod.network.messages;
+
+import com.minecolonies.coremod.colony.Colony;
+import com.minecolonies.coremod.colony.ColonyManager;
+import io.netty.buffer.ByteBuf;
+import net.minecraft.entity.player.EntityPlayerMP;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Asks the server to send all citizen and building views of a colony again,
+ * sent when the client missed a version a view update is based on.
+ */
+public class ColonyViewResyncMessage extends AbstractMessage<ColonyViewResyncMessage, IMessage>
+{
+    private int colonyId;
+
+    /**
+     * Empty public constructor.
+     */
+    public ColonyViewResyncMessage()
+    {
+        super();
+    }
+
+    /**
+     * Creates a resync request.
+     *
+     * @param colonyId the id of the colony.
+     */
+    public ColonyViewResyncMessage(final int colonyId)
+    {
+        super();
+        this.colonyId = colonyId;
+    }
+
+    @Override
+    public void fromBytes(@NotNull final ByteBuf buf)
+    {
+        colonyId = buf.readInt();
+    }
+
+    @Override
+    public void toBytes(@NotNull final ByteBuf buf)
+    {
+        buf.writeInt(colonyId);
+    }
+
+    @Override
+    public void messageOnServerThread(final ColonyViewResyncMessage message, final EntityPlayerMP player)
+    {
+        final Colony colony = ColonyManager.getLoadedColony(message.colonyId);
+        if (colony != null)
+        {
+            colony.requestViewResync(player);
+        }
+    }
+}
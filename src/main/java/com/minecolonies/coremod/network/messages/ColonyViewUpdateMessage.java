@@ -0,0 +1,112 @@
+package com.minecolonies.coremod.network.messages;
+
+import com.minecolonies.coremod.colony.ColonyManager;
+import com.minecolonies.coremod.util.Log;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessage;
+import net.minecraftforge.fml.common.network.simpleimpl.IMessageHandler;
+import net.minecraftforge.fml.common.network.simpleimpl.MessageContext;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayOutputStream;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Add or Update the citizen and building views of a ColonyView on the client.
+ * Carries all changes of one tick, compressed.
+ */
+public class ColonyViewUpdateMessage implements IMessage, IMessageHandler<ColonyViewUpdateMessage, IMessage>
+{
+    /**
+     * Size of the buffer used while compressing.
+     */
+    private static final int CHUNK_SIZE = 4096;
+
+    private int    colonyId;
+    private int    length;
+    private byte[] compressedData;
+
+    /**
+     * Empty constructor used when registering the message.
+     */
+    public ColonyViewUpdateMessage()
+    {
+        super();
+    }
+
+    /**
+     * Creates a message with the view updates of a colony.
+     *
+     * @param colonyId the id of the colony.
+     * @param updates  the updates, as written by the colony.
+     */
+    public ColonyViewUpdateMessage(final int colonyId, @NotNull final ByteBuf updates)
+    {
+        this.colonyId = colonyId;
+        this.length = updates.readableBytes();
+
+        final byte[] data = new byte[length];
+        updates.getBytes(updates.readerIndex(), data);
+
+        final Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        deflater.setInput(data);
+        deflater.finish();
+        final ByteArrayOutputStream out = new ByteArrayOutputStream(length / 2 + 1);
+        final byte[] chunk = new byte[CHUNK_SIZE];
+        while (!deflater.finished())
+        {
+            out.write(chunk, 0, deflater.deflate(chunk));
+        }
+        deflater.end();
+        this.compressedData = out.toByteArray();
+    }
+
+    @Override
+    public void fromBytes(@NotNull final ByteBuf buf)
+    {
+        colonyId = buf.readInt();
+        length = buf.readInt();
+        compressedData = new byte[buf.readableBytes()];
+        buf.readBytes(compressedData);
+    }
+
+    @Override
+    public void toBytes(@NotNull final ByteBuf buf)
+    {
+        buf.writeInt(colonyId);
+        buf.writeInt(length);
+        buf.writeBytes(compressedData);
+    }
+
+    @Nullable
+    @Override
+    public IMessage onMessage(@NotNull final ColonyViewUpdateMessage message, final MessageContext ctx)
+    {
+        final byte[] data = new byte[message.length];
+        final Inflater inflater = new Inflater();
+        try
+        {
+            inflater.setInput(message.compressedData);
+            int read = 0;
+            while (read < data.length && !inflater.finished())
+            {
+                read += inflater.inflate(data, read, data.length - read);
+            }
+        }
+        catch (final DataFormatException e)
+        {
+            Log.getLogger().error("Invalid colony view update", e);
+            return null;
+        }
+        finally
+        {
+            inflater.end();
+        }
+
+        return ColonyManager.handleColonyViewUpdateMessage(message.colonyId, Unpooled.wrappedBuffer(data));
+    }
+}
@@ -87,7 +87,7 @@ public class GuardTaskMessage extends AbstractMessage<GuardTaskMessage, IMessage
     @Override
     public void messageOnServerThread(final GuardTaskMessage message, final EntityPlayerMP player)
     {
-        final Colony colony = ColonyManager.getColony(message.colonyId);
+        final Colony colony = ColonyManager.getLoadedColony(message.colonyId);
         if (colony != null)
         {
             //Verify player has permission to change this huts settings
@@ -93,7 +93,7 @@ public class HireFireMessage extends AbstractMessage<HireFireMessage, IMessage>
     @Override
     public void messageOnServerThread(final HireFireMessage message, final EntityPlayerMP player)
     {
-        final Colony colony = ColonyManager.getColony(message.colonyId);
+        final Colony colony = ColonyManager.getLoadedColony(message.colonyId);
         if (colony != null)
         {
             //Verify player has permission to change this huts settings
@@ -62,7 +62,7 @@ public class MinerSetLevelMessage extends AbstractMessage<MinerSetLevelMessage,
     @Override
     public void messageOnServerThread(final MinerSetLevelMessage message, final EntityPlayerMP player)
     {
-        final Colony colony = ColonyManager.getColony(message.colonyId);
+        final Colony colony = ColonyManager.getLoadedColony(message.colonyId);
         if (colony != null)
         {
 
@@ -180,9 +180,11 @@ public class OpenInventoryMessage extends AbstractMessage<OpenInventoryMessage,
 
     private static void doFieldInventory(final OpenInventoryMessage message, final EntityPlayerMP player)
     {
-        if (checkPermissions(ColonyManager.getClosestColony(player.getEntityWorld(), message.tePos), player))
+        @Nullable final Colony colony = ColonyManager.getLoadedColony(message.colonyId);
+        if (colony != null && colony.getField(message.tePos) != null
+              && checkPermissions(ColonyManager.getClosestColony(player.getEntityWorld(), message.tePos), player))
         {
-            @NotNull final InventoryField inventoryField = ColonyManager.getColony(message.colonyId).getField(message.tePos).getInventoryField();
+            @NotNull final InventoryField inventoryField = colony.getField(message.tePos).getInventoryField();
             if (!StringUtils.isNullOrEmpty(message.name))
             {
                 inventoryField.setCustomName(message.name);
@@ -128,7 +128,7 @@ public class PermissionsMessage
         @Override
         public void messageOnServerThread(final Permission message, final EntityPlayerMP player)
         {
-            final Colony colony = ColonyManager.getColony(message.colonyID);
+            final Colony colony = ColonyManager.getLoadedColony(message.colonyID);
             if (colony == null)
             {
                 Log.getLogger().error(String.format(COLONY_DOES_NOT_EXIST, message.colonyID));
@@ -222,7 +222,7 @@ public class PermissionsMessage
         @Override
         public void messageOnServerThread(final AddPlayer message, final EntityPlayerMP player)
         {
-            final Colony colony = ColonyManager.getColony(message.colonyID);
+            final Colony colony = ColonyManager.getLoadedColony(message.colonyID);
 
             if (colony != null && colony.getPermissions().hasPermission(player, Permissions.Action.CAN_PROMOTE) && colony.getWorld() != null)
             {
@@ -295,7 +295,7 @@ public class PermissionsMessage
         @Override
         public void messageOnServerThread(final ChangePlayerRank message, final EntityPlayerMP player)
         {
-            final Colony colony = ColonyManager.getColony(message.colonyID);
+            final Colony colony = ColonyManager.getLoadedColony(message.colonyID);
 
             if (colony == null || colony.getWorld() == null)
             {
@@ -360,7 +360,7 @@ public class PermissionsMessage
         @Override
         public void messageOnServerThread(final RemovePlayer message, final EntityPlayerMP player)
         {
-            final Colony colony = ColonyManager.getColony(message.colonyID);
+            final Colony colony = ColonyManager.getLoadedColony(message.colonyID);
 
             if (colony == null)
             {
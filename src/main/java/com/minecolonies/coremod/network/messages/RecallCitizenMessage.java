@@ -69,7 +69,7 @@ public class RecallCitizenMessage extends AbstractMessage<RecallCitizenMessage,
     @Override
     public void messageOnServerThread(final RecallCitizenMessage message, final EntityPlayerMP player)
     {
-        final Colony colony = ColonyManager.getColony(message.colonyId);
+        final Colony colony = ColonyManager.getLoadedColony(message.colonyId);
         if (colony != null)
         {
 
@@ -78,7 +78,7 @@ public class ToggleJobMessage extends AbstractMessage<ToggleJobMessage, IMessage
     @Override
     public void messageOnServerThread(final ToggleJobMessage message, final EntityPlayerMP player)
     {
-        final Colony colony = ColonyManager.getColony(message.colonyId);
+        final Colony colony = ColonyManager.getLoadedColony(message.colonyId);
         if (colony != null)
         {
 
@@ -59,7 +59,7 @@ public class TownHallRenameMessage extends AbstractMessage<TownHallRenameMessage
     @Override
     public void messageOnServerThread(final TownHallRenameMessage message, final EntityPlayerMP player)
     {
-        final Colony colony = ColonyManager.getColony(message.colonyId);
+        final Colony colony = ColonyManager.getLoadedColony(message.colonyId);
         if (colony != null)
         {
             //Verify player has permission to change this huts settings
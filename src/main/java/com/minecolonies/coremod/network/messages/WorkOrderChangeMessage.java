@@ -90,7 +90,7 @@ public class WorkOrderChangeMessage extends AbstractMessage<WorkOrderChangeMessa
     @Override
     public void messageOnServerThread(final WorkOrderChangeMessage message, final EntityPlayerMP player)
     {
-        final Colony colony = ColonyManager.getColony(message.colonyId);
+        final Colony colony = ColonyManager.getLoadedColony(message.colonyId);
         if (colony != null && colony.getPermissions().hasPermission(player, Permissions.Action.ACCESS_HUTS))
         {
             //Verify player has permission to change this huts settings
@@ -105,7 +105,7 @@ public class WorkOrderChangeMessage extends AbstractMessage<WorkOrderChangeMessa
             }
             else
             {
-                colony.getWorkManager().getWorkOrder(message.workOrderId).setPriority(message.priority);
+                colony.getWorkManager().setPriority(message.workOrderId, message.priority);
             }
         }
     }
@@ -2,6 +2,7 @@ package com.minecolonies.coremod.permissions;
 
 import com.minecolonies.coremod.blocks.AbstractBlockHut;
 import com.minecolonies.coremod.colony.Colony;
+import com.minecolonies.coremod.colony.ColonyManager;
 import com.minecolonies.coremod.colony.permissions.Permissions;
 import com.minecolonies.coremod.configuration.Configurations;
 import com.minecolonies.coremod.entity.EntityCitizen;
@@ -22,26 +23,44 @@ import net.minecraftforge.event.world.ExplosionEvent;
 import net.minecraftforge.fml.common.eventhandler.Event;
 import net.minecraftforge.fml.common.eventhandler.SubscribeEvent;
 
-import java.util.List;
-import java.util.function.Predicate;
-import java.util.stream.Collectors;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * This class handles all permission checks on events and cancels them if needed.
+ * One instance is registered for all colonies, it looks up the colony an event happens in and only checks that one.
+ * Client side events are ignored, the colonies and their permissions only exist on the server.
  */
 public class ColonyPermissionEventHandler
 {
+    /**
+     * Time spent in the handlers, for each event type.
+     */
+    private static final Map<EventType, EventTimer> timers = new EnumMap<>(EventType.class);
 
-    private final Colony colony;
+    static
+    {
+        for (@NotNull final EventType type : EventType.values())
+        {
+            timers.put(type, new EventTimer());
+        }
+    }
 
     /**
-     * Create this EventHandler.
+     * Get the time spent on permission checks of an event type.
      *
-     * @param colony the colony to check on.
+     * @param type the event type.
+     * @return the timer.
      */
-    public ColonyPermissionEventHandler(final Colony colony)
+    @NotNull
+    public static EventTimer getTimer(@NotNull final EventType type)
     {
-        this.colony = colony;
+        return timers.get(type);
     }
 
     /**
@@ -52,10 +71,17 @@ public class ColonyPermissionEventHandler
     @SubscribeEvent
     public void on(final BlockEvent.PlaceEvent event)
     {
+        if (event.getWorld().isRemote)
+        {
+            return;
+        }
+
+        final long start = System.nanoTime();
         if (Configurations.enableColonyProtection && checkBlockEventDenied(event.getWorld(), event.getPos(), event.getPlayer(), event.getPlacedBlock()))
         {
             cancelEvent(event);
         }
+        timers.get(EventType.PLACE).record(start);
     }
 
     /**
@@ -67,9 +93,10 @@ public class ColonyPermissionEventHandler
      * @param blockState the state that block is in
      * @return true if canceled
      */
-    private boolean checkBlockEventDenied(final World worldIn, final BlockPos posIn, final EntityPlayer playerIn, final IBlockState blockState)
+    private static boolean checkBlockEventDenied(final World worldIn, final BlockPos posIn, final EntityPlayer playerIn, final IBlockState blockState)
     {
-        if (colony.isCoordInColony(worldIn, posIn))
+        @Nullable final Colony colony = ColonyManager.getColony(worldIn, posIn);
+        if (colony != null)
         {
             if (!colony.getPermissions().isColonyMember(playerIn))
             {
@@ -110,10 +137,17 @@ public class ColonyPermissionEventHandler
     @SubscribeEvent
     public void on(final BlockEvent.BreakEvent event)
     {
+        if (event.getWorld().isRemote)
+        {
+            return;
+        }
+
+        final long start = System.nanoTime();
         if (Configurations.enableColonyProtection && checkBlockEventDenied(event.getWorld(), event.getPos(), event.getPlayer(), event.getWorld().getBlockState(event.getPos())))
         {
             cancelEvent(event);
         }
+        timers.get(EventType.BREAK).record(start);
     }
 
     /**
@@ -124,25 +158,42 @@ public class ColonyPermissionEventHandler
     @SubscribeEvent
     public void on(final ExplosionEvent.Detonate event)
     {
-        if(!Configurations.enableColonyProtection || !Configurations.turnOffExplosionsInColonies)
+        if(event.getWorld().isRemote || !Configurations.enableColonyProtection || !Configurations.turnOffExplosionsInColonies)
         {
             return;
         }
 
+        final long start = System.nanoTime();
         final World eventWorld = event.getWorld();
-        final Predicate<BlockPos> getBlocksInColony = pos -> colony.isCoordInColony(eventWorld, pos);
-        final Predicate<Entity> getEntitiesInColony = entity -> colony.isCoordInColony(entity.getEntityWorld(), entity.getPosition());
+
         // if block is in colony -> remove from list
-        final List<BlockPos> blocksToRemove = event.getAffectedBlocks().stream()
-                                                .filter(getBlocksInColony)
-                                                .collect(Collectors.toList());
+        @Nullable Colony lastColony = null;
+        final Iterator<BlockPos> blocks = event.getAffectedBlocks().iterator();
+        while (blocks.hasNext())
+        {
+            final BlockPos pos = blocks.next();
+            //  Most blocks of an explosion are in the same colony as the previous one
+            if (lastColony == null || !lastColony.isCoordInColony(eventWorld, pos))
+            {
+                lastColony = ColonyManager.getColony(eventWorld, pos);
+            }
+            if (lastColony != null)
+            {
+                blocks.remove();
+            }
+        }
 
         // if entity is in colony -> remove from list
-        final List<Entity> entitiesToRemove = event.getAffectedEntities().stream()
-                                                .filter(getEntitiesInColony)
-                                                .collect(Collectors.toList());
-        event.getAffectedBlocks().removeAll(blocksToRemove);
-        event.getAffectedEntities().removeAll(entitiesToRemove);
+        final Iterator<Entity> entities = event.getAffectedEntities().iterator();
+        while (entities.hasNext())
+        {
+            final Entity entity = entities.next();
+            if (ColonyManager.getColony(entity.getEntityWorld(), entity.getPosition()) != null)
+            {
+                entities.remove();
+            }
+        }
+        timers.get(EventType.EXPLOSION_DETONATE).record(start);
     }
 
     /**
@@ -153,12 +204,19 @@ public class ColonyPermissionEventHandler
     @SubscribeEvent
     public void on(final ExplosionEvent.Start event)
     {
+        if (event.getWorld().isRemote)
+        {
+            return;
+        }
+
+        final long start = System.nanoTime();
         if (Configurations.enableColonyProtection
                 && Configurations.turnOffExplosionsInColonies
-                && colony.isCoordInColony(event.getWorld(), new BlockPos(event.getExplosion().getPosition())))
+                && ColonyManager.getColony(event.getWorld(), new BlockPos(event.getExplosion().getPosition())) != null)
         {
             cancelEvent(event);
         }
+        timers.get(EventType.EXPLOSION_START).record(start);
     }
 
     /**
@@ -175,7 +233,14 @@ public class ColonyPermissionEventHandler
     @SubscribeEvent
     public void on(final PlayerInteractEvent event)
     {
-        if (colony.isCoordInColony(event.getWorld(), event.getPos()))
+        if (event.getWorld().isRemote)
+        {
+            return;
+        }
+
+        final long start = System.nanoTime();
+        @Nullable final Colony colony = ColonyManager.getColony(event.getWorld(), event.getPos());
+        if (colony != null)
         {
             final Block block = event.getWorld().getBlockState(event.getPos()).getBlock();
             // Huts
@@ -202,7 +267,7 @@ public class ColonyPermissionEventHandler
                 cancelEvent(event);
             }
         }
-
+        timers.get(EventType.INTERACT).record(start);
     }
 
     /**
@@ -218,8 +283,15 @@ public class ColonyPermissionEventHandler
     @SubscribeEvent
     public void on(final ItemTossEvent event)
     {
+        if (event.getPlayer().getEntityWorld().isRemote)
+        {
+            return;
+        }
+
+        final long start = System.nanoTime();
         final EntityPlayer playerIn = event.getPlayer();
-        if (Configurations.enableColonyProtection && colony.isCoordInColony(playerIn.getEntityWorld(), playerIn.getPosition()))
+        @Nullable final Colony colony = Configurations.enableColonyProtection ? ColonyManager.getColony(playerIn.getEntityWorld(), playerIn.getPosition()) : null;
+        if (colony != null)
         {
             final Permissions.Rank rank = colony.getPermissions().getRank(playerIn);
 
@@ -234,6 +306,7 @@ public class ColonyPermissionEventHandler
                 cancelEvent(event);
             }
         }
+        timers.get(EventType.TOSS).record(start);
     }
 
     /**
@@ -249,8 +322,15 @@ public class ColonyPermissionEventHandler
     @SubscribeEvent
     public void on(final EntityItemPickupEvent event)
     {
+        if (event.getEntityPlayer().getEntityWorld().isRemote)
+        {
+            return;
+        }
+
+        final long start = System.nanoTime();
         final EntityPlayer playerIn = event.getEntityPlayer();
-        if (Configurations.enableColonyProtection && colony.isCoordInColony(playerIn.getEntityWorld(), playerIn.getPosition()))
+        @Nullable final Colony colony = Configurations.enableColonyProtection ? ColonyManager.getColony(playerIn.getEntityWorld(), playerIn.getPosition()) : null;
+        if (colony != null)
         {
             final Permissions.Rank rank = colony.getPermissions().getRank(playerIn);
 
@@ -259,6 +339,7 @@ public class ColonyPermissionEventHandler
                 cancelEvent(event);
             }
         }
+        timers.get(EventType.PICKUP).record(start);
     }
 
     /**
@@ -275,8 +356,16 @@ public class ColonyPermissionEventHandler
     @SubscribeEvent
     public void on(final AttackEntityEvent event)
     {
+        if (event.getEntityPlayer().getEntityWorld().isRemote)
+        {
+            return;
+        }
+
+        final long start = System.nanoTime();
         final EntityPlayer playerIn = event.getEntityPlayer();
-        if (Configurations.enableColonyProtection && colony.isCoordInColony(playerIn.getEntityWorld(), playerIn.getPosition()) && event.getTarget() instanceof EntityCitizen )
+        @Nullable final Colony colony = Configurations.enableColonyProtection && event.getTarget() instanceof EntityCitizen
+                                          ? ColonyManager.getColony(playerIn.getEntityWorld(), playerIn.getPosition()) : null;
+        if (colony != null)
         {
             final Permissions.Rank rank = colony.getPermissions().getRank(playerIn);
 
@@ -285,5 +374,89 @@ public class ColonyPermissionEventHandler
                 cancelEvent(event);
             }
         }
+        timers.get(EventType.ATTACK).record(start);
+    }
+
+    /**
+     * The event types the permission checks are timed for.
+     */
+    public enum EventType
+    {
+        PLACE,
+        BREAK,
+        EXPLOSION_DETONATE,
+        EXPLOSION_START,
+        INTERACT,
+        TOSS,
+        PICKUP,
+        ATTACK
+    }
+
+    /**
+     * Counts the handled events of one type and the time spent on them.
+     * Only server events are handled, the counters are atomic so they can be read from any thread.
+     */
+    public static final class EventTimer
+    {
+        private final AtomicLong count      = new AtomicLong();
+        private final AtomicLong totalNanos = new AtomicLong();
+        private final AtomicLong maxNanos   = new AtomicLong();
+
+        /**
+         * Record a handled event.
+         *
+         * @param start the {@link System#nanoTime()} the handler started at.
+         */
+        private void record(final long start)
+        {
+            final long nanos = System.nanoTime() - start;
+            count.incrementAndGet();
+            totalNanos.addAndGet(nanos);
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos))
+            {
+                max = maxNanos.get();
+            }
+        }
+
+        /**
+         * Amount of handled events.
+         *
+         * @return the amount.
+         */
+        public long getCount()
+        {
+            return count.get();
+        }
+
+        /**
+         * Total time spent on the events.
+         *
+         * @return the time in nanoseconds.
+         */
+        public long getTotalNanos()
+        {
+            return totalNanos.get();
+        }
+
+        /**
+         * Longest time spent on one event.
+         *
+         * @return the time in nanoseconds.
+         */
+        public long getMaxNanos()
+        {
+            return maxNanos.get();
+        }
+
+        /**
+         * Reset the counters.
+         */
+        public void reset()
+        {
+            count.set(0);
+            totalNanos.set(0);
+            maxNanos.set(0);
+        }
     }
 }
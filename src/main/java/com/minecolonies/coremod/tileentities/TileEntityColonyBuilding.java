@@ -4,7 +4,6 @@ import com.minecolonies.coremod.colony.Colony;
 import com.minecolonies.coremod.colony.ColonyManager;
 import com.minecolonies.coremod.colony.ColonyView;
 import com.minecolonies.coremod.colony.buildings.AbstractBuilding;
-import com.minecolonies.coremod.colony.materials.MaterialSystem;
 import com.minecolonies.coremod.colony.permissions.Permissions;
 import com.minecolonies.coremod.util.Log;
 import net.minecraft.entity.player.EntityPlayer;
@@ -116,6 +115,7 @@ public class TileEntityColonyBuilding extends TileEntityChest
 
     /**
      * Synchronises colony references from the tile entity.
+     * The tile entity may be asked while its chunk loads, so an unloaded colony is only queued to be loaded.
      */
     private void updateColonyReferences()
     {
@@ -123,11 +123,16 @@ public class TileEntityColonyBuilding extends TileEntityChest
         {
             if (colonyId == 0)
             {
-                colony = ColonyManager.getColony(worldObj, this.getPos());
+                colony = ColonyManager.getLoadedColony(worldObj, this.getPos());
             }
             else
             {
-                colony = ColonyManager.getColony(colonyId);
+                colony = ColonyManager.getLoadedColony(colonyId);
+            }
+
+            if (colony == null && !worldObj.isRemote && colonyId != 0 && ColonyManager.queueColonyLoad(colonyId))
+            {
+                return;
             }
 
             if (colony == null)
@@ -155,6 +160,7 @@ public class TileEntityColonyBuilding extends TileEntityChest
             if (building != null && (worldObj == null || !worldObj.isRemote))
             {
                 building.setTileEntity(this);
+                syncMaterialStore();
             }
         }
     }
@@ -166,7 +172,7 @@ public class TileEntityColonyBuilding extends TileEntityChest
 
         if (!worldObj.isRemote && colonyId == 0)
         {
-            final Colony tempColony = ColonyManager.getColony(worldObj, this.getPosition());
+            final Colony tempColony = ColonyManager.getLoadedColony(worldObj, this.getPosition());
             if (tempColony != null)
             {
                 colonyId = tempColony.getID();
@@ -208,6 +214,7 @@ public class TileEntityColonyBuilding extends TileEntityChest
     public void setBuilding(final AbstractBuilding b)
     {
         building = b;
+        syncMaterialStore();
     }
 
     /**
@@ -274,7 +281,7 @@ public class TileEntityColonyBuilding extends TileEntityChest
     {
         final ItemStack removed = super.decrStackSize(index, quantity);
 
-        removeStackFromMaterialStore(removed);
+        updateMaterialStore(index);
 
         return removed;
     }
@@ -284,7 +291,7 @@ public class TileEntityColonyBuilding extends TileEntityChest
     {
         final ItemStack removed = super.removeStackFromSlot(index);
 
-        removeStackFromMaterialStore(removed);
+        updateMaterialStore(index);
 
         return removed;
     }
@@ -292,37 +299,41 @@ public class TileEntityColonyBuilding extends TileEntityChest
     @Override
     public void setInventorySlotContents(final int index, final ItemStack stack)
     {
-        final ItemStack previous = getStackInSlot(index);
-        removeStackFromMaterialStore(previous);
-
         super.setInventorySlotContents(index, stack);
 
-        addStackToMaterialStore(stack);
+        updateMaterialStore(index);
     }
 
-    private void addStackToMaterialStore(final ItemStack stack)
+    @Override
+    public void markDirty()
     {
-        if (stack == null)
-        {
-            return;
-        }
+        super.markDirty();
 
-        if (MaterialSystem.isEnabled)
-        {
-            building.getMaterialStore().addMaterial(stack.getItem(), stack.stackSize);
-        }
+        //  Stacks may have been changed in place
+        syncMaterialStore();
     }
 
-    private void removeStackFromMaterialStore(final ItemStack stack)
+    /**
+     * Record the stack of a slot in the material store of the building.
+     *
+     * @param index the slot.
+     */
+    private void updateMaterialStore(final int index)
     {
-        if (stack == null)
+        if (building != null && worldObj != null && !worldObj.isRemote)
         {
-            return;
+            building.getMaterialStore().updateSlot(index, getStackInSlot(index));
         }
+    }
 
-        if (MaterialSystem.isEnabled)
+    /**
+     * Record all slots in the material store of the building.
+     */
+    private void syncMaterialStore()
+    {
+        if (building != null && worldObj != null && !worldObj.isRemote)
         {
-            building.getMaterialStore().removeMaterial(stack.getItem(), stack.stackSize);
+            building.getMaterialStore().sync(this);
         }
     }
 }
@@ -0,0 +1,400 @@
+package com.minecolonies.coremod.util;
+
+import com.minecolonies.coremod.blocks.AbstractBlockHut;
+import com.minecolonies.coremod.colony.buildings.BuildingBuilder;
+import com.minecolonies.coremod.entity.ai.basic.AbstractEntityAIStructure;
+import com.minecolonies.structures.helpers.StructureProxy;
+import net.minecraft.block.Block;
+import net.minecraft.block.BlockBed;
+import net.minecraft.block.BlockDoor;
+import net.minecraft.block.state.IBlockState;
+import net.minecraft.entity.Entity;
+import net.minecraft.entity.EntityList;
+import net.minecraft.entity.item.EntityArmorStand;
+import net.minecraft.entity.item.EntityItemFrame;
+import net.minecraft.init.Blocks;
+import net.minecraft.init.Items;
+import net.minecraft.item.ItemStack;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.tileentity.TileEntity;
+import net.minecraft.tileentity.TileEntityFlowerPot;
+import net.minecraft.tileentity.TileEntityLockable;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.util.math.RayTraceResult;
+import net.minecraft.world.World;
+import net.minecraft.world.gen.structure.template.Template;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+
+/**
+ * The items needed to build a structure in a rotation.
+ * <p>
+ * Walking the structure and creating its tile entities and entities happens once per structure and rotation,
+ * the result is cached. Comparing it with the world to find what is still missing is done by a {@link Diff},
+ * which checks a limited number of blocks per call so it can be spread over several ticks.
+ */
+public final class BillOfMaterials
+{
+    /**
+     * Number of structure and rotation combinations kept in the cache.
+     */
+    private static final int MAX_CACHED = 32;
+
+    /**
+     * The cached bills by structure name and rotation.
+     */
+    @NotNull
+    private static final Map<String, BillOfMaterials> CACHE = Collections.synchronizedMap(new LinkedHashMap<String, BillOfMaterials>(MAX_CACHED, 0.75F, true)
+    {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, BillOfMaterials> eldest)
+        {
+            return size() > MAX_CACHED;
+        }
+    });
+
+    /**
+     * The blocks which need items, unless the world already has them.
+     */
+    @NotNull
+    private final List<Requirement> blocks;
+
+    /**
+     * The items of the entities, always needed.
+     */
+    @NotNull
+    private final List<ItemStack> entityItems;
+
+    /**
+     * Create a bill.
+     *
+     * @param blocks      the blocks which need items.
+     * @param entityItems the items of the entities.
+     */
+    private BillOfMaterials(@NotNull final List<Requirement> blocks, @NotNull final List<ItemStack> entityItems)
+    {
+        this.blocks = blocks;
+        this.entityItems = entityItems;
+    }
+
+    /**
+     * Get the bill of a rotated structure, computing it if it is not cached.
+     *
+     * @param structure the structure, already rotated.
+     * @param rotation  the number of times it was rotated.
+     * @param world     the world used to create tile entities and entities.
+     * @return the bill.
+     */
+    @NotNull
+    public static BillOfMaterials get(@NotNull final StructureWrapper structure, final int rotation, @NotNull final World world)
+    {
+        return CACHE.computeIfAbsent(structure.getName() + ":" + rotation, key -> compute(structure.structure(), world));
+    }
+
+    /**
+     * Walk the structure and collect the items it needs.
+     *
+     * @param structure the rotated structure.
+     * @param world     the world used to create tile entities and entities.
+     * @return the bill.
+     */
+    @NotNull
+    private static BillOfMaterials compute(@NotNull final StructureProxy structure, @NotNull final World world)
+    {
+        @NotNull final List<Requirement> blocks = new ArrayList<>();
+        @NotNull final List<ItemStack> entityItems = new ArrayList<>();
+        for (int y = 0; y < structure.getHeight(); y++)
+        {
+            for (int z = 0; z < structure.getLength(); z++)
+            {
+                for (int x = 0; x < structure.getWidth(); x++)
+                {
+                    @NotNull final BlockPos localPos = new BlockPos(x, y, z);
+                    @Nullable final Template.BlockInfo blockInfo = structure.getBlockInfo(localPos);
+                    if (blockInfo == null)
+                    {
+                        continue;
+                    }
+
+                    @Nullable final Template.EntityInfo entityInfo = structure.getEntityinfo(localPos);
+                    if (entityInfo != null)
+                    {
+                        @Nullable final Entity entity = createEntity(entityInfo, world);
+                        if (entity != null)
+                        {
+                            entityItems.addAll(getItemStacksOfEntity(entity));
+                        }
+                    }
+
+                    final IBlockState blockState = blockInfo.blockState;
+                    final Block block = blockState.getBlock();
+                    if ((block instanceof BlockBed && blockState.getValue(BlockBed.PART).equals(BlockBed.EnumPartType.FOOT))
+                          || (block instanceof BlockDoor && blockState.getValue(BlockDoor.HALF).equals(BlockDoor.EnumDoorHalf.UPPER))
+                          || block == Blocks.AIR
+                          || AbstractEntityAIStructure.isBlockFree(block, 0))
+                    {
+                        continue;
+                    }
+
+                    @NotNull final List<ItemStack> items = new ArrayList<>();
+                    if (blockInfo.tileentityData != null)
+                    {
+                        items.addAll(getItemStacksOfTileEntity(blockInfo.tileentityData, world));
+                    }
+                    items.add(BlockUtils.getItemStackFromBlockState(blockState));
+                    items.removeIf(stack -> stack == null || stack.getItem() == null);
+                    blocks.add(new Requirement(localPos, items.toArray(new ItemStack[items.size()])));
+                }
+            }
+        }
+        entityItems.removeIf(stack -> stack == null || stack.getItem() == null);
+        return new BillOfMaterials(blocks, entityItems);
+    }
+
+    /**
+     * Create an entity of a structure.
+     *
+     * @param entityInfo the stored entity.
+     * @param world      the world to create it in.
+     * @return the entity or null if it can't be restored.
+     */
+    @Nullable
+    public static Entity createEntity(@NotNull final Template.EntityInfo entityInfo, @NotNull final World world)
+    {
+        try
+        {
+            return EntityList.createEntityFromNBT(entityInfo.entityData, world);
+        }
+        catch (final RuntimeException e)
+        {
+            Log.getLogger().info("Couldn't restore entitiy", e);
+            return null;
+        }
+    }
+
+    /**
+     * Get the items needed to place an entity.
+     *
+     * @param entity the entity.
+     * @return the list of itemstacks.
+     */
+    @NotNull
+    public static List<ItemStack> getItemStacksOfEntity(@NotNull final Entity entity)
+    {
+        final List<ItemStack> request = new ArrayList<>();
+        if (entity instanceof EntityItemFrame)
+        {
+            final ItemStack stack = ((EntityItemFrame) entity).getDisplayedItem();
+            if (stack != null)
+            {
+                stack.stackSize = 1;
+                request.add(stack);
+                request.add(new ItemStack(Items.ITEM_FRAME, 1, stack.getItemDamage()));
+            }
+        }
+        else if (entity instanceof EntityArmorStand)
+        {
+            request.add(entity.getPickedResult(new RayTraceResult(entity)));
+            entity.getArmorInventoryList().forEach(request::add);
+        }
+        else
+        {
+            request.add(entity.getPickedResult(new RayTraceResult(entity)));
+        }
+        return request;
+    }
+
+    /**
+     * Get itemStack of tileEntityData. Retrieve the data from the tileEntity.
+     *
+     * @param compound the tileEntity stored in a compound.
+     * @param world    the world to create the tileEntity in.
+     * @return the list of itemstacks.
+     */
+    @NotNull
+    public static List<ItemStack> getItemStacksOfTileEntity(@NotNull final NBTTagCompound compound, @NotNull final World world)
+    {
+        final List<ItemStack> items = new ArrayList<>();
+        final TileEntity tileEntity = TileEntity.create(world, compound);
+        if (tileEntity instanceof TileEntityFlowerPot)
+        {
+            items.add(((TileEntityFlowerPot) tileEntity).getFlowerItemStack());
+        }
+        else if (tileEntity instanceof TileEntityLockable)
+        {
+            for (int i = 0; i < ((TileEntityLockable) tileEntity).getSizeInventory(); i++)
+            {
+                final ItemStack stack = ((TileEntityLockable) tileEntity).getStackInSlot(i);
+                if (stack != null)
+                {
+                    items.add(stack);
+                }
+            }
+        }
+        return items;
+    }
+
+    /**
+     * Get all items the structure needs, ignoring what the world already has.
+     *
+     * @return the items with their total amounts.
+     */
+    @NotNull
+    public List<ItemStack> getTotals()
+    {
+        @NotNull final Map<String, ItemStack> totals = new LinkedHashMap<>();
+        for (@NotNull final Requirement requirement : blocks)
+        {
+            for (@NotNull final ItemStack stack : requirement.items)
+            {
+                addTo(totals, stack);
+            }
+        }
+        for (@NotNull final ItemStack stack : entityItems)
+        {
+            addTo(totals, stack);
+        }
+        return new ArrayList<>(totals.values());
+    }
+
+    /**
+     * Add one of an item to a total.
+     *
+     * @param totals the totals by unlocalized name.
+     * @param stack  the item.
+     */
+    private static void addTo(@NotNull final Map<String, ItemStack> totals, @NotNull final ItemStack stack)
+    {
+        @Nullable final ItemStack total = totals.get(stack.getUnlocalizedName());
+        if (total == null)
+        {
+            final ItemStack copy = stack.copy();
+            copy.stackSize = 1;
+            totals.put(stack.getUnlocalizedName(), copy);
+        }
+        else
+        {
+            total.stackSize++;
+        }
+    }
+
+    /**
+     * Start comparing the bill with the world.
+     *
+     * @param structure the structure placed at its position, in the rotation of this bill.
+     * @param world     the world.
+     * @return the diff.
+     */
+    @NotNull
+    public Diff diff(@NotNull final StructureWrapper structure, @NotNull final World world)
+    {
+        return new Diff(structure, world);
+    }
+
+    /**
+     * Compares a bill with the world block by block and requests the missing items.
+     */
+    public final class Diff
+    {
+        /**
+         * The structure placed at its position.
+         */
+        @NotNull
+        private final StructureWrapper structure;
+
+        /**
+         * The world.
+         */
+        @NotNull
+        private final World world;
+
+        /**
+         * The next block to compare.
+         */
+        private int index = 0;
+
+        /**
+         * Create a diff.
+         *
+         * @param structure the structure placed at its position.
+         * @param world     the world.
+         */
+        private Diff(@NotNull final StructureWrapper structure, @NotNull final World world)
+        {
+            this.structure = structure;
+            this.world = world;
+        }
+
+        /**
+         * Compare the next blocks and add the items of the missing ones to the needed resources of a builder.
+         *
+         * @param building  the building of the builder.
+         * @param maxBlocks the maximum number of blocks to compare in this call.
+         * @return true if all blocks have been compared.
+         */
+        public boolean request(@NotNull final BuildingBuilder building, final int maxBlocks)
+        {
+            if (index == 0)
+            {
+                for (@NotNull final ItemStack stack : entityItems)
+                {
+                    building.addNeededResource(stack.copy(), 1);
+                }
+            }
+
+            final int end = Math.min(index + maxBlocks, blocks.size());
+            for (; index < end; index++)
+            {
+                @NotNull final Requirement requirement = blocks.get(index);
+                if (structure.doesStructureBlockEqualWorldBlock(requirement.localPos))
+                {
+                    continue;
+                }
+
+                final Block worldBlock = BlockPosUtil.getBlock(world, requirement.localPos.add(structure.getOffsetPosition()));
+                if (worldBlock == Blocks.BEDROCK || worldBlock instanceof AbstractBlockHut)
+                {
+                    continue;
+                }
+
+                for (@NotNull final ItemStack stack : requirement.items)
+                {
+                    building.addNeededResource(stack.copy(), 1);
+                }
+            }
+            return index >= blocks.size();
+        }
+    }
+
+    /**
+     * A block of the structure and the items needed to place it.
+     */
+    private static final class Requirement
+    {
+        /**
+         * The position in the structure.
+         */
+        @NotNull
+        private final BlockPos    localPos;
+
+        /**
+         * The items, never handed out without copying.
+         */
+        @NotNull
+        private final ItemStack[] items;
+
+        /**
+         * Create a requirement.
+         *
+         * @param localPos the position in the structure.
+         * @param items    the items.
+         */
+        private Requirement(@NotNull final BlockPos localPos, @NotNull final ItemStack[] items)
+        {
+            this.localPos = localPos;
+            this.items = items;
+        }
+    }
+}
@@ -0,0 +1,379 @@
+package com.minecolonies.coremod.util;
+
+import org.jetbrains.annotations.NotNull;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Measures where the colonies spend server time, per colony.
+ * <p>
+ * Call sites take a {@link #start()} and {@link #record(int, Section, Object, long)} the time when they are done.
+ * While profiling is off, start returns 0 and record returns at once, so the instrumentation costs a field read.
+ * Each timer counts calls and the total time, and keeps its last {@link #RING_SIZE} samples for the recent average and maximum.
+ * The timers of the pathfinding section are recorded on the pathfinding threads.
+ */
+public final class ColonyProfiler
+{
+    /**
+     * Number of recent samples kept by each timer.
+     */
+    private static final int RING_SIZE = 128;
+
+    /**
+     * Nanoseconds per microsecond.
+     */
+    private static final long NANOS_PER_MICRO = 1000L;
+
+    /**
+     * If profiling is running.
+     */
+    private static volatile boolean enabled = false;
+
+    /**
+     * The profiles by colony id.
+     */
+    @NotNull
+    private static final Map<Integer, Map<Section, Map<Object, Timer>>> profiles = new ConcurrentHashMap<>();
+
+    private ColonyProfiler()
+    {
+        //Hides default constructor.
+    }
+
+    /**
+     * The parts of colony processing which are profiled.
+     */
+    public enum Section
+    {
+        COLONY_TICK,
+        BUILDING_TICK,
+        AI,
+        PATHFINDING_WAIT,
+        PATHFINDING_RUN,
+        SUBSCRIBERS,
+        SAVE
+    }
+
+    /**
+     * Check if profiling is running.
+     *
+     * @return true if so.
+     */
+    public static boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Start or stop profiling, the collected timings are kept.
+     *
+     * @param enable true to start.
+     */
+    public static void setEnabled(final boolean enable)
+    {
+        enabled = enable;
+    }
+
+    /**
+     * Forget all collected timings.
+     */
+    public static void reset()
+    {
+        profiles.clear();
+    }
+
+    /**
+     * Start measuring.
+     *
+     * @return the current {@link System#nanoTime()}, or 0 if profiling is off.
+     */
+    public static long start()
+    {
+        return enabled ? System.nanoTime() : 0L;
+    }
+
+    /**
+     * Record the time since a start.
+     *
+     * @param colonyId the id of the colony the time was spent for.
+     * @param section  the part of the processing.
+     * @param key      what the time was spent on, a class is shown by its simple name.
+     * @param start    the value returned by {@link #start()}, nothing is recorded if it is 0.
+     */
+    public static void record(final int colonyId, @NotNull final Section section, @NotNull final Object key, final long start)
+    {
+        if (start == 0L)
+        {
+            return;
+        }
+
+        final long nanos = System.nanoTime() - start;
+        profiles.computeIfAbsent(colonyId, id -> createProfile())
+          .get(section)
+          .computeIfAbsent(key, k -> new Timer())
+          .record(nanos);
+    }
+
+    /**
+     * Create the empty profile of a colony, the section maps are never replaced afterwards.
+     *
+     * @return the profile.
+     */
+    @NotNull
+    private static Map<Section, Map<Object, Timer>> createProfile()
+    {
+        @NotNull final Map<Section, Map<Object, Timer>> profile = new EnumMap<>(Section.class);
+        for (@NotNull final Section section : Section.values())
+        {
+            profile.put(section, new ConcurrentHashMap<>());
+        }
+        return profile;
+    }
+
+    /**
+     * Get the ids of the colonies with timings.
+     *
+     * @return the sorted ids.
+     */
+    @NotNull
+    public static List<Integer> getColonyIds()
+    {
+        @NotNull final List<Integer> ids = new ArrayList<>(profiles.keySet());
+        Collections.sort(ids);
+        return ids;
+    }
+
+    /**
+     * Get the timers of a colony which took the most time in total.
+     *
+     * @param colonyId the id of the colony.
+     * @param count    the maximum number of timers.
+     * @return the timers, most expensive first.
+     */
+    @NotNull
+    public static List<Entry> getTop(final int colonyId, final int count)
+    {
+        @NotNull final List<Entry> entries = getEntries(colonyId);
+        entries.sort(Comparator.comparingLong((Entry entry) -> entry.getTimer().getTotalNanos()).reversed());
+        return entries.size() > count ? entries.subList(0, count) : entries;
+    }
+
+    /**
+     * Get all timers of a colony.
+     *
+     * @param colonyId the id of the colony.
+     * @return the timers.
+     */
+    @NotNull
+    private static List<Entry> getEntries(final int colonyId)
+    {
+        @NotNull final List<Entry> entries = new ArrayList<>();
+        final Map<Section, Map<Object, Timer>> profile = profiles.get(colonyId);
+        if (profile != null)
+        {
+            for (@NotNull final Map.Entry<Section, Map<Object, Timer>> section : profile.entrySet())
+            {
+                for (@NotNull final Map.Entry<Object, Timer> timer : section.getValue().entrySet())
+                {
+                    entries.add(new Entry(section.getKey(), getName(timer.getKey()), timer.getValue()));
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Get the name of a timer key.
+     *
+     * @param key the key.
+     * @return the simple name of a class, else the string of the key.
+     */
+    @NotNull
+    private static String getName(@NotNull final Object key)
+    {
+        return key instanceof Class ? ((Class<?>) key).getSimpleName() : key.toString();
+    }
+
+    /**
+     * Write all timings to a CSV file.
+     *
+     * @param file the file.
+     * @throws IOException if the file can't be written.
+     */
+    public static void writeCsv(@NotNull final File file) throws IOException
+    {
+        final File parent = file.getParentFile();
+        if (parent != null && !parent.exists() && !parent.mkdirs())
+        {
+            throw new IOException("Couldn't create the directory " + parent);
+        }
+
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)))
+        {
+            writer.write("colony,section,name,calls,totalNanos,recentAverageNanos,recentMaxNanos\n");
+            for (final int colonyId : getColonyIds())
+            {
+                for (@NotNull final Entry entry : getEntries(colonyId))
+                {
+                    final Timer timer = entry.getTimer();
+                    writer.write(String.format("%d,%s,\"%s\",%d,%d,%d,%d%n",
+                      colonyId, entry.getSection(), entry.getName().replace("\"", "\"\""),
+                      timer.getCount(), timer.getTotalNanos(), timer.getRecentAverageNanos(), timer.getRecentMaxNanos()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Format a duration for chat.
+     *
+     * @param nanos the duration in nanoseconds.
+     * @return the duration in microseconds.
+     */
+    @NotNull
+    public static String formatMicros(final long nanos)
+    {
+        return (nanos / NANOS_PER_MICRO) + "µs";
+    }
+
+    /**
+     * A named timer of a section.
+     */
+    public static final class Entry
+    {
+        private final Section section;
+        private final String  name;
+        private final Timer   timer;
+
+        /**
+         * Create an entry.
+         *
+         * @param section the section.
+         * @param name    the name of the timer.
+         * @param timer   the timer.
+         */
+        private Entry(@NotNull final Section section, @NotNull final String name, @NotNull final Timer timer)
+        {
+            this.section = section;
+            this.name = name;
+            this.timer = timer;
+        }
+
+        /**
+         * Getter of the section.
+         *
+         * @return the section.
+         */
+        @NotNull
+        public Section getSection()
+        {
+            return section;
+        }
+
+        /**
+         * Getter of the name.
+         *
+         * @return the name.
+         */
+        @NotNull
+        public String getName()
+        {
+            return name;
+        }
+
+        /**
+         * Getter of the timer.
+         *
+         * @return the timer.
+         */
+        @NotNull
+        public Timer getTimer()
+        {
+            return timer;
+        }
+    }
+
+    /**
+     * Counts calls and their time, and keeps the most recent durations in a ring buffer.
+     */
+    public static final class Timer
+    {
+        private final long[] samples = new long[RING_SIZE];
+        private int  next;
+        private int  sampleCount;
+        private long count;
+        private long totalNanos;
+
+        /**
+         * Record a call.
+         *
+         * @param nanos the duration.
+         */
+        private synchronized void record(final long nanos)
+        {
+            samples[next] = nanos;
+            next = (next + 1) % RING_SIZE;
+            sampleCount = Math.min(sampleCount + 1, RING_SIZE);
+            count++;
+            totalNanos += nanos;
+        }
+
+        /**
+         * Amount of recorded calls.
+         *
+         * @return the amount.
+         */
+        public synchronized long getCount()
+        {
+            return count;
+        }
+
+        /**
+         * Total time of all calls.
+         *
+         * @return the time in nanoseconds.
+         */
+        public synchronized long getTotalNanos()
+        {
+            return totalNanos;
+        }
+
+        /**
+         * Average time of the recent calls.
+         *
+         * @return the time in nanoseconds.
+         */
+        public synchronized long getRecentAverageNanos()
+        {
+            if (sampleCount == 0)
+            {
+                return 0;
+            }
+
+            long sum = 0;
+            for (int i = 0; i < sampleCount; i++)
+            {
+                sum += samples[i];
+            }
+            return sum / sampleCount;
+        }
+
+        /**
+         * Longest time of the recent calls.
+         *
+         * @return the time in nanoseconds.
+         */
+        public synchronized long getRecentMaxNanos()
+        {
+            long max = 0;
+            for (int i = 0; i < sampleCount; i++)
+            {
+                max = Math.max(max, samples[i]);
+            }
+            return max;
+        }
+    }
+}
@@ -140,6 +140,11 @@ public class InventoryUtils
      */
     public static int findFirstSlotInInventoryWith(@NotNull final IInventory inventory, final Item targetItem, int itemDamage)
     {
+        if (inventory instanceof InventoryCitizen)
+        {
+            return ((InventoryCitizen) inventory).findFirstSlot(targetItem, itemDamage);
+        }
+
         for (int slot = 0; slot < inventory.getSizeInventory(); slot++)
         {
             if (compareItems(inventory.getStackInSlot(slot), targetItem, itemDamage))
@@ -175,6 +180,11 @@ public class InventoryUtils
      */
     public static int getItemCountInInventory(@NotNull final IInventory inventory, final Item targetitem, int itemDamage)
     {
+        if (inventory instanceof InventoryCitizen)
+        {
+            return ((InventoryCitizen) inventory).getItemCount(targetitem, itemDamage);
+        }
+
         int count = 0;
         for (@NotNull final ItemStack is : filterInventory(inventory, targetitem, itemDamage))
         {
@@ -234,6 +244,11 @@ public class InventoryUtils
      */
     public static int getOpenSlot(@NotNull final IInventory inventory)
     {
+        if (inventory instanceof InventoryCitizen)
+        {
+            return ((InventoryCitizen) inventory).getFirstEmptySlot();
+        }
+
         for (int slot = 0; slot < inventory.getSizeInventory(); slot++)
         {
             if (inventory.getStackInSlot(slot) == null)
@@ -457,6 +472,11 @@ public class InventoryUtils
      */
     public static int getFirstSlotContainingTool(@NotNull final IInventory inventory, @NotNull final String tool)
     {
+        if (inventory instanceof InventoryCitizen)
+        {
+            return ((InventoryCitizen) inventory).getFirstSlotContainingTool(tool);
+        }
+
         for (int i = 0; i < inventory.getSizeInventory(); i++)
         {
             final ItemStack item = inventory.getStackInSlot(i);
@@ -648,17 +668,12 @@ public class InventoryUtils
      */
     public static boolean hasToolLevel(final String tool, @NotNull final InventoryCitizen inventory, final int hutLevel)
     {
-        for (int i = 0; i < inventory.getSizeInventory(); i++)
+        //Only the slots holding this type of tool can match
+        return inventory.getSlotsContainingTool(tool).anyMatch(slot ->
         {
-            final ItemStack item = inventory.getStackInSlot(i);
-            final int level = Utils.getMiningLevel(item, tool);
-
-            if (Utils.isTool(item, tool) && verifyToolLevel(item, level, hutLevel))
-            {
-                return true;
-            }
-        }
-        return false;
+            final ItemStack item = inventory.getStackInSlot(slot);
+            return Utils.isTool(item, tool) && verifyToolLevel(item, Utils.getMiningLevel(item, tool), hutLevel);
+        });
     }
 
     /**
@@ -687,6 +702,17 @@ public class InventoryUtils
         return false;
     }
 
+    /**
+     * Get the highest mining level a worker of a hut level may use.
+     *
+     * @param hutLevel the worker's hut level
+     * @return the level, {@link Integer#MAX_VALUE} if any level may be used
+     */
+    public static int getMaxToolLevel(final int hutLevel)
+    {
+        return hutLevel > FREE_TOOL_CHOICE_LEVEL ? Integer.MAX_VALUE : hutLevel;
+    }
+
     /**
      * Assigns a string containing the grade of the toolGrade.
      *
@@ -279,7 +279,18 @@ public final class StructureWrapper
      */
     public boolean doesStructureBlockEqualWorldBlock()
     {
-        final IBlockState structureBlockState = structure.getBlockState(this.getLocalPosition());
+        return doesStructureBlockEqualWorldBlock(this.getLocalPosition());
+    }
+
+    /**
+     * Checks if the block in the world is the same as what is in the structure at a position.
+     *
+     * @param localPos the position in the structure.
+     * @return true if the structure block equals the world block.
+     */
+    public boolean doesStructureBlockEqualWorldBlock(@NotNull final BlockPos localPos)
+    {
+        final IBlockState structureBlockState = structure.getBlockState(localPos);
         final Block structureBlock = structureBlockState.getBlock();
 
         //All worldBlocks are equal the substitution block
@@ -288,7 +299,7 @@ public final class StructureWrapper
             return true;
         }
 
-        final BlockPos worldPos = this.getBlockPosition();
+        final BlockPos worldPos = localPos.add(getOffsetPosition());
 
         final IBlockState worldBlockState = world.getBlockState(worldPos);
 
@@ -303,7 +314,7 @@ public final class StructureWrapper
             return true;
         }
 
-        final Template.EntityInfo entityInfo = structure.getEntityinfo(this.getLocalPosition());
+        final Template.EntityInfo entityInfo = structure.getEntityinfo(localPos);
         if(entityInfo != null)
         {
             return false;
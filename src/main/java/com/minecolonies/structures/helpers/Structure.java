@@ -1,7 +1,5 @@
 package com.minecolonies.structures.helpers;
 
-import com.minecolonies.coremod.lib.Constants;
-import com.minecolonies.coremod.util.Log;
 import com.minecolonies.structures.fake.FakeEntity;
 import com.minecolonies.structures.fake.FakeWorld;
 import com.minecolonies.structures.lib.ModelHolder;
@@ -16,12 +14,11 @@ import net.minecraft.client.renderer.block.model.BakedQuad;
 import net.minecraft.client.renderer.block.model.IBakedModel;
 import net.minecraft.client.renderer.texture.TextureMap;
 import net.minecraft.client.renderer.tileentity.TileEntityRendererDispatcher;
+import net.minecraft.client.renderer.vertex.VertexFormat;
 import net.minecraft.entity.Entity;
 import net.minecraft.entity.EntityList;
 import net.minecraft.entity.player.EntityPlayer;
-import net.minecraft.nbt.CompressedStreamTools;
 import net.minecraft.nbt.NBTTagCompound;
-import net.minecraft.server.MinecraftServer;
 import net.minecraft.tileentity.TileEntity;
 import net.minecraft.util.*;
 import net.minecraft.util.math.BlockPos;
@@ -32,13 +29,11 @@ import net.minecraft.world.gen.structure.template.Template;
 import net.minecraftforge.client.ForgeHooksClient;
 import net.minecraftforge.client.MinecraftForgeClient;
 import net.minecraftforge.client.model.pipeline.LightUtil;
-import net.minecraftforge.fml.common.FMLCommonHandler;
-import org.apache.commons.io.IOUtils;
 import org.jetbrains.annotations.NotNull;
 import org.lwjgl.opengl.GL11;
 
 import javax.annotation.Nullable;
-import java.io.*;
+import java.util.ArrayList;
 import java.util.List;
 
 /**
@@ -73,6 +68,37 @@ public class Structure
     private Minecraft         mc;
     private PlacementSettings settings;
 
+    /**
+     * The models of the ghost preview, positioned relative to the structure.
+     * Built for {@link #ghostRotation} and {@link #ghostMirror}, null until the first render.
+     */
+    @Nullable
+    private List<ModelHolder> ghostModels;
+
+    /**
+     * The entities of the ghost preview.
+     */
+    @Nullable
+    private Entity[] ghostEntities;
+
+    /**
+     * The positions of the ghost entities relative to the structure.
+     */
+    @Nullable
+    private Vec3d[] ghostEntityPositions;
+
+    /**
+     * The rotation the ghost preview was built for.
+     */
+    @Nullable
+    private Rotation ghostRotation;
+
+    /**
+     * The mirror the ghost preview was built for.
+     */
+    @Nullable
+    private Mirror ghostMirror;
+
     /**
      * Constuctor of Structure, tries to create a new structure.
      *
@@ -82,64 +108,22 @@ public class Structure
      */
     public Structure(@Nullable final World world, final String structureName, final PlacementSettings settings)
     {
-        InputStream inputstream = MinecraftServer.class.getResourceAsStream("/assets/" + Constants.MOD_ID + "/schematics/" + structureName + ".nbt");
-
         if (world == null || world.isRemote)
         {
             this.settings = settings;
             this.mc = Minecraft.getMinecraft();
         }
 
-        //Might be at a different location!
-        if (inputstream == null)
-        {
-            try
-            {
-                final File decorationFolder;
-
-                if (FMLCommonHandler.instance().getMinecraftServerInstance() == null)
-                {
-                    decorationFolder = new File(Minecraft.getMinecraft().mcDataDir, "minecolonies/");
-                }
-                else
-                {
-                    decorationFolder = new File(FMLCommonHandler.instance().getMinecraftServerInstance().getDataDirectory(), "minecolonies/");
-                }
-                inputstream = new FileInputStream(decorationFolder.getPath() + "/" + structureName + ".nbt");
-            }
-            catch (final FileNotFoundException e)
-            {
-                Log.getLogger().warn("Couldn't find any structure with this name anywhere", e);
-            }
-        }
-
-        if (inputstream == null)
-        {
-            return;
-        }
-
-        try
-        {
-            this.template = readTemplateFromStream(inputstream);
-        }
-        catch (final IOException e)
-        {
-            Log.getLogger().warn(String.format("Failed to load template %s", structureName), e);
-        }
-        finally
-        {
-            IOUtils.closeQuietly(inputstream);
-        }
+        this.template = StructureCache.getTemplate(structureName);
     }
 
     /**
-     * Reads a template from an inputstream.
+     * Get the template, shared with the other structures of the same name.
+     *
+     * @return the template, must not be changed.
      */
-    private static Template readTemplateFromStream(final InputStream stream) throws IOException
+    Template getTemplate()
     {
-        final NBTTagCompound nbttagcompound = CompressedStreamTools.readCompressed(stream);
-        final Template template = new Template();
-        template.read(nbttagcompound);
         return template;
     }
 
@@ -200,9 +184,15 @@ public class Structure
         return this.template.transformedSize(rotation);
     }
 
+    /**
+     * Set the placement settings, the ghost preview is built again for them.
+     *
+     * @param settings the new settings.
+     */
     public void setPlacementSettings(final PlacementSettings settings)
     {
         this.settings = settings;
+        this.ghostModels = null;
     }
 
     /**
@@ -214,35 +204,81 @@ public class Structure
      * @param partialTicks the partial ticks.
      */
     public void renderStructure(@NotNull final BlockPos startingPos, @NotNull final World clientWorld, @NotNull final EntityPlayer player, final float partialTicks)
+    {
+        if (ghostModels == null || ghostRotation != settings.getRotation() || ghostMirror != settings.getMirror())
+        {
+            buildGhost(startingPos, clientWorld);
+        }
+
+        for (final ModelHolder holder : ghostModels)
+        {
+            this.renderGhost(clientWorld, holder, startingPos, player, partialTicks);
+        }
+
+        final Vec3d start = new Vec3d(startingPos);
+        for (int i = 0; i < ghostEntities.length; i++)
+        {
+            final Entity entity = ghostEntities[i];
+            if (entity != null)
+            {
+                final Vec3d entityVec = ghostEntityPositions[i].add(start);
+                entity.setLocationAndAngles(entityVec.xCoord, entityVec.yCoord, entityVec.zCoord, entity.rotationYaw, entity.rotationPitch);
+                Minecraft.getMinecraft().getRenderManager().renderEntityStatic(entity, 0.0F, true);
+            }
+        }
+    }
+
+    /**
+     * Build the models, tile entities and entities of the ghost preview in the current settings.
+     * They are positioned relative to the structure, so rendering only translates them.
+     *
+     * @param startingPos the position the structure is previewed at, used for the extended block states.
+     * @param clientWorld the world of the client.
+     */
+    private void buildGhost(@NotNull final BlockPos startingPos, @NotNull final World clientWorld)
     {
         final Template.BlockInfo[] blockList = this.getBlockInfoWithSettings(this.settings);
-        final Entity[] entityList = this.getEntityInfoWithSettings(clientWorld, startingPos, this.settings);
+        final List<ModelHolder> models = new ArrayList<>(blockList.length);
 
         for (final Template.BlockInfo aBlockList : blockList)
         {
             final Block block = aBlockList.blockState.getBlock();
             final IBlockState iblockstate = aBlockList.blockState;
-            final BlockPos blockpos = aBlockList.pos.add(startingPos);
-            final IBlockState iBlockExtendedState = block.getExtendedState(iblockstate, clientWorld, blockpos);
+            final IBlockState iBlockExtendedState = block.getExtendedState(iblockstate, clientWorld, aBlockList.pos.add(startingPos));
             final IBakedModel ibakedmodel = Minecraft.getMinecraft().getBlockRendererDispatcher().getModelForState(iblockstate);
             TileEntity tileentity = null;
             if (block.hasTileEntity(iblockstate) && aBlockList.tileentityData != null)
             {
                 tileentity = block.createTileEntity(clientWorld, iblockstate);
+            }
+
+            final ModelHolder holder = new ModelHolder(aBlockList.pos, iblockstate, iBlockExtendedState, tileentity, ibakedmodel);
+            if (tileentity != null)
+            {
                 tileentity.readFromNBT(aBlockList.tileentityData);
+                final FakeWorld fakeWorld = new FakeWorld(iblockstate, clientWorld.getSaveHandler(), clientWorld.getWorldInfo(), clientWorld.provider, clientWorld.theProfiler, true);
+                tileentity.setWorldObj(fakeWorld);
+                holder.setViewer(new FakeEntity(fakeWorld));
             }
-            final ModelHolder models = new ModelHolder(blockpos, iblockstate, iBlockExtendedState, tileentity, ibakedmodel);
-            getQuads(models, models.quads);
-            this.renderGhost(clientWorld, models, player, partialTicks);
+            getQuads(holder);
+            models.add(holder);
         }
 
-        for (final Entity anEntityList : entityList)
+        final Entity[] entityList = this.getEntityInfoWithSettings(clientWorld, BlockPos.ORIGIN, this.settings);
+        final Vec3d[] entityPositions = new Vec3d[entityList.length];
+        for (int i = 0; i < entityList.length; i++)
         {
-            if(anEntityList != null)
+            if (entityList[i] != null)
             {
-                Minecraft.getMinecraft().getRenderManager().renderEntityStatic(anEntityList, 0.0F, true);
+                entityPositions[i] = new Vec3d(entityList[i].posX, entityList[i].posY, entityList[i].posZ);
             }
         }
+
+        this.ghostModels = models;
+        this.ghostEntities = entityList;
+        this.ghostEntityPositions = entityPositions;
+        this.ghostRotation = settings.getRotation();
+        this.ghostMirror = settings.getMirror();
     }
 
     /**
@@ -354,7 +390,12 @@ public class Structure
         return entityList;
     }
 
-    private static void getQuads(final ModelHolder holder, final List<BakedQuad> quads)
+    /**
+     * Collect the quads of a model once, by the layer they are rendered in.
+     *
+     * @param holder the model.
+     */
+    private static void getQuads(final ModelHolder holder)
     {
         if (holder.actualState.getRenderType() == EnumBlockRenderType.MODEL)
         {
@@ -365,6 +406,7 @@ public class Structure
                 if (holder.actualState.getBlock().canRenderInLayer(holder.actualState, layer))
                 {
                     ForgeHooksClient.setRenderLayer(layer);
+                    final List<BakedQuad> quads = new ArrayList<>();
 
                     for (final EnumFacing facing : EnumFacing.values())
                     {
@@ -372,6 +414,8 @@ public class Structure
                     }
 
                     quads.addAll(holder.model.getQuads(holder.extendedState, null, 0));
+                    holder.layerQuads.put(layer, quads);
+                    holder.quads.addAll(quads);
                 }
             }
 
@@ -379,26 +423,21 @@ public class Structure
         }
     }
 
-    private void renderGhost(final World world, final ModelHolder holder, final EntityPlayer player, final float partialTicks)
+    private void renderGhost(final World world, final ModelHolder holder, final BlockPos startingPos, final EntityPlayer player, final float partialTicks)
     {
-        final boolean existingModel = !this.mc.theWorld.isAirBlock(holder.pos);
+        final BlockPos pos = holder.pos.add(startingPos);
+        final boolean existingModel = !this.mc.theWorld.isAirBlock(pos);
 
-        final IBlockState actualState = holder.actualState;
-        final Block block = actualState.getBlock();
-
-        if (actualState.getRenderType() == EnumBlockRenderType.MODEL)
+        if (!holder.layerQuads.isEmpty())
         {
             final BlockRenderLayer originalLayer = MinecraftForgeClient.getRenderLayer();
 
-            for (final BlockRenderLayer layer : BlockRenderLayer.values())
+            for (final BlockRenderLayer layer : holder.layerQuads.keySet())
             {
-                if (block.canRenderInLayer(actualState, layer))
-                {
-                    this.mc.getTextureManager().bindTexture(TextureMap.LOCATION_BLOCKS_TEXTURE);
-                    ForgeHooksClient.setRenderLayer(layer);
-                    this.renderGhostBlock(world, holder, player, layer, existingModel, partialTicks);
-                    holder.setRendered(true);
-                }
+                this.mc.getTextureManager().bindTexture(TextureMap.LOCATION_BLOCKS_TEXTURE);
+                ForgeHooksClient.setRenderLayer(layer);
+                this.renderGhostBlock(world, holder, pos, player, layer, existingModel, partialTicks);
+                holder.setRendered(true);
             }
 
             ForgeHooksClient.setRenderLayer(originalLayer);
@@ -407,9 +446,8 @@ public class Structure
         if (holder.te != null && !holder.isRendered())
         {
             final TileEntity te = holder.te;
-            te.setPos(holder.pos);
-            final FakeWorld fakeWorld = new FakeWorld(holder.actualState, world.getSaveHandler(), world.getWorldInfo(), world.provider, world.theProfiler, true);
-            te.setWorldObj(fakeWorld);
+            te.setPos(pos);
+            final World fakeWorld = te.getWorld();
             final int pass = 0;
 
             if (te.shouldRenderInPass(pass))
@@ -418,7 +456,7 @@ public class Structure
                 terd.func_190056_a(fakeWorld,
                         Minecraft.getMinecraft().renderEngine,
                         Minecraft.getMinecraft().fontRendererObj,
-                        new FakeEntity(fakeWorld),
+                        holder.getViewer(),
                         null,
                         0.0F);
                 GL11.glPushMatrix();
@@ -476,6 +514,7 @@ public class Structure
     private void renderGhostBlock(
             final World world,
             final ModelHolder holder,
+            final BlockPos pos,
             final EntityPlayer player,
             final BlockRenderLayer layer,
             final boolean existingModel,
@@ -484,7 +523,6 @@ public class Structure
         final double dx = player.lastTickPosX + (player.posX - player.lastTickPosX) * partialTicks;
         final double dy = player.lastTickPosY + (player.posY - player.lastTickPosY) * partialTicks;
         final double dz = player.lastTickPosZ + (player.posZ - player.lastTickPosZ) * partialTicks;
-        final BlockPos pos = holder.pos;
 
         GlStateManager.pushMatrix();
         GlStateManager.translate(pos.getX() - dx, pos.getY() - dy, pos.getZ() - dz);
@@ -510,11 +548,11 @@ public class Structure
 
         GlStateManager.blendFunc(GL11.GL_SRC_ALPHA, GL11.GL_ONE_MINUS_SRC_ALPHA);
         GlStateManager.colorMask(false, false, false, false);
-        this.renderModel(world, holder, pos, alpha);
+        this.renderQuads(world, holder.actualState, pos, holder.layerQuads.get(layer), alpha);
 
         GlStateManager.colorMask(true, true, true, true);
         GlStateManager.depthFunc(GL11.GL_LEQUAL);
-        this.renderModel(world, holder, pos, alpha);
+        this.renderQuads(world, holder.actualState, pos, holder.layerQuads.get(layer), alpha);
 
         GlStateManager.disableBlend();
 
@@ -526,29 +564,31 @@ public class Structure
         GlStateManager.popMatrix();
     }
 
-    private void renderModel(final World world, final ModelHolder holder, final BlockPos pos, final int alpha)
-    {
-        for (final EnumFacing facing : EnumFacing.values())
-        {
-            this.renderQuads(world, holder.actualState, pos, holder.model.getQuads(holder.extendedState, facing, 0), alpha);
-        }
-
-        this.renderQuads(world, holder.actualState, pos, holder.model.getQuads(holder.extendedState, null, 0), alpha);
-    }
-
     private void renderQuads(final World world, final IBlockState actualState, final BlockPos pos, final List<BakedQuad> quads, final int alpha)
     {
         final Tessellator tessellator = Tessellator.getInstance();
         final VertexBuffer buffer = tessellator.getBuffer();
+        VertexFormat format = null;
 
         for (final BakedQuad quad : quads)
         {
-            buffer.begin(GL11.GL_QUADS, quad.getFormat());
+            if (quad.getFormat() != format)
+            {
+                if (format != null)
+                {
+                    tessellator.draw();
+                }
+                format = quad.getFormat();
+                buffer.begin(GL11.GL_QUADS, format);
+            }
 
             final int color = quad.hasTintIndex() ? this.getTint(world, actualState, pos, alpha, quad.getTintIndex()) : (alpha | 0xffffff);
 
             LightUtil.renderQuadColor(buffer, quad, color);
+        }
 
+        if (format != null)
+        {
             tessellator.draw();
         }
     }
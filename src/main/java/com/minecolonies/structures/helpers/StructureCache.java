@@ -0,0 +1,279 @@
+package com.minecolonies.structures.helpers;
+
+import com.minecolonies.coremod.lib.Constants;
+import com.minecolonies.coremod.util.Log;
+import net.minecraft.client.Minecraft;
+import net.minecraft.nbt.CompressedStreamTools;
+import net.minecraft.nbt.NBTTagCompound;
+import net.minecraft.server.MinecraftServer;
+import net.minecraft.world.gen.structure.template.Template;
+import net.minecraftforge.fml.common.FMLCommonHandler;
+import org.apache.commons.io.IOUtils;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.*;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Keeps the decoded templates and their rotated block grids, shared by the server and the client.
+ * <p>
+ * Templates and grids are read only once they are cached. The least recently used structures are evicted
+ * when the cached blocks exceed {@link #MAX_WEIGHT}. Templates from the decorations folder are loaded again
+ * when their file changed.
+ */
+public final class StructureCache
+{
+    /**
+     * Maximum number of template blocks and grid cells kept in the cache.
+     */
+    private static final long MAX_WEIGHT = 2_000_000L;
+
+    /**
+     * Number of grids of a structure: the four rotations and the unrotated grid.
+     */
+    static final int GRID_COUNT = 5;
+
+    /**
+     * The cached structures by name, in order of use.
+     */
+    @NotNull
+    private static final Map<String, Entry> ENTRIES = new LinkedHashMap<>(16, 0.75F, true);
+
+    /**
+     * The weight of all cached structures.
+     */
+    private static long weight = 0;
+
+    private StructureCache()
+    {
+        //Hides default constructor.
+    }
+
+    /**
+     * Get the template of a structure, loading it if it is not cached.
+     *
+     * @param name the name of the structure.
+     * @return the template or null if there is none.
+     */
+    @Nullable
+    public static synchronized Template getTemplate(@NotNull final String name)
+    {
+        @Nullable final Entry cached = ENTRIES.get(name);
+        if (cached != null)
+        {
+            if (cached.isCurrent())
+            {
+                return cached.template;
+            }
+            remove(name);
+        }
+
+        @Nullable final Entry entry = load(name);
+        if (entry == null)
+        {
+            return null;
+        }
+
+        ENTRIES.put(name, entry);
+        weight += entry.weight;
+        evict();
+        return entry.template;
+    }
+
+    /**
+     * Get a block grid of a structure, computing it if it is not cached.
+     *
+     * @param name     the name of the structure.
+     * @param template the template the grid is computed from.
+     * @param index    the index of the grid, the rotation or the unrotated grid.
+     * @param factory  computes the grid.
+     * @return the grid, must not be changed.
+     */
+    @NotNull
+    static synchronized StructureProxy.Grid getGrid(
+                                                      @NotNull final String name,
+                                                      @NotNull final Template template,
+                                                      final int index,
+                                                      @NotNull final Supplier<StructureProxy.Grid> factory)
+    {
+        @Nullable final Entry entry = ENTRIES.get(name);
+        if (entry == null || entry.template != template)
+        {
+            //The template was evicted or replaced meanwhile, don't cache grids of it.
+            return factory.get();
+        }
+
+        @Nullable StructureProxy.Grid grid = entry.grids[index];
+        if (grid == null)
+        {
+            grid = factory.get();
+            entry.grids[index] = grid;
+            final long gridWeight = (long) grid.getWidth() * grid.getHeight() * grid.getLength();
+            entry.weight += gridWeight;
+            weight += gridWeight;
+            evict();
+        }
+        return grid;
+    }
+
+    /**
+     * Forget all structures.
+     */
+    public static synchronized void clear()
+    {
+        ENTRIES.clear();
+        weight = 0;
+    }
+
+    /**
+     * Remove a structure.
+     *
+     * @param name the name of the structure.
+     */
+    private static void remove(@NotNull final String name)
+    {
+        @Nullable final Entry entry = ENTRIES.remove(name);
+        if (entry != null)
+        {
+            weight -= entry.weight;
+        }
+    }
+
+    /**
+     * Evict the least recently used structures until the weight fits, the most recent one always stays.
+     */
+    private static void evict()
+    {
+        @NotNull final Iterator<Entry> it = ENTRIES.values().iterator();
+        while (weight > MAX_WEIGHT && ENTRIES.size() > 1 && it.hasNext())
+        {
+            weight -= it.next().weight;
+            it.remove();
+        }
+    }
+
+    /**
+     * Load a template from the mod resources, or else from the decorations folder.
+     *
+     * @param name the name of the structure.
+     * @return the loaded structure or null if there is none.
+     */
+    @Nullable
+    private static Entry load(@NotNull final String name)
+    {
+        InputStream inputstream = MinecraftServer.class.getResourceAsStream("/assets/" + Constants.MOD_ID + "/schematics/" + name + ".nbt");
+        @Nullable File file = null;
+
+        //Might be at a different location!
+        if (inputstream == null)
+        {
+            final File decorationFolder;
+            if (FMLCommonHandler.instance().getMinecraftServerInstance() == null)
+            {
+                decorationFolder = new File(Minecraft.getMinecraft().mcDataDir, "minecolonies/");
+            }
+            else
+            {
+                decorationFolder = new File(FMLCommonHandler.instance().getMinecraftServerInstance().getDataDirectory(), "minecolonies/");
+            }
+
+            file = new File(decorationFolder, name + ".nbt");
+            try
+            {
+                inputstream = new FileInputStream(file);
+            }
+            catch (final FileNotFoundException e)
+            {
+                Log.getLogger().warn("Couldn't find any structure with this name anywhere", e);
+                return null;
+            }
+        }
+
+        try
+        {
+            return new Entry(readTemplateFromStream(inputstream), file);
+        }
+        catch (final IOException e)
+        {
+            Log.getLogger().warn(String.format("Failed to load template %s", name), e);
+            return null;
+        }
+        finally
+        {
+            IOUtils.closeQuietly(inputstream);
+        }
+    }
+
+    /**
+     * Reads a template from an inputstream.
+     */
+    private static Template readTemplateFromStream(final InputStream stream) throws IOException
+    {
+        final NBTTagCompound nbttagcompound = CompressedStreamTools.readCompressed(stream);
+        final Template template = new Template();
+        template.read(nbttagcompound);
+        return template;
+    }
+
+    /**
+     * A cached structure.
+     */
+    private static final class Entry
+    {
+        /**
+         * The decoded template.
+         */
+        @NotNull
+        private final Template              template;
+
+        /**
+         * The file of a decoration, or null for a structure of the mod resources.
+         */
+        @Nullable
+        private final File                  file;
+
+        /**
+         * The modification time of the file when it was loaded.
+         */
+        private final long                  lastModified;
+
+        /**
+         * The block grids, by index.
+         */
+        @NotNull
+        private final StructureProxy.Grid[] grids = new StructureProxy.Grid[GRID_COUNT];
+
+        /**
+         * The number of template blocks and grid cells.
+         */
+        private long weight;
+
+        /**
+         * Create an entry.
+         *
+         * @param template the decoded template.
+         * @param file     the file of a decoration or null.
+         */
+        private Entry(@NotNull final Template template, @Nullable final File file)
+        {
+            this.template = template;
+            this.file = file;
+            this.lastModified = file == null ? 0 : file.lastModified();
+            this.weight = template.blocks.size();
+        }
+
+        /**
+         * Check if the template is still the one in its file.
+         *
+         * @return true if it doesn't have to be loaded again.
+         */
+        private boolean isCurrent()
+        {
+            return file == null || (file.exists() && file.lastModified() == lastModified);
+        }
+    }
+}
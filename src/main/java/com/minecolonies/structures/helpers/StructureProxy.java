@@ -12,15 +12,23 @@ import net.minecraft.world.gen.structure.template.Template;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Proxy class translating the structures method to something we can use.
  */
 public class StructureProxy
 {
+    /**
+     * Index of the cached grid of the unrotated structure, the rotations use the indices 0 to 3.
+     */
+    private static final int UNROTATED = StructureCache.GRID_COUNT - 1;
+
     private final Structure structure;
-    private Template.EntityInfo[][][] entities;
+    private final String    name;
+    private final Map<BlockPos, Template.EntityInfo> entities = new HashMap<>();
     private Template.BlockInfo[][][] blocks;
     private int                      width;
     private int                      height;
@@ -34,37 +42,49 @@ public class StructureProxy
     public StructureProxy(final World worldObj, final String name)
     {
         this.structure = new Structure(worldObj, name, new PlacementSettings());
+        this.name = name;
 
         if(structure.isTemplateNull())
         {
             return;
         }
-        final BlockPos size = structure.getSize(Rotation.NONE);
 
-        this.width = size.getX();
-        this.height = size.getY();
-        this.length = size.getZ();
+        final Grid grid = StructureCache.getGrid(name, structure.getTemplate(), UNROTATED, this::createGrid);
+        this.blocks = grid.blocks;
+        this.width = grid.width;
+        this.height = grid.height;
+        this.length = grid.length;
+        this.offset = grid.offset;
 
-        this.blocks = new Template.BlockInfo[width][height][length];
-        this.entities = new Template.EntityInfo[width][height][length];
+        for(final Template.EntityInfo info: structure.getTileEntities())
+        {
+            entities.put(info.blockPos, info);
+        }
+    }
+
+    /**
+     * Sort the blocks of the unrotated structure into a grid.
+     *
+     * @return the grid.
+     */
+    private Grid createGrid()
+    {
+        final BlockPos size = structure.getSize(Rotation.NONE);
+        final Template.BlockInfo[][][] grid = new Template.BlockInfo[size.getX()][size.getY()][size.getZ()];
+        BlockPos hutPos = null;
 
         for (final Template.BlockInfo info : structure.getBlockInfo())
         {
             final BlockPos tempPos = info.pos;
-            blocks[tempPos.getX()][tempPos.getY()][tempPos.getZ()] = info;
-            entities[tempPos.getX()][tempPos.getY()][tempPos.getZ()] = null;
+            grid[tempPos.getX()][tempPos.getY()][tempPos.getZ()] = info;
 
             if (info.blockState.getBlock() instanceof AbstractBlockHut)
             {
-                offset = info.pos;
+                hutPos = info.pos;
             }
         }
 
-        for(final Template.EntityInfo info: structure.getTileEntities())
-        {
-            final BlockPos tempPos = info.blockPos;
-            entities[tempPos.getX()][tempPos.getY()][tempPos.getZ()] = info;
-        }
+        return new Grid(grid, size, hutPos, BlockPos.ORIGIN);
     }
 
     /**
@@ -161,11 +181,7 @@ public class StructureProxy
     @Nullable
     public Template.EntityInfo getEntityinfo(@NotNull final BlockPos pos)
     {
-        if(entities[pos.getX()][pos.getY()].length == 0)
-        {
-            return null;
-        }
-        return entities[pos.getX()][pos.getY()][pos.getZ()];
+        return entities.get(pos);
     }
 
     /**
@@ -224,20 +240,42 @@ public class StructureProxy
         }
         structure.setPlacementSettings(new PlacementSettings().setRotation(rotation));
 
-        final BlockPos size = structure.getSize(rotation);
+        final Grid grid = StructureCache.getGrid(name, structure.getTemplate(), rotation.ordinal(), () -> createRotatedGrid(rotation));
+        this.blocks = grid.blocks;
+        this.width = grid.width;
+        this.height = grid.height;
+        this.length = grid.length;
+        this.offset = grid.offset;
 
-        this.width = size.getX();
-        this.height = size.getY();
-        this.length = size.getZ();
+        final PlacementSettings settings = new PlacementSettings().setRotation(rotation);
+        entities.clear();
+        for(final Template.EntityInfo info: structure.getTileEntities())
+        {
+            final Template.EntityInfo newInfo = structure.transformEntityInfoWithSettings(info, world, rotatePos.subtract(offset).add(grid.min), settings);
+            //289 74 157 - 289.9 76.5, 157.5
+            final BlockPos tempPos = Template.transformedBlockPos(settings, info.blockPos);
+            entities.put(tempPos.add(grid.min), newInfo);
+        }
+    }
 
-        this.blocks = new Template.BlockInfo[width][height][length];
-        this.entities = new Template.EntityInfo[width][height][length];
+    /**
+     * Sort the blocks of the rotated structure into a grid.
+     *
+     * @param rotation the rotation.
+     * @return the grid.
+     */
+    private Grid createRotatedGrid(final Rotation rotation)
+    {
+        final BlockPos size = structure.getSize(rotation);
+        final Template.BlockInfo[][][] grid = new Template.BlockInfo[size.getX()][size.getY()][size.getZ()];
 
         int minX = 0;
         int minY = 0;
         int minZ = 0;
 
-        for (final Template.BlockInfo info : structure.getBlockInfoWithSettings(new PlacementSettings().setRotation(rotation)))
+        final PlacementSettings settings = new PlacementSettings().setRotation(rotation);
+        final Template.BlockInfo[] rotatedBlocks = structure.getBlockInfoWithSettings(settings);
+        for (final Template.BlockInfo info : rotatedBlocks)
         {
             final BlockPos tempPos = info.pos;
             final int x = tempPos.getX();
@@ -262,64 +300,113 @@ public class StructureProxy
         minX = Math.abs(minX);
         minY = Math.abs(minY);
         minZ = Math.abs(minZ);
-        boolean foundHut = false;
-        final PlacementSettings settings = new PlacementSettings().setRotation(rotation);
+        BlockPos hutPos = null;
 
-        for (final Template.BlockInfo info : structure.getBlockInfoWithSettings(settings))
+        for (final Template.BlockInfo info : rotatedBlocks)
         {
             final BlockPos tempPos = info.pos;
             final int x = tempPos.getX() + minX;
             final int y = tempPos.getY() + minY;
             final int z = tempPos.getZ() + minZ;
 
-            this.blocks[x][y][z] = info;
-            this.entities[x][y][z] = null;
+            grid[x][y][z] = info;
 
             if (info.blockState.getBlock() instanceof AbstractBlockHut)
             {
-                foundHut = true;
-                offset = info.pos.add(minX, minY, minZ);
+                hutPos = info.pos.add(minX, minY, minZ);
             }
         }
 
-        updateOffSetIfDecoration(foundHut, size, times, minX, minY, minZ);
+        final BlockPos min = new BlockPos(minX, minY, minZ);
+        return new Grid(grid, size, hutPos == null ? getDecorationOffset(size, rotation.ordinal(), min) : hutPos, min);
+    }
 
-        for(final Template.EntityInfo info: structure.getTileEntities())
+    /**
+     * Computes the offset of a decoration, the center of its bottom.
+     *
+     * @param size     the rotated size.
+     * @param rotation the number of rotations.
+     * @param min      the shift of the rotated blocks into the grid.
+     * @return the offset.
+     */
+    private static BlockPos getDecorationOffset(final BlockPos size, final int rotation, final BlockPos min)
+    {
+        BlockPos tempSize = size;
+        if (rotation == 1)
         {
-            final Template.EntityInfo newInfo = structure.transformEntityInfoWithSettings(info, world, rotatePos.subtract(offset).add(new BlockPos(minX, minY, minZ)), settings);
-            //289 74 157 - 289.9 76.5, 157.5
-            final BlockPos tempPos = Template.transformedBlockPos(settings, info.blockPos);
-            final int x = tempPos.getX() + minX;
-            final int y = tempPos.getY() + minY;
-            final int z = tempPos.getZ() + minZ;
-            this.entities[x][y][z] = newInfo;
+            tempSize = new BlockPos(-size.getX(), size.getY(), size.getZ());
+        }
+        if (rotation == 2)
+        {
+            tempSize = new BlockPos(-size.getX(), size.getY(), -size.getZ());
+        }
+        if (rotation == 3)
+        {
+            tempSize = new BlockPos(size.getX(), size.getY(), -size.getZ());
         }
+
+        return new BlockPos(tempSize.getX() / 2, 0, tempSize.getZ() / 2).add(min);
     }
 
     /**
-     * Updates the offset if the structure is a decoration.
-     *
-     * @param foundHut if false update.
+     * The blocks of a structure in one rotation, sorted into a dense grid.
+     * Grids are shared between all proxies of a structure and never changed.
      */
-    private void updateOffSetIfDecoration(final boolean foundHut, final BlockPos size, int rotation, int minX, int minY, int minZ)
+    static final class Grid
     {
-        if (!foundHut)
+        private final Template.BlockInfo[][][] blocks;
+        private final int                      width;
+        private final int                      height;
+        private final int                      length;
+        private final BlockPos                 offset;
+        private final BlockPos                 min;
+
+        /**
+         * Create a grid.
+         *
+         * @param blocks the blocks.
+         * @param size   the size of the grid.
+         * @param offset the position of the hut or the center of a decoration.
+         * @param min    the shift of the rotated blocks into the grid.
+         */
+        private Grid(final Template.BlockInfo[][][] blocks, final BlockPos size, final BlockPos offset, final BlockPos min)
         {
-            BlockPos tempSize = size;
-            if (rotation == 1)
-            {
-                tempSize = new BlockPos(-size.getX(), size.getY(), size.getZ());
-            }
-            if (rotation == 2)
-            {
-                tempSize = new BlockPos(-size.getX(), size.getY(), -size.getZ());
-            }
-            if (rotation == 3)
-            {
-                tempSize = new BlockPos(size.getX(), size.getY(), -size.getZ());
-            }
+            this.blocks = blocks;
+            this.width = size.getX();
+            this.height = size.getY();
+            this.length = size.getZ();
+            this.offset = offset;
+            this.min = min;
+        }
+
+        /**
+         * Getter of the width.
+         *
+         * @return the width.
+         */
+        int getWidth()
+        {
+            return width;
+        }
 
-            offset = new BlockPos(tempSize.getX() / 2, 0, tempSize.getZ() / 2).add(minX, minY, minZ);
+        /**
+         * Getter of the height.
+         *
+         * @return the height.
+         */
+        int getHeight()
+        {
+            return height;
+        }
+
+        /**
+         * Getter of the length.
+         *
+         * @return the length.
+         */
+        int getLength()
+        {
+            return length;
         }
     }
 }
@@ -5,15 +5,19 @@ package com.minecolonies.structures.lib;
  * https://github.com/maruohon/placementpreview
  */
 
+import com.minecolonies.structures.fake.FakeEntity;
 import net.minecraft.block.state.IBlockState;
 import net.minecraft.client.renderer.block.model.BakedQuad;
 import net.minecraft.client.renderer.block.model.IBakedModel;
 import net.minecraft.tileentity.TileEntity;
+import net.minecraft.util.BlockRenderLayer;
 import net.minecraft.util.math.BlockPos;
 
 import javax.annotation.Nullable;
 import java.util.ArrayList;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Model holder of the structures.
@@ -50,6 +54,17 @@ public class ModelHolder
      */
     public final List<BakedQuad> quads;
 
+    /**
+     * Quads to render for the model, by the layer they are rendered in.
+     */
+    public final Map<BlockRenderLayer, List<BakedQuad>> layerQuads;
+
+    /**
+     * The entity the tile entity is rendered for.
+     */
+    @Nullable
+    private FakeEntity viewer;
+
     /**
      * If it is rendered.
      */
@@ -72,6 +87,7 @@ public class ModelHolder
         this.te = te;
         this.model = model;
         this.quads = new ArrayList<>();
+        this.layerQuads = new EnumMap<>(BlockRenderLayer.class);
         this.rendered = false;
     }
 
@@ -92,4 +108,23 @@ public class ModelHolder
     {
         this.rendered = rendered;
     }
+
+    /**
+     * Get the entity the tile entity is rendered for.
+     * @return the entity or null if there is no tile entity.
+     */
+    @Nullable
+    public FakeEntity getViewer()
+    {
+        return viewer;
+    }
+
+    /**
+     * Sets the entity the tile entity is rendered for.
+     * @param viewer the entity.
+     */
+    public void setViewer(@Nullable final FakeEntity viewer)
+    {
+        this.viewer = viewer;
+    }
 }
@@ -0,0 +1,160 @@
+package com.minecolonies.coremod.colony;
+
+import com.minecolonies.coremod.test.AbstractTest;
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class ViewDeltaTest extends AbstractTest
+{
+    /**
+     * Size of the serialized view of one citizen in the test views.
+     */
+    private static final int CITIZEN_SIZE = 24;
+
+    @Override
+    public String getTestName()
+    {
+        return "ViewDeltaTest";
+    }
+
+    /**
+     * Encode the delta between two versions and apply it to the old one again.
+     *
+     * @param oldData the old version.
+     * @param newData the new version.
+     * @return the decoded version.
+     */
+    private static byte[] roundTrip(final byte[] oldData, final byte[] newData)
+    {
+        final ByteBuf buf = Unpooled.buffer();
+        ViewDelta.encode(buf, oldData, newData);
+        final byte[] decoded = ViewDelta.decode(buf, oldData);
+        assertFalse("The delta is read completely", buf.isReadable());
+        return decoded;
+    }
+
+    /**
+     * A serialized view listing citizens, like the worker list of a building view.
+     *
+     * @param citizenIds the ids of the citizens.
+     * @return the view.
+     */
+    private static byte[] viewOfCitizens(final int... citizenIds)
+    {
+        final ByteBuf buf = Unpooled.buffer();
+        buf.writeInt(citizenIds.length);
+        for (final int id : citizenIds)
+        {
+            buf.writeInt(id);
+            for (int i = 0; i < CITIZEN_SIZE - Integer.BYTES; i++)
+            {
+                buf.writeByte(id * 31 + i);
+            }
+        }
+        final byte[] data = new byte[buf.readableBytes()];
+        buf.readBytes(data);
+        return data;
+    }
+
+    @Test
+    public void testUnchangedView()
+    {
+        final byte[] data = viewOfCitizens(1, 2, 3);
+        assertArrayEquals(data, roundTrip(data, data.clone()));
+    }
+
+    @Test
+    public void testChangedBytes()
+    {
+        final byte[] oldData = viewOfCitizens(1, 2, 3);
+        final byte[] newData = oldData.clone();
+        newData[CITIZEN_SIZE + 10]++;
+        newData[newData.length - 1]--;
+        assertArrayEquals(newData, roundTrip(oldData, newData));
+    }
+
+    @Test
+    public void testRemovedCitizenInTheMiddle()
+    {
+        final byte[] oldData = viewOfCitizens(1, 2, 3, 4);
+        final byte[] newData = viewOfCitizens(1, 3, 4);
+        assertArrayEquals(newData, roundTrip(oldData, newData));
+    }
+
+    @Test
+    public void testRemovedLastCitizen()
+    {
+        final byte[] oldData = viewOfCitizens(1, 2, 3);
+        final byte[] newData = viewOfCitizens(1, 2);
+        assertArrayEquals(newData, roundTrip(oldData, newData));
+    }
+
+    @Test
+    public void testRemovedAllCitizens()
+    {
+        final byte[] oldData = viewOfCitizens(1, 2, 3);
+        final byte[] newData = viewOfCitizens();
+        assertArrayEquals(newData, roundTrip(oldData, newData));
+    }
+
+    @Test
+    public void testAddedCitizen()
+    {
+        final byte[] oldData = viewOfCitizens(1, 2);
+        final byte[] newData = viewOfCitizens(1, 2, 5);
+        assertArrayEquals(newData, roundTrip(oldData, newData));
+    }
+
+    @Test
+    public void testRemovedBuildings()
+    {
+        //  The colony views list their buildings the same way, with bigger records
+        final byte[] oldData = viewOfCitizens(10, 20, 30, 40, 50);
+        final byte[] withoutFirst = viewOfCitizens(20, 30, 40, 50);
+        final byte[] withoutTwo = viewOfCitizens(20, 40);
+
+        final byte[] first = roundTrip(oldData, withoutFirst);
+        assertArrayEquals(withoutFirst, first);
+        assertArrayEquals(withoutTwo, roundTrip(first, withoutTwo));
+    }
+
+    @Test
+    public void testEmptyOldView()
+    {
+        final byte[] newData = viewOfCitizens(1, 2);
+        assertArrayEquals(newData, roundTrip(new byte[0], newData));
+    }
+
+    @Test
+    public void testRandomEdits()
+    {
+        byte[] oldData = viewOfCitizens(1, 2, 3, 4, 5, 6, 7, 8);
+        for (int round = 0; round < 200; round++)
+        {
+            final byte[] newData = Arrays.copyOf(oldData, Math.max(0, oldData.length + getRandom().nextInt(65) - 32));
+            for (int i = 0; i < newData.length / 16; i++)
+            {
+                newData[getRandom().nextInt(newData.length)] = (byte) getRandom().nextInt();
+            }
+
+            assertArrayEquals(newData, roundTrip(oldData, newData));
+            oldData = newData;
+        }
+    }
+
+    @Test
+    public void testRevisionUpdate()
+    {
+        final ViewDelta.Revision revision = new ViewDelta.Revision(1, viewOfCitizens(1, 2));
+        final byte[] newData = viewOfCitizens(2);
+        revision.update(2, newData);
+
+        assertEquals(2, revision.getRevision());
+        assertSame(newData, revision.getData());
+    }
+}
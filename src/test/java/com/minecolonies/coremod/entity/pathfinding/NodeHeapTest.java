@@ -0,0 +1,126 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import com.minecolonies.coremod.test.AbstractTest;
+import net.minecraft.util.math.BlockPos;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class NodeHeapTest extends AbstractTest
+{
+    private static final int NODE_COUNT = 1000;
+
+    private NodeHeap heap;
+    private int      added;
+
+    @Override
+    public String getTestName()
+    {
+        return "NodeHeapTest";
+    }
+
+    @Before
+    public void setup()
+    {
+        heap = new NodeHeap(2);
+        added = 0;
+    }
+
+    private Node offer(final double score)
+    {
+        final Node node = new Node(new BlockPos(added, 0, 0), score);
+        node.setCounterAdded(added++);
+        heap.offer(node);
+        return node;
+    }
+
+    private void assertPollsInOrder(final int expectedSize)
+    {
+        assertEquals(expectedSize, heap.size());
+        Node previous = null;
+        for (int i = 0; i < expectedSize; i++)
+        {
+            final Node node = heap.poll();
+            assertNotNull(node);
+            assertEquals(-1, node.getHeapIndex());
+            if (previous != null)
+            {
+                assertTrue("heap order broken at " + i, previous.compareTo(node) <= 0);
+            }
+            previous = node;
+        }
+        assertTrue(heap.isEmpty());
+        assertNull(heap.poll());
+    }
+
+    @Test
+    public void testPollInScoreOrder()
+    {
+        for (int i = 0; i < NODE_COUNT; i++)
+        {
+            offer(getRandom().nextInt(NODE_COUNT));
+        }
+        assertPollsInOrder(NODE_COUNT);
+    }
+
+    @Test
+    public void testDecreaseKeyMovesNodeToTop()
+    {
+        Node last = null;
+        for (int i = 0; i < NODE_COUNT; i++)
+        {
+            last = offer(NODE_COUNT + i);
+        }
+
+        last.setScore(0);
+        heap.decreaseKey(last);
+
+        assertTrue(heap.contains(last));
+        assertSame(last, heap.poll());
+        assertFalse(heap.contains(last));
+        assertPollsInOrder(NODE_COUNT - 1);
+    }
+
+    @Test
+    public void testDecreaseKeyKeepsHeapOrder()
+    {
+        final List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < NODE_COUNT; i++)
+        {
+            nodes.add(offer(NODE_COUNT + getRandom().nextInt(NODE_COUNT)));
+        }
+
+        for (int i = 0; i < NODE_COUNT / 2; i++)
+        {
+            final Node node = nodes.get(getRandom().nextInt(NODE_COUNT));
+            node.setScore(node.getScore() - getRandom().nextInt(NODE_COUNT));
+            heap.decreaseKey(node);
+        }
+
+        assertPollsInOrder(NODE_COUNT);
+    }
+
+    @Test
+    public void testHeapIndexTracksPosition()
+    {
+        final List<Node> nodes = new ArrayList<>();
+        for (int i = 0; i < NODE_COUNT; i++)
+        {
+            nodes.add(offer(getRandom().nextInt(NODE_COUNT)));
+        }
+
+        for (final Node node : nodes)
+        {
+            assertTrue(heap.contains(node));
+        }
+
+        final Node first = heap.poll();
+        assertNotNull(first);
+        assertFalse(heap.contains(first));
+        assertEquals(NODE_COUNT - 1, heap.size());
+    }
+}
@@ -0,0 +1,95 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import com.minecolonies.coremod.test.AbstractTest;
+import net.minecraft.util.math.BlockPos;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class NodeTableTest extends AbstractTest
+{
+    /**
+     * More nodes than the initial slots of the table, so it has to grow several times.
+     */
+    private static final int NODE_COUNT = 20_000;
+
+    private NodeTable table;
+
+    @Override
+    public String getTestName()
+    {
+        return "NodeTableTest";
+    }
+
+    @Before
+    public void setup()
+    {
+        table = new NodeTable();
+    }
+
+    private static Node node(final int key)
+    {
+        return new Node(new BlockPos(key, 0, 0), 0);
+    }
+
+    @Test
+    public void testGetMissingKey()
+    {
+        assertNull(table.get(0));
+        assertNull(table.get(-1));
+        assertEquals(0, table.size());
+    }
+
+    @Test
+    public void testPutReplacesNodeOfKey()
+    {
+        final Node first = node(1);
+        final Node second = node(1);
+        table.put(1, first);
+        table.put(1, second);
+
+        assertSame(second, table.get(1));
+        assertEquals(1, table.size());
+    }
+
+    @Test
+    public void testGrowthKeepsAllNodes()
+    {
+        final Map<Integer, Node> expected = new HashMap<>();
+        for (int i = 0; i < NODE_COUNT; i++)
+        {
+            final int key = getRandom().nextInt();
+            final Node node = node(key);
+            table.put(key, node);
+            expected.put(key, node);
+        }
+
+        assertEquals(expected.size(), table.size());
+        for (final Map.Entry<Integer, Node> entry : expected.entrySet())
+        {
+            assertSame(entry.getValue(), table.get(entry.getKey()));
+        }
+    }
+
+    @Test
+    public void testCollidingKeys()
+    {
+        //  Keys differing only in the high bits or by a power of two land in the same probe runs
+        for (int i = 0; i < NODE_COUNT; i++)
+        {
+            table.put(i << 16, node(i));
+            table.put(i * 1024, node(-i));
+        }
+
+        for (int i = 0; i < NODE_COUNT; i++)
+        {
+            assertNotNull(table.get(i << 16));
+            assertNotNull(table.get(i * 1024));
+            assertNull(table.get((i << 16) + 1));
+        }
+    }
+}
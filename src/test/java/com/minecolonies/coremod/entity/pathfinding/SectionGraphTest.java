@@ -0,0 +1,193 @@
+package com.minecolonies.coremod.entity.pathfinding;
+
+import com.minecolonies.coremod.colony.IColony;
+import com.minecolonies.coremod.test.AbstractTest;
+import net.minecraft.util.math.BlockPos;
+import net.minecraft.world.World;
+import net.minecraft.world.chunk.IChunkProvider;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.*;
+import static org.powermock.api.mockito.PowerMockito.when;
+
+public class SectionGraphTest extends AbstractTest
+{
+    /**
+     * The section layer all test sections are in, blocks 64 to 79.
+     */
+    private static final int SECTION_Y = 4;
+    private static final int BASE_Y    = SECTION_Y << 4;
+
+    @Mock
+    private IColony        colony;
+    @Mock
+    private World          world;
+    @Mock
+    private IChunkProvider chunkProvider;
+
+    private SectionGraph graph;
+
+    @Override
+    public String getTestName()
+    {
+        return "SectionGraphTest";
+    }
+
+    @Before
+    public void setup()
+    {
+        //  Sections which are not added by the test count as not loaded, so the graph never builds one itself.
+        when(colony.getCenter()).thenReturn(new BlockPos(16, BASE_Y, 8));
+        when(world.getChunkProvider()).thenReturn(chunkProvider);
+        graph = new SectionGraph(colony);
+    }
+
+    private static int index(final int x, final int y, final int z)
+    {
+        return (y << 8) | (z << 4) | x;
+    }
+
+    /**
+     * A section with one walkable layer.
+     *
+     * @param y    the height of the layer inside the section.
+     * @param minX the first walkable x inside the section.
+     * @param maxX the last walkable x inside the section.
+     * @return the walkable blocks.
+     */
+    private static BitSet floor(final int y, final int minX, final int maxX)
+    {
+        final BitSet walkable = new BitSet();
+        for (int x = minX; x <= maxX; x++)
+        {
+            for (int z = 0; z < 16; z++)
+            {
+                walkable.set(index(x, y, z));
+            }
+        }
+        return walkable;
+    }
+
+    /**
+     * A section walkable at every height on every second z, its faces have a portal for each walkable row.
+     *
+     * @return the walkable blocks.
+     */
+    private static BitSet comb()
+    {
+        final BitSet walkable = new BitSet();
+        for (int x = 0; x < 16; x++)
+        {
+            for (int y = 0; y < 16; y++)
+            {
+                for (int z = 0; z < 16; z += 2)
+                {
+                    walkable.set(index(x, y, z));
+                }
+            }
+        }
+        return walkable;
+    }
+
+    @Test
+    public void testRouteInsideSectionIsEmpty()
+    {
+        graph.addSection(0, SECTION_Y, 0, floor(0, 0, 15));
+
+        final List<BlockPos> route = graph.findRoute(world, new BlockPos(1, BASE_Y, 1), new BlockPos(14, BASE_Y, 14));
+
+        assertEquals(Collections.emptyList(), route);
+    }
+
+    @Test
+    public void testRouteCrossesPortalBetweenSections()
+    {
+        graph.addSection(0, SECTION_Y, 0, floor(0, 0, 15));
+        graph.addSection(1, SECTION_Y, 0, floor(0, 0, 15));
+
+        final List<BlockPos> route = graph.findRoute(world, new BlockPos(2, BASE_Y, 2), new BlockPos(30, BASE_Y, 2));
+
+        //  The whole face is one run at the same height, so it is merged into one portal in its middle.
+        assertEquals(Arrays.asList(new BlockPos(15, BASE_Y, 7), new BlockPos(16, BASE_Y, 7)), route);
+        assertEquals(1, graph.getRouteCount());
+        assertEquals(0, graph.getFailedRouteCount());
+    }
+
+    @Test
+    public void testPortalStepsUpIntoNeighbour()
+    {
+        graph.addSection(0, SECTION_Y, 0, floor(0, 0, 15));
+        graph.addSection(1, SECTION_Y, 0, floor(1, 0, 15));
+
+        final List<BlockPos> route = graph.findRoute(world, new BlockPos(2, BASE_Y, 2), new BlockPos(30, BASE_Y + 1, 2));
+
+        assertEquals(Arrays.asList(new BlockPos(15, BASE_Y, 7), new BlockPos(16, BASE_Y + 1, 7)), route);
+    }
+
+    @Test
+    public void testRouteCrossesSeveralSections()
+    {
+        graph.addSection(0, SECTION_Y, 0, floor(0, 0, 15));
+        graph.addSection(1, SECTION_Y, 0, floor(0, 0, 15));
+        graph.addSection(2, SECTION_Y, 0, floor(0, 0, 15));
+
+        final List<BlockPos> route = graph.findRoute(world, new BlockPos(2, BASE_Y, 7), new BlockPos(45, BASE_Y, 7));
+
+        assertEquals(Arrays.asList(
+          new BlockPos(15, BASE_Y, 7),
+          new BlockPos(16, BASE_Y, 7),
+          new BlockPos(31, BASE_Y, 7),
+          new BlockPos(32, BASE_Y, 7)), route);
+    }
+
+    @Test
+    public void testNoRouteWithoutPortal()
+    {
+        //  The second section can only be walked on from its middle on, so there is no step across the face.
+        graph.addSection(0, SECTION_Y, 0, floor(0, 0, 15));
+        graph.addSection(1, SECTION_Y, 0, floor(0, 8, 15));
+
+        assertNull(graph.findRoute(world, new BlockPos(2, BASE_Y, 2), new BlockPos(30, BASE_Y, 2)));
+        assertEquals(1, graph.getFailedRouteCount());
+    }
+
+    @Test
+    public void testNoRouteToUnloadedSection()
+    {
+        graph.addSection(0, SECTION_Y, 0, floor(0, 0, 15));
+
+        assertNull(graph.findRoute(world, new BlockPos(2, BASE_Y, 2), new BlockPos(30, BASE_Y, 2)));
+        assertEquals(0, graph.getRouteCount());
+        assertEquals(1, graph.getFailedRouteCount());
+    }
+
+    @Test
+    public void testLinkingIsSpreadOverTicks()
+    {
+        //  Each section has more portals than flood fills are allowed in one tick.
+        graph.addSection(0, SECTION_Y, 0, comb());
+        graph.addSection(1, SECTION_Y, 0, comb());
+
+        List<BlockPos> route = null;
+        long tick = 0;
+        while (route == null && tick < 10)
+        {
+            when(world.getTotalWorldTime()).thenReturn(tick);
+            route = graph.findRoute(world, new BlockPos(2, BASE_Y, 2), new BlockPos(30, BASE_Y, 2));
+            tick++;
+        }
+
+        assertNotNull(route);
+        assertTrue(tick > 1);
+        assertEquals(Arrays.asList(new BlockPos(15, BASE_Y, 2), new BlockPos(16, BASE_Y, 2)), route);
+        assertEquals(1, graph.getRouteCount());
+        assertEquals(0, graph.getFailedRouteCount());
+    }
+}
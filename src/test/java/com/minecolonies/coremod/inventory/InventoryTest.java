@@ -8,6 +8,7 @@ import com.minecolonies.coremod.tileentities.TileEntityColonyBuilding;
 import net.minecraft.inventory.IInventory;
 import net.minecraft.item.Item;
 import net.minecraft.item.ItemStack;
+import net.minecraft.util.math.BlockPos;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -29,7 +30,7 @@ public class InventoryTest extends AbstractTest
     {
         this.materialSystem = new MaterialSystem();
         final TileEntityColonyBuilding colonyBuilding = new TileEntityColonyBuilding();
-        this.materialStore = new MaterialStore(MaterialStore.Type.CHEST, materialSystem);
+        this.materialStore = new MaterialStore(MaterialStore.Type.CHEST, materialSystem, BlockPos.ORIGIN);
         final AbstractBuilding mockBuilding = mock(AbstractBuilding.class);
         when(mockBuilding.getMaterialStore()).thenReturn(this.materialStore);
         colonyBuilding.setBuilding(mockBuilding);